@@ -0,0 +1,285 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Eclipse Foundation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Eclipse Foundation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.swt.graphics;
+
+
+import java.io.*;
+import java.util.*;
+
+import org.eclipse.swt.*;
+import org.eclipse.swt.internal.image.*;
+
+/**
+ * Instances of this class play the frames of an animated image,
+ * such as an animated GIF, from an input stream.
+ * <p>
+ * Unlike <code>ImageLoader</code>, which loads every frame of an
+ * animation before returning them, an <code>ImageAnimation</code>
+ * reads each frame from the stream when it is needed, one frame
+ * ahead of the frame that is returned. The frames are drawn, in
+ * order and according to their disposal method, onto a canvas the
+ * size of the logical screen, so animations of any length are
+ * played in bounded memory.
+ * </p>
+ * <p>
+ * Images in other formats are loaded completely, and their images
+ * are returned as the frames of the animation.
+ * </p>
+ * <p>
+ * The returned <code>ImageData</code> is the canvas itself, which is
+ * updated in place by the next call to <code>next()</code>. Clients
+ * that need to keep a frame must clone it.
+ * </p>
+ *
+ * @see ImageLoader
+ * @see ImageData#disposalMethod
+ * @since 3.127
+ */
+public final class ImageAnimation implements Iterator<ImageData> {
+	ImageLoader loader;
+	Iterator<ImageData> frames;
+	ImageData canvas, next, previous;
+	RuntimeException error;
+	/* The area covered by the previous frame, and what was below it */
+	int previousX, previousY, previousWidth, previousHeight;
+	byte[] savedData, savedAlpha;
+	int[] pixels;
+	byte[] alphas;
+
+/**
+ * Constructs a new animation that reads its frames from the
+ * specified input stream. The header of the image and its first
+ * frame are read before the constructor returns. The stream is
+ * read as frames are requested and is not closed.
+ *
+ * @param stream the input stream to read the frames from
+ *
+ * @exception IllegalArgumentException <ul>
+ *    <li>ERROR_NULL_ARGUMENT - if the stream is null</li>
+ * </ul>
+ * @exception SWTException <ul>
+ *    <li>ERROR_IO - if an IO error occurs while reading from the stream</li>
+ *    <li>ERROR_INVALID_IMAGE - if the image stream contains invalid data</li>
+ *    <li>ERROR_UNSUPPORTED_FORMAT - if the image stream contains an unrecognized format</li>
+ * </ul>
+ */
+public ImageAnimation(InputStream stream) {
+	if (stream == null) SWT.error(SWT.ERROR_NULL_ARGUMENT);
+	loader = new ImageLoader();
+	frames = FileFormat.loadFrames(stream, loader);
+	if (!frames.hasNext()) SWT.error(SWT.ERROR_INVALID_IMAGE);
+	next = frames.next();
+	int width = loader.logicalScreenWidth, height = loader.logicalScreenHeight;
+	if (width <= 0 || height <= 0) {
+		width = next.x + next.width;
+		height = next.y + next.height;
+	}
+	canvas = new ImageData(width, height, 32, new PaletteData(0xFF0000, 0xFF00, 0xFF));
+	canvas.alphaData = new byte[width * height];
+	canvas.type = next.type;
+}
+
+/**
+ * Returns the width of the logical screen on which the frames
+ * are drawn, which is the width of every returned frame.
+ *
+ * @return the width of the animation
+ */
+public int getWidth() {
+	return canvas.width;
+}
+
+/**
+ * Returns the height of the logical screen on which the frames
+ * are drawn, which is the height of every returned frame.
+ *
+ * @return the height of the animation
+ */
+public int getHeight() {
+	return canvas.height;
+}
+
+/**
+ * Returns the number of times to repeat the animation,
+ * where 0 means repeat forever, as read from the stream.
+ *
+ * @return the repeat count of the animation
+ */
+public int getRepeatCount() {
+	return loader.repeatCount;
+}
+
+/**
+ * Returns whether there is another frame to play. This reads
+ * the next frame from the stream if it has not been read yet.
+ *
+ * @return <code>true</code> if there is another frame
+ */
+@Override
+public boolean hasNext() {
+	if (next == null && error == null && frames != null) {
+		try {
+			if (frames.hasNext()) {
+				next = frames.next();
+			} else {
+				frames = null;
+			}
+		} catch (RuntimeException e) {
+			error = e;
+		}
+	}
+	return next != null || error != null;
+}
+
+/**
+ * Draws the next frame onto the canvas and returns the canvas, then
+ * reads the following frame from the stream. The <code>delayTime</code>
+ * of the returned image data is the delay time of the frame.
+ *
+ * @return the canvas showing the next frame
+ *
+ * @exception NoSuchElementException if there are no more frames
+ * @exception SWTException <ul>
+ *    <li>ERROR_IO - if an IO error occurs while reading from the stream</li>
+ *    <li>ERROR_INVALID_IMAGE - if the frame contains invalid data</li>
+ * </ul>
+ */
+@Override
+public ImageData next() {
+	if (!hasNext()) throw new NoSuchElementException();
+	if (error != null) {
+		RuntimeException e = error;
+		error = null;
+		frames = null;
+		throw e;
+	}
+	ImageData frame = next;
+	next = null;
+	dispose();
+	if (frame.disposalMethod == SWT.DM_FILL_PREVIOUS) save(frame);
+	draw(frame);
+	previous = frame;
+	canvas.delayTime = frame.delayTime;
+	hasNext();
+	return canvas;
+}
+
+/*
+ * Apply the disposal method of the previous frame to the canvas.
+ */
+void dispose() {
+	if (previous == null) return;
+	int width = canvas.width, bytesPerLine = canvas.bytesPerLine;
+	switch (previous.disposalMethod) {
+		case SWT.DM_FILL_BACKGROUND:
+			for (int y = previousY; y < previousY + previousHeight; y++) {
+				Arrays.fill(canvas.data, y * bytesPerLine + previousX * 4, y * bytesPerLine + (previousX + previousWidth) * 4, (byte)0);
+				Arrays.fill(canvas.alphaData, y * width + previousX, y * width + previousX + previousWidth, (byte)0);
+			}
+			break;
+		case SWT.DM_FILL_PREVIOUS:
+			for (int y = 0; y < previousHeight; y++) {
+				int offset = (previousY + y) * bytesPerLine + previousX * 4;
+				System.arraycopy(savedData, y * previousWidth * 4, canvas.data, offset, previousWidth * 4);
+				System.arraycopy(savedAlpha, y * previousWidth, canvas.alphaData, (previousY + y) * width + previousX, previousWidth);
+			}
+			break;
+	}
+}
+
+/*
+ * Remember the part of the canvas that the frame is drawn on.
+ */
+void save(ImageData frame) {
+	clip(frame);
+	int size = previousWidth * previousHeight;
+	if (savedAlpha == null || savedAlpha.length < size) {
+		savedData = new byte[size * 4];
+		savedAlpha = new byte[size];
+	}
+	int width = canvas.width, bytesPerLine = canvas.bytesPerLine;
+	for (int y = 0; y < previousHeight; y++) {
+		int offset = (previousY + y) * bytesPerLine + previousX * 4;
+		System.arraycopy(canvas.data, offset, savedData, y * previousWidth * 4, previousWidth * 4);
+		System.arraycopy(canvas.alphaData, (previousY + y) * width + previousX, savedAlpha, y * previousWidth, previousWidth);
+	}
+}
+
+/*
+ * Compute the part of the canvas covered by the frame.
+ */
+void clip(ImageData frame) {
+	previousX = Math.min(Math.max(frame.x, 0), canvas.width);
+	previousY = Math.min(Math.max(frame.y, 0), canvas.height);
+	previousWidth = Math.max(0, Math.min(frame.x + frame.width, canvas.width) - previousX);
+	previousHeight = Math.max(0, Math.min(frame.y + frame.height, canvas.height) - previousY);
+}
+
+static int shift(int value, int shift) {
+	return shift < 0 ? value >>> -shift : value << shift;
+}
+
+/*
+ * Draw the pixels of the frame that are not transparent onto the canvas.
+ */
+void draw(ImageData frame) {
+	clip(frame);
+	if (previousWidth == 0) return;
+	PaletteData palette = frame.palette;
+	int[] colors = null;
+	if (!palette.isDirect) {
+		RGB[] rgbs = palette.getRGBs();
+		colors = new int[1 << frame.depth];
+		for (int i = 0; i < rgbs.length && i < colors.length; i++) {
+			colors[i] = rgbs[i].red << 16 | rgbs[i].green << 8 | rgbs[i].blue;
+		}
+	}
+	if (pixels == null || pixels.length < previousWidth) {
+		pixels = new int[previousWidth];
+		alphas = new byte[previousWidth];
+	}
+	boolean hasAlpha = frame.alphaData != null || frame.alpha != -1;
+	int transparentPixel = frame.transparentPixel;
+	int width = canvas.width, bytesPerLine = canvas.bytesPerLine;
+	byte[] data = canvas.data, alphaData = canvas.alphaData;
+	int srcX = previousX - frame.x;
+	for (int y = previousY; y < previousY + previousHeight; y++) {
+		int srcY = y - frame.y;
+		frame.getPixels(srcX, srcY, previousWidth, pixels, 0);
+		if (frame.alphaData != null) {
+			frame.getAlphas(srcX, srcY, previousWidth, alphas, 0);
+		} else {
+			Arrays.fill(alphas, 0, previousWidth, (byte)(hasAlpha ? frame.alpha : 255));
+		}
+		int offset = y * bytesPerLine + previousX * 4;
+		int alphaOffset = y * width + previousX;
+		for (int x = 0; x < previousWidth; x++, offset += 4, alphaOffset++) {
+			int pixel = pixels[x];
+			if (pixel == transparentPixel) continue;
+			if (colors != null) {
+				int rgb = colors[pixel];
+				data[offset + 1] = (byte)(rgb >> 16);
+				data[offset + 2] = (byte)(rgb >> 8);
+				data[offset + 3] = (byte)rgb;
+			} else {
+				data[offset + 1] = (byte)shift(pixel & palette.redMask, palette.redShift);
+				data[offset + 2] = (byte)shift(pixel & palette.greenMask, palette.greenShift);
+				data[offset + 3] = (byte)shift(pixel & palette.blueMask, palette.blueShift);
+			}
+			data[offset] = 0;
+			alphaData[alphaOffset] = alphas[x];
+		}
+	}
+}
+}
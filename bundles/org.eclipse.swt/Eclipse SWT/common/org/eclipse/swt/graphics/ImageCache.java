@@ -0,0 +1,380 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Eclipse Foundation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Eclipse Foundation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.swt.graphics;
+
+
+import java.util.*;
+import java.util.function.*;
+
+import org.eclipse.swt.*;
+import org.eclipse.swt.internal.*;
+
+/**
+ * Instances of this class share the images of a device between the
+ * clients that show the same image many times, such as the icons of
+ * the items of a large tree.
+ * <p>
+ * An image is requested from a file name, an <code>ImageFileNameProvider</code>
+ * or an <code>ImageDataProvider</code>, and is created only for the first
+ * request with an equal source. Every later request answers the same
+ * image and counts one more reference to it. The image itself provides
+ * its pixels at the zoom it is drawn at, so one image serves all zooms.
+ * Clients must not dispose the images they acquire, but release each
+ * reference with <code>release(Image)</code> when they no longer
+ * need the image.
+ * </p>
+ * <p>
+ * Images without references are kept, so that they can be acquired
+ * again without being loaded, until the estimated memory used by all
+ * images exceeds the budget of the cache. The least recently used of
+ * them are then disposed. Images that are referenced are never disposed
+ * by the cache, even if the budget is exceeded.
+ * </p>
+ * <p>
+ * Providers are compared with <code>equals()</code>, so a provider that
+ * is created for every request, such as a new lambda, must implement
+ * <code>equals()</code> and <code>hashCode()</code> to be shared.
+ * </p>
+ * <p>
+ * The memory of an image is estimated as 4 bytes per pixel at the
+ * zoom it was created at. The default budget is 64 MB, and can be changed
+ * with the system property <code>org.eclipse.swt.graphics.ImageCache.budget</code>,
+ * a number of bytes.
+ * </p>
+ *
+ * @see Image
+ * @since 3.127
+ */
+public final class ImageCache {
+	static final String BUDGET_PROPERTY = "org.eclipse.swt.graphics.ImageCache.budget"; //$NON-NLS-1$
+	static final long DEFAULT_BUDGET = 64L * 1024 * 1024;
+
+	Device device;
+	long budget;
+	boolean disposed;
+
+	/* The entries from the least to the most recently used */
+	LinkedHashMap<Object, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+	Map<Image, Entry> images = new IdentityHashMap<>();
+	long size, hits, misses, evictions;
+
+	static final class Entry {
+		final Object source;
+		final Image image;
+		final long size;
+		int references;
+
+		Entry(Object source, Image image, long size) {
+			this.source = source;
+			this.image = image;
+			this.size = size;
+		}
+	}
+
+/**
+ * Constructs a new cache for the images of the given device, with
+ * the default budget.
+ *
+ * @param device the device on which to create the images
+ *
+ * @exception IllegalArgumentException <ul>
+ *    <li>ERROR_NULL_ARGUMENT - if device is null and there is no current device</li>
+ * </ul>
+ */
+public ImageCache(Device device) {
+	this(device, Long.getLong(BUDGET_PROPERTY, DEFAULT_BUDGET));
+}
+
+/**
+ * Constructs a new cache for the images of the given device, which
+ * keeps images without references while the memory used by all of
+ * its images is less than the given budget.
+ *
+ * @param device the device on which to create the images
+ * @param budget the memory budget in bytes
+ *
+ * @exception IllegalArgumentException <ul>
+ *    <li>ERROR_NULL_ARGUMENT - if device is null and there is no current device</li>
+ *    <li>ERROR_INVALID_ARGUMENT - if the budget is negative</li>
+ * </ul>
+ */
+public ImageCache(Device device, long budget) {
+	if (device == null) device = Device.getDevice();
+	if (device == null) SWT.error(SWT.ERROR_NULL_ARGUMENT);
+	if (budget < 0) SWT.error(SWT.ERROR_INVALID_ARGUMENT);
+	this.device = device;
+	this.budget = budget;
+}
+
+/**
+ * Returns the image loaded from the file with the specified name,
+ * creating it if it is not in the cache, and adds a reference to it.
+ *
+ * @param filename the name of the file to load the image from
+ * @return the shared image
+ *
+ * @exception IllegalArgumentException <ul>
+ *    <li>ERROR_NULL_ARGUMENT - if the file name is null</li>
+ * </ul>
+ * @exception SWTException <ul>
+ *    <li>ERROR_GRAPHIC_DISPOSED - if the receiver has been disposed</li>
+ *    <li>ERROR_IO - if an IO error occurs while reading from the file</li>
+ *    <li>ERROR_INVALID_IMAGE - if the image file contains invalid data </li>
+ *    <li>ERROR_UNSUPPORTED_FORMAT - if the image file contains an unrecognized format</li>
+ * </ul>
+ *
+ * @see #release(Image)
+ */
+public Image acquire(String filename) {
+	if (filename == null) SWT.error(SWT.ERROR_NULL_ARGUMENT);
+	return acquire(filename, () -> new Image(device, filename));
+}
+
+/**
+ * Returns the image of the specified provider, creating it if it is
+ * not in the cache, and adds a reference to it.
+ *
+ * @param provider the provider of the file names of the image
+ * @return the shared image
+ *
+ * @exception IllegalArgumentException <ul>
+ *    <li>ERROR_NULL_ARGUMENT - if the provider is null</li>
+ *    <li>ERROR_INVALID_ARGUMENT - if the provider answers no file name at 100% zoom</li>
+ * </ul>
+ * @exception SWTException <ul>
+ *    <li>ERROR_GRAPHIC_DISPOSED - if the receiver has been disposed</li>
+ *    <li>ERROR_IO - if an IO error occurs while reading from the file</li>
+ *    <li>ERROR_INVALID_IMAGE - if the image file contains invalid data </li>
+ *    <li>ERROR_UNSUPPORTED_FORMAT - if the image file contains an unrecognized format</li>
+ * </ul>
+ *
+ * @see #release(Image)
+ */
+public Image acquireFileName(ImageFileNameProvider provider) {
+	if (provider == null) SWT.error(SWT.ERROR_NULL_ARGUMENT);
+	return acquire(provider, () -> new Image(device, provider));
+}
+
+/**
+ * Returns the image of the specified provider, creating it if it is
+ * not in the cache, and adds a reference to it.
+ *
+ * @param provider the provider of the image data of the image
+ * @return the shared image
+ *
+ * @exception IllegalArgumentException <ul>
+ *    <li>ERROR_NULL_ARGUMENT - if the provider is null</li>
+ *    <li>ERROR_INVALID_ARGUMENT - if the provider answers no image data at 100% zoom</li>
+ * </ul>
+ * @exception SWTException <ul>
+ *    <li>ERROR_GRAPHIC_DISPOSED - if the receiver has been disposed</li>
+ * </ul>
+ *
+ * @see #release(Image)
+ */
+public Image acquireData(ImageDataProvider provider) {
+	if (provider == null) SWT.error(SWT.ERROR_NULL_ARGUMENT);
+	return acquire(provider, () -> new Image(device, provider));
+}
+
+Image acquire(Object source, Supplier<Image> factory) {
+	synchronized (this) {
+		Entry entry = get(source);
+		if (entry != null) {
+			hits++;
+			entry.references++;
+			return entry.image;
+		}
+	}
+	/*
+	* The image is created without holding the lock, so that loading
+	* it does not block the requests for other images. When another
+	* thread created an image for the same source meanwhile, that one
+	* is answered and this one is disposed.
+	*/
+	Image image = factory.get();
+	Rectangle bounds = image.getBounds();
+	int zoom = DPIUtil.getDeviceZoom();
+	long width = (long) bounds.width * zoom / 100, height = (long) bounds.height * zoom / 100;
+	Image result = null;
+	synchronized (this) {
+		if (!disposed) {
+			Entry entry = get(source);
+			if (entry != null) {
+				hits++;
+			} else {
+				misses++;
+				entry = new Entry(source, image, width * height * 4);
+				entries.put(source, entry);
+				images.put(image, entry);
+				size += entry.size;
+			}
+			entry.references++;
+			evict();
+			result = entry.image;
+		}
+	}
+	if (result != image) image.dispose();
+	if (result == null) SWT.error(SWT.ERROR_GRAPHIC_DISPOSED);
+	return result;
+}
+
+/* Answer the entry of the source, forgetting an image that was disposed by a client or with its device */
+Entry get(Object source) {
+	if (disposed) SWT.error(SWT.ERROR_GRAPHIC_DISPOSED);
+	Entry entry = entries.get(source);
+	if (entry != null && entry.image.isDisposed()) {
+		remove(entry);
+		entry = null;
+	}
+	return entry;
+}
+
+/**
+ * Removes a reference to an image acquired from the receiver. An
+ * image without references may be disposed when the memory used by
+ * the images of the receiver exceeds its budget.
+ *
+ * @param image the image to release
+ *
+ * @exception IllegalArgumentException <ul>
+ *    <li>ERROR_NULL_ARGUMENT - if the image is null</li>
+ *    <li>ERROR_INVALID_ARGUMENT - if the image was not acquired from the receiver, or has no references</li>
+ * </ul>
+ * @exception SWTException <ul>
+ *    <li>ERROR_GRAPHIC_DISPOSED - if the receiver has been disposed</li>
+ * </ul>
+ */
+public synchronized void release(Image image) {
+	if (disposed) SWT.error(SWT.ERROR_GRAPHIC_DISPOSED);
+	if (image == null) SWT.error(SWT.ERROR_NULL_ARGUMENT);
+	Entry entry = images.get(image);
+	if (entry == null || entry.references == 0) SWT.error(SWT.ERROR_INVALID_ARGUMENT);
+	entry.references--;
+	if (entry.references == 0) evict();
+}
+
+/* Dispose the least recently used images without references until the budget is met */
+void evict() {
+	Iterator<Entry> iterator = entries.values().iterator();
+	while (size > budget && iterator.hasNext()) {
+		Entry entry = iterator.next();
+		if (entry.references > 0) continue;
+		iterator.remove();
+		images.remove(entry.image);
+		size -= entry.size;
+		evictions++;
+		entry.image.dispose();
+	}
+}
+
+void remove(Entry entry) {
+	entries.remove(entry.source);
+	images.remove(entry.image);
+	size -= entry.size;
+}
+
+/**
+ * Disposes all the images of the receiver, whether they are
+ * referenced or not, and the receiver.
+ */
+public synchronized void dispose() {
+	if (disposed) return;
+	disposed = true;
+	for (Entry entry : entries.values()) {
+		entry.image.dispose();
+	}
+	entries.clear();
+	images.clear();
+	size = 0;
+}
+
+/**
+ * Returns <code>true</code> if the receiver has been disposed,
+ * and <code>false</code> otherwise.
+ *
+ * @return <code>true</code> when the cache is disposed and <code>false</code> otherwise
+ */
+public synchronized boolean isDisposed() {
+	return disposed;
+}
+
+/**
+ * Returns the number of requests that were answered with an
+ * image that was already in the receiver.
+ *
+ * @return the number of cache hits
+ */
+public synchronized long getHitCount() {
+	return hits;
+}
+
+/**
+ * Returns the number of requests that created an image.
+ *
+ * @return the number of cache misses
+ */
+public synchronized long getMissCount() {
+	return misses;
+}
+
+/**
+ * Returns the number of images without references that were
+ * disposed to keep the receiver within its budget.
+ *
+ * @return the number of evicted images
+ */
+public synchronized long getEvictionCount() {
+	return evictions;
+}
+
+/**
+ * Returns the number of images in the receiver.
+ *
+ * @return the number of images
+ */
+public synchronized int getImageCount() {
+	return entries.size();
+}
+
+/**
+ * Returns the estimated memory used by the images of the receiver, in bytes.
+ *
+ * @return the estimated memory of the images
+ */
+public synchronized long getSize() {
+	return size;
+}
+
+/**
+ * Returns the memory budget of the receiver, in bytes.
+ *
+ * @return the memory budget
+ */
+public long getBudget() {
+	return budget;
+}
+
+/**
+ * Returns a string containing a concise, human-readable
+ * description of the receiver.
+ *
+ * @return a string representation of the receiver
+ */
+@Override
+public synchronized String toString() {
+	if (disposed) return "ImageCache {*DISPOSED*}";
+	return "ImageCache {images=" + entries.size() + ", size=" + size + ", budget=" + budget + ", hits=" + hits + ", misses=" + misses + ", evictions=" + evictions + "}";
+}
+}
@@ -0,0 +1,100 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Eclipse Foundation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Eclipse Foundation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.swt.graphics;
+
+
+import java.io.*;
+
+import org.eclipse.swt.*;
+
+/**
+ * Implementations of this interface read images in file formats
+ * that <code>ImageLoader</code> does not support, such as WebP or QOI.
+ * <p>
+ * Codecs are found with {@link java.util.ServiceLoader}, using the
+ * context class loader of the thread that first loads an image: a codec
+ * is registered by naming its class in a resource called
+ * <code>META-INF/services/org.eclipse.swt.graphics.ImageCodec</code>.
+ * A single instance of each codec reads every stream in its format,
+ * possibly on several threads at the same time.
+ * </p>
+ * <p>
+ * The built-in formats are recognized first, so a codec is only asked
+ * about streams that none of them accepts. On platforms where
+ * <code>ImageLoader</code> reads images with a native library, such as
+ * GdkPixbuf on GTK, the codecs are asked about these streams before
+ * the native library. Images read by a codec cannot be saved with
+ * <code>ImageLoader</code>.
+ * </p>
+ *
+ * @see ImageLoader#load(InputStream)
+ * @since 3.127
+ */
+public interface ImageCodec {
+
+	/**
+	 * The largest number of bytes passed to {@link #isFileFormat(byte[], int)}.
+	 */
+	int SIGNATURE_LENGTH = 32;
+
+	/**
+	 * Returns whether a stream that starts with the given bytes
+	 * is in the format read by the receiver.
+	 *
+	 * @param signature the first bytes of the stream
+	 * @param length the number of bytes of the signature, which is
+	 * less than <code>SIGNATURE_LENGTH</code> only for shorter streams
+	 * @return <code>true</code> if the receiver can read the stream, and <code>false</code> otherwise
+	 */
+	boolean isFileFormat(byte[] signature, int length);
+
+	/**
+	 * Reads the images in the specified input stream, which is positioned
+	 * at the start of the signature. The receiver may notify the listeners
+	 * of the loader and set the fields that describe an animation.
+	 *
+	 * @param stream the input stream to read the images from
+	 * @param loader the loader that the images are loaded for
+	 * @return the images in the stream
+	 *
+	 * @exception IOException if an IO error occurs while reading from the stream
+	 * @exception SWTException <ul>
+	 *    <li>ERROR_INVALID_IMAGE - if the image stream contains invalid data</li>
+	 * </ul>
+	 */
+	ImageData[] load(InputStream stream, ImageLoader loader) throws IOException;
+
+	/**
+	 * Reads the headers of the specified input stream, and returns the
+	 * format, size and depth of the images it contains and the number
+	 * of images. The default implementation loads the images, codecs
+	 * should only read the headers when their format allows it.
+	 *
+	 * @param stream the input stream to read the headers from
+	 * @return a description of the images in the stream
+	 *
+	 * @exception IOException if an IO error occurs while reading from the stream
+	 * @exception SWTException <ul>
+	 *    <li>ERROR_INVALID_IMAGE - if the image stream contains invalid data</li>
+	 * </ul>
+	 *
+	 * @see ImageLoader#probe(InputStream)
+	 */
+	default ImageInfo probe(InputStream stream) throws IOException {
+		ImageData[] images = load(stream, new ImageLoader());
+		if (images == null || images.length == 0) SWT.error(SWT.ERROR_INVALID_IMAGE);
+		ImageData image = images[0];
+		return new ImageInfo(image.type, image.width, image.height, image.depth, images.length);
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2016 IBM Corporation and others.
+ * Copyright (c) 2000, 2026 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -15,6 +15,8 @@ package org.eclipse.swt.graphics;
 
 
 import java.io.*;
+import java.lang.invoke.*;
+import java.nio.*;
 
 import org.eclipse.swt.*;
 import org.eclipse.swt.internal.*;
@@ -1175,6 +1177,52 @@ public ImageData scaledTo(int width, int height) {
 	return dest;
 }
 
+/**
+ * Returns a copy of the receiver which has been stretched or
+ * shrunk to the specified size with the given interpolation.
+ * If either the width or height is negative, the resulting image
+ * will be inverted in the associated axis.
+ * <p>
+ * The interpolation is one of the constants used by
+ * <code>GC.setInterpolation(int)</code>:
+ * </p>
+ * <ul>
+ * <li><code>SWT.NONE</code>: nearest neighbor, as <code>scaledTo(int, int)</code></li>
+ * <li><code>SWT.LOW</code>: bilinear</li>
+ * <li><code>SWT.DEFAULT</code>: bicubic</li>
+ * <li><code>SWT.HIGH</code>: Lanczos, with three lobes</li>
+ * </ul>
+ * <p>
+ * Except for <code>SWT.NONE</code>, the result is a 24 bit direct
+ * image with alpha data if the receiver has any transparency. The
+ * scaling does not need a device, so it may be used in any thread.
+ * </p>
+ *
+ * @param width the width of the new ImageData
+ * @param height the height of the new ImageData
+ * @param interpolation the interpolation
+ * @return a scaled copy of the image
+ *
+ * @exception IllegalArgumentException <ul>
+ *    <li>ERROR_INVALID_ARGUMENT - if the width or height is zero, or the interpolation is not one of the values above</li>
+ * </ul>
+ *
+ * @see GC#setInterpolation(int)
+ * @since 3.127
+ */
+public ImageData scaledTo(int width, int height, int interpolation) {
+	if (width == 0 || height == 0) SWT.error(SWT.ERROR_INVALID_ARGUMENT);
+	switch (interpolation) {
+		case SWT.NONE: return scaledTo(width, height);
+		case SWT.LOW:
+		case SWT.DEFAULT:
+		case SWT.HIGH: return new ImageDataResampler(this, width, height, interpolation).resample();
+		default:
+			SWT.error(SWT.ERROR_INVALID_ARGUMENT);
+			return null;
+	}
+}
+
 /**
  * Sets the alpha value at offset <code>x</code> in
  * scanline <code>y</code> in the receiver's alpha data.
@@ -1678,6 +1726,19 @@ private static final int
 	TYPE_INDEX_1_MSB = 9,
 	TYPE_INDEX_1_LSB = 10;
 
+/**
+ * Views of byte arrays as arrays of ints, to read
+ * and write 32 bit pixels as a whole.
+ */
+private static final VarHandle INT_MSB = MethodHandles.byteArrayViewVarHandle(int[].class, ByteOrder.BIG_ENDIAN);
+private static final VarHandle INT_LSB = MethodHandles.byteArrayViewVarHandle(int[].class, ByteOrder.LITTLE_ENDIAN);
+
+/**
+ * System property that disables the blits specialized for pixels with
+ * 8 bit channels, so that their speed can be compared with the generic blit.
+ */
+static final String GENERIC_BLIT_PROPERTY = "org.eclipse.swt.graphics.ImageData.genericBlit"; //$NON-NLS-1$
+
 /**
  * Blits a direct palette image into a direct palette image.
  * <p>
@@ -1859,6 +1920,15 @@ static void blit(
 		}
 	}
 
+	/*** Fast blit (whole pixels with 8 bit channels) ***/
+	if (srcWidth == destWidth && srcHeight == destHeight && !flipX && !flipY &&
+		blitWholePixels(
+			srcData, stype, srcStride, srcRedMask, srcGreenMask, srcBlueMask,
+			destData, dtype, destStride, destRedMask, destGreenMask, destBlueMask,
+			destWidth, destHeight)) {
+		return;
+	}
+
 	/*** Comprehensive blit (apply transformations) ***/
 	final int srcRedShift = getChannelShift(srcRedMask);
 	final byte[] srcReds = ANY_TO_EIGHT[getChannelWidth(srcRedMask, srcRedShift)];
@@ -2278,6 +2348,13 @@ static void blit(
 		}
 		return;
 	}
+	/*** Fast blit (palette lookup table) ***/
+	if (srcDepth == 8 &&
+		blitPaletteLookup(
+			srcWidth, srcHeight, srcData, srcStride, srcReds, srcGreens, srcBlues,
+			destData, destDepth, destStride, destOrder, destRedMask, destGreenMask, destBlueMask)) {
+		return;
+	}
 
 	/*** Prepare source-related data ***/
 	final int stype;
@@ -2417,6 +2494,143 @@ static void blit(
 	}
 }
 
+/**
+ * Blits a direct palette image into a direct palette image of the
+ * same size, when both are 24 or 32 bit images whose channels are
+ * 8 bits wide and start on a byte boundary, such as RGB, BGR, xRGB
+ * or ARGB. Each pixel is read and written as a whole, and the channels
+ * are moved with a single shift each rather than through lookup tables.
+ *
+ * @return true if the images were blitted, and false if their
+ * layout is not one of the above
+ */
+static boolean blitWholePixels(
+	byte[] srcData, int stype, int srcStride,
+	int srcRedMask, int srcGreenMask, int srcBlueMask,
+	byte[] destData, int dtype, int destStride,
+	int destRedMask, int destGreenMask, int destBlueMask,
+	int width, int height) {
+	if (!isWholePixelType(stype) || !isWholePixelType(dtype)) return false;
+	if (!isByteChannel(srcRedMask, stype) || !isByteChannel(srcGreenMask, stype) || !isByteChannel(srcBlueMask, stype)) return false;
+	if (!isByteChannel(destRedMask, dtype) || !isByteChannel(destGreenMask, dtype) || !isByteChannel(destBlueMask, dtype)) return false;
+	if (Boolean.getBoolean(GENERIC_BLIT_PROPERTY)) return false;
+
+	final int sbpp = stype == TYPE_GENERIC_24 ? 3 : 4;
+	final int dbpp = dtype == TYPE_GENERIC_24 ? 3 : 4;
+	final int srcRedShift = getChannelShift(srcRedMask);
+	final int srcGreenShift = getChannelShift(srcGreenMask);
+	final int srcBlueShift = getChannelShift(srcBlueMask);
+	final int destRedShift = getChannelShift(destRedMask);
+	final int destGreenShift = getChannelShift(destGreenMask);
+	final int destBlueShift = getChannelShift(destBlueMask);
+	if (srcRedShift == destRedShift && srcGreenShift == destGreenShift && srcBlueShift == destBlueShift) {
+		/* Only the size or byte order of the pixels changes */
+		final int mask = srcRedMask | srcGreenMask | srcBlueMask;
+		for (int y = 0; y < height; y++) {
+			for (int x = 0, sp = y * srcStride, dp = y * destStride; x < width; x++, sp += sbpp, dp += dbpp) {
+				writePixel(destData, dp, dtype, readPixel(srcData, sp, stype) & mask);
+			}
+		}
+	} else {
+		for (int y = 0; y < height; y++) {
+			for (int x = 0, sp = y * srcStride, dp = y * destStride; x < width; x++, sp += sbpp, dp += dbpp) {
+				final int data = readPixel(srcData, sp, stype);
+				writePixel(destData, dp, dtype,
+					((data >>> srcRedShift) & 0xff) << destRedShift |
+					((data >>> srcGreenShift) & 0xff) << destGreenShift |
+					((data >>> srcBlueShift) & 0xff) << destBlueShift);
+			}
+		}
+	}
+	return true;
+}
+
+/**
+ * Blits an 8 bit index palette image into a 24 or 32 bit direct
+ * palette image whose channels are 8 bits wide and start on a byte
+ * boundary. The destination pixel of every palette index is computed
+ * once, and written as a whole.
+ *
+ * @return true if the images were blitted, and false if the
+ * destination layout is not one of the above
+ */
+static boolean blitPaletteLookup(
+	int width, int height,
+	byte[] srcData, int srcStride,
+	byte[] srcReds, byte[] srcGreens, byte[] srcBlues,
+	byte[] destData, int destDepth, int destStride, int destOrder,
+	int destRedMask, int destGreenMask, int destBlueMask) {
+	final int dtype, dbpp;
+	switch (destDepth) {
+		case 24:
+			dbpp = 3;
+			dtype = TYPE_GENERIC_24;
+			break;
+		case 32:
+			dbpp = 4;
+			dtype = (destOrder == MSB_FIRST) ? TYPE_GENERIC_32_MSB : TYPE_GENERIC_32_LSB;
+			break;
+		default:
+			return false;
+	}
+	if (!isByteChannel(destRedMask, dtype) || !isByteChannel(destGreenMask, dtype) || !isByteChannel(destBlueMask, dtype)) return false;
+	if (Boolean.getBoolean(GENERIC_BLIT_PROPERTY)) return false;
+
+	final int destRedShift = getChannelShift(destRedMask);
+	final int destGreenShift = getChannelShift(destGreenMask);
+	final int destBlueShift = getChannelShift(destBlueMask);
+	final int[] pixels = new int[srcReds.length];
+	for (int i = 0; i < pixels.length; i++) {
+		pixels[i] =
+			(srcReds[i] & 0xff) << destRedShift |
+			(srcGreens[i] & 0xff) << destGreenShift |
+			(srcBlues[i] & 0xff) << destBlueShift;
+	}
+	for (int y = 0; y < height; y++) {
+		for (int x = 0, sp = y * srcStride, dp = y * destStride; x < width; x++, sp++, dp += dbpp) {
+			writePixel(destData, dp, dtype, pixels[srcData[sp] & 0xff]);
+		}
+	}
+	return true;
+}
+
+static boolean isWholePixelType(int type) {
+	return type == TYPE_GENERIC_24 || type == TYPE_GENERIC_32_MSB || type == TYPE_GENERIC_32_LSB;
+}
+
+/**
+ * Answers whether the mask selects 8 bits that start on a
+ * byte boundary of a pixel of the given type.
+ */
+static boolean isByteChannel(int mask, int type) {
+	final int shift = getChannelShift(mask);
+	return (shift & 7) == 0 && (mask >>> shift) == 0xff && (type != TYPE_GENERIC_24 || shift <= 16);
+}
+
+static int readPixel(byte[] data, int index, int type) {
+	return switch (type) {
+	case TYPE_GENERIC_24 -> ((data[index] & 0xff) << 16) | ((data[index + 1] & 0xff) << 8) | (data[index + 2] & 0xff);
+	case TYPE_GENERIC_32_MSB -> (int) INT_MSB.get(data, index);
+	default -> (int) INT_LSB.get(data, index);
+	};
+}
+
+static void writePixel(byte[] data, int index, int type, int pixel) {
+	switch (type) {
+		case TYPE_GENERIC_24:
+			data[index] = (byte) (pixel >>> 16);
+			data[index + 1] = (byte) (pixel >>> 8);
+			data[index + 2] = (byte) pixel;
+			break;
+		case TYPE_GENERIC_32_MSB:
+			INT_MSB.set(data, index, pixel);
+			break;
+		default:
+			INT_LSB.set(data, index, pixel);
+			break;
+	}
+}
+
 /**
  * Computes the required channel shift from a mask.
  */
@@ -0,0 +1,294 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Eclipse Foundation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Eclipse Foundation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.swt.graphics;
+
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+import org.eclipse.swt.*;
+import org.eclipse.swt.internal.image.*;
+
+/**
+ * Internal class that resamples an <code>ImageData</code> with a
+ * separable filter: bilinear, bicubic (Catmull-Rom) or Lanczos.
+ * <p>
+ * The image is filtered horizontally into an intermediate buffer and
+ * then vertically, using weights computed once per column and once per
+ * row. The colors are premultiplied by alpha while they are filtered,
+ * so that transparent pixels do not bleed into the opaque ones. Large
+ * images are filtered in bands of rows on the shared ImageExecutor.
+ * </p>
+ *
+ * @see ImageData#scaledTo(int, int, int)
+ */
+final class ImageDataResampler {
+	/* The number of rows filtered by one task */
+	static final int BAND_HEIGHT = 16;
+
+	final ImageData source, dest;
+	final boolean hasAlpha;
+	final Weights columns, rows;
+	final int[] colors;
+	final ImageData mask;
+
+	/* The source filtered horizontally, premultiplied RGBA for each pixel */
+	final float[] buffer;
+
+	/**
+	 * The weights of the source pixels that make up each destination
+	 * pixel along one axis. Destination pixel <code>i</code> is the sum of
+	 * the <code>taps</code> source pixels <code>indices[i * taps + k]</code>
+	 * times <code>weights[i * taps + k]</code>.
+	 */
+	static final class Weights {
+		final int taps;
+		final int[] indices;
+		final float[] weights;
+
+		Weights(int interpolation, int sourceSize, int destSize, boolean flip) {
+			double scale = (double) sourceSize / destSize;
+			/* When shrinking, the filter is widened so that every source pixel contributes */
+			double filterScale = Math.max(1, scale);
+			double support = support(interpolation) * filterScale;
+			taps = (int) Math.ceil(support * 2) + 1;
+			indices = new int[destSize * taps];
+			weights = new float[destSize * taps];
+			for (int i = 0; i < destSize; i++) {
+				double center = (i + 0.5) * scale - 0.5;
+				int left = (int) Math.floor(center - support) + 1;
+				int offset = (flip ? destSize - 1 - i : i) * taps;
+				double total = 0;
+				for (int k = 0; k < taps; k++) {
+					int index = left + k;
+					double weight = kernel(interpolation, (index - center) / filterScale);
+					/* The edge pixels are repeated past the borders of the image */
+					indices[offset + k] = Math.min(Math.max(index, 0), sourceSize - 1);
+					weights[offset + k] = (float) weight;
+					total += weight;
+				}
+				if (total != 0) {
+					for (int k = 0; k < taps; k++) {
+						weights[offset + k] /= total;
+					}
+				}
+			}
+		}
+	}
+
+	/* A range of rows to filter */
+	interface Band {
+		void run(int start, int end);
+	}
+
+ImageDataResampler(ImageData source, int width, int height, int interpolation) {
+	this.source = source;
+	boolean flipX = width < 0;
+	if (flipX) width = -width;
+	boolean flipY = height < 0;
+	if (flipY) height = -height;
+	dest = new ImageData(
+		width, height, 24, new PaletteData(0xFF, 0xFF00, 0xFF0000),
+		4, null, 0, null,
+		null, source.alpha, -1, source.type,
+		source.x, source.y, source.disposalMethod, source.delayTime);
+	int transparencyType = source.getTransparencyType();
+	hasAlpha = transparencyType != SWT.TRANSPARENCY_NONE;
+	if (hasAlpha) dest.alphaData = new byte[width * height];
+	mask = transparencyType == SWT.TRANSPARENCY_MASK ? source.getTransparencyMask() : null;
+	PaletteData palette = source.palette;
+	if (palette.isDirect) {
+		colors = null;
+	} else {
+		RGB[] rgbs = palette.colors;
+		colors = new int[rgbs.length];
+		for (int i = 0; i < rgbs.length; i++) {
+			RGB rgb = rgbs[i];
+			colors[i] = (rgb.red << 16) | (rgb.green << 8) | rgb.blue;
+		}
+	}
+	columns = new Weights(interpolation, source.width, width, flipX);
+	rows = new Weights(interpolation, source.height, height, flipY);
+	buffer = new float[source.height * width * 4];
+}
+
+static double support(int interpolation) {
+	return switch (interpolation) {
+	case SWT.LOW -> 1;
+	case SWT.HIGH -> 3;
+	default -> 2;
+	};
+}
+
+static double kernel(int interpolation, double x) {
+	x = Math.abs(x);
+	switch (interpolation) {
+		case SWT.LOW:
+			return x < 1 ? 1 - x : 0;
+		case SWT.HIGH: {
+			if (x == 0) return 1;
+			if (x >= 3) return 0;
+			double px = Math.PI * x;
+			return 3 * Math.sin(px) * Math.sin(px / 3) / (px * px);
+		}
+		default:
+			/* Catmull-Rom, the cubic convolution with a = -0.5 */
+			if (x < 1) return (1.5 * x - 2.5) * x * x + 1;
+			if (x < 2) return ((-0.5 * x + 2.5) * x - 4) * x + 2;
+			return 0;
+	}
+}
+
+ImageData resample() {
+	long pixels = (long) dest.width * Math.max(dest.height, source.height);
+	int bands = (Math.max(dest.height, source.height) + BAND_HEIGHT - 1) / BAND_HEIGHT;
+	int threads = ImageExecutor.getThreads(pixels, bands);
+	forEachBand(threads, source.height, this::filterRows);
+	forEachBand(threads, dest.height, this::filterColumns);
+	return dest;
+}
+
+static void forEachBand(int threads, int count, Band band) {
+	if (threads == 1) {
+		band.run(0, count);
+		return;
+	}
+	List<Callable<Void>> tasks = new ArrayList<>();
+	for (int start = 0; start < count; start += BAND_HEIGHT) {
+		int bandStart = start, bandEnd = Math.min(count, start + BAND_HEIGHT);
+		tasks.add(() -> {
+			band.run(bandStart, bandEnd);
+			return null;
+		});
+	}
+	try {
+		ImageExecutor.invokeAll(tasks, threads);
+	} catch (IOException e) {
+		SWT.error(SWT.ERROR_UNSPECIFIED, e);
+	}
+}
+
+/*
+ * Filter the source rows from start to end horizontally
+ * into the buffer, premultiplying the colors by alpha.
+ */
+void filterRows(int start, int end) {
+	int width = source.width;
+	int[] pixels = new int[width];
+	int[] maskPixels = mask != null ? new int[width] : null;
+	float[] row = new float[width * 4];
+	PaletteData palette = source.palette;
+	int taps = columns.taps;
+	int[] indices = columns.indices;
+	float[] weights = columns.weights;
+	int destWidth = dest.width;
+	for (int y = start; y < end; y++) {
+		source.getPixels(0, y, width, pixels, 0);
+		if (mask != null) mask.getPixels(0, y, width, maskPixels, 0);
+		for (int x = 0, i = 0; x < width; x++, i += 4) {
+			int pixel = pixels[x], r, g, b;
+			if (colors == null) {
+				r = pixel & palette.redMask;
+				r = (palette.redShift < 0) ? r >>> -palette.redShift : r << palette.redShift;
+				g = pixel & palette.greenMask;
+				g = (palette.greenShift < 0) ? g >>> -palette.greenShift : g << palette.greenShift;
+				b = pixel & palette.blueMask;
+				b = (palette.blueShift < 0) ? b >>> -palette.blueShift : b << palette.blueShift;
+			} else {
+				int rgb = pixel >= 0 && pixel < colors.length ? colors[pixel] : 0;
+				r = rgb >>> 16;
+				g = (rgb >> 8) & 0xFF;
+				b = rgb & 0xFF;
+			}
+			int a = 255;
+			if (mask != null) {
+				a = maskPixels[x] != 0 ? 255 : 0;
+			} else if (source.transparentPixel != -1) {
+				a = pixel == source.transparentPixel ? 0 : 255;
+			} else if (source.alphaData != null) {
+				a = source.alphaData[y * width + x] & 0xFF;
+			}
+			float alpha = a / 255f;
+			row[i] = r * alpha;
+			row[i + 1] = g * alpha;
+			row[i + 2] = b * alpha;
+			row[i + 3] = a;
+		}
+		int offset = y * destWidth * 4;
+		for (int x = 0, w = 0; x < destWidth; x++) {
+			float r = 0, g = 0, b = 0, a = 0;
+			for (int k = 0; k < taps; k++, w++) {
+				int i = indices[w] * 4;
+				float weight = weights[w];
+				r += row[i] * weight;
+				g += row[i + 1] * weight;
+				b += row[i + 2] * weight;
+				a += row[i + 3] * weight;
+			}
+			buffer[offset++] = r;
+			buffer[offset++] = g;
+			buffer[offset++] = b;
+			buffer[offset++] = a;
+		}
+	}
+}
+
+/*
+ * Filter the buffer vertically into the destination rows
+ * from start to end, undoing the premultiplication.
+ */
+void filterColumns(int start, int end) {
+	int destWidth = dest.width;
+	int taps = rows.taps;
+	int[] indices = rows.indices;
+	float[] weights = rows.weights;
+	byte[] data = dest.data;
+	byte[] alphaData = dest.alphaData;
+	int stride = destWidth * 4;
+	for (int y = start; y < end; y++) {
+		int w = y * taps;
+		int dataIndex = y * dest.bytesPerLine;
+		for (int x = 0; x < destWidth; x++) {
+			float r = 0, g = 0, b = 0, a = 0;
+			int column = x * 4;
+			for (int k = 0; k < taps; k++) {
+				int i = indices[w + k] * stride + column;
+				float weight = weights[w + k];
+				r += buffer[i] * weight;
+				g += buffer[i + 1] * weight;
+				b += buffer[i + 2] * weight;
+				a += buffer[i + 3] * weight;
+			}
+			if (hasAlpha) {
+				int alpha = clamp(a);
+				alphaData[y * destWidth + x] = (byte) alpha;
+				float scale = a > 0 ? 255 / a : 0;
+				r *= scale;
+				g *= scale;
+				b *= scale;
+			}
+			/* The palette is 0xFF, 0xFF00, 0xFF0000 so the bytes are blue, green, red */
+			data[dataIndex++] = (byte) clamp(b);
+			data[dataIndex++] = (byte) clamp(g);
+			data[dataIndex++] = (byte) clamp(r);
+		}
+	}
+}
+
+static int clamp(float value) {
+	int result = Math.round(value);
+	return result < 0 ? 0 : result > 255 ? 255 : result;
+}
+}
@@ -0,0 +1,133 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Eclipse Foundation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Eclipse Foundation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.swt.graphics;
+
+
+/**
+ * Instances of this class describe an image file or stream: its
+ * format, size, depth and the number of images it contains. They
+ * are returned by the <code>probe</code> methods of <code>ImageLoader</code>,
+ * which only read the headers of the file and do not decode any pixels.
+ * <p>
+ * The hashCode() method in this class uses the values of the public
+ * fields to compute the hash value. When storing instances of the
+ * class in hashed collections, do not modify these fields after the
+ * object has been inserted.
+ * </p>
+ * <p>
+ * Application code does <em>not</em> need to explicitly release the
+ * resources managed by each instance when those instances are no longer
+ * required, and thus no <code>dispose()</code> method is provided.
+ * </p>
+ *
+ * @see ImageLoader#probe(String)
+ * @see <a href="http://www.eclipse.org/swt/">Sample code and further information</a>
+ *
+ * @since 3.127
+ */
+public final class ImageInfo {
+
+	/**
+	 * the image file format, one of the <code>SWT.IMAGE_*</code>
+	 * constants, such as <code>SWT.IMAGE_PNG</code>
+	 */
+	public int type;
+
+	/**
+	 * the width of the image, in pixels. For animated GIF images,
+	 * this is the width of the logical screen.
+	 */
+	public int width;
+
+	/**
+	 * the height of the image, in pixels. For animated GIF images,
+	 * this is the height of the logical screen.
+	 */
+	public int height;
+
+	/**
+	 * the color depth of the first image, in bits per pixel. Platforms
+	 * that load images natively, such as GTK, may load the image with
+	 * a different depth.
+	 */
+	public int depth;
+
+	/**
+	 * the number of images in the file, such as the frames of an
+	 * animated GIF, the icons of an ICO file or the pages of a TIFF file
+	 */
+	public int imageCount;
+
+/**
+ * Constructs an instance of this class with the given
+ * type, size, depth and number of images.
+ *
+ * @param type the image file format
+ * @param width the width of the image
+ * @param height the height of the image
+ * @param depth the color depth of the first image
+ * @param imageCount the number of images
+ */
+public ImageInfo(int type, int width, int height, int depth, int imageCount) {
+	this.type = type;
+	this.width = width;
+	this.height = height;
+	this.depth = depth;
+	this.imageCount = imageCount;
+}
+
+/**
+ * Compares the argument to the receiver, and returns true
+ * if they represent the <em>same</em> object using a class
+ * specific comparison.
+ *
+ * @param object the object to compare with this object
+ * @return <code>true</code> if the object is the same as this object and <code>false</code> otherwise
+ *
+ * @see #hashCode()
+ */
+@Override
+public boolean equals (Object object) {
+	if (object == this) return true;
+	if (!(object instanceof ImageInfo info)) return false;
+	return info.type == type && info.width == width && info.height == height && info.depth == depth && info.imageCount == imageCount;
+}
+
+/**
+ * Returns an integer hash code for the receiver. Any two
+ * objects that return <code>true</code> when passed to
+ * <code>equals</code> must return the same value for this
+ * method.
+ *
+ * @return the receiver's hash
+ *
+ * @see #equals(Object)
+ */
+@Override
+public int hashCode () {
+	return type ^ (width << 16 | width >>> 16) ^ height ^ (depth << 8) ^ (imageCount << 24);
+}
+
+/**
+ * Returns a string containing a concise, human-readable
+ * description of the receiver.
+ *
+ * @return a string representation of the <code>ImageInfo</code>
+ */
+@Override
+public String toString () {
+	return "ImageInfo {" + type + ", " + width + ", " + height + ", " + depth + ", " + imageCount + "}"; //$NON-NLS-1$//$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$
+}
+
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2015 IBM Corporation and others.
+ * Copyright (c) 2000, 2026 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -15,6 +15,8 @@
 package org.eclipse.swt.graphics;
 
 
+import java.util.*;
+
 import org.eclipse.swt.*;
 
 /**
@@ -101,6 +103,83 @@ public final class PaletteData {
 	 */
 	public int blueShift;
 
+	/* Palettes with fewer colors are searched linearly */
+	static final int INDEX_THRESHOLD = 16;
+
+	/* The reverse index of the colors of an indexed palette, built on demand */
+	Index index;
+
+	/**
+	 * An open addressing hash table from the red, green and blue
+	 * of an <code>RGB</code> to the first pixel with that color.
+	 */
+	static final class Index {
+		/* The array the index was built from */
+		final RGB[] colors;
+		final int[] keys, pixels;
+		final int mask;
+		int count;
+
+		Index(RGB[] colors) {
+			this.colors = colors;
+			int size = Integer.highestOneBit(Math.max(colors.length, 1) * 2 - 1) * 2;
+			keys = new int[size];
+			pixels = new int[size];
+			mask = size - 1;
+			Arrays.fill(keys, -1);
+			for (int i = 0; i < colors.length; i++) {
+				RGB rgb = colors[i];
+				if (rgb == null) continue;
+				int key = key(rgb);
+				int slot = slot(key);
+				while (keys[slot] != -1 && keys[slot] != key) {
+					slot = (slot + 1) & mask;
+				}
+				if (keys[slot] == -1) {
+					keys[slot] = key;
+					pixels[slot] = i;
+					count++;
+				}
+			}
+		}
+
+		static int key(RGB rgb) {
+			return ((rgb.red & 0xFF) << 16) | ((rgb.green & 0xFF) << 8) | (rgb.blue & 0xFF);
+		}
+
+		int slot(int key) {
+			return (key * 0x9E3779B9 >>> 16) & mask;
+		}
+
+		int get(RGB rgb) {
+			int key = key(rgb);
+			for (int slot = slot(key); keys[slot] != -1; slot = (slot + 1) & mask) {
+				if (keys[slot] == key) return pixels[slot];
+			}
+			return -1;
+		}
+
+		/*
+		 * Map the color to the pixel where it was found by searching the
+		 * palette. Answer false when the table is too full to take another
+		 * color, in which case it has to be built again.
+		 */
+		boolean put(RGB rgb, int pixel) {
+			int key = key(rgb);
+			int slot = slot(key);
+			while (keys[slot] != -1 && keys[slot] != key) {
+				slot = (slot + 1) & mask;
+			}
+			if (keys[slot] == -1) {
+				if (count >= keys.length / 4 * 3) return false;
+				keys[slot] = key;
+				count++;
+			}
+			pixels[slot] = pixel;
+			return true;
+		}
+	}
+
 /**
  * Constructs a new indexed palette given an array of RGB values.
  *
@@ -135,6 +214,12 @@ public PaletteData(int redMask, int greenMask, int blueMask) {
 
 /**
  * Returns the pixel value corresponding to the given <code>RGB</code>.
+ * <p>
+ * When several pixels of an indexed palette have the given color, the
+ * smallest of them is returned. If the colors of the palette are modified
+ * in place after pixels were looked up, any of these pixels may be returned
+ * instead, the palette is not searched again on every call.
+ * </p>
  *
  * @param rgb the RGB to get the pixel value for
  * @return the pixel value for the given RGB
@@ -153,8 +238,27 @@ public int getPixel(RGB rgb) {
 		pixel |= (blueShift < 0 ? rgb.blue << -blueShift : rgb.blue >>> blueShift) & blueMask;
 		return pixel;
 	} else {
+		if (colors.length > INDEX_THRESHOLD) {
+			Index index = this.index;
+			if (index == null || index.colors != colors) {
+				this.index = index = new Index(colors);
+			}
+			int pixel = index.get(rgb);
+			/*
+			* The colors are public and may have been modified since
+			* the index was built, so a hit is verified and a miss is
+			* confirmed by searching the palette before failing. An
+			* earlier pixel changed to the same color is not searched.
+			*/
+			if (pixel != -1 && pixel < colors.length && rgb.equals(colors[pixel])) return pixel;
+		}
 		for (int i = 0; i < colors.length; i++) {
-			if (colors[i].equals(rgb)) return i;
+			if (colors[i].equals(rgb)) {
+				/* The color was changed in place, update the index instead of building it again */
+				Index index = this.index;
+				if (index != null && index.colors == colors && !index.put(rgb, i)) this.index = null;
+				return i;
+			}
 		}
 		/* The RGB did not exist in the palette */
 		SWT.error(SWT.ERROR_INVALID_ARGUMENT);
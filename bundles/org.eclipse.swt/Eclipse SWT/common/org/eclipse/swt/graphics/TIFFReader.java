@@ -0,0 +1,196 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Eclipse Foundation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Eclipse Foundation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.swt.graphics;
+
+
+import java.io.*;
+
+import org.eclipse.swt.*;
+import org.eclipse.swt.internal.image.*;
+
+/**
+ * Instances of this class read the pages of a TIFF file, or
+ * rectangles of them, without loading the rest of the file.
+ * <p>
+ * Unlike <code>ImageLoader</code>, which decodes every page of a file,
+ * a <code>TIFFReader</code> maps the file into memory and only reads
+ * the directory of each page when it is opened. Reading a rectangle of
+ * a page only decodes the strips or tiles of the page that intersect
+ * the rectangle, on several threads, so the memory and time needed
+ * depend on the size of the rectangle and not on the size of the file.
+ * </p>
+ * <p>
+ * Pages may be read from several threads at the same time. Readers
+ * must be closed when they are no longer needed.
+ * </p>
+ *
+ * @see ImageLoader
+ * @since 3.127
+ */
+public final class TIFFReader implements AutoCloseable {
+	TIFFMappedFile file;
+
+/**
+ * Constructs a new reader for the TIFF file with the specified name.
+ * The directories of the pages are read before the constructor returns.
+ *
+ * @param filename the name of the file to read
+ *
+ * @exception IllegalArgumentException <ul>
+ *    <li>ERROR_NULL_ARGUMENT - if the file name is null</li>
+ * </ul>
+ * @exception SWTException <ul>
+ *    <li>ERROR_IO - if an IO error occurs while reading the file</li>
+ *    <li>ERROR_INVALID_IMAGE - if the file is not a valid TIFF file</li>
+ *    <li>ERROR_UNSUPPORTED_FORMAT - if the file is larger than 2 GB</li>
+ * </ul>
+ */
+public TIFFReader(String filename) {
+	if (filename == null) SWT.error(SWT.ERROR_NULL_ARGUMENT);
+	try {
+		file = new TIFFMappedFile(filename);
+	} catch (Exception e) {
+		error(e);
+	}
+}
+
+void checkPage(int page) {
+	if (file == null) SWT.error(SWT.ERROR_GRAPHIC_DISPOSED);
+	if (page < 0 || page >= file.getPageCount()) SWT.error(SWT.ERROR_INVALID_RANGE);
+}
+
+static void error(Exception e) {
+	if (e instanceof SWTException) throw (SWTException)e;
+	if (e instanceof IOException) {
+		SWT.error(SWT.ERROR_IO, e);
+	} else {
+		SWT.error(SWT.ERROR_INVALID_IMAGE, e);
+	}
+}
+
+/**
+ * Returns the number of pages in the file.
+ *
+ * @return the number of pages
+ *
+ * @exception SWTException <ul>
+ *    <li>ERROR_GRAPHIC_DISPOSED - if the reader has been closed</li>
+ * </ul>
+ */
+public int getPageCount() {
+	if (file == null) SWT.error(SWT.ERROR_GRAPHIC_DISPOSED);
+	return file.getPageCount();
+}
+
+/**
+ * Returns the bounds of the specified page. The x and y
+ * coordinates of the bounds are always zero.
+ *
+ * @param page the index of the page, starting at zero
+ * @return the bounds of the page
+ *
+ * @exception IllegalArgumentException <ul>
+ *    <li>ERROR_INVALID_RANGE - if the page does not exist</li>
+ * </ul>
+ * @exception SWTException <ul>
+ *    <li>ERROR_GRAPHIC_DISPOSED - if the reader has been closed</li>
+ *    <li>ERROR_IO - if an IO error occurs while reading the file</li>
+ *    <li>ERROR_INVALID_IMAGE - if the page contains invalid data</li>
+ *    <li>ERROR_UNSUPPORTED_FORMAT - if the page uses an unsupported compression</li>
+ * </ul>
+ */
+public Rectangle getBounds(int page) {
+	checkPage(page);
+	try {
+		return file.getBounds(page);
+	} catch (Exception e) {
+		error(e);
+		return null;
+	}
+}
+
+/**
+ * Reads the specified page.
+ *
+ * @param page the index of the page, starting at zero
+ * @return the image data of the page
+ *
+ * @exception IllegalArgumentException <ul>
+ *    <li>ERROR_INVALID_RANGE - if the page does not exist</li>
+ * </ul>
+ * @exception SWTException <ul>
+ *    <li>ERROR_GRAPHIC_DISPOSED - if the reader has been closed</li>
+ *    <li>ERROR_IO - if an IO error occurs while reading the file</li>
+ *    <li>ERROR_INVALID_IMAGE - if the page contains invalid data</li>
+ *    <li>ERROR_UNSUPPORTED_FORMAT - if the page uses an unsupported compression or predictor</li>
+ * </ul>
+ */
+public ImageData read(int page) {
+	return read(page, getBounds(page));
+}
+
+/**
+ * Reads the specified rectangle of the specified page. The width and
+ * height of the returned image data are those of the intersection of
+ * the rectangle with the bounds of the page.
+ *
+ * @param page the index of the page, starting at zero
+ * @param region the rectangle of the page to read
+ * @return the image data of the rectangle
+ *
+ * @exception IllegalArgumentException <ul>
+ *    <li>ERROR_NULL_ARGUMENT - if the region is null</li>
+ *    <li>ERROR_INVALID_ARGUMENT - if the region does not intersect the page</li>
+ *    <li>ERROR_INVALID_RANGE - if the page does not exist</li>
+ * </ul>
+ * @exception SWTException <ul>
+ *    <li>ERROR_GRAPHIC_DISPOSED - if the reader has been closed</li>
+ *    <li>ERROR_IO - if an IO error occurs while reading the file</li>
+ *    <li>ERROR_INVALID_IMAGE - if the page contains invalid data</li>
+ *    <li>ERROR_UNSUPPORTED_FORMAT - if the page uses an unsupported compression or predictor</li>
+ * </ul>
+ */
+public ImageData read(int page, Rectangle region) {
+	if (region == null) SWT.error(SWT.ERROR_NULL_ARGUMENT);
+	Rectangle bounds = getBounds(page).intersection(region);
+	if (bounds.isEmpty()) SWT.error(SWT.ERROR_INVALID_ARGUMENT);
+	try {
+		return file.read(page, bounds.x, bounds.y, bounds.width, bounds.height);
+	} catch (Exception e) {
+		error(e);
+		return null;
+	}
+}
+
+/**
+ * Closes the file. The memory mapping of the file is released
+ * when the reader is garbage collected. Closing a reader that
+ * is already closed has no effect.
+ *
+ * @exception SWTException <ul>
+ *    <li>ERROR_IO - if an IO error occurs while closing the file</li>
+ * </ul>
+ */
+@Override
+public void close() {
+	if (file == null) return;
+	try {
+		file.close();
+	} catch (IOException e) {
+		SWT.error(SWT.ERROR_IO, e);
+	} finally {
+		file = null;
+	}
+}
+}
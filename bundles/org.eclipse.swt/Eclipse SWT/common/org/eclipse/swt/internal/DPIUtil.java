@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2022 IBM Corporation and others.
+ * Copyright (c) 2022, 2026 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -78,12 +78,11 @@ public class DPIUtil {
 	 * System property that controls the method for scaling images:
 	 * <ul>
 	 * <li>"nearest": nearest-neighbor interpolation, may look jagged</li>
-	 * <li>"smooth": smooth edges, may look blurry</li>
+	 * <li>"smooth": bicubic interpolation, smooth edges, may look blurry</li>
 	 * </ul>
 	 * The current default is to use "nearest", except on
 	 * GTK when the deviceZoom is not an integer multiple of 100%.
-	 * The smooth strategy currently doesn't work on Win32 and Cocoa, see
-	 * <a href="https://bugs.eclipse.org/493455">bug 493455</a>.
+	 * Both methods scale the image data in Java, without a device.
 	 */
 	private static final String SWT_AUTOSCALE_METHOD = "swt.autoScale.method";
 
@@ -296,25 +295,7 @@ private static ImageData autoScaleImageData (Device device, final ImageData imag
 	int scaledWidth = Math.round (width * scaleFactor);
 	int scaledHeight = Math.round (height * scaleFactor);
 	return switch (autoScaleMethod) {
-	case SMOOTH -> {
-		Image original = new Image (device, (ImageDataProvider) zoom -> imageData);
-		/* Create a 24 bit image data with alpha channel */
-		final ImageData resultData = new ImageData (scaledWidth, scaledHeight, 24, new PaletteData (0xFF, 0xFF00, 0xFF0000));
-		resultData.alphaData = new byte [scaledWidth * scaledHeight];
-		Image resultImage = new Image (device, (ImageDataProvider) zoom -> resultData);
-		GC gc = new GC (resultImage);
-		gc.setAntialias (SWT.ON);
-		gc.drawImage (original, 0, 0, DPIUtil.autoScaleDown (width), DPIUtil.autoScaleDown (height),
-				/* E.g. destWidth here is effectively DPIUtil.autoScaleDown (scaledWidth), but avoiding rounding errors.
-				 * Nevertheless, we still have some rounding errors due to the point-based API GC#drawImage(..).
-				 */
-				0, 0, Math.round (DPIUtil.autoScaleDown (width * scaleFactor)), Math.round (DPIUtil.autoScaleDown (height * scaleFactor)));
-		gc.dispose ();
-		original.dispose ();
-		ImageData result = resultImage.getImageData (DPIUtil.getDeviceZoom ());
-		resultImage.dispose ();
-		yield result;
-	}
+	case SMOOTH -> imageData.scaledTo (scaledWidth, scaledHeight, SWT.DEFAULT);
 	default -> imageData.scaledTo (scaledWidth, scaledHeight);
 	};
 }
@@ -0,0 +1,214 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Eclipse Foundation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Eclipse Foundation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.swt.internal;
+
+
+import java.util.concurrent.*;
+
+import org.eclipse.swt.widgets.*;
+
+/**
+ * Instances of this class keep the events that a display defers until
+ * it runs its deferred events, in a circular array that grows as needed,
+ * so that adding and removing an event takes constant time however many
+ * events are queued.
+ * <p>
+ * The queue is used by the user-interface thread only, and is not
+ * synchronized. It may be drained re-entrantly: events that are added
+ * while it is drained, and the events left by an event that runs a
+ * nested drain, are run by the drain that takes them first.
+ * </p>
+ * <p>
+ * The queue also keeps metrics of its use: the largest number of events
+ * it held, the number of events that were added, and the number and the
+ * time of the drains that ran events. Its listeners are notified after
+ * each drain that ran events.
+ * </p>
+ */
+public final class DeferredEventQueue {
+	static final int INITIAL_CAPACITY = 16;
+
+	/* Larger arrays are released when the queue is empty after a drain */
+	static final int RETAINED_CAPACITY = 1024;
+
+	Event [] events = new Event [INITIAL_CAPACITY];
+	int head, size;
+
+	int depth, maxSize;
+	long addCount, drainCount, drainTime, maxDrainTime;
+
+	/* The events taken and the largest size since the last notification */
+	int pollCount, peakSize;
+	final java.util.List<DeferredEventListener> listeners = new CopyOnWriteArrayList<> ();
+
+/**
+ * Adds the event at the end of the queue.
+ *
+ * @param event the event to add
+ */
+public void add (Event event) {
+	if (size == events.length) {
+		Event [] newEvents = new Event [events.length * 2];
+		int count = events.length - head;
+		System.arraycopy (events, head, newEvents, 0, count);
+		System.arraycopy (events, 0, newEvents, count, head);
+		events = newEvents;
+		head = 0;
+	}
+	events [(head + size) & (events.length - 1)] = event;
+	size++;
+	addCount++;
+	if (size > maxSize) maxSize = size;
+	if (size > peakSize) peakSize = size;
+}
+
+/**
+ * Removes and returns the event at the start of the queue, or returns
+ * <code>null</code> when the queue is empty.
+ *
+ * @return the first event or <code>null</code>
+ */
+public Event poll () {
+	if (size == 0) return null;
+	Event event = events [head];
+	events [head] = null;
+	head = (head + 1) & (events.length - 1);
+	size--;
+	pollCount++;
+	return event;
+}
+
+/**
+ * Returns the number of events in the queue.
+ *
+ * @return the number of events
+ */
+public int size () {
+	return size;
+}
+
+/**
+ * Starts a drain of the queue, and returns the time it started at,
+ * to be passed to <code>endDrain</code>.
+ *
+ * @return the start time of the drain
+ */
+public long beginDrain () {
+	depth++;
+	return System.nanoTime ();
+}
+
+/**
+ * Ends a drain of the queue, and counts its time when it ran events
+ * and is not nested in another drain, whose time includes it.
+ *
+ * @param startTime the start time returned by <code>beginDrain</code>
+ * @param run whether the drain ran events
+ */
+public void endDrain (long startTime, boolean run) {
+	depth--;
+	if (depth == 0 && run) {
+		long time = System.nanoTime () - startTime;
+		drainCount++;
+		drainTime += time;
+		if (time > maxDrainTime) maxDrainTime = time;
+		int count = pollCount, peak = peakSize;
+		pollCount = 0;
+		peakSize = size;
+		for (DeferredEventListener listener : listeners) {
+			listener.eventsRun (count, time, peak);
+		}
+	}
+	if (depth == 0 && size == 0 && events.length > RETAINED_CAPACITY) {
+		events = new Event [INITIAL_CAPACITY];
+		head = 0;
+	}
+}
+
+/**
+ * Adds the listener to the listeners who are notified each time
+ * a drain that is not nested in another drain ran events.
+ *
+ * @param listener the listener to add
+ */
+public void addListener (DeferredEventListener listener) {
+	listeners.add (listener);
+}
+
+/**
+ * Removes the listener from the listeners who are notified each
+ * time a drain that is not nested in another drain ran events.
+ *
+ * @param listener the listener to remove
+ */
+public void removeListener (DeferredEventListener listener) {
+	listeners.remove (listener);
+}
+
+/**
+ * Returns the largest number of events that the queue held.
+ *
+ * @return the largest queue depth
+ */
+public int getMaxSize () {
+	return maxSize;
+}
+
+/**
+ * Returns the number of events that were added to the queue.
+ *
+ * @return the number of added events
+ */
+public long getAddCount () {
+	return addCount;
+}
+
+/**
+ * Returns the number of drains that ran events.
+ *
+ * @return the number of drains
+ */
+public long getDrainCount () {
+	return drainCount;
+}
+
+/**
+ * Returns the total time of the drains that ran events, in nanoseconds.
+ *
+ * @return the total drain time
+ */
+public long getDrainTime () {
+	return drainTime;
+}
+
+/**
+ * Returns the longest time of a drain that ran events, in nanoseconds.
+ *
+ * @return the longest drain time
+ */
+public long getMaxDrainTime () {
+	return maxDrainTime;
+}
+
+/**
+ * Returns a string containing a concise, human-readable
+ * description of the receiver.
+ *
+ * @return a string representation of the receiver
+ */
+@Override
+public String toString () {
+	return "DeferredEventQueue {size=" + size + ", maxSize=" + maxSize + ", added=" + addCount + ", drains=" + drainCount + ", drainTime=" + drainTime / 1000 + "us, maxDrainTime=" + maxDrainTime / 1000 + "us}";
+}
+}
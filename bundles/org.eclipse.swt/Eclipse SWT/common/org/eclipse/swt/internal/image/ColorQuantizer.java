@@ -0,0 +1,412 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Eclipse Foundation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Eclipse Foundation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.swt.internal.image;
+
+
+import java.util.*;
+
+import org.eclipse.swt.*;
+import org.eclipse.swt.graphics.*;
+
+/**
+ * Reduces a direct color image to an 8 bit indexed image.
+ * <p>
+ * Images that use no more colors than the palette can hold keep
+ * their exact colors. Otherwise the palette is chosen by median cut
+ * over a histogram with 5 bits per channel, and every pixel is mapped
+ * to the nearest palette color, optionally with Floyd-Steinberg error
+ * diffusion. Pixels that are transparent in the mask, that are the
+ * transparent pixel of the image, or whose alpha is below one half,
+ * are mapped to a reserved transparent pixel.
+ * </p>
+ */
+final class ColorQuantizer {
+	static final int BITS = 5;
+	static final int SHIFT = 8 - BITS;
+	static final int SIDE = 1 << BITS;
+
+	/* The color of a transparent pixel, outside of the range of an RGB */
+	static final int TRANSPARENT = -1;
+
+	final ImageData source;
+	final int maxColors;
+
+	/* The color of each pixel of the source as 0xRRGGBB, or TRANSPARENT */
+	final int[] colors;
+	boolean hasTransparency;
+
+	/* The distinct colors of the image and their pixels, hashed by color */
+	int[] keys, indices;
+
+	/**
+	 * A box of the histogram, given by the inclusive ranges of its
+	 * cells along each channel.
+	 */
+	static final class Box {
+		final int[] min = new int[3], max = new int[3];
+		long count;
+
+		int longestAxis() {
+			int axis = 0;
+			for (int i = 1; i < 3; i++) {
+				if (max[i] - min[i] > max[axis] - min[axis]) axis = i;
+			}
+			return axis;
+		}
+
+		boolean canSplit() {
+			return max[0] > min[0] || max[1] > min[1] || max[2] > min[2];
+		}
+	}
+
+	/**
+	 * The palette color closest to each cell of the histogram,
+	 * searched the first time a pixel falls into the cell.
+	 */
+	static final class InverseTable {
+		final int[] palette;
+		final int[] pixels = new int[SIDE * SIDE * SIDE];
+
+		InverseTable(int[] palette) {
+			this.palette = palette;
+			Arrays.fill(pixels, -1);
+		}
+
+		int get(int r, int g, int b) {
+			int cell = cell(r, g, b);
+			int pixel = pixels[cell];
+			if (pixel == -1) {
+				/* Search from the center of the cell */
+				int low = ~((1 << SHIFT) - 1), half = 1 << (SHIFT - 1);
+				pixels[cell] = pixel = nearest(palette, (r & low) + half, (g & low) + half, (b & low) + half);
+			}
+			return pixel;
+		}
+	}
+
+ColorQuantizer(ImageData source, int maxColors) {
+	this.source = source;
+	this.maxColors = maxColors;
+	int width = source.width, height = source.height;
+	colors = new int[width * height];
+	int[] pixels = new int[width];
+	int transparencyType = source.getTransparencyType();
+	ImageData mask = transparencyType == SWT.TRANSPARENCY_MASK ? source.getTransparencyMask() : null;
+	int[] maskPixels = mask != null ? new int[width] : null;
+	byte[] alphaData = mask == null ? source.alphaData : null;
+	int transparentPixel = transparencyType == SWT.TRANSPARENCY_PIXEL ? source.transparentPixel : -1;
+	PaletteData palette = source.palette;
+	for (int y = 0, i = 0; y < height; y++) {
+		source.getPixels(0, y, width, pixels, 0);
+		if (mask != null) mask.getPixels(0, y, width, maskPixels, 0);
+		for (int x = 0; x < width; x++, i++) {
+			if ((mask != null && maskPixels[x] == 0) || (alphaData != null && (alphaData[i] & 0xFF) < 128) ||
+				(transparentPixel != -1 && pixels[x] == transparentPixel)) {
+				colors[i] = TRANSPARENT;
+				hasTransparency = true;
+				continue;
+			}
+			int pixel = pixels[x];
+			int r = pixel & palette.redMask;
+			r = (palette.redShift < 0) ? r >>> -palette.redShift : r << palette.redShift;
+			int g = pixel & palette.greenMask;
+			g = (palette.greenShift < 0) ? g >>> -palette.greenShift : g << palette.greenShift;
+			int b = pixel & palette.blueMask;
+			b = (palette.blueShift < 0) ? b >>> -palette.blueShift : b << palette.blueShift;
+			colors[i] = ((r & 0xFF) << 16) | ((g & 0xFF) << 8) | (b & 0xFF);
+		}
+	}
+}
+
+/**
+ * Returns an 8 bit indexed copy of the given direct color image
+ * with at most <code>maxColors</code> colors, including the
+ * transparent pixel if the image has transparency.
+ *
+ * @param image the direct color image to quantize
+ * @param maxColors the maximum number of colors, between 2 and 256
+ * @param dither whether to diffuse the error of each pixel to its neighbors
+ * @return the indexed image
+ */
+static ImageData quantize(ImageData image, int maxColors, boolean dither) {
+	return new ColorQuantizer(image, maxColors).quantize(dither);
+}
+
+ImageData quantize(boolean dither) {
+	int limit = hasTransparency ? maxColors - 1 : maxColors;
+	int[] palette = exactColors(limit);
+	boolean exact = palette != null;
+	if (!exact) palette = medianCut(limit);
+	int transparentPixel = hasTransparency ? palette.length : -1;
+	RGB[] rgbs = new RGB[palette.length + (hasTransparency ? 1 : 0)];
+	for (int i = 0; i < palette.length; i++) {
+		int rgb = palette[i];
+		rgbs[i] = new RGB(rgb >>> 16, (rgb >> 8) & 0xFF, rgb & 0xFF);
+	}
+	if (hasTransparency) rgbs[transparentPixel] = new RGB(0, 0, 0);
+	ImageData dest = new ImageData(source.width, source.height, 8, new PaletteData(rgbs));
+	dest.transparentPixel = transparentPixel;
+	dest.type = source.type;
+	dest.x = source.x;
+	dest.y = source.y;
+	dest.disposalMethod = source.disposalMethod;
+	dest.delayTime = source.delayTime;
+	if (exact) {
+		mapExact(dest);
+	} else if (dither) {
+		mapDithered(palette, dest);
+	} else {
+		mapNearest(palette, dest);
+	}
+	return dest;
+}
+
+/*
+* Answer the distinct colors of the image in the order they first
+* appear, or null if there are more than the limit.
+*/
+int[] exactColors(int limit) {
+	keys = new int[Integer.highestOneBit(limit) * 4];
+	indices = new int[keys.length];
+	Arrays.fill(keys, TRANSPARENT);
+	int[] found = new int[limit];
+	int count = 0;
+	for (int color : colors) {
+		if (color == TRANSPARENT) continue;
+		int slot = slot(color);
+		if (keys[slot] == TRANSPARENT) {
+			if (count == limit) return null;
+			keys[slot] = color;
+			indices[slot] = count;
+			found[count++] = color;
+		}
+	}
+	return Arrays.copyOf(found, count);
+}
+
+/* Answer the slot of the color in keys, or the empty slot where it belongs */
+int slot(int color) {
+	int mask = keys.length - 1;
+	int slot = (color * 0x9E3779B9 >>> 16) & mask;
+	while (keys[slot] != TRANSPARENT && keys[slot] != color) {
+		slot = (slot + 1) & mask;
+	}
+	return slot;
+}
+
+void mapExact(ImageData dest) {
+	int width = source.width;
+	byte[] line = new byte[width];
+	for (int y = 0, i = 0; y < source.height; y++) {
+		for (int x = 0; x < width; x++, i++) {
+			int color = colors[i];
+			line[x] = (byte) (color == TRANSPARENT ? dest.transparentPixel : indices[slot(color)]);
+		}
+		dest.setPixels(0, y, width, line, 0);
+	}
+}
+
+static int cell(int r, int g, int b) {
+	return ((r >> SHIFT) << (BITS * 2)) | ((g >> SHIFT) << BITS) | (b >> SHIFT);
+}
+
+/*
+* Answer up to limit colors chosen by repeatedly splitting the
+* most populated box of the histogram at the median of its longest
+* axis, each color being the mean of the pixels in its box.
+*/
+int[] medianCut(int limit) {
+	long[] counts = new long[SIDE * SIDE * SIDE];
+	for (int color : colors) {
+		if (color == TRANSPARENT) continue;
+		counts[cell(color >>> 16, (color >> 8) & 0xFF, color & 0xFF)]++;
+	}
+	List<Box> boxes = new ArrayList<>();
+	Box first = new Box();
+	Arrays.fill(first.max, SIDE - 1);
+	shrink(first, counts);
+	boxes.add(first);
+	while (boxes.size() < limit) {
+		Box largest = null;
+		for (Box box : boxes) {
+			if (box.canSplit() && (largest == null || box.count > largest.count)) largest = box;
+		}
+		if (largest == null) break;
+		Box other = split(largest, counts);
+		boxes.add(other);
+	}
+	long[] sums = new long[SIDE * SIDE * SIDE * 3];
+	for (int color : colors) {
+		if (color == TRANSPARENT) continue;
+		int r = color >>> 16, g = (color >> 8) & 0xFF, b = color & 0xFF;
+		int index = cell(r, g, b) * 3;
+		sums[index] += r;
+		sums[index + 1] += g;
+		sums[index + 2] += b;
+	}
+	int[] palette = new int[boxes.size()];
+	for (int i = 0; i < palette.length; i++) {
+		Box box = boxes.get(i);
+		long r = 0, g = 0, b = 0, count = 0;
+		for (int cr = box.min[0]; cr <= box.max[0]; cr++) {
+			for (int cg = box.min[1]; cg <= box.max[1]; cg++) {
+				for (int cb = box.min[2]; cb <= box.max[2]; cb++) {
+					int cell = (cr << (BITS * 2)) | (cg << BITS) | cb;
+					count += counts[cell];
+					r += sums[cell * 3];
+					g += sums[cell * 3 + 1];
+					b += sums[cell * 3 + 2];
+				}
+			}
+		}
+		if (count != 0) {
+			r = (r + count / 2) / count;
+			g = (g + count / 2) / count;
+			b = (b + count / 2) / count;
+		}
+		palette[i] = (int) ((r << 16) | (g << 8) | b);
+	}
+	return palette;
+}
+
+/* Shrink the box to the cells that contain pixels and count them */
+static void shrink(Box box, long[] counts) {
+	int[] min = {SIDE, SIDE, SIDE}, max = {-1, -1, -1};
+	long total = 0;
+	for (int r = box.min[0]; r <= box.max[0]; r++) {
+		for (int g = box.min[1]; g <= box.max[1]; g++) {
+			for (int b = box.min[2]; b <= box.max[2]; b++) {
+				long count = counts[(r << (BITS * 2)) | (g << BITS) | b];
+				if (count == 0) continue;
+				total += count;
+				min[0] = Math.min(min[0], r); max[0] = Math.max(max[0], r);
+				min[1] = Math.min(min[1], g); max[1] = Math.max(max[1], g);
+				min[2] = Math.min(min[2], b); max[2] = Math.max(max[2], b);
+			}
+		}
+	}
+	box.count = total;
+	if (total == 0) {
+		/* An image with no opaque pixels still needs one color */
+		Arrays.fill(box.max, 0);
+		Arrays.fill(box.min, 0);
+		return;
+	}
+	System.arraycopy(min, 0, box.min, 0, 3);
+	System.arraycopy(max, 0, box.max, 0, 3);
+}
+
+/* Split the box at the median of its longest axis, answering the upper half */
+static Box split(Box box, long[] counts) {
+	int axis = box.longestAxis();
+	long[] planes = new long[SIDE];
+	for (int r = box.min[0]; r <= box.max[0]; r++) {
+		for (int g = box.min[1]; g <= box.max[1]; g++) {
+			for (int b = box.min[2]; b <= box.max[2]; b++) {
+				long count = counts[(r << (BITS * 2)) | (g << BITS) | b];
+				planes[axis == 0 ? r : axis == 1 ? g : b] += count;
+			}
+		}
+	}
+	int median = box.min[axis];
+	long below = planes[median];
+	while (median + 1 < box.max[axis] && below + planes[median + 1] <= box.count / 2) {
+		below += planes[++median];
+	}
+	Box upper = new Box();
+	System.arraycopy(box.min, 0, upper.min, 0, 3);
+	System.arraycopy(box.max, 0, upper.max, 0, 3);
+	upper.min[axis] = median + 1;
+	box.max[axis] = median;
+	shrink(box, counts);
+	shrink(upper, counts);
+	return upper;
+}
+
+static int nearest(int[] palette, int r, int g, int b) {
+	int best = 0, bestDistance = Integer.MAX_VALUE;
+	for (int i = 0; i < palette.length; i++) {
+		int color = palette[i];
+		int dr = (color >>> 16) - r, dg = ((color >> 8) & 0xFF) - g, db = (color & 0xFF) - b;
+		int distance = dr * dr + dg * dg + db * db;
+		if (distance < bestDistance) {
+			bestDistance = distance;
+			best = i;
+		}
+	}
+	return best;
+}
+
+void mapNearest(int[] palette, ImageData dest) {
+	InverseTable table = new InverseTable(palette);
+	int width = source.width;
+	byte[] line = new byte[width];
+	for (int y = 0, i = 0; y < source.height; y++) {
+		for (int x = 0; x < width; x++, i++) {
+			int color = colors[i];
+			line[x] = (byte) (color == TRANSPARENT ? dest.transparentPixel : table.get(color >>> 16, (color >> 8) & 0xFF, color & 0xFF));
+		}
+		dest.setPixels(0, y, width, line, 0);
+	}
+}
+
+/*
+* Map the pixels with Floyd-Steinberg error diffusion, carrying
+* 7/16 of the error of each pixel to the right and 3/16, 5/16 and
+* 1/16 to the pixels below. Transparent pixels neither receive nor
+* pass on any error.
+*/
+void mapDithered(int[] palette, ImageData dest) {
+	InverseTable table = new InverseTable(palette);
+	int width = source.width;
+	byte[] line = new byte[width];
+	/* The error of each channel in sixteenths, with a pixel of padding on each side */
+	int[] current = new int[(width + 2) * 3], next = new int[(width + 2) * 3];
+	for (int y = 0, i = 0; y < source.height; y++) {
+		for (int x = 0; x < width; x++, i++) {
+			int color = colors[i];
+			if (color == TRANSPARENT) {
+				line[x] = (byte) dest.transparentPixel;
+				continue;
+			}
+			int e = (x + 1) * 3;
+			int r = clamp((color >>> 16) + (current[e] + 8 >> 4));
+			int g = clamp(((color >> 8) & 0xFF) + (current[e + 1] + 8 >> 4));
+			int b = clamp((color & 0xFF) + (current[e + 2] + 8 >> 4));
+			int pixel = table.get(r, g, b);
+			line[x] = (byte) pixel;
+			int match = palette[pixel];
+			diffuse(current, next, e, r - (match >>> 16));
+			diffuse(current, next, e + 1, g - ((match >> 8) & 0xFF));
+			diffuse(current, next, e + 2, b - (match & 0xFF));
+		}
+		dest.setPixels(0, y, width, line, 0);
+		int[] swap = current;
+		current = next;
+		next = swap;
+		Arrays.fill(next, 0);
+	}
+}
+
+static void diffuse(int[] current, int[] next, int index, int error) {
+	current[index + 3] += error * 7;
+	next[index - 3] += error * 3;
+	next[index] += error * 5;
+	next[index + 3] += error;
+}
+
+static int clamp(int value) {
+	return value < 0 ? 0 : value > 255 ? 255 : value;
+}
+}
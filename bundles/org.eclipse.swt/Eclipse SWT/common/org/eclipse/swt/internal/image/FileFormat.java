@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2018 IBM Corporation and others.
+ * Copyright (c) 2000, 2026 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -15,6 +15,9 @@ package org.eclipse.swt.internal.image;
 
 
 import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.*;
 
 import org.eclipse.swt.*;
 import org.eclipse.swt.graphics.*;
@@ -24,30 +27,116 @@ import org.eclipse.swt.graphics.*;
  * in various image file formats.
  */
 public abstract class FileFormat {
-	static final String FORMAT_PACKAGE = "org.eclipse.swt.internal.image"; //$NON-NLS-1$
-	static final String FORMAT_SUFFIX = "FileFormat"; //$NON-NLS-1$
-	static final String[] FORMATS = {"WinBMP", "WinBMP", "GIF", "WinICO", "JPEG", "PNG", "TIFF", "OS2BMP"}; //$NON-NLS-1$//$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$//$NON-NLS-5$ //$NON-NLS-6$//$NON-NLS-7$//$NON-NLS-8$
-
 	LEDataInputStream inputStream;
 	LEDataOutputStream outputStream;
 	ImageLoader loader;
 	int compression;
+	/* Requested size of the decoded image, or 0 for the natural size */
+	int targetWidth, targetHeight;
 
-static FileFormat getFileFormat (LEDataInputStream stream, String format) throws Exception {
-	Class<?> clazz = Class.forName(FORMAT_PACKAGE + '.' + format + FORMAT_SUFFIX);
-	FileFormat fileFormat = (FileFormat) clazz.getDeclaredConstructor().newInstance();
-	if (fileFormat.isFileFormat(stream)) return fileFormat;
-	return null;
+/**
+ * A file format known to the registry. The file format objects hold
+ * the state of one load or save, so a new one is created for each; the
+ * prototype only recognizes signatures.
+ */
+static final class Codec {
+	final Supplier<FileFormat> factory;
+	final FileFormat prototype;
+
+	Codec(Supplier<FileFormat> factory) {
+		this.factory = factory;
+		this.prototype = factory.get();
+	}
 }
 
 /**
- * Return whether or not the specified input stream
- * represents a supported file format.
+ * The built-in file formats. They are held by their own class, so that
+ * the prototypes are not created while a file format class is initialized.
  */
-abstract boolean isFileFormat(LEDataInputStream stream);
+static final class Formats {
+	static final Codec BMP = new Codec(WinBMPFileFormat::new);
+	static final Codec GIF = new Codec(GIFFileFormat::new);
+	static final Codec ICO = new Codec(WinICOFileFormat::new);
+	static final Codec JPEG = new Codec(JPEGFileFormat::new);
+	static final Codec PNG = new Codec(PNGFileFormat::new);
+	static final Codec TIFF = new Codec(TIFFFileFormat::new);
+	static final Codec OS2BMP = new Codec(OS2BMPFileFormat::new);
+
+	/* The formats that can be saved, indexed by the SWT.IMAGE_* constants */
+	static final Codec[] SAVE = {BMP, BMP, GIF, ICO, JPEG, PNG, TIFF, OS2BMP};
+
+	/* The formats that are tried for a stream, indexed by the first byte of the stream */
+	static final Codec[][] SIGNATURES = new Codec[256][];
+	static {
+		SIGNATURES['B'] = new Codec[] {BMP, OS2BMP};
+		SIGNATURES['G'] = new Codec[] {GIF};
+		SIGNATURES[0x00] = new Codec[] {ICO};
+		SIGNATURES[0xFF] = new Codec[] {JPEG};
+		SIGNATURES[0x89] = new Codec[] {PNG};
+		SIGNATURES['I'] = SIGNATURES['M'] = new Codec[] {TIFF};
+	}
+}
+
+/**
+ * The codecs plugged in with ServiceLoader. They are looked
+ * up when a stream is first not in one of the built-in formats.
+ */
+static final class Plugins {
+	static final Codec[] CODECS = load();
+
+	static Codec[] load() {
+		List<Codec> codecs = new ArrayList<>();
+		Iterator<ImageCodec> iterator = ServiceLoader.load(ImageCodec.class).iterator();
+		while (true) {
+			try {
+				if (!iterator.hasNext()) break;
+				ImageCodec codec = iterator.next();
+				codecs.add(new Codec(() -> new ImageCodecFileFormat(codec)));
+			} catch (ServiceConfigurationError e) {
+				/* Skip the codecs that cannot be instantiated */
+			}
+		}
+		return codecs.toArray(new Codec[codecs.size()]);
+	}
+}
+
+/**
+ * Return whether or not a stream that starts with the given
+ * signature represents this file format.
+ */
+abstract boolean isFileFormat(byte[] signature, int length);
+
+/**
+ * Return whether or not the next bytes of the specified input
+ * stream represent this file format. The bytes are not consumed.
+ */
+boolean isFileFormat(LEDataInputStream stream) {
+	try {
+		byte[] signature = new byte[ImageCodec.SIGNATURE_LENGTH];
+		return isFileFormat(signature, stream.peek(signature));
+	} catch (IOException e) {
+		return false;
+	}
+}
 
 abstract ImageData[] loadFromByteStream();
 
+/**
+ * Read the headers of the input stream, and return the type, size
+ * and depth of the image(s) it contains, without decoding them.
+ */
+abstract ImageInfo probeFromByteStream();
+
+/**
+ * Return an iterator over the images in the input stream. Formats
+ * that can read their images one at a time, such as animated GIF,
+ * read each image when it is requested; all other formats read
+ * all images before the iterator is returned.
+ */
+Iterator<ImageData> loadFramesFromByteStream() {
+	return Arrays.asList(loadFromByteStream()).iterator();
+}
+
 /**
  * Read the specified input stream, and return the
  * device independent image array represented by the stream.
@@ -57,36 +146,196 @@ public ImageData[] loadFromStream(LEDataInputStream stream) {
 		inputStream = stream;
 		return loadFromByteStream();
 	} catch (Exception e) {
-		if (e instanceof IOException) {
-			SWT.error(SWT.ERROR_IO, e);
-		} else {
-			SWT.error(SWT.ERROR_INVALID_IMAGE, e);
-		}
+		error(e);
 		return null;
 	}
 }
 
+void error(Exception e) {
+	if (e instanceof IOException) {
+		SWT.error(SWT.ERROR_IO, e);
+	} else {
+		SWT.error(SWT.ERROR_INVALID_IMAGE, e);
+	}
+}
+
 /**
  * Read the specified input stream using the specified loader, and
  * return the device independent image array represented by the stream.
  */
 public static ImageData[] load(InputStream is, ImageLoader loader) {
-	FileFormat fileFormat = null;
+	return load(is, loader, 0, 0);
+}
+
+/**
+ * Read the specified input stream using the specified loader, and
+ * return the device independent image array represented by the stream.
+ * <p>
+ * Formats that can decode directly at a reduced size use the smallest
+ * such size that is at least <code>width</code> by <code>height</code>.
+ * All other formats, and a width or height of 0, load at full size.
+ * </p>
+ */
+public static ImageData[] load(InputStream is, ImageLoader loader, int width, int height) {
+	LEDataInputStream stream = new LEDataInputStream(is);
+	FileFormat fileFormat = findFileFormat(stream);
+	fileFormat.loader = loader;
+	fileFormat.targetWidth = width;
+	fileFormat.targetHeight = height;
+	return fileFormat.loadFromStream(stream);
+}
+
+/**
+ * Read the specified input stream using the specified loader, and
+ * return an iterator over the device independent images represented
+ * by the stream. The images of an animated GIF are read one at a time,
+ * when they are requested, and the fields of the loader describing the
+ * animation are set before the iterator is returned.
+ */
+public static Iterator<ImageData> loadFrames(InputStream is, ImageLoader loader) {
 	LEDataInputStream stream = new LEDataInputStream(is);
-	for (int i = 1; i < FORMATS.length; i++) {
-		if (FORMATS[i] != null) {
+	FileFormat fileFormat = findFileFormat(stream);
+	fileFormat.loader = loader;
+	Iterator<ImageData> frames = null;
+	try {
+		fileFormat.inputStream = stream;
+		frames = fileFormat.loadFramesFromByteStream();
+	} catch (Exception e) {
+		fileFormat.error(e);
+	}
+	Iterator<ImageData> iterator = frames;
+	return new Iterator<>() {
+		@Override
+		public boolean hasNext() {
 			try {
-				fileFormat = getFileFormat (stream, FORMATS[i]);
-				if (fileFormat != null) break;
-			} catch (ClassNotFoundException e) {
-				FORMATS[i] = null;
+				return iterator.hasNext();
 			} catch (Exception e) {
+				fileFormat.error(e);
+				return false;
 			}
 		}
+
+		@Override
+		public ImageData next() {
+			if (!hasNext()) throw new NoSuchElementException();
+			return iterator.next();
+		}
+	};
+}
+
+/**
+ * Read the headers of the specified input stream, and return a
+ * description of the image(s) represented by the stream. No pixel
+ * buffers are allocated and the pixels are not decoded.
+ */
+public static ImageInfo probe(InputStream is) {
+	LEDataInputStream stream = new LEDataInputStream(is);
+	FileFormat fileFormat = findFileFormat(stream);
+	/* Some formats report the fields of the animation to the loader */
+	fileFormat.loader = new ImageLoader();
+	try {
+		fileFormat.inputStream = stream;
+		return fileFormat.probeFromByteStream();
+	} catch (Exception e) {
+		fileFormat.error(e);
+		return null;
 	}
-	if (fileFormat == null) SWT.error(SWT.ERROR_UNSUPPORTED_FORMAT);
-	fileFormat.loader = loader;
-	return fileFormat.loadFromStream(stream);
+}
+
+/**
+ * Read the headers of the file with the specified name, and
+ * return a description of the image(s) it contains.
+ */
+public static ImageInfo probe(String filename) {
+	try (InputStream stream = new FileInputStream(filename)) {
+		return probe(stream);
+	} catch (IOException e) {
+		SWT.error(SWT.ERROR_IO, e);
+		return null;
+	}
+}
+
+/**
+ * Probe the files with the specified names on the threads of the
+ * shared <code>ImageExecutor</code>. The description of a file that
+ * cannot be read, or that is not in a supported format, is null.
+ */
+public static ImageInfo[] probe(String[] filenames) {
+	ImageInfo[] infos = new ImageInfo[filenames.length];
+	int threads = ImageExecutor.getThreads(filenames.length);
+	if (threads <= 1) {
+		for (int i = 0; i < filenames.length; i++) {
+			infos[i] = probeOrNull(filenames[i]);
+		}
+		return infos;
+	}
+	List<Callable<ImageInfo>> tasks = new ArrayList<>(filenames.length);
+	for (String filename : filenames) {
+		tasks.add(() -> probeOrNull(filename));
+	}
+	try {
+		return ImageExecutor.invokeAll(tasks, threads).toArray(infos);
+	} catch (IOException e) {
+		SWT.error(SWT.ERROR_IO, e);
+	}
+	return infos;
+}
+
+static ImageInfo probeOrNull(String filename) {
+	try {
+		return probe(filename);
+	} catch (SWTException e) {
+		return null;
+	}
+}
+
+/**
+ * Read the signature at the start of the specified input stream
+ * once, and return a new file format object for the format that
+ * recognizes it. The built-in formats are found by the first byte
+ * of the signature, the plugged in formats are tried after them.
+ */
+static FileFormat findFileFormat(LEDataInputStream stream) {
+	byte[] signature = new byte[ImageCodec.SIGNATURE_LENGTH];
+	int length = 0;
+	try {
+		length = stream.peek(signature);
+	} catch (IOException e) {
+	}
+	Codec codec = findBuiltInCodec(signature, length);
+	if (codec == null) codec = findPluggedCodec(signature, length);
+	if (codec == null) SWT.error(SWT.ERROR_UNSUPPORTED_FORMAT);
+	return codec.factory.get();
+}
+
+static Codec findBuiltInCodec(byte[] signature, int length) {
+	if (length == 0) return null;
+	Codec[] codecs = Formats.SIGNATURES[signature[0] & 0xFF];
+	if (codecs != null) {
+		for (Codec codec : codecs) {
+			if (codec.prototype.isFileFormat(signature, length)) return codec;
+		}
+	}
+	return null;
+}
+
+static Codec findPluggedCodec(byte[] signature, int length) {
+	if (length == 0) return null;
+	for (Codec codec : Plugins.CODECS) {
+		if (codec.prototype.isFileFormat(signature, length)) return codec;
+	}
+	return null;
+}
+
+/**
+ * Return whether a stream that starts with the given signature is
+ * read by a codec plugged in with ServiceLoader, which is the case
+ * when none of the built-in formats recognizes it. Platforms that
+ * read the built-in formats natively load such streams with this
+ * class instead.
+ */
+public static boolean isPluggedFormat(byte[] signature, int length) {
+	return findBuiltInCodec(signature, length) == null && findPluggedCodec(signature, length) != null;
 }
 
 /**
@@ -94,18 +343,11 @@ public static ImageData[] load(InputStream is, ImageLoader loader) {
  * to the specified output stream using the specified file format.
  */
 public static void save(OutputStream os, int format, ImageLoader loader) {
-	if (format < 0 || format >= FORMATS.length) SWT.error(SWT.ERROR_UNSUPPORTED_FORMAT);
-	if (FORMATS[format] == null) SWT.error(SWT.ERROR_UNSUPPORTED_FORMAT);
+	if (format < 0 || format >= Formats.SAVE.length) SWT.error(SWT.ERROR_UNSUPPORTED_FORMAT);
 	if (loader.data == null || loader.data.length < 1) SWT.error(SWT.ERROR_INVALID_ARGUMENT);
 
 	LEDataOutputStream stream = new LEDataOutputStream(os);
-	FileFormat fileFormat = null;
-	try {
-		Class<?> clazz = Class.forName(FORMAT_PACKAGE + '.' + FORMATS[format] + FORMAT_SUFFIX);
-		fileFormat = (FileFormat) clazz.getDeclaredConstructor().newInstance();
-	} catch (Exception e) {
-		SWT.error(SWT.ERROR_UNSUPPORTED_FORMAT);
-	}
+	FileFormat fileFormat = Formats.SAVE[format].factory.get();
 	if (format == SWT.IMAGE_BMP_RLE) {
 		switch (loader.data[0].depth) {
 			case 8: fileFormat.compression = 1; break;
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2012 IBM Corporation and others.
+ * Copyright (c) 2000, 2026 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -17,6 +17,7 @@ package org.eclipse.swt.internal.image;
 import org.eclipse.swt.*;
 import org.eclipse.swt.graphics.*;
 import java.io.*;
+import java.util.*;
 
 public final class GIFFileFormat extends FileFormat {
 	String signature;
@@ -25,6 +26,14 @@ public final class GIFFileFormat extends FileFormat {
 	int delayTime = 0;
 	int transparentPixel = -1;
 	int repeatCount = 1;
+	int nextID;
+	LZWCodec codec = new LZWCodec();
+
+	/*
+	 * Whether direct color images are dithered when they are reduced
+	 * to a palette to be saved, false by default.
+	 */
+	static final String DITHER_PROPERTY = "org.eclipse.swt.internal.image.GIFFileFormat.dither"; //$NON-NLS-1$
 
 	static final int GIF_APPLICATION_EXTENSION_BLOCK_ID = 0xFF;
 	static final int GIF_GRAPHICS_CONTROL_BLOCK_ID = 0xF9;
@@ -51,15 +60,8 @@ public final class GIFFileFormat extends FileFormat {
 	}
 
 	@Override
-	boolean isFileFormat(LEDataInputStream stream) {
-		try {
-			byte[] signature = new byte[3];
-			stream.read(signature);
-			stream.unread(signature);
-			return signature[0] == 'G' && signature[1] == 'I' && signature[2] == 'F';
-		} catch (Exception e) {
-			return false;
-		}
+	boolean isFileFormat(byte[] signature, int length) {
+		return length >= 3 && signature[0] == 'G' && signature[1] == 'I' && signature[2] == 'F';
 	}
 
 	/**
@@ -68,17 +70,96 @@ public final class GIFFileFormat extends FileFormat {
 	 */
 	@Override
 	ImageData[] loadFromByteStream() {
+		List<ImageData> images = new ArrayList<>();
+		Iterator<ImageData> frames = loadFramesFromByteStream();
+		while (frames.hasNext()) {
+			ImageData image = frames.next();
+			if (loader.hasListeners()) {
+				loader.notifyListeners(new ImageLoaderEvent(loader, image, 3, true));
+			}
+			images.add(image);
+		}
+		if (images.isEmpty()) SWT.error(SWT.ERROR_INVALID_IMAGE);
+		return images.toArray(new ImageData[images.size()]);
+	}
+
+	/**
+	 * Read the header of the GIF stored in the input stream, and
+	 * return an iterator that reads each image when it is requested,
+	 * so that animations of any length can be played in bounded memory.
+	 */
+	@Override
+	Iterator<ImageData> loadFramesFromByteStream() {
+		PaletteData palette = readHeader();
+		return new Iterator<>() {
+			ImageData next;
+			boolean end;
+			int count;
+
+			@Override
+			public boolean hasNext() {
+				if (next == null && !end) {
+					next = readNextImage(palette, count > 0);
+					end = next == null;
+				}
+				return next != null;
+			}
+
+			@Override
+			public ImageData next() {
+				if (!hasNext()) throw new NoSuchElementException();
+				ImageData image = next;
+				next = null;
+				count++;
+				return image;
+			}
+		};
+	}
+
+	/**
+	 * Read the header of the GIF stored in the input stream, and walk
+	 * over its blocks to count the images, skipping their data.
+	 */
+	@Override
+	ImageInfo probeFromByteStream() {
+		readHeader();
+		int depth = promoteDepth(defaultDepth), count = 0;
+		int id = nextID;
+		while (id != GIF_TRAILER_ID && id != -1) {
+			if (id == GIF_IMAGE_BLOCK_ID) {
+				int imageDepth = skipImageBlock();
+				if (count++ == 0) depth = imageDepth;
+			} else if (id == GIF_EXTENSION_BLOCK_ID) {
+				readExtension();
+			} else {
+				/* Salvage the GIF if we read at least one image, like readNextImage() */
+				if (count > 0) break;
+				SWT.error(SWT.ERROR_INVALID_IMAGE);
+			}
+			id = readID(); // block terminator (0)
+			if (id == 0) id = readID(); // next block ID (unless we just read it)
+		}
+		if (count == 0) SWT.error(SWT.ERROR_INVALID_IMAGE);
+		return new ImageInfo(SWT.IMAGE_GIF, screenWidth, screenHeight, depth, count);
+	}
+
+	/**
+	 * Read the header and the global palette, if any.
+	 * Return the global palette, or null.
+	 */
+	PaletteData readHeader() {
 		byte[] signature = new byte[3];
 		byte[] versionBytes = new byte[3];
 		byte[] block = new byte[7];
 		try {
-			inputStream.read(signature);
-			if (!(signature[0] == 'G' && signature[1] == 'I' && signature[2] == 'F'))
+			if (inputStream.read(signature) != signature.length || !(signature[0] == 'G' && signature[1] == 'I' && signature[2] == 'F'))
 				SWT.error(SWT.ERROR_INVALID_IMAGE);
 
-			inputStream.read(versionBytes);
+			if (inputStream.read(versionBytes) != versionBytes.length)
+				SWT.error(SWT.ERROR_INVALID_IMAGE);
 
-			inputStream.read(block);
+			if (inputStream.read(block) != block.length)
+				SWT.error(SWT.ERROR_INVALID_IMAGE);
 		} catch (IOException e) {
 			SWT.error(SWT.ERROR_IO, e);
 		}
@@ -103,19 +184,20 @@ public final class GIFFileFormat extends FileFormat {
 			defaultDepth = bitsPerPixel;
 		}
 		loader.backgroundPixel = backgroundPixel;
+		nextID = readID();
+		return palette;
+	}
 
-		ImageData[] images = new ImageData[0];
-		int id = readID();
-		while (id != GIF_TRAILER_ID && id != -1) {
+	/**
+	 * Read the blocks up to and including the next image block.
+	 * Return the image, or null if the trailer is reached.
+	 */
+	ImageData readNextImage(PaletteData palette, boolean salvage) {
+		ImageData image = null;
+		int id = nextID;
+		while (image == null && id != GIF_TRAILER_ID && id != -1) {
 			if (id == GIF_IMAGE_BLOCK_ID) {
-				ImageData image = readImageBlock(palette);
-				if (loader.hasListeners()) {
-					loader.notifyListeners(new ImageLoaderEvent(loader, image, 3, true));
-				}
-				ImageData[] oldImages = images;
-				images = new ImageData[oldImages.length + 1];
-				System.arraycopy(oldImages, 0, images, 0, oldImages.length);
-				images[images.length - 1] = image;
+				image = readImageBlock(palette);
 			} else if (id == GIF_EXTENSION_BLOCK_ID) {
 				/* Read the extension block. Currently, only the
 				 * interesting parts of certain extensions are kept,
@@ -127,13 +209,14 @@ public final class GIFFileFormat extends FileFormat {
 			} else {
 				/* The GIF is not to spec, but try to salvage it
 				 * if we read at least one image. */
-				if (images.length > 0) break;
+				if (salvage) return null;
 				SWT.error(SWT.ERROR_INVALID_IMAGE);
 			}
 			id = readID(); // block terminator (0)
 			if (id == 0) id = readID(); // next block ID (unless we just read it)
 		}
-		return images;
+		nextID = id;
+		return image;
 	}
 
 	/**
@@ -351,12 +434,7 @@ public final class GIFFileFormat extends FileFormat {
 			transparentPixel = -1;
 		}
 		// Promote depth to next highest supported value.
-		if (!(depth == 1 || depth == 4 || depth == 8)) {
-			if (depth < 4)
-				depth = 4;
-			else
-				depth = 8;
-		}
+		depth = promoteDepth(depth);
 		if (palette == null) {
 			palette = grayRamp(1 << depth);
 		}
@@ -386,11 +464,46 @@ public final class GIFFileFormat extends FileFormat {
 			top,
 			disposalMethod,
 			delayTime);
-		LZWCodec codec = new LZWCodec();
 		codec.decode(inputStream, loader, image, interlaced, initialCodeSize);
 		return image;
 	}
 
+	/**
+	 * Skip an image block, including its local palette and its
+	 * image data, without decoding it. Return the depth of the image.
+	 */
+	int skipImageBlock() {
+		byte[] block = new byte[9];
+		int depth = defaultDepth;
+		try {
+			if (inputStream.read(block) != block.length) SWT.error(SWT.ERROR_INVALID_IMAGE);
+			byte bitField = block[8];
+			if ((bitField & 0x80) != 0) {
+				// Local palette.
+				depth = (bitField & 0x7) + 1;
+				inputStream.skipNBytes(3 << depth);
+			}
+			// Initial code size.
+			if (inputStream.read() < 0) SWT.error(SWT.ERROR_INVALID_IMAGE);
+			int size;
+			while ((size = inputStream.read()) > 0) {
+				inputStream.skipNBytes(size);
+			}
+			if (size < 0) SWT.error(SWT.ERROR_INVALID_IMAGE);
+		} catch (IOException e) {
+			SWT.error(SWT.ERROR_IO, e);
+		}
+		return promoteDepth(depth);
+	}
+
+	/**
+	 * Answer the supported depth that holds pixels of the given depth.
+	 */
+	static int promoteDepth(int depth) {
+		if (depth == 1 || depth == 4 || depth == 8) return depth;
+		return depth < 4 ? 4 : 8;
+	}
+
 	/**
 	 * Read a palette from the input stream.
 	 */
@@ -412,9 +525,14 @@ public final class GIFFileFormat extends FileFormat {
 	@Override
 	void unloadIntoByteStream(ImageLoader loader) {
 
-		/* Step 1: Acquire GIF parameters. */
-		ImageData[] data = loader.data;
+		/* Step 1: Acquire GIF parameters, reducing direct color frames to a palette. */
+		ImageData[] data = loader.data.clone();
 		int frameCount = data.length;
+		for (int i=0; i<frameCount; i++) {
+			if (data[i].palette.isDirect) {
+				data[i] = ColorQuantizer.quantize(data[i], 256, Boolean.getBoolean(DITHER_PROPERTY));
+			}
+		}
 		boolean multi = frameCount > 1;
 		ImageData firstImage = data[0];
 		int logicalScreenWidth = multi ? loader.logicalScreenWidth : firstImage.width;
@@ -430,9 +548,6 @@ public final class GIFFileFormat extends FileFormat {
 			SWT.error(SWT.ERROR_UNSUPPORTED_DEPTH);
 		}
 		for (int i=0; i<frameCount; i++) {
-			if (data[i].palette.isDirect) {
-				SWT.error(SWT.ERROR_INVALID_IMAGE);
-			}
 			if (multi) {
 				if (!(data[i].height <= logicalScreenHeight && data[i].width <= logicalScreenWidth && data[i].depth == depth)) {
 					SWT.error(SWT.ERROR_INVALID_IMAGE);
@@ -530,7 +645,7 @@ public final class GIFFileFormat extends FileFormat {
 			} catch (IOException e) {
 				SWT.error(SWT.ERROR_IO, e);
 			}
-			new LZWCodec().encode(outputStream, data[frame]);
+			codec.encode(outputStream, data[frame]);
 		}
 
 		/* Step 10: Write GIF terminator. */
@@ -0,0 +1,66 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Eclipse Foundation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Eclipse Foundation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.swt.internal.image;
+
+
+import java.io.*;
+
+import org.eclipse.swt.*;
+import org.eclipse.swt.graphics.*;
+
+/**
+ * A file format read by an <code>ImageCodec</code> that
+ * was plugged in with <code>ServiceLoader</code>.
+ */
+final class ImageCodecFileFormat extends FileFormat {
+	ImageCodec codec;
+
+ImageCodecFileFormat(ImageCodec codec) {
+	this.codec = codec;
+}
+
+@Override
+boolean isFileFormat(byte[] signature, int length) {
+	return codec.isFileFormat(signature, length);
+}
+
+@Override
+ImageData[] loadFromByteStream() {
+	try {
+		ImageData[] images = codec.load(inputStream, loader);
+		if (images == null) SWT.error(SWT.ERROR_INVALID_IMAGE);
+		return images;
+	} catch (IOException e) {
+		SWT.error(SWT.ERROR_IO, e);
+		return null;
+	}
+}
+
+@Override
+ImageInfo probeFromByteStream() {
+	try {
+		ImageInfo info = codec.probe(inputStream);
+		if (info == null) SWT.error(SWT.ERROR_INVALID_IMAGE);
+		return info;
+	} catch (IOException e) {
+		SWT.error(SWT.ERROR_IO, e);
+		return null;
+	}
+}
+
+@Override
+void unloadIntoByteStream(ImageLoader loader) {
+	SWT.error(SWT.ERROR_UNSUPPORTED_FORMAT);
+}
+}
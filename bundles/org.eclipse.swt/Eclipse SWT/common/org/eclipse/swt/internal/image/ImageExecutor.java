@@ -0,0 +1,163 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Eclipse Foundation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Eclipse Foundation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.swt.internal.image;
+
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+/**
+ * Runs the independent parts of decoding, encoding and resampling
+ * an image on several threads.
+ * <p>
+ * All image code shares the common fork/join pool, and uses at most
+ * as many threads for one image as the system property
+ * <code>org.eclipse.swt.internal.image.threads</code> gives, by default
+ * the number of available processors. Setting the property to 1 does
+ * all the work on the calling thread. Images with fewer than
+ * <code>MIN_PARALLEL_PIXELS</code> pixels are always processed on the
+ * calling thread.
+ * </p>
+ * <p>
+ * The calling thread runs the parts that no pool thread has started,
+ * so a busy pool slows the work down but never blocks it, and work
+ * that is started from a pool thread cannot deadlock.
+ * </p>
+ */
+public final class ImageExecutor {
+	public static final String THREADS_PROPERTY = "org.eclipse.swt.internal.image.threads"; //$NON-NLS-1$
+
+	/* Smaller images are processed on the calling thread only */
+	public static final long MIN_PARALLEL_PIXELS = 512 * 512;
+
+private ImageExecutor() {
+}
+
+/**
+ * Returns the largest number of threads that may work on one image,
+ * including the calling thread.
+ */
+public static int getMaxThreads() {
+	return Math.max(1, Integer.getInteger(THREADS_PROPERTY, Runtime.getRuntime().availableProcessors()));
+}
+
+/**
+ * Returns the number of threads that work on the given number of
+ * independent parts of an image, which is 1 when the image has fewer
+ * than <code>MIN_PARALLEL_PIXELS</code> pixels.
+ */
+public static int getThreads(long pixels, int parts) {
+	if (pixels < MIN_PARALLEL_PIXELS) return 1;
+	return getThreads(parts);
+}
+
+/**
+ * Returns the number of threads that work on the given number of
+ * independent parts, whatever their size.
+ */
+public static int getThreads(int parts) {
+	return Math.max(1, Math.min(parts, getMaxThreads()));
+}
+
+/**
+ * Returns whether the number of threads was set explicitly with the
+ * system property. Work that has to buffer its whole input before it
+ * can be split, such as decoding the restart intervals of a JPEG image,
+ * is only done on several threads then.
+ */
+public static boolean isRequested() {
+	return System.getProperty(THREADS_PROPERTY) != null && getMaxThreads() > 1;
+}
+
+/**
+ * Returns the executor shared by the image code.
+ */
+public static Executor getExecutor() {
+	return ForkJoinPool.commonPool();
+}
+
+/**
+ * Calls the tasks on up to the given number of threads, including the
+ * calling thread, and returns their results in the order of the tasks.
+ * The tasks that have not been started are not called once a task fails.
+ *
+ * @exception IOException the exception of the first task that failed,
+ * or an IOException that wraps it when it is another checked exception
+ */
+public static <T> List<T> invokeAll(List<? extends Callable<T>> tasks, int threads) throws IOException {
+	int count = tasks.size();
+	Object[] results = new Object[count];
+	AtomicInteger next = new AtomicInteger();
+	AtomicReference<Throwable> failure = new AtomicReference<>();
+	Runnable worker = () -> {
+		int index;
+		while (failure.get() == null && (index = next.getAndIncrement()) < count) {
+			try {
+				results[index] = tasks.get(index).call();
+			} catch (Throwable t) {
+				failure.compareAndSet(null, t);
+			}
+		}
+	};
+	int helpers = Math.max(0, Math.min(threads, count) - 1);
+	AtomicBoolean[] claimed = new AtomicBoolean[helpers];
+	List<FutureTask<Void>> started = new ArrayList<>(helpers);
+	for (int i = 0; i < helpers; i++) {
+		AtomicBoolean helperClaimed = claimed[i] = new AtomicBoolean();
+		FutureTask<Void> helper = new FutureTask<>(() -> {
+			if (helperClaimed.compareAndSet(false, true)) worker.run();
+		}, null);
+		getExecutor().execute(helper);
+		started.add(helper);
+	}
+	worker.run();
+	/*
+	* The calling thread took the last task. The helpers that have not
+	* started yet are claimed so that they do nothing when they run, and
+	* the others are waited for until they finish their task.
+	*/
+	for (int i = 0; i < helpers; i++) {
+		if (!claimed[i].compareAndSet(false, true)) join(started.get(i));
+	}
+	Throwable throwable = failure.get();
+	if (throwable instanceof IOException) throw (IOException) throwable;
+	if (throwable instanceof RuntimeException) throw (RuntimeException) throwable;
+	if (throwable instanceof Error) throw (Error) throwable;
+	if (throwable != null) throw new IOException(throwable);
+	@SuppressWarnings("unchecked")
+	List<T> list = (List<T>) Arrays.asList(results);
+	return list;
+}
+
+static void join(Future<?> future) {
+	boolean interrupted = false;
+	try {
+		while (true) {
+			try {
+				future.get();
+				return;
+			} catch (InterruptedException e) {
+				interrupted = true;
+			} catch (ExecutionException | CancellationException e) {
+				/* The worker records the failures of the tasks */
+				return;
+			}
+		}
+	} finally {
+		if (interrupted) Thread.currentThread().interrupt();
+	}
+}
+}
@@ -18,6 +18,8 @@
 package org.eclipse.swt.internal.image;
 
 import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
 
 import org.eclipse.swt.*;
 import org.eclipse.swt.graphics.*;
@@ -364,6 +366,20 @@ public class JPEGDecoder {
 
 	}
 
+	/* Hands complete iMCU rows of coefficients from the entropy decoder,
+	 * running on another thread, to the IDCT and color conversion.
+	 * All fields are guarded by the object's monitor.
+	 */
+	static final class jpeg_d_pipeline {
+		FutureTask<Void> task;
+		int iMCU_rows;	/* number of iMCU rows completed by the entropy decoder */
+		int output_iMCU_row;	/* iMCU row being processed by the output side */
+		boolean started;	/* the entropy decoder is running */
+		boolean finished;	/* the entropy decoder returned or failed */
+		boolean inline;	/* the output side runs the entropy decoder itself */
+		boolean cancelled;	/* the output side gave up */
+	}
+
 	static abstract class jpeg_entropy_decoder {
 		abstract void start_pass (jpeg_decompress_struct cinfo);
 		abstract boolean decode_mcu (jpeg_decompress_struct cinfo, short[][] MCU_data);
@@ -1601,6 +1617,7 @@ public class JPEGDecoder {
 
 		/* Private per-component storage for DCT or IDCT subsystem. */
 		int[] dct_table;
+		float[] float_dct_table;
 	}
 
 	static final class jpeg_color_quantizer {
@@ -1662,6 +1679,11 @@ public class JPEGDecoder {
 		/* Per-component upsampling method pointers */
 		int[] methods = new int[MAX_COMPONENTS];
 
+		/* True if the chroma components are upsampled while they are color
+		 * converted, instead of being expanded into color_buf first.
+		 */
+		boolean fancy_ycc;
+
 		int next_row_out;		/* counts rows emitted from color_buf */
 		int rows_to_go;	/* counts rows remaining in image */
 
@@ -1787,8 +1809,8 @@ public class JPEGDecoder {
 
 	static final class jpeg_inverse_dct {
 //		JMETHOD(void, start_pass, (j_decompress_ptr cinfo));
-//		/* It is useful to allow each component to have a separate IDCT method. */
-//		inverse_DCT_method_ptr inverse_DCT[MAX_COMPONENTS];
+		/* It is useful to allow each component to have a separate IDCT method. */
+		int[] inverse_DCT = new int[MAX_COMPONENTS];
 		int[] cur_method = new int[MAX_COMPONENTS];
 
 		void start_pass (jpeg_decompress_struct cinfo) {
@@ -1803,20 +1825,18 @@ public class JPEGDecoder {
 				compptr = cinfo.comp_info[ci];
 				/* Select the proper IDCT routine for this component's scaling */
 				switch (compptr.DCT_scaled_size) {
-//					#ifdef IDCT_SCALING_SUPPORTED
-//					case 1:
+					case 1:
 //						method_ptr = jpeg_idct_1x1;
-//						method = JDCT_ISLOW;	/* jidctred uses islow-style table */
-//						break;
-//					case 2:
+						method = JDCT_ISLOW;	/* jidctred uses islow-style table */
+						break;
+					case 2:
 //						method_ptr = jpeg_idct_2x2;
-//						method = JDCT_ISLOW;	/* jidctred uses islow-style table */
-//						break;
-//					case 4:
+						method = JDCT_ISLOW;	/* jidctred uses islow-style table */
+						break;
+					case 4:
 //						method_ptr = jpeg_idct_4x4;
-//						method = JDCT_ISLOW;	/* jidctred uses islow-style table */
-//						break;
-//					#endif
+						method = JDCT_ISLOW;	/* jidctred uses islow-style table */
+						break;
 					case DCTSIZE:
 						switch (cinfo.dct_method) {
 //							#ifdef DCT_ISLOW_SUPPORTED
@@ -1826,16 +1846,16 @@ public class JPEGDecoder {
 								break;
 //							#endif
 //							#ifdef DCT_IFAST_SUPPORTED
-//							case JDCT_IFAST:
+							case JDCT_IFAST:
 //								method_ptr = jpeg_idct_ifast;
-//								method = JDCT_IFAST;
-//								break;
+								method = JDCT_IFAST;
+								break;
 //							#endif
 //							#ifdef DCT_FLOAT_SUPPORTED
-//							case JDCT_FLOAT:
+							case JDCT_FLOAT:
 //								method_ptr = jpeg_idct_float;
-//								method = JDCT_FLOAT;
-//								break;
+								method = JDCT_FLOAT;
+								break;
 //							#endif
 							default:
 								error();
@@ -1848,7 +1868,7 @@ public class JPEGDecoder {
 //						ERREXIT1(cinfo, JERR_BAD_DCTSIZE, compptr.DCT_scaled_size);
 						break;
 					}
-//					idct.inverse_DCT[ci] = method_ptr;
+					idct.inverse_DCT[ci] = method;
 					/* Create multiplier table from quant table.
 					 * However, we can skip this if the component is uninteresting
 					 * or if we already built the table.	Also, if no quant table
@@ -1877,61 +1897,42 @@ public class JPEGDecoder {
 						break;
 //						#endif
 //						#ifdef DCT_IFAST_SUPPORTED
-//						case JDCT_IFAST:
-//						{
-//							/* For AA&N IDCT method, multipliers are equal to quantization
-//							 * coefficients scaled by scalefactor[row]*scalefactor[col], where
-//							 *	 scalefactor[0] = 1
-//							 *	 scalefactor[k] = cos(k*PI/16) * sqrt(2)		for k=1..7
-//							 * For integer operation, the multiplier table is to be scaled by
-//							 * IFAST_SCALE_BITS.
-//							 */
-//							int[] ifmtbl = compptr.dct_table;
-//							short aanscales[] = {
-//								/* precomputed values scaled up by 14 bits */
-//								16384, 22725, 21407, 19266, 16384, 12873,	8867,	4520,
-//								22725, 31521, 29692, 26722, 22725, 17855, 12299,	6270,
-//								21407, 29692, 27969, 25172, 21407, 16819, 11585,	5906,
-//								19266, 26722, 25172, 22654, 19266, 15137, 10426,	5315,
-//								16384, 22725, 21407, 19266, 16384, 12873,	8867,	4520,
-//								12873, 17855, 16819, 15137, 12873, 10114,	6967,	3552,
-//								8867, 12299, 11585, 10426,	8867,	6967,	4799,	2446,
-//								4520,	6270,	5906,	5315,	4520,	3552,	2446,	1247
-//							};
-//							SHIFT_TEMPS
-//
-//							for (i = 0; i < DCTSIZE2; i++) {
-//								ifmtbl[i] = DESCALE(MULTIPLY16V16( qtbl.quantval[i], aanscales[i]), CONST_BITS-IFAST_SCALE_BITS);
-//							}
-//						}
-//						break;
+						case JDCT_IFAST:
+						{
+							/* For AA&N IDCT method, multipliers are equal to quantization
+							 * coefficients scaled by scalefactor[row]*scalefactor[col], where
+							 *	 scalefactor[0] = 1
+							 *	 scalefactor[k] = cos(k*PI/16) * sqrt(2)		for k=1..7
+							 * For integer operation, the multiplier table is to be scaled by
+							 * IFAST_SCALE_BITS.
+							 */
+							int[] ifmtbl = compptr.dct_table;
+							for (i = 0; i < DCTSIZE2; i++) {
+								ifmtbl[i] = (qtbl.quantval[i] * aanscales[i] + (1 << (14-IFAST_SCALE_BITS-1))) >> (14-IFAST_SCALE_BITS);
+							}
+						}
+						break;
 //						#endif
 //						#ifdef DCT_FLOAT_SUPPORTED
-//						case JDCT_FLOAT:
-//						{
-//							/* For float AA&N IDCT method, multipliers are equal to quantization
-//							 * coefficients scaled by scalefactor[row]*scalefactor[col], where
-//							 *	 scalefactor[0] = 1
-//							 *	 scalefactor[k] = cos(k*PI/16) * sqrt(2)		for k=1..7
-//							 */
-//							FLOAT_MULT_TYPE * fmtbl = (FLOAT_MULT_TYPE *) compptr.dct_table;
-//							int row, col;
-//							static const double aanscalefactor[DCTSIZE] = {
-//								1.0, 1.387039845, 1.306562965, 1.175875602,
-//								1.0, 0.785694958, 0.541196100, 0.275899379
-//							};
-//
-//							i = 0;
-//							for (row = 0; row < DCTSIZE; row++) {
-//								for (col = 0; col < DCTSIZE; col++) {
-//									fmtbl[i] = (FLOAT_MULT_TYPE)
-//										((double) qtbl.quantval[i] *
-//									 aanscalefactor[row] * aanscalefactor[col]);
-//									i++;
-//								}
-//							}
-//						}
-//						break;
+						case JDCT_FLOAT:
+						{
+							/* For float AA&N IDCT method, multipliers are equal to quantization
+							 * coefficients scaled by scalefactor[row]*scalefactor[col], where
+							 *	 scalefactor[0] = 1
+							 *	 scalefactor[k] = cos(k*PI/16) * sqrt(2)		for k=1..7
+							 */
+							float[] fmtbl = compptr.float_dct_table;
+							int row, col;
+							i = 0;
+							for (row = 0; row < DCTSIZE; row++) {
+								for (col = 0; col < DCTSIZE; col++) {
+									fmtbl[i] = (float)
+										(qtbl.quantval[i] * aanscalefactor[row] * aanscalefactor[col]);
+									i++;
+								}
+							}
+						}
+						break;
 //						#endif
 					default:
 						error();
@@ -2121,6 +2122,12 @@ public class JPEGDecoder {
 		 */
 		int output_scanline;	/* 0 .. output_height-1	*/
 
+		/* Distance in bytes between the scanlines passed to jpeg_read_scanlines(). */
+		int output_stride;
+
+		/* Not null when the entropy decoder runs ahead on another thread */
+		jpeg_d_pipeline pipeline;
+
 		/* Current input scan number and number of iMCU rows completed in scan.
 		 * These indicate the progress of the decompressor input side.
 		 */
@@ -2248,6 +2255,7 @@ public class JPEGDecoder {
 		int unread_marker;
 
 		int[] workspace = new int[DCTSIZE2];
+		float[] float_workspace = new float[DCTSIZE2];
 		int[] row_ctr = new int[1];
 
 		/*
@@ -2322,6 +2330,11 @@ static void jinit_d_coef_controller (jpeg_decompress_struct cinfo, boolean need_
 			//if (cinfo.progressive_mode)
 				//access_rows *= 3;
 //#endif
+			if (cinfo.pipeline != null) {
+				/* Rows are allocated by the entropy decoder and released once processed */
+				coef.whole_image[ci] = new short[(int)jround_up( compptr.height_in_blocks, compptr.v_samp_factor)][][];
+				continue;
+			}
 			coef.whole_image[ci] =
 				new short
 					[(int)jround_up( compptr.height_in_blocks, compptr.v_samp_factor)]
@@ -2378,87 +2391,72 @@ static void jpeg_create_decompress(jpeg_decompress_struct cinfo) {
 static void jpeg_calc_output_dimensions (jpeg_decompress_struct cinfo)
 /* Do computations that are needed before master selection phase */
 {
-//#ifdef IDCT_SCALING_SUPPORTED
-//	int ci;
-//	jpeg_component_info compptr;
-//#endif
+	int ci;
+	jpeg_component_info compptr;
 
 	/* Prevent application from calling me at wrong times */
 	if (cinfo.global_state != DSTATE_READY)
 		error();
 //		ERREXIT1(cinfo, JERR_BAD_STATE, cinfo.global_state);
 
-//#ifdef IDCT_SCALING_SUPPORTED
-//
-//	/* Compute actual output image dimensions and DCT scaling choices. */
-//	if (cinfo.scale_num * 8 <= cinfo.scale_denom) {
-//		/* Provide 1/8 scaling */
-//		cinfo.output_width = (int)
-//			jdiv_round_up(cinfo.image_width, 8L);
-//		cinfo.output_height = (int)
-//			jdiv_round_up(cinfo.image_height, 8L);
-//		cinfo.min_DCT_scaled_size = 1;
-//	} else if (cinfo.scale_num * 4 <= cinfo.scale_denom) {
-//		/* Provide 1/4 scaling */
-//		cinfo.output_width = (int)
-//			jdiv_round_up(cinfo.image_width, 4L);
-//		cinfo.output_height = (int)
-//			jdiv_round_up(cinfo.image_height, 4L);
-//		cinfo.min_DCT_scaled_size = 2;
-//	} else if (cinfo.scale_num * 2 <= cinfo.scale_denom) {
-//		/* Provide 1/2 scaling */
-//		cinfo.output_width = (int)
-//			jdiv_round_up(cinfo.image_width, 2L);
-//		cinfo.output_height = (int)
-//			jdiv_round_up(cinfo.image_height, 2L);
-//		cinfo.min_DCT_scaled_size = 4;
-//	} else {
-//		/* Provide 1/1 scaling */
-//		cinfo.output_width = cinfo.image_width;
-//		cinfo.output_height = cinfo.image_height;
-//		cinfo.min_DCT_scaled_size = DCTSIZE;
-//	}
-//	/* In selecting the actual DCT scaling for each component, we try to
-//	 * scale up the chroma components via IDCT scaling rather than upsampling.
-//	 * This saves time if the upsampler gets to use 1:1 scaling.
-//	 * Note this code assumes that the supported DCT scalings are powers of 2.
-//	 */
-//	for (ci = 0; ci < cinfo.num_components; ci++) {
-//		compptr = cinfo.comp_info[ci];
-//		int ssize = cinfo.min_DCT_scaled_size;
-//		while (ssize < DCTSIZE &&
-//			(compptr.h_samp_factor * ssize * 2 <= cinfo.max_h_samp_factor * cinfo.min_DCT_scaled_size) &&
-//			(compptr.v_samp_factor * ssize * 2 <= cinfo.max_v_samp_factor * cinfo.min_DCT_scaled_size))
-//		{
-//			ssize = ssize * 2;
-//		}
-//		compptr.DCT_scaled_size = ssize;
-//	}
-//
-//	/* Recompute downsampled dimensions of components;
-//	 * application needs to know these if using raw downsampled data.
-//	 */
-//	for (ci = 0; ci < cinfo.num_components; ci++) {
-//		compptr = cinfo.comp_info[ci];
-//		/* Size in samples, after IDCT scaling */
-//		compptr.downsampled_width = (int)
-//			jdiv_round_up((long) cinfo.image_width * (long) (compptr.h_samp_factor * compptr.DCT_scaled_size),
-//				(cinfo.max_h_samp_factor * DCTSIZE));
-//		compptr.downsampled_height = (int)
-//			jdiv_round_up((long) cinfo.image_height * (long) (compptr.v_samp_factor * compptr.DCT_scaled_size),
-//				(cinfo.max_v_samp_factor * DCTSIZE));
-//	}
-//
-//#else /* !IDCT_SCALING_SUPPORTED */
-
-	/* Hardwire it to "no scaling" */
-	cinfo.output_width = cinfo.image_width;
-	cinfo.output_height = cinfo.image_height;
-	/* jdinput.c has already initialized DCT_scaled_size to DCTSIZE,
-	 * and has computed unscaled downsampled_width and downsampled_height.
+	/* Compute actual output image dimensions and DCT scaling choices. */
+	if (cinfo.scale_num * 8 <= cinfo.scale_denom) {
+		/* Provide 1/8 scaling */
+		cinfo.output_width = (int)
+			jdiv_round_up(cinfo.image_width, 8L);
+		cinfo.output_height = (int)
+			jdiv_round_up(cinfo.image_height, 8L);
+		cinfo.min_DCT_scaled_size = 1;
+	} else if (cinfo.scale_num * 4 <= cinfo.scale_denom) {
+		/* Provide 1/4 scaling */
+		cinfo.output_width = (int)
+			jdiv_round_up(cinfo.image_width, 4L);
+		cinfo.output_height = (int)
+			jdiv_round_up(cinfo.image_height, 4L);
+		cinfo.min_DCT_scaled_size = 2;
+	} else if (cinfo.scale_num * 2 <= cinfo.scale_denom) {
+		/* Provide 1/2 scaling */
+		cinfo.output_width = (int)
+			jdiv_round_up(cinfo.image_width, 2L);
+		cinfo.output_height = (int)
+			jdiv_round_up(cinfo.image_height, 2L);
+		cinfo.min_DCT_scaled_size = 4;
+	} else {
+		/* Provide 1/1 scaling */
+		cinfo.output_width = cinfo.image_width;
+		cinfo.output_height = cinfo.image_height;
+		cinfo.min_DCT_scaled_size = DCTSIZE;
+	}
+	/* In selecting the actual DCT scaling for each component, we try to
+	 * scale up the chroma components via IDCT scaling rather than upsampling.
+	 * This saves time if the upsampler gets to use 1:1 scaling.
+	 * Note this code assumes that the supported DCT scalings are powers of 2.
 	 */
+	for (ci = 0; ci < cinfo.num_components; ci++) {
+		compptr = cinfo.comp_info[ci];
+		int ssize = cinfo.min_DCT_scaled_size;
+		while (ssize < DCTSIZE &&
+			(compptr.h_samp_factor * ssize * 2 <= cinfo.max_h_samp_factor * cinfo.min_DCT_scaled_size) &&
+			(compptr.v_samp_factor * ssize * 2 <= cinfo.max_v_samp_factor * cinfo.min_DCT_scaled_size))
+		{
+			ssize = ssize * 2;
+		}
+		compptr.DCT_scaled_size = ssize;
+	}
 
-//#endif /* IDCT_SCALING_SUPPORTED */
+	/* Recompute downsampled dimensions of components;
+	 * application needs to know these if using raw downsampled data.
+	 */
+	for (ci = 0; ci < cinfo.num_components; ci++) {
+		compptr = cinfo.comp_info[ci];
+		/* Size in samples, after IDCT scaling */
+		compptr.downsampled_width = (int)
+			jdiv_round_up((long) cinfo.image_width * (long) (compptr.h_samp_factor * compptr.DCT_scaled_size),
+				(cinfo.max_h_samp_factor * DCTSIZE));
+		compptr.downsampled_height = (int)
+			jdiv_round_up((long) cinfo.image_height * (long) (compptr.v_samp_factor * compptr.DCT_scaled_size),
+				(cinfo.max_v_samp_factor * DCTSIZE));
+	}
 
 	/* Report number of components in selected colorspace. */
 	/* Probably this should be in the color conversion module... */
@@ -2877,6 +2875,18 @@ static void jinit_upsampler (jpeg_decompress_struct cinfo) {
 						 [(int) jround_up(cinfo.output_width, cinfo.max_h_samp_factor)];
 		}
 	}
+
+	/* Upsample the chroma of the common 2h1v and 2h2v YCbCr layouts during
+	 * color conversion, see fancy_ycc_rgb_convert.
+	 */
+	upsample.fancy_ycc = cinfo.cconvert.color_convert == YCC_RGB_CONVERT
+		&& upsample.methods[0] == FULLSIZE_UPSAMPLE
+		&& (upsample.methods[1] == H2V1_FANCY_UPSAMPLE || upsample.methods[1] == H2V2_FANCY_UPSAMPLE)
+		&& upsample.methods[2] == upsample.methods[1]
+		&& cinfo.comp_info[1].downsampled_width == cinfo.comp_info[2].downsampled_width;
+	if (upsample.fancy_ycc) {
+		upsample.color_buf[1] = upsample.color_buf[2] = null;
+	}
 }
 
 static void jinit_phuff_decoder (jpeg_decompress_struct cinfo) {
@@ -2914,6 +2924,7 @@ static void jinit_inverse_dct (jpeg_decompress_struct cinfo) {
 		compptr = cinfo.comp_info[ci];
 		/* Allocate and pre-zero a multiplier table for each component */
 		compptr.dct_table = new int[DCTSIZE2];
+		compptr.float_dct_table = new float[DCTSIZE2];
 		/* Mark multiplier table not yet set up for any method */
 		idct.cur_method[ci] = -1;
 	}
@@ -2922,6 +2933,29 @@ static void jinit_inverse_dct (jpeg_decompress_struct cinfo) {
 static final int CONST_BITS = 13;
 static final int PASS1_BITS = 2;
 static final int RANGE_MASK =(MAXJSAMPLE * 4 + 3);
+
+/* AA&N IDCT support (jidctfst.c and jidctflt.c) */
+static final int IFAST_CONST_BITS = 8;
+static final int FIX_1_082392200 = 277;
+static final int FIX_1_414213562 = 362;
+static final int FIX_1_847759065 = 473;
+static final int FIX_2_613125930 = 669;
+static final int[] aanscales = {
+	/* precomputed values scaled up by 14 bits */
+	16384, 22725, 21407, 19266, 16384, 12873,	8867,	4520,
+	22725, 31521, 29692, 26722, 22725, 17855, 12299,	6270,
+	21407, 29692, 27969, 25172, 21407, 16819, 11585,	5906,
+	19266, 26722, 25172, 22654, 19266, 15137, 10426,	5315,
+	16384, 22725, 21407, 19266, 16384, 12873,	8867,	4520,
+	12873, 17855, 16819, 15137, 12873, 10114,	6967,	3552,
+	8867, 12299, 11585, 10426,	8867,	6967,	4799,	2446,
+	4520,	6270,	5906,	5315,	4520,	3552,	2446,	1247
+};
+static final double[] aanscalefactor = {
+	1.0, 1.387039845, 1.306562965, 1.175875602,
+	1.0, 0.785694958, 0.541196100, 0.275899379
+};
+
 static void jpeg_idct_islow (jpeg_decompress_struct cinfo, jpeg_component_info compptr,
 	short[] coef_block,
 	byte[][] output_buf, int output_buf_offset, int output_col)
@@ -3114,71 +3148,704 @@ static void jpeg_idct_islow (jpeg_decompress_struct cinfo, jpeg_component_info c
 		 * transpose is its inverse.	i0..i3 are y7,y5,y3,y1 respectively.
 		 */
 
-		tmp0 = wsptr[7+wsptr_offset];
-		tmp1 = wsptr[5+wsptr_offset];
-		tmp2 = wsptr[3+wsptr_offset];
-		tmp3 = wsptr[1+wsptr_offset];
+		tmp0 = wsptr[7+wsptr_offset];
+		tmp1 = wsptr[5+wsptr_offset];
+		tmp2 = wsptr[3+wsptr_offset];
+		tmp3 = wsptr[1+wsptr_offset];
+
+		z1 = tmp0 + tmp3;
+		z2 = tmp1 + tmp2;
+		z3 = tmp0 + tmp2;
+		z4 = tmp1 + tmp3;
+		z5 = ((z3 + z4) * 9633/*FIX_1_175875602*/); /* sqrt(2) * c3 */
+
+		tmp0 = (tmp0 * 2446/*FIX_0_298631336*/); /* sqrt(2) * (-c1+c3+c5-c7) */
+		tmp1 = (tmp1 * 16819/*FIX_2_053119869*/); /* sqrt(2) * ( c1+c3-c5+c7) */
+		tmp2 = (tmp2 * 25172/*FIX_3_072711026*/); /* sqrt(2) * ( c1+c3+c5-c7) */
+		tmp3 = (tmp3 * 12299/*FIX_1_501321110*/); /* sqrt(2) * ( c1+c3-c5-c7) */
+		z1 = (z1 * - 7373/*FIX_0_899976223*/); /* sqrt(2) * (c7-c3) */
+		z2 = (z2 * - 20995/*FIX_2_562915447*/); /* sqrt(2) * (-c1-c3) */
+		z3 = (z3 * - 16069/*FIX_1_961570560*/); /* sqrt(2) * (-c3-c5) */
+		z4 = (z4 * - 3196/*FIX_0_390180644*/); /* sqrt(2) * (c5-c3) */
+
+		z3 += z5;
+		z4 += z5;
+
+		tmp0 += z1 + z3;
+		tmp1 += z2 + z4;
+		tmp2 += z2 + z3;
+		tmp3 += z1 + z4;
+
+		/* Final output stage: inputs are tmp10..tmp13, tmp0..tmp3 */
+
+
+//		#define DESCALE(x,n)	RIGHT_SHIFT((x) + (ONE << ((n)-1)), n)
+		outptr[0+outptr_offset] = range_limit[range_limit_offset + ((((tmp10 + tmp3) + (1 << ((CONST_BITS+PASS1_BITS+3)-1))) >>
+						CONST_BITS+PASS1_BITS+3)
+					& RANGE_MASK)];
+		outptr[7+outptr_offset] = range_limit[range_limit_offset + ((((tmp10 - tmp3) + (1 << ((CONST_BITS+PASS1_BITS+3)-1))) >>
+									CONST_BITS+PASS1_BITS+3)
+					& RANGE_MASK)];
+		outptr[1+outptr_offset] = range_limit[range_limit_offset + ((((tmp11 + tmp2) + (1 << ((CONST_BITS+PASS1_BITS+3)-1))) >>
+									CONST_BITS+PASS1_BITS+3)
+					& RANGE_MASK)];
+		outptr[6+outptr_offset] = range_limit[range_limit_offset + ((((tmp11 - tmp2) + (1 << ((CONST_BITS+PASS1_BITS+3)-1))) >>
+									CONST_BITS+PASS1_BITS+3)
+					& RANGE_MASK)];
+		outptr[2+outptr_offset] = range_limit[range_limit_offset + ((((tmp12 + tmp1) + (1 << ((CONST_BITS+PASS1_BITS+3)-1))) >>
+									CONST_BITS+PASS1_BITS+3)
+					& RANGE_MASK)];
+		outptr[5+outptr_offset] = range_limit[range_limit_offset + ((((tmp12 - tmp1) + (1 << ((CONST_BITS+PASS1_BITS+3)-1))) >>
+									CONST_BITS+PASS1_BITS+3)
+					& RANGE_MASK)];
+		outptr[3+outptr_offset] = range_limit[range_limit_offset + ((((tmp13 + tmp0) + (1 << ((CONST_BITS+PASS1_BITS+3)-1))) >>
+									CONST_BITS+PASS1_BITS+3)
+					& RANGE_MASK)];
+		outptr[4+outptr_offset] = range_limit[range_limit_offset + ((((tmp13 - tmp0) + (1 << ((CONST_BITS+PASS1_BITS+3)-1))) >>
+									CONST_BITS+PASS1_BITS+3)
+					& RANGE_MASK)];
+
+		wsptr_offset += DCTSIZE;		/* advance pointer to next row */
+	}
+}
+
+/* Dispatch to the IDCT routine selected for this component's scaling */
+static void jpeg_idct (jpeg_decompress_struct cinfo, jpeg_component_info compptr,
+	short[] coef_block,
+	byte[][] output_buf, int output_buf_offset, int output_col)
+{
+	switch (compptr.DCT_scaled_size) {
+		case 1:
+			jpeg_idct_1x1(cinfo, compptr, coef_block, output_buf, output_buf_offset, output_col);
+			break;
+		case 2:
+			jpeg_idct_2x2(cinfo, compptr, coef_block, output_buf, output_buf_offset, output_col);
+			break;
+		case 4:
+			jpeg_idct_4x4(cinfo, compptr, coef_block, output_buf, output_buf_offset, output_col);
+			break;
+		default:
+			switch (cinfo.idct.inverse_DCT[compptr.component_index]) {
+				case JDCT_IFAST:
+					jpeg_idct_ifast(cinfo, compptr, coef_block, output_buf, output_buf_offset, output_col);
+					break;
+				case JDCT_FLOAT:
+					jpeg_idct_float(cinfo, compptr, coef_block, output_buf, output_buf_offset, output_col);
+					break;
+				default:
+					jpeg_idct_islow(cinfo, compptr, coef_block, output_buf, output_buf_offset, output_col);
+					break;
+			}
+			break;
+	}
+}
+
+/*
+ * Fast, not so accurate integer implementation of the inverse DCT
+ * (jidctfst.c), using the Arai, Agui and Nakajima algorithm. The
+ * dequantization multipliers are prescaled by the AA&N scale factors,
+ * which leaves only 5 multiplies and 29 adds per 1-D IDCT.
+ */
+static void jpeg_idct_ifast (jpeg_decompress_struct cinfo, jpeg_component_info compptr,
+	short[] coef_block,
+	byte[][] output_buf, int output_buf_offset, int output_col)
+{
+	int tmp0, tmp1, tmp2, tmp3, tmp4, tmp5, tmp6, tmp7;
+	int tmp10, tmp11, tmp12, tmp13;
+	int z5, z10, z11, z12, z13;
+	short[] inptr = coef_block;
+	int[] quantptr = compptr.dct_table;
+	int[] wsptr = cinfo.workspace;
+	byte[] outptr;
+	byte[] range_limit = cinfo.sample_range_limit;
+	int range_limit_offset = cinfo.sample_range_limit_offset + CENTERJSAMPLE;
+	int ctr;
+	int inptr_offset = 0, quantptr_offset = 0, wsptr_offset = 0;
+
+	/* Pass 1: process columns from input, store into work array. */
+
+	for (ctr = DCTSIZE; ctr > 0; ctr--) {
+		if (inptr[DCTSIZE*1+inptr_offset] == 0 && inptr[DCTSIZE*2+inptr_offset] == 0 &&
+			inptr[DCTSIZE*3+inptr_offset] == 0 && inptr[DCTSIZE*4+inptr_offset] == 0 &&
+			inptr[DCTSIZE*5+inptr_offset] == 0 && inptr[DCTSIZE*6+inptr_offset] == 0 &&
+			inptr[DCTSIZE*7+inptr_offset] == 0)
+		{
+			/* AC terms all zero */
+			int dcval = inptr[DCTSIZE*0+inptr_offset] * quantptr[DCTSIZE*0+quantptr_offset];
+
+			wsptr[DCTSIZE*0+wsptr_offset] = dcval;
+			wsptr[DCTSIZE*1+wsptr_offset] = dcval;
+			wsptr[DCTSIZE*2+wsptr_offset] = dcval;
+			wsptr[DCTSIZE*3+wsptr_offset] = dcval;
+			wsptr[DCTSIZE*4+wsptr_offset] = dcval;
+			wsptr[DCTSIZE*5+wsptr_offset] = dcval;
+			wsptr[DCTSIZE*6+wsptr_offset] = dcval;
+			wsptr[DCTSIZE*7+wsptr_offset] = dcval;
+
+			inptr_offset++;			/* advance pointers to next column */
+			quantptr_offset++;
+			wsptr_offset++;
+			continue;
+		}
+
+		/* Even part */
+
+		tmp0 = inptr[DCTSIZE*0+inptr_offset] * quantptr[DCTSIZE*0+quantptr_offset];
+		tmp1 = inptr[DCTSIZE*2+inptr_offset] * quantptr[DCTSIZE*2+quantptr_offset];
+		tmp2 = inptr[DCTSIZE*4+inptr_offset] * quantptr[DCTSIZE*4+quantptr_offset];
+		tmp3 = inptr[DCTSIZE*6+inptr_offset] * quantptr[DCTSIZE*6+quantptr_offset];
+
+		tmp10 = tmp0 + tmp2;	/* phase 3 */
+		tmp11 = tmp0 - tmp2;
+
+		tmp13 = tmp1 + tmp3;	/* phases 5-3 */
+		tmp12 = (((tmp1 - tmp3) * FIX_1_414213562) >> IFAST_CONST_BITS) - tmp13; /* 2*c4 */
+
+		tmp0 = tmp10 + tmp13;	/* phase 2 */
+		tmp3 = tmp10 - tmp13;
+		tmp1 = tmp11 + tmp12;
+		tmp2 = tmp11 - tmp12;
+
+		/* Odd part */
+
+		tmp4 = inptr[DCTSIZE*1+inptr_offset] * quantptr[DCTSIZE*1+quantptr_offset];
+		tmp5 = inptr[DCTSIZE*3+inptr_offset] * quantptr[DCTSIZE*3+quantptr_offset];
+		tmp6 = inptr[DCTSIZE*5+inptr_offset] * quantptr[DCTSIZE*5+quantptr_offset];
+		tmp7 = inptr[DCTSIZE*7+inptr_offset] * quantptr[DCTSIZE*7+quantptr_offset];
+
+		z13 = tmp6 + tmp5;		/* phase 6 */
+		z10 = tmp6 - tmp5;
+		z11 = tmp4 + tmp7;
+		z12 = tmp4 - tmp7;
+
+		tmp7 = z11 + z13;		/* phase 5 */
+		tmp11 = ((z11 - z13) * FIX_1_414213562) >> IFAST_CONST_BITS; /* 2*c4 */
+
+		z5 = ((z10 + z12) * FIX_1_847759065) >> IFAST_CONST_BITS; /* 2*c2 */
+		tmp10 = ((z12 * FIX_1_082392200) >> IFAST_CONST_BITS) - z5; /* 2*(c2-c6) */
+		tmp12 = ((z10 * - FIX_2_613125930) >> IFAST_CONST_BITS) + z5; /* -2*(c2+c6) */
+
+		tmp6 = tmp12 - tmp7;	/* phase 2 */
+		tmp5 = tmp11 - tmp6;
+		tmp4 = tmp10 + tmp5;
+
+		wsptr[DCTSIZE*0+wsptr_offset] = tmp0 + tmp7;
+		wsptr[DCTSIZE*7+wsptr_offset] = tmp0 - tmp7;
+		wsptr[DCTSIZE*1+wsptr_offset] = tmp1 + tmp6;
+		wsptr[DCTSIZE*6+wsptr_offset] = tmp1 - tmp6;
+		wsptr[DCTSIZE*2+wsptr_offset] = tmp2 + tmp5;
+		wsptr[DCTSIZE*5+wsptr_offset] = tmp2 - tmp5;
+		wsptr[DCTSIZE*4+wsptr_offset] = tmp3 + tmp4;
+		wsptr[DCTSIZE*3+wsptr_offset] = tmp3 - tmp4;
+
+		inptr_offset++;			/* advance pointers to next column */
+		quantptr_offset++;
+		wsptr_offset++;
+	}
+
+	/* Pass 2: process rows from work array, store into output array. */
+	/* Note that we must descale the results by a factor of 8 == 2**3, */
+	/* and also undo the PASS1_BITS scaling. Rounding is folded into */
+	/* the DC term, which contributes to every output sample once. */
+
+	wsptr_offset = 0;
+	for (ctr = 0; ctr < DCTSIZE; ctr++) {
+		outptr = output_buf[ctr+output_buf_offset];
+		int outptr_offset = output_col;
+		int dc = wsptr[0+wsptr_offset] + (1 << (PASS1_BITS+3-1));
+
+		if (wsptr[1+wsptr_offset] == 0 && wsptr[2+wsptr_offset] == 0 && wsptr[3+wsptr_offset] == 0 && wsptr[4+wsptr_offset] == 0 &&
+			wsptr[5+wsptr_offset] == 0 && wsptr[6+wsptr_offset] == 0 && wsptr[7+wsptr_offset] == 0)
+		{
+			/* AC terms all zero */
+			byte dcval = range_limit[range_limit_offset + ((dc >> (PASS1_BITS+3)) & RANGE_MASK)];
+
+			outptr[0+outptr_offset] = dcval;
+			outptr[1+outptr_offset] = dcval;
+			outptr[2+outptr_offset] = dcval;
+			outptr[3+outptr_offset] = dcval;
+			outptr[4+outptr_offset] = dcval;
+			outptr[5+outptr_offset] = dcval;
+			outptr[6+outptr_offset] = dcval;
+			outptr[7+outptr_offset] = dcval;
+
+			wsptr_offset += DCTSIZE;		/* advance pointer to next row */
+			continue;
+		}
+
+		/* Even part */
+
+		tmp10 = dc + wsptr[4+wsptr_offset];
+		tmp11 = dc - wsptr[4+wsptr_offset];
+
+		tmp13 = wsptr[2+wsptr_offset] + wsptr[6+wsptr_offset];
+		tmp12 = (((wsptr[2+wsptr_offset] - wsptr[6+wsptr_offset]) * FIX_1_414213562) >> IFAST_CONST_BITS) - tmp13;
+
+		tmp0 = tmp10 + tmp13;
+		tmp3 = tmp10 - tmp13;
+		tmp1 = tmp11 + tmp12;
+		tmp2 = tmp11 - tmp12;
+
+		/* Odd part */
+
+		z13 = wsptr[5+wsptr_offset] + wsptr[3+wsptr_offset];
+		z10 = wsptr[5+wsptr_offset] - wsptr[3+wsptr_offset];
+		z11 = wsptr[1+wsptr_offset] + wsptr[7+wsptr_offset];
+		z12 = wsptr[1+wsptr_offset] - wsptr[7+wsptr_offset];
+
+		tmp7 = z11 + z13;		/* phase 5 */
+		tmp11 = ((z11 - z13) * FIX_1_414213562) >> IFAST_CONST_BITS; /* 2*c4 */
+
+		z5 = ((z10 + z12) * FIX_1_847759065) >> IFAST_CONST_BITS; /* 2*c2 */
+		tmp10 = ((z12 * FIX_1_082392200) >> IFAST_CONST_BITS) - z5; /* 2*(c2-c6) */
+		tmp12 = ((z10 * - FIX_2_613125930) >> IFAST_CONST_BITS) + z5; /* -2*(c2+c6) */
+
+		tmp6 = tmp12 - tmp7;	/* phase 2 */
+		tmp5 = tmp11 - tmp6;
+		tmp4 = tmp10 + tmp5;
+
+		/* Final output stage: scale down by a factor of 8 and range-limit */
+
+		outptr[0+outptr_offset] = range_limit[range_limit_offset + (((tmp0 + tmp7) >> (PASS1_BITS+3)) & RANGE_MASK)];
+		outptr[7+outptr_offset] = range_limit[range_limit_offset + (((tmp0 - tmp7) >> (PASS1_BITS+3)) & RANGE_MASK)];
+		outptr[1+outptr_offset] = range_limit[range_limit_offset + (((tmp1 + tmp6) >> (PASS1_BITS+3)) & RANGE_MASK)];
+		outptr[6+outptr_offset] = range_limit[range_limit_offset + (((tmp1 - tmp6) >> (PASS1_BITS+3)) & RANGE_MASK)];
+		outptr[2+outptr_offset] = range_limit[range_limit_offset + (((tmp2 + tmp5) >> (PASS1_BITS+3)) & RANGE_MASK)];
+		outptr[5+outptr_offset] = range_limit[range_limit_offset + (((tmp2 - tmp5) >> (PASS1_BITS+3)) & RANGE_MASK)];
+		outptr[4+outptr_offset] = range_limit[range_limit_offset + (((tmp3 + tmp4) >> (PASS1_BITS+3)) & RANGE_MASK)];
+		outptr[3+outptr_offset] = range_limit[range_limit_offset + (((tmp3 - tmp4) >> (PASS1_BITS+3)) & RANGE_MASK)];
+
+		wsptr_offset += DCTSIZE;		/* advance pointer to next row */
+	}
+}
+
+/*
+ * Floating-point implementation of the inverse DCT (jidctflt.c),
+ * using the same AA&N algorithm as jpeg_idct_ifast but without
+ * its fixed-point rounding errors.
+ */
+static void jpeg_idct_float (jpeg_decompress_struct cinfo, jpeg_component_info compptr,
+	short[] coef_block,
+	byte[][] output_buf, int output_buf_offset, int output_col)
+{
+	float tmp0, tmp1, tmp2, tmp3, tmp4, tmp5, tmp6, tmp7;
+	float tmp10, tmp11, tmp12, tmp13;
+	float z5, z10, z11, z12, z13;
+	short[] inptr = coef_block;
+	float[] quantptr = compptr.float_dct_table;
+	float[] wsptr = cinfo.float_workspace;
+	byte[] outptr;
+	byte[] range_limit = cinfo.sample_range_limit;
+	int range_limit_offset = cinfo.sample_range_limit_offset + CENTERJSAMPLE;
+	int ctr;
+	int inptr_offset = 0, quantptr_offset = 0, wsptr_offset = 0;
+
+	/* Pass 1: process columns from input, store into work array. */
+
+	for (ctr = DCTSIZE; ctr > 0; ctr--) {
+		if (inptr[DCTSIZE*1+inptr_offset] == 0 && inptr[DCTSIZE*2+inptr_offset] == 0 &&
+			inptr[DCTSIZE*3+inptr_offset] == 0 && inptr[DCTSIZE*4+inptr_offset] == 0 &&
+			inptr[DCTSIZE*5+inptr_offset] == 0 && inptr[DCTSIZE*6+inptr_offset] == 0 &&
+			inptr[DCTSIZE*7+inptr_offset] == 0)
+		{
+			/* AC terms all zero */
+			float dcval = inptr[DCTSIZE*0+inptr_offset] * quantptr[DCTSIZE*0+quantptr_offset];
+
+			wsptr[DCTSIZE*0+wsptr_offset] = dcval;
+			wsptr[DCTSIZE*1+wsptr_offset] = dcval;
+			wsptr[DCTSIZE*2+wsptr_offset] = dcval;
+			wsptr[DCTSIZE*3+wsptr_offset] = dcval;
+			wsptr[DCTSIZE*4+wsptr_offset] = dcval;
+			wsptr[DCTSIZE*5+wsptr_offset] = dcval;
+			wsptr[DCTSIZE*6+wsptr_offset] = dcval;
+			wsptr[DCTSIZE*7+wsptr_offset] = dcval;
+
+			inptr_offset++;			/* advance pointers to next column */
+			quantptr_offset++;
+			wsptr_offset++;
+			continue;
+		}
+
+		/* Even part */
+
+		tmp0 = inptr[DCTSIZE*0+inptr_offset] * quantptr[DCTSIZE*0+quantptr_offset];
+		tmp1 = inptr[DCTSIZE*2+inptr_offset] * quantptr[DCTSIZE*2+quantptr_offset];
+		tmp2 = inptr[DCTSIZE*4+inptr_offset] * quantptr[DCTSIZE*4+quantptr_offset];
+		tmp3 = inptr[DCTSIZE*6+inptr_offset] * quantptr[DCTSIZE*6+quantptr_offset];
+
+		tmp10 = tmp0 + tmp2;	/* phase 3 */
+		tmp11 = tmp0 - tmp2;
+
+		tmp13 = tmp1 + tmp3;	/* phases 5-3 */
+		tmp12 = (tmp1 - tmp3) * 1.414213562f - tmp13; /* 2*c4 */
+
+		tmp0 = tmp10 + tmp13;	/* phase 2 */
+		tmp3 = tmp10 - tmp13;
+		tmp1 = tmp11 + tmp12;
+		tmp2 = tmp11 - tmp12;
+
+		/* Odd part */
+
+		tmp4 = inptr[DCTSIZE*1+inptr_offset] * quantptr[DCTSIZE*1+quantptr_offset];
+		tmp5 = inptr[DCTSIZE*3+inptr_offset] * quantptr[DCTSIZE*3+quantptr_offset];
+		tmp6 = inptr[DCTSIZE*5+inptr_offset] * quantptr[DCTSIZE*5+quantptr_offset];
+		tmp7 = inptr[DCTSIZE*7+inptr_offset] * quantptr[DCTSIZE*7+quantptr_offset];
+
+		z13 = tmp6 + tmp5;		/* phase 6 */
+		z10 = tmp6 - tmp5;
+		z11 = tmp4 + tmp7;
+		z12 = tmp4 - tmp7;
+
+		tmp7 = z11 + z13;		/* phase 5 */
+		tmp11 = (z11 - z13) * 1.414213562f; /* 2*c4 */
+
+		z5 = (z10 + z12) * 1.847759065f; /* 2*c2 */
+		tmp10 = 1.082392200f * z12 - z5; /* 2*(c2-c6) */
+		tmp12 = -2.613125930f * z10 + z5; /* -2*(c2+c6) */
+
+		tmp6 = tmp12 - tmp7;	/* phase 2 */
+		tmp5 = tmp11 - tmp6;
+		tmp4 = tmp10 + tmp5;
+
+		wsptr[DCTSIZE*0+wsptr_offset] = tmp0 + tmp7;
+		wsptr[DCTSIZE*7+wsptr_offset] = tmp0 - tmp7;
+		wsptr[DCTSIZE*1+wsptr_offset] = tmp1 + tmp6;
+		wsptr[DCTSIZE*6+wsptr_offset] = tmp1 - tmp6;
+		wsptr[DCTSIZE*2+wsptr_offset] = tmp2 + tmp5;
+		wsptr[DCTSIZE*5+wsptr_offset] = tmp2 - tmp5;
+		wsptr[DCTSIZE*4+wsptr_offset] = tmp3 + tmp4;
+		wsptr[DCTSIZE*3+wsptr_offset] = tmp3 - tmp4;
+
+		inptr_offset++;			/* advance pointers to next column */
+		quantptr_offset++;
+		wsptr_offset++;
+	}
+
+	/* Pass 2: process rows from work array, store into output array. */
+	/* Note that we must descale the results by a factor of 8 == 2**3. */
+
+	wsptr_offset = 0;
+	for (ctr = 0; ctr < DCTSIZE; ctr++) {
+		outptr = output_buf[ctr+output_buf_offset];
+		int outptr_offset = output_col;
+		/* Fold rounding into the DC term, along with a bias of a whole
+		 * multiple of the range table size that keeps the samples positive,
+		 * so that the int cast below rounds down.
+		 */
+		float dc = wsptr[0+wsptr_offset] + (4 + (RANGE_MASK + 1) * 8);
+
+		/* Even part */
+
+		tmp10 = dc + wsptr[4+wsptr_offset];
+		tmp11 = dc - wsptr[4+wsptr_offset];
+
+		tmp13 = wsptr[2+wsptr_offset] + wsptr[6+wsptr_offset];
+		tmp12 = (wsptr[2+wsptr_offset] - wsptr[6+wsptr_offset]) * 1.414213562f - tmp13;
+
+		tmp0 = tmp10 + tmp13;
+		tmp3 = tmp10 - tmp13;
+		tmp1 = tmp11 + tmp12;
+		tmp2 = tmp11 - tmp12;
+
+		/* Odd part */
+
+		z13 = wsptr[5+wsptr_offset] + wsptr[3+wsptr_offset];
+		z10 = wsptr[5+wsptr_offset] - wsptr[3+wsptr_offset];
+		z11 = wsptr[1+wsptr_offset] + wsptr[7+wsptr_offset];
+		z12 = wsptr[1+wsptr_offset] - wsptr[7+wsptr_offset];
+
+		tmp7 = z11 + z13;
+		tmp11 = (z11 - z13) * 1.414213562f;
+
+		z5 = (z10 + z12) * 1.847759065f; /* 2*c2 */
+		tmp10 = 1.082392200f * z12 - z5; /* 2*(c2-c6) */
+		tmp12 = -2.613125930f * z10 + z5; /* -2*(c2+c6) */
+
+		tmp6 = tmp12 - tmp7;
+		tmp5 = tmp11 - tmp6;
+		tmp4 = tmp10 + tmp5;
+
+		/* Final output stage: scale down by a factor of 8 and range-limit */
+
+		outptr[0+outptr_offset] = range_limit[range_limit_offset + ((((int) (tmp0 + tmp7)) >> 3) & RANGE_MASK)];
+		outptr[7+outptr_offset] = range_limit[range_limit_offset + ((((int) (tmp0 - tmp7)) >> 3) & RANGE_MASK)];
+		outptr[1+outptr_offset] = range_limit[range_limit_offset + ((((int) (tmp1 + tmp6)) >> 3) & RANGE_MASK)];
+		outptr[6+outptr_offset] = range_limit[range_limit_offset + ((((int) (tmp1 - tmp6)) >> 3) & RANGE_MASK)];
+		outptr[2+outptr_offset] = range_limit[range_limit_offset + ((((int) (tmp2 + tmp5)) >> 3) & RANGE_MASK)];
+		outptr[5+outptr_offset] = range_limit[range_limit_offset + ((((int) (tmp2 - tmp5)) >> 3) & RANGE_MASK)];
+		outptr[4+outptr_offset] = range_limit[range_limit_offset + ((((int) (tmp3 + tmp4)) >> 3) & RANGE_MASK)];
+		outptr[3+outptr_offset] = range_limit[range_limit_offset + ((((int) (tmp3 - tmp4)) >> 3) & RANGE_MASK)];
+
+		wsptr_offset += DCTSIZE;		/* advance pointer to next row */
+	}
+}
+
+/*
+ * Reduced-size IDCTs (jidctred.c).
+ *
+ * These routines produce a 4x4, 2x2 or 1x1 output block from the
+ * full 8x8 coefficient block, scaling the image down by 2, 4 or 8
+ * while it is decoded. They use the same multiplier table as
+ * jpeg_idct_islow, and skip the coefficients that cannot affect
+ * the reduced output.
+ */
+static void jpeg_idct_4x4 (jpeg_decompress_struct cinfo, jpeg_component_info compptr,
+	short[] coef_block,
+	byte[][] output_buf, int output_buf_offset, int output_col)
+{
+	int tmp0, tmp2, tmp10, tmp12;
+	int z1, z2, z3, z4;
+	short[] inptr = coef_block;
+	int[] quantptr = compptr.dct_table;
+	int[] wsptr = cinfo.workspace;
+	byte[] outptr;
+	byte[] range_limit = cinfo.sample_range_limit;
+	int range_limit_offset = cinfo.sample_range_limit_offset + CENTERJSAMPLE;
+	int ctr;
+	int inptr_offset = 0, quantptr_offset = 0, wsptr_offset = 0;
+
+	/* Pass 1: process columns from input, store into work array. */
+
+	for (ctr = DCTSIZE; ctr > 0; inptr_offset++, quantptr_offset++, wsptr_offset++, ctr--) {
+		/* Don't bother to process column 4, because second pass won't use it */
+		if (ctr == DCTSIZE-4)
+			continue;
+		if (inptr[DCTSIZE*1+inptr_offset] == 0 && inptr[DCTSIZE*2+inptr_offset] == 0 &&
+			inptr[DCTSIZE*3+inptr_offset] == 0 && inptr[DCTSIZE*5+inptr_offset] == 0 &&
+			inptr[DCTSIZE*6+inptr_offset] == 0 && inptr[DCTSIZE*7+inptr_offset] == 0)
+		{
+			/* AC terms all zero; we need not examine term 4 for 4x4 output */
+			int dcval = ((inptr[DCTSIZE*0+inptr_offset]) * quantptr[DCTSIZE*0+quantptr_offset]) << PASS1_BITS;
+
+			wsptr[DCTSIZE*0+wsptr_offset] = dcval;
+			wsptr[DCTSIZE*1+wsptr_offset] = dcval;
+			wsptr[DCTSIZE*2+wsptr_offset] = dcval;
+			wsptr[DCTSIZE*3+wsptr_offset] = dcval;
+			continue;
+		}
+
+		/* Even part */
+
+		tmp0 = ((inptr[DCTSIZE*0+inptr_offset]) * quantptr[DCTSIZE*0+quantptr_offset]);
+		tmp0 <<= (CONST_BITS+1);
+
+		z2 = ((inptr[DCTSIZE*2+inptr_offset]) * quantptr[DCTSIZE*2+quantptr_offset]);
+		z3 = ((inptr[DCTSIZE*6+inptr_offset]) * quantptr[DCTSIZE*6+quantptr_offset]);
+
+		tmp2 = (z2 * 15137/*FIX_1_847759065*/) + (z3 * - 6270/*FIX_0_765366865*/);
+
+		tmp10 = tmp0 + tmp2;
+		tmp12 = tmp0 - tmp2;
+
+		/* Odd part */
+
+		z1 = ((inptr[DCTSIZE*7+inptr_offset]) * quantptr[DCTSIZE*7+quantptr_offset]);
+		z2 = ((inptr[DCTSIZE*5+inptr_offset]) * quantptr[DCTSIZE*5+quantptr_offset]);
+		z3 = ((inptr[DCTSIZE*3+inptr_offset]) * quantptr[DCTSIZE*3+quantptr_offset]);
+		z4 = ((inptr[DCTSIZE*1+inptr_offset]) * quantptr[DCTSIZE*1+quantptr_offset]);
+
+		tmp0 = (z1 * - 1730/*FIX_0_211164243*/) /* sqrt(2) * (c3-c1) */
+			+ (z2 * 11893/*FIX_1_451774981*/) /* sqrt(2) * (c3+c7) */
+			+ (z3 * - 17799/*FIX_2_172734803*/) /* sqrt(2) * (-c1-c5) */
+			+ (z4 * 8697/*FIX_1_061594337*/); /* sqrt(2) * (c5+c7) */
+
+		tmp2 = (z1 * - 4176/*FIX_0_509795579*/) /* sqrt(2) * (c7-c5) */
+			+ (z2 * - 4926/*FIX_0_601344887*/) /* sqrt(2) * (c5-c1) */
+			+ (z3 * 7373/*FIX_0_899976223*/) /* sqrt(2) * (c3+c7) */
+			+ (z4 * 20995/*FIX_2_562915447*/); /* sqrt(2) * (c1+c3) */
+
+		/* Final output stage */
+
+		wsptr[DCTSIZE*0+wsptr_offset] = (((tmp10 + tmp2) + (1 << ((CONST_BITS-PASS1_BITS+1)-1))) >> (CONST_BITS-PASS1_BITS+1));
+		wsptr[DCTSIZE*3+wsptr_offset] = (((tmp10 - tmp2) + (1 << ((CONST_BITS-PASS1_BITS+1)-1))) >> (CONST_BITS-PASS1_BITS+1));
+		wsptr[DCTSIZE*1+wsptr_offset] = (((tmp12 + tmp0) + (1 << ((CONST_BITS-PASS1_BITS+1)-1))) >> (CONST_BITS-PASS1_BITS+1));
+		wsptr[DCTSIZE*2+wsptr_offset] = (((tmp12 - tmp0) + (1 << ((CONST_BITS-PASS1_BITS+1)-1))) >> (CONST_BITS-PASS1_BITS+1));
+	}
+
+	/* Pass 2: process 4 rows from work array, store into output array. */
+
+	wsptr_offset = 0;
+	for (ctr = 0; ctr < 4; ctr++) {
+		outptr = output_buf[ctr+output_buf_offset];
+		int outptr_offset = output_col;
+
+		if (wsptr[1+wsptr_offset] == 0 && wsptr[2+wsptr_offset] == 0 && wsptr[3+wsptr_offset] == 0 &&
+			wsptr[5+wsptr_offset] == 0 && wsptr[6+wsptr_offset] == 0 && wsptr[7+wsptr_offset] == 0)
+		{
+			/* AC terms all zero */
+			byte dcval = range_limit[range_limit_offset + ((((wsptr[0+wsptr_offset]) + (1 << ((PASS1_BITS+3)-1))) >> PASS1_BITS+3)
+					& RANGE_MASK)];
+
+			outptr[0+outptr_offset] = dcval;
+			outptr[1+outptr_offset] = dcval;
+			outptr[2+outptr_offset] = dcval;
+			outptr[3+outptr_offset] = dcval;
+
+			wsptr_offset += DCTSIZE;		/* advance pointer to next row */
+			continue;
+		}
+
+		/* Even part */
+
+		tmp0 = wsptr[0+wsptr_offset] << (CONST_BITS+1);
+
+		tmp2 = (wsptr[2+wsptr_offset] * 15137/*FIX_1_847759065*/) + (wsptr[6+wsptr_offset] * - 6270/*FIX_0_765366865*/);
+
+		tmp10 = tmp0 + tmp2;
+		tmp12 = tmp0 - tmp2;
+
+		/* Odd part */
+
+		z1 = wsptr[7+wsptr_offset];
+		z2 = wsptr[5+wsptr_offset];
+		z3 = wsptr[3+wsptr_offset];
+		z4 = wsptr[1+wsptr_offset];
+
+		tmp0 = (z1 * - 1730/*FIX_0_211164243*/) /* sqrt(2) * (c3-c1) */
+			+ (z2 * 11893/*FIX_1_451774981*/) /* sqrt(2) * (c3+c7) */
+			+ (z3 * - 17799/*FIX_2_172734803*/) /* sqrt(2) * (-c1-c5) */
+			+ (z4 * 8697/*FIX_1_061594337*/); /* sqrt(2) * (c5+c7) */
+
+		tmp2 = (z1 * - 4176/*FIX_0_509795579*/) /* sqrt(2) * (c7-c5) */
+			+ (z2 * - 4926/*FIX_0_601344887*/) /* sqrt(2) * (c5-c1) */
+			+ (z3 * 7373/*FIX_0_899976223*/) /* sqrt(2) * (c3+c7) */
+			+ (z4 * 20995/*FIX_2_562915447*/); /* sqrt(2) * (c1+c3) */
+
+		/* Final output stage */
+
+		outptr[0+outptr_offset] = range_limit[range_limit_offset + ((((tmp10 + tmp2) + (1 << ((CONST_BITS+PASS1_BITS+3+1)-1))) >>
+					CONST_BITS+PASS1_BITS+3+1)
+				& RANGE_MASK)];
+		outptr[3+outptr_offset] = range_limit[range_limit_offset + ((((tmp10 - tmp2) + (1 << ((CONST_BITS+PASS1_BITS+3+1)-1))) >>
+					CONST_BITS+PASS1_BITS+3+1)
+				& RANGE_MASK)];
+		outptr[1+outptr_offset] = range_limit[range_limit_offset + ((((tmp12 + tmp0) + (1 << ((CONST_BITS+PASS1_BITS+3+1)-1))) >>
+					CONST_BITS+PASS1_BITS+3+1)
+				& RANGE_MASK)];
+		outptr[2+outptr_offset] = range_limit[range_limit_offset + ((((tmp12 - tmp0) + (1 << ((CONST_BITS+PASS1_BITS+3+1)-1))) >>
+					CONST_BITS+PASS1_BITS+3+1)
+				& RANGE_MASK)];
+
+		wsptr_offset += DCTSIZE;		/* advance pointer to next row */
+	}
+}
+
+static void jpeg_idct_2x2 (jpeg_decompress_struct cinfo, jpeg_component_info compptr,
+	short[] coef_block,
+	byte[][] output_buf, int output_buf_offset, int output_col)
+{
+	int tmp0, tmp10, z1;
+	short[] inptr = coef_block;
+	int[] quantptr = compptr.dct_table;
+	int[] wsptr = cinfo.workspace;
+	byte[] outptr;
+	byte[] range_limit = cinfo.sample_range_limit;
+	int range_limit_offset = cinfo.sample_range_limit_offset + CENTERJSAMPLE;
+	int ctr;
+	int inptr_offset = 0, quantptr_offset = 0, wsptr_offset = 0;
+
+	/* Pass 1: process columns from input, store into work array. */
+
+	for (ctr = DCTSIZE; ctr > 0; inptr_offset++, quantptr_offset++, wsptr_offset++, ctr--) {
+		/* Don't bother to process columns 2,4,6 */
+		if (ctr == DCTSIZE-2 || ctr == DCTSIZE-4 || ctr == DCTSIZE-6)
+			continue;
+		if (inptr[DCTSIZE*1+inptr_offset] == 0 && inptr[DCTSIZE*3+inptr_offset] == 0 &&
+			inptr[DCTSIZE*5+inptr_offset] == 0 && inptr[DCTSIZE*7+inptr_offset] == 0)
+		{
+			/* AC terms all zero; we need not examine terms 2,4,6 for 2x2 output */
+			int dcval = ((inptr[DCTSIZE*0+inptr_offset]) * quantptr[DCTSIZE*0+quantptr_offset]) << PASS1_BITS;
+
+			wsptr[DCTSIZE*0+wsptr_offset] = dcval;
+			wsptr[DCTSIZE*1+wsptr_offset] = dcval;
+			continue;
+		}
+
+		/* Even part */
+
+		z1 = ((inptr[DCTSIZE*0+inptr_offset]) * quantptr[DCTSIZE*0+quantptr_offset]);
+		tmp10 = z1 << (CONST_BITS+2);
+
+		/* Odd part */
+
+		z1 = ((inptr[DCTSIZE*7+inptr_offset]) * quantptr[DCTSIZE*7+quantptr_offset]);
+		tmp0 = (z1 * - 5906/*FIX_0_720959822*/); /* sqrt(2) * (c7-c5+c3-c1) */
+		z1 = ((inptr[DCTSIZE*5+inptr_offset]) * quantptr[DCTSIZE*5+quantptr_offset]);
+		tmp0 += (z1 * 6967/*FIX_0_850430095*/); /* sqrt(2) * (-c1+c3+c5+c7) */
+		z1 = ((inptr[DCTSIZE*3+inptr_offset]) * quantptr[DCTSIZE*3+quantptr_offset]);
+		tmp0 += (z1 * - 10426/*FIX_1_272758580*/); /* sqrt(2) * (-c1+c3-c5-c7) */
+		z1 = ((inptr[DCTSIZE*1+inptr_offset]) * quantptr[DCTSIZE*1+quantptr_offset]);
+		tmp0 += (z1 * 29692/*FIX_3_624509785*/); /* sqrt(2) * (c1+c3+c5+c7) */
+
+		/* Final output stage */
+
+		wsptr[DCTSIZE*0+wsptr_offset] = (((tmp10 + tmp0) + (1 << ((CONST_BITS-PASS1_BITS+2)-1))) >> (CONST_BITS-PASS1_BITS+2));
+		wsptr[DCTSIZE*1+wsptr_offset] = (((tmp10 - tmp0) + (1 << ((CONST_BITS-PASS1_BITS+2)-1))) >> (CONST_BITS-PASS1_BITS+2));
+	}
+
+	/* Pass 2: process 2 rows from work array, store into output array. */
+
+	wsptr_offset = 0;
+	for (ctr = 0; ctr < 2; ctr++) {
+		outptr = output_buf[ctr+output_buf_offset];
+		int outptr_offset = output_col;
+
+		if (wsptr[1+wsptr_offset] == 0 && wsptr[3+wsptr_offset] == 0 && wsptr[5+wsptr_offset] == 0 && wsptr[7+wsptr_offset] == 0) {
+			/* AC terms all zero */
+			byte dcval = range_limit[range_limit_offset + ((((wsptr[0+wsptr_offset]) + (1 << ((PASS1_BITS+3)-1))) >> PASS1_BITS+3)
+					& RANGE_MASK)];
+
+			outptr[0+outptr_offset] = dcval;
+			outptr[1+outptr_offset] = dcval;
 
-		z1 = tmp0 + tmp3;
-		z2 = tmp1 + tmp2;
-		z3 = tmp0 + tmp2;
-		z4 = tmp1 + tmp3;
-		z5 = ((z3 + z4) * 9633/*FIX_1_175875602*/); /* sqrt(2) * c3 */
+			wsptr_offset += DCTSIZE;		/* advance pointer to next row */
+			continue;
+		}
 
-		tmp0 = (tmp0 * 2446/*FIX_0_298631336*/); /* sqrt(2) * (-c1+c3+c5-c7) */
-		tmp1 = (tmp1 * 16819/*FIX_2_053119869*/); /* sqrt(2) * ( c1+c3-c5+c7) */
-		tmp2 = (tmp2 * 25172/*FIX_3_072711026*/); /* sqrt(2) * ( c1+c3+c5-c7) */
-		tmp3 = (tmp3 * 12299/*FIX_1_501321110*/); /* sqrt(2) * ( c1+c3-c5-c7) */
-		z1 = (z1 * - 7373/*FIX_0_899976223*/); /* sqrt(2) * (c7-c3) */
-		z2 = (z2 * - 20995/*FIX_2_562915447*/); /* sqrt(2) * (-c1-c3) */
-		z3 = (z3 * - 16069/*FIX_1_961570560*/); /* sqrt(2) * (-c3-c5) */
-		z4 = (z4 * - 3196/*FIX_0_390180644*/); /* sqrt(2) * (c5-c3) */
+		/* Even part */
 
-		z3 += z5;
-		z4 += z5;
+		tmp10 = wsptr[0+wsptr_offset] << (CONST_BITS+2);
 
-		tmp0 += z1 + z3;
-		tmp1 += z2 + z4;
-		tmp2 += z2 + z3;
-		tmp3 += z1 + z4;
+		/* Odd part */
 
-		/* Final output stage: inputs are tmp10..tmp13, tmp0..tmp3 */
+		tmp0 = (wsptr[7+wsptr_offset] * - 5906/*FIX_0_720959822*/) /* sqrt(2) * (c7-c5+c3-c1) */
+			+ (wsptr[5+wsptr_offset] * 6967/*FIX_0_850430095*/) /* sqrt(2) * (-c1+c3+c5+c7) */
+			+ (wsptr[3+wsptr_offset] * - 10426/*FIX_1_272758580*/) /* sqrt(2) * (-c1+c3-c5-c7) */
+			+ (wsptr[1+wsptr_offset] * 29692/*FIX_3_624509785*/); /* sqrt(2) * (c1+c3+c5+c7) */
 
+		/* Final output stage */
 
-//		#define DESCALE(x,n)	RIGHT_SHIFT((x) + (ONE << ((n)-1)), n)
-		outptr[0+outptr_offset] = range_limit[range_limit_offset + ((((tmp10 + tmp3) + (1 << ((CONST_BITS+PASS1_BITS+3)-1))) >>
-						CONST_BITS+PASS1_BITS+3)
-					& RANGE_MASK)];
-		outptr[7+outptr_offset] = range_limit[range_limit_offset + ((((tmp10 - tmp3) + (1 << ((CONST_BITS+PASS1_BITS+3)-1))) >>
-									CONST_BITS+PASS1_BITS+3)
-					& RANGE_MASK)];
-		outptr[1+outptr_offset] = range_limit[range_limit_offset + ((((tmp11 + tmp2) + (1 << ((CONST_BITS+PASS1_BITS+3)-1))) >>
-									CONST_BITS+PASS1_BITS+3)
-					& RANGE_MASK)];
-		outptr[6+outptr_offset] = range_limit[range_limit_offset + ((((tmp11 - tmp2) + (1 << ((CONST_BITS+PASS1_BITS+3)-1))) >>
-									CONST_BITS+PASS1_BITS+3)
-					& RANGE_MASK)];
-		outptr[2+outptr_offset] = range_limit[range_limit_offset + ((((tmp12 + tmp1) + (1 << ((CONST_BITS+PASS1_BITS+3)-1))) >>
-									CONST_BITS+PASS1_BITS+3)
-					& RANGE_MASK)];
-		outptr[5+outptr_offset] = range_limit[range_limit_offset + ((((tmp12 - tmp1) + (1 << ((CONST_BITS+PASS1_BITS+3)-1))) >>
-									CONST_BITS+PASS1_BITS+3)
-					& RANGE_MASK)];
-		outptr[3+outptr_offset] = range_limit[range_limit_offset + ((((tmp13 + tmp0) + (1 << ((CONST_BITS+PASS1_BITS+3)-1))) >>
-									CONST_BITS+PASS1_BITS+3)
-					& RANGE_MASK)];
-		outptr[4+outptr_offset] = range_limit[range_limit_offset + ((((tmp13 - tmp0) + (1 << ((CONST_BITS+PASS1_BITS+3)-1))) >>
-									CONST_BITS+PASS1_BITS+3)
-					& RANGE_MASK)];
+		outptr[0+outptr_offset] = range_limit[range_limit_offset + ((((tmp10 + tmp0) + (1 << ((CONST_BITS+PASS1_BITS+3+2)-1))) >>
+					CONST_BITS+PASS1_BITS+3+2)
+				& RANGE_MASK)];
+		outptr[1+outptr_offset] = range_limit[range_limit_offset + ((((tmp10 - tmp0) + (1 << ((CONST_BITS+PASS1_BITS+3+2)-1))) >>
+					CONST_BITS+PASS1_BITS+3+2)
+				& RANGE_MASK)];
 
 		wsptr_offset += DCTSIZE;		/* advance pointer to next row */
 	}
 }
 
+static void jpeg_idct_1x1 (jpeg_decompress_struct cinfo, jpeg_component_info compptr,
+	short[] coef_block,
+	byte[][] output_buf, int output_buf_offset, int output_col)
+{
+	byte[] range_limit = cinfo.sample_range_limit;
+	int range_limit_offset = cinfo.sample_range_limit_offset + CENTERJSAMPLE;
+
+	/* We hardly need an inverse DCT routine for this: just take the
+	 * average pixel value, which is one-eighth of the DC coefficient.
+	 */
+	int dcval = coef_block[0] * compptr.dct_table[0];
+	dcval = (dcval + (1 << (3-1))) >> 3;
+
+	output_buf[output_buf_offset][output_col] = range_limit[range_limit_offset + (dcval & RANGE_MASK)];
+}
+
 static void upsample (jpeg_decompress_struct cinfo,
 	byte[][][] input_buf, int[] input_buf_offset, int[] in_row_group_ctr,
 	int in_row_groups_avail,
-	byte[][] output_buf, int[] out_row_ctr,
+	byte[] output_buf, int[] out_row_ctr,
 	int out_rows_avail)
 {
 	sep_upsample(cinfo, input_buf, input_buf_offset, in_row_group_ctr, in_row_groups_avail, output_buf, out_row_ctr, out_rows_avail);
@@ -3335,7 +4002,7 @@ static void master_selection (jpeg_decompress_struct cinfo) {
 	}
 
 	/* Initialize principal buffer controllers. */
-	use_c_buffer = cinfo.inputctl.has_multiple_scans || cinfo.buffered_image;
+	use_c_buffer = cinfo.inputctl.has_multiple_scans || cinfo.buffered_image || cinfo.pipeline != null;
 	jinit_d_coef_controller(cinfo, use_c_buffer);
 
 	if (! cinfo.raw_data_out)
@@ -3796,7 +4463,7 @@ static int decompress_onepass (jpeg_decompress_struct cinfo, byte[][][] output_b
 					if (cinfo.input_iMCU_row < last_iMCU_row ||	yoffset+yindex < compptr.last_row_height) {
 						output_col = start_col;
 						for (xindex = 0; xindex < useful_width; xindex++) {
-							jpeg_idct_islow(cinfo, compptr, coef.MCU_buffer[blkn+xindex], output_ptr, output_ptr_offset, output_col);
+							jpeg_idct(cinfo, compptr, coef.MCU_buffer[blkn+xindex], output_ptr, output_ptr_offset, output_col);
 							output_col += compptr.DCT_scaled_size;
 						}
 					}
@@ -4015,7 +4682,7 @@ static int decompress_smooth_data (jpeg_decompress_struct cinfo, byte[][][] outp
 					workspace[2] = (short) pred;
 				}
 				/* OK, do the IDCT */
-				jpeg_idct_islow(cinfo, compptr, workspace, output_ptr, output_ptr_offset, output_col);
+				jpeg_idct(cinfo, compptr, workspace, output_ptr, output_ptr_offset, output_col);
 				/* Advance for next column */
 				DC1 = DC2; DC2 = DC3;
 				DC4 = DC5; DC5 = DC6;
@@ -4044,13 +4711,18 @@ static int decompress_data (jpeg_decompress_struct cinfo, byte[][][] output_buf,
 	jpeg_component_info compptr;
 //	inverse_DCT_method_ptr inverse_DCT;
 
-	/* Force some input to be done if we are getting ahead of the input. */
-	while (cinfo.input_scan_number < cinfo.output_scan_number ||
-	 (cinfo.input_scan_number == cinfo.output_scan_number &&
-		cinfo.input_iMCU_row <= cinfo.output_iMCU_row))
-	{
-		if (consume_input(cinfo) == JPEG_SUSPENDED)
-			return JPEG_SUSPENDED;
+	if (cinfo.pipeline != null) {
+		/* The input side runs on another thread, wait for it */
+		await_iMCU_row(cinfo);
+	} else {
+		/* Force some input to be done if we are getting ahead of the input. */
+		while (cinfo.input_scan_number < cinfo.output_scan_number ||
+		 (cinfo.input_scan_number == cinfo.output_scan_number &&
+			cinfo.input_iMCU_row <= cinfo.output_iMCU_row))
+		{
+			if (consume_input(cinfo) == JPEG_SUSPENDED)
+				return JPEG_SUSPENDED;
+		}
 	}
 
 	/* OK, output from the virtual arrays. */
@@ -4079,12 +4751,14 @@ static int decompress_data (jpeg_decompress_struct cinfo, byte[][][] output_buf,
 			int buffer_ptr_offset = 0;
 			output_col = 0;
 			for (block_num = 0; block_num < compptr.width_in_blocks; block_num++) {
-				jpeg_idct_islow(cinfo, compptr, buffer_ptr[buffer_ptr_offset], output_ptr, output_ptr_offset, output_col);
+				jpeg_idct(cinfo, compptr, buffer_ptr[buffer_ptr_offset], output_ptr, output_ptr_offset, output_col);
 
 				buffer_ptr_offset++;
 				output_col += compptr.DCT_scaled_size;
 			}
 			output_ptr_offset += compptr.DCT_scaled_size;
+			/* The coefficients are not needed again */
+			if (cinfo.pipeline != null) buffer[block_row+buffer_offset] = null;
 		}
 	}
 
@@ -4096,7 +4770,7 @@ static int decompress_data (jpeg_decompress_struct cinfo, byte[][][] output_buf,
 static void post_process_data (jpeg_decompress_struct cinfo,
 				byte[][][] input_buf, int[] input_buf_offset, int[] in_row_group_ctr,
 				int in_row_groups_avail,
-				byte[][] output_buf, int[] out_row_ctr,
+				byte[] output_buf, int[] out_row_ctr,
 				int out_rows_avail)
 {
 	upsample(cinfo, input_buf, input_buf_offset, in_row_group_ctr, in_row_groups_avail, output_buf, out_row_ctr, out_rows_avail);
@@ -4166,14 +4840,14 @@ static void set_wraparound_pointers (jpeg_decompress_struct cinfo)
 }
 
 static void process_data_crank_post (jpeg_decompress_struct cinfo,
-	byte[][] output_buf, int[] out_row_ctr,
+	byte[] output_buf, int[] out_row_ctr,
 	int out_rows_avail)
 {
 	error();
 }
 
 static void process_data_context_main (jpeg_decompress_struct cinfo,
-	byte[][] output_buf, int[] out_row_ctr,
+	byte[] output_buf, int[] out_row_ctr,
 	int out_rows_avail)
 {
 	jpeg_d_main_controller main = cinfo.main;
@@ -4237,7 +4911,7 @@ static void process_data_context_main (jpeg_decompress_struct cinfo,
 	}
 }
 
-static void process_data_simple_main (jpeg_decompress_struct cinfo, byte[][] output_buf, int[] out_row_ctr, int out_rows_avail) {
+static void process_data_simple_main (jpeg_decompress_struct cinfo, byte[] output_buf, int[] out_row_ctr, int out_rows_avail) {
 	jpeg_d_main_controller main = cinfo.main;
 	int rowgroups_avail;
 
@@ -4271,7 +4945,12 @@ static void process_data_simple_main (jpeg_decompress_struct cinfo, byte[][] out
 	}
 }
 
-static int jpeg_read_scanlines (jpeg_decompress_struct cinfo, byte[][] scanlines, int max_lines) {
+/*
+ * Read up to max_lines scanlines into output_data. Scanline n of the
+ * image is stored at offset n * output_stride, so the rows can be decoded
+ * straight into the final image buffer.
+ */
+static int jpeg_read_scanlines (jpeg_decompress_struct cinfo, byte[] output_data, int output_stride, int max_lines) {
 
 	if (cinfo.global_state != DSTATE_SCANNING)
 		error();
@@ -4289,16 +4968,17 @@ static int jpeg_read_scanlines (jpeg_decompress_struct cinfo, byte[][] scanlines
 //	}
 
 	/* Process some data */
+	cinfo.output_stride = output_stride;
 	cinfo.row_ctr[0] = 0;
 	switch (cinfo.main.process_data) {
 		case PROCESS_DATA_SIMPLE_MAIN:
-			process_data_simple_main (cinfo, scanlines, cinfo.row_ctr, max_lines);
+			process_data_simple_main (cinfo, output_data, cinfo.row_ctr, max_lines);
 			break;
 		case PROCESS_DATA_CONTEXT_MAIN:
-			process_data_context_main (cinfo, scanlines, cinfo.row_ctr, max_lines);
+			process_data_context_main (cinfo, output_data, cinfo.row_ctr, max_lines);
 			break;
 		case PROCESS_DATA_CRANK_POST:
-			process_data_crank_post (cinfo, scanlines, cinfo.row_ctr, max_lines);
+			process_data_crank_post (cinfo, output_data, cinfo.row_ctr, max_lines);
 			break;
 		default: error();
 	}
@@ -4711,7 +5391,7 @@ static boolean get_sof (jpeg_decompress_struct cinfo, boolean is_prog, boolean i
 
 static void sep_upsample (jpeg_decompress_struct cinfo, byte[][][] input_buf, int[] input_buf_offset,
 		int[] in_row_group_ctr, int in_row_groups_avail,
-		byte[][] output_buf, int[] out_row_ctr,	int out_rows_avail)
+		byte[] output_buf, int[] out_row_ctr,	int out_rows_avail)
 {
 	jpeg_upsampler upsample = cinfo.upsample;
 	int ci;
@@ -4726,6 +5406,11 @@ static void sep_upsample (jpeg_decompress_struct cinfo, byte[][][] input_buf, in
 			 * to color_buf[ci], so that fullsize_upsample can change it.
 			 */
 			int offset = input_buf_offset[ci] + (in_row_group_ctr[0] * upsample.rowgroup_height[ci]);
+			if (upsample.fancy_ycc && ci > 0) {
+				/* Chroma is upsampled by fancy_ycc_rgb_convert, straight from the input rows */
+				fullsize_upsample(cinfo, compptr, input_buf[ci], offset, upsample.color_buf, upsample.color_buf_offset, ci);
+				continue;
+			}
 			switch (upsample.methods[ci]) {
 				case NOOP_UPSAMPLE: noop_upsample(cinfo, compptr, input_buf[ci], offset, upsample.color_buf, upsample.color_buf_offset, ci); break;
 				case FULLSIZE_UPSAMPLE: fullsize_upsample(cinfo, compptr, input_buf[ci], offset, upsample.color_buf, upsample.color_buf_offset, ci); break;
@@ -4753,12 +5438,17 @@ static void sep_upsample (jpeg_decompress_struct cinfo, byte[][][] input_buf, in
 	if (num_rows > out_rows_avail)
 		num_rows = out_rows_avail;
 
-	switch (cinfo.cconvert.color_convert) {
-		case NULL_CONVERT: null_convert (cinfo, upsample.color_buf, upsample.color_buf_offset, upsample.next_row_out, output_buf, out_row_ctr[0], num_rows); break;
-		case GRAYSCALE_CONVERT: grayscale_convert (cinfo, upsample.color_buf, upsample.color_buf_offset, upsample.next_row_out, output_buf, out_row_ctr[0], num_rows); break;
-		case YCC_RGB_CONVERT: ycc_rgb_convert (cinfo, upsample.color_buf, upsample.color_buf_offset, upsample.next_row_out, output_buf, out_row_ctr[0], num_rows); break;
-		case GRAY_RGB_CONVERT: gray_rgb_convert (cinfo, upsample.color_buf, upsample.color_buf_offset, upsample.next_row_out, output_buf, out_row_ctr[0], num_rows); break;
-		case YCCK_CMYK_CONVERT: error(); break;
+	int output_offset = (cinfo.output_scanline + out_row_ctr[0]) * cinfo.output_stride;
+	if (upsample.fancy_ycc) {
+		fancy_ycc_rgb_convert (cinfo, upsample.color_buf, upsample.color_buf_offset, upsample.next_row_out, output_buf, output_offset, num_rows);
+	} else {
+		switch (cinfo.cconvert.color_convert) {
+			case NULL_CONVERT: null_convert (cinfo, upsample.color_buf, upsample.color_buf_offset, upsample.next_row_out, output_buf, output_offset, num_rows); break;
+			case GRAYSCALE_CONVERT: grayscale_convert (cinfo, upsample.color_buf, upsample.color_buf_offset, upsample.next_row_out, output_buf, output_offset, num_rows); break;
+			case YCC_RGB_CONVERT: ycc_rgb_convert (cinfo, upsample.color_buf, upsample.color_buf_offset, upsample.next_row_out, output_buf, output_offset, num_rows); break;
+			case GRAY_RGB_CONVERT: gray_rgb_convert (cinfo, upsample.color_buf, upsample.color_buf_offset, upsample.next_row_out, output_buf, output_offset, num_rows); break;
+			case YCCK_CMYK_CONVERT: error(); break;
+		}
 	}
 
 	/* Adjust counts */
@@ -4955,9 +5645,9 @@ static void int_upsample (jpeg_decompress_struct cinfo, jpeg_component_info comp
 
 static void null_convert (jpeg_decompress_struct cinfo,
 	byte[][][] input_buf, int[] input_buf_offset, int input_row,
-	byte[][] output_buf, int output_buf_offset, int num_rows)
+	byte[] output_buf, int output_offset, int num_rows)
 {
-	byte[] inptr, outptr;
+	byte[] inptr;
 	int count;
 	int num_components = cinfo.num_components;
 	int num_cols = cinfo.output_width;
@@ -4966,7 +5656,6 @@ static void null_convert (jpeg_decompress_struct cinfo,
 	while (--num_rows >= 0) {
 		for (ci = 0; ci < num_components; ci++) {
 			inptr = input_buf[ci][input_row+input_buf_offset[0]];
-			outptr = output_buf[output_buf_offset];
 			/* BGR instead of RGB */
 			int offset = 0;
 			switch (ci) {
@@ -4974,52 +5663,53 @@ static void null_convert (jpeg_decompress_struct cinfo,
 				case 1: offset = RGB_GREEN; break;
 				case 0: offset = RGB_RED; break;
 			}
-			int outptr_offset = offset, inptr_offset = 0;
+			int outptr_offset = output_offset + offset, inptr_offset = 0;
 			for (count = num_cols; count > 0; count--) {
-				outptr[outptr_offset] = inptr[inptr_offset++];	/* needn't bother with GETJSAMPLE() here */
+				output_buf[outptr_offset] = inptr[inptr_offset++];	/* needn't bother with GETJSAMPLE() here */
 				outptr_offset += num_components;
 			}
 		}
 		input_row++;
-		output_buf_offset++;
+		output_offset += cinfo.output_stride;
 	}
 }
 
 static void grayscale_convert (jpeg_decompress_struct cinfo,
 	byte[][][] input_buf, int[] input_buf_offset, int input_row,
-	byte[][] output_buf, int output_buf_offset, int num_rows)
+	byte[] output_buf, int output_offset, int num_rows)
 {
-	jcopy_sample_rows(input_buf[0], input_row+input_buf_offset[0], output_buf, output_buf_offset,
-				num_rows, cinfo.output_width);
+	while (--num_rows >= 0) {
+		System.arraycopy(input_buf[0][input_row+++input_buf_offset[0]], 0, output_buf, output_offset, cinfo.output_width);
+		output_offset += cinfo.output_stride;
+	}
 }
 
 static void gray_rgb_convert (jpeg_decompress_struct cinfo,
 	byte[][][] input_buf, int[] input_buf_offset, int input_row,
-	byte[][] output_buf, int output_buf_offset, int num_rows)
+	byte[] output_buf, int output_offset, int num_rows)
 {
-	byte[] inptr, outptr;
+	byte[] inptr;
 	int col;
 	int num_cols = cinfo.output_width;
 
 	while (--num_rows >= 0) {
 		inptr = input_buf[0][input_row+++input_buf_offset[0]];
-		outptr = output_buf[output_buf_offset++];
-		int outptr_offset = 0;
+		int outptr_offset = output_offset;
 		for (col = 0; col < num_cols; col++) {
 			/* We can dispense with GETJSAMPLE() here */
-			outptr[RGB_RED+outptr_offset] = outptr[RGB_GREEN+outptr_offset] = outptr[RGB_BLUE+outptr_offset] = inptr[col];
+			output_buf[RGB_RED+outptr_offset] = output_buf[RGB_GREEN+outptr_offset] = output_buf[RGB_BLUE+outptr_offset] = inptr[col];
 			outptr_offset += RGB_PIXELSIZE;
 		}
+		output_offset += cinfo.output_stride;
 	}
 }
 
 static void ycc_rgb_convert (jpeg_decompress_struct cinfo,
 	byte[][][] input_buf, int[] input_buf_offset, int input_row,
-	byte[][] output_buf, int output_buf_offset, int num_rows)
+	byte[] output_buf, int output_offset, int num_rows)
 {
 	jpeg_color_deconverter cconvert = cinfo.cconvert;
 	int y, cb, cr;
-	byte[] outptr;
 	byte[] inptr0, inptr1, inptr2;
 	int col;
 	int num_cols = cinfo.output_width;
@@ -5037,18 +5727,101 @@ static void ycc_rgb_convert (jpeg_decompress_struct cinfo,
 		inptr1 = input_buf[1][input_row+input_buf_offset[1]];
 		inptr2 = input_buf[2][input_row+input_buf_offset[2]];
 		input_row++;
-		outptr = output_buf[output_buf_offset++];
-		int outptr_offset = 0;
+		int outptr_offset = output_offset;
 		for (col = 0; col < num_cols; col++) {
 			y = (inptr0[col] & 0xFF);
 			cb = (inptr1[col] & 0xFF);
 			cr = (inptr2[col] & 0xFF);
 			/* Range-limiting is essential due to noise introduced by DCT losses. */
-			outptr[outptr_offset + RGB_RED] =	range_limit[y + Crrtab[cr] + range_limit_offset];
-			outptr[outptr_offset + RGB_GREEN] = range_limit[y + ((Cbgtab[cb] + Crgtab[cr]>>SCALEBITS)) + range_limit_offset];
-			outptr[outptr_offset + RGB_BLUE] =	range_limit[y + Cbbtab[cb] + range_limit_offset];
+			output_buf[outptr_offset + RGB_RED] =	range_limit[y + Crrtab[cr] + range_limit_offset];
+			output_buf[outptr_offset + RGB_GREEN] = range_limit[y + ((Cbgtab[cb] + Crgtab[cr]>>SCALEBITS)) + range_limit_offset];
+			output_buf[outptr_offset + RGB_BLUE] =	range_limit[y + Cbbtab[cb] + range_limit_offset];
+			outptr_offset += RGB_PIXELSIZE;
+		}
+		output_offset += cinfo.output_stride;
+	}
+}
+
+/*
+ * YCbCr->RGB conversion fused with h2v1_fancy_upsample or
+ * h2v2_fancy_upsample of the chroma components. The triangle
+ * filtered chroma samples are computed as each pixel is converted,
+ * which gives the same result as upsampling into color_buf first
+ * without writing and reading back two full size chroma rows.
+ */
+static void fancy_ycc_rgb_convert (jpeg_decompress_struct cinfo,
+	byte[][][] input_buf, int[] input_buf_offset, int input_row,
+	byte[] output_buf, int output_offset, int num_rows)
+{
+	jpeg_color_deconverter cconvert = cinfo.cconvert;
+	int y, cb, cr;
+	int cbthis, cblast, cbnext, crthis, crlast, crnext;
+	byte[] inptr0, cbptr0, cbptr1, crptr0, crptr1;
+	int col, i;
+	int num_cols = cinfo.output_width;
+	int last = cinfo.comp_info[1].downsampled_width - 1;
+	byte[] range_limit = cinfo.sample_range_limit;
+	int range_limit_offset = cinfo.sample_range_limit_offset;
+	int[] Crrtab = cconvert.Cr_r_tab;
+	int[] Cbbtab = cconvert.Cb_b_tab;
+	int[] Crgtab = cconvert.Cr_g_tab;
+	int[] Cbgtab = cconvert.Cb_g_tab;
+	/* Column sums are 3 * nearer row + further row for h2v2, and simply
+	 * 4 * the row for h2v1, so the two cases differ only in rounding.
+	 */
+	boolean h2v2 = cinfo.upsample.methods[1] == H2V2_FANCY_UPSAMPLE;
+	int even_bias = h2v2 ? 8 : 4;
+	int odd_bias = h2v2 ? 7 : 8;
+
+	while (--num_rows >= 0) {
+		inptr0 = input_buf[0][input_row+input_buf_offset[0]];
+		if (h2v2) {
+			/* nearest chroma row, and the next nearest one above or below */
+			int inrow = input_row >> 1;
+			int nextrow = (input_row & 1) == 0 ? inrow - 1 : inrow + 1;
+			cbptr0 = input_buf[1][inrow+input_buf_offset[1]];
+			cbptr1 = input_buf[1][nextrow+input_buf_offset[1]];
+			crptr0 = input_buf[2][inrow+input_buf_offset[2]];
+			crptr1 = input_buf[2][nextrow+input_buf_offset[2]];
+		} else {
+			cbptr0 = cbptr1 = input_buf[1][input_row+input_buf_offset[1]];
+			crptr0 = crptr1 = input_buf[2][input_row+input_buf_offset[2]];
+		}
+		input_row++;
+
+		cbthis = cblast = (cbptr0[0] & 0xFF) * 3 + (cbptr1[0] & 0xFF);
+		crthis = crlast = (crptr0[0] & 0xFF) * 3 + (crptr1[0] & 0xFF);
+		int outptr_offset = output_offset;
+		for (col = 0, i = 0; col < num_cols; i++) {
+			if (i < last) {
+				cbnext = (cbptr0[i+1] & 0xFF) * 3 + (cbptr1[i+1] & 0xFF);
+				crnext = (crptr0[i+1] & 0xFF) * 3 + (crptr1[i+1] & 0xFF);
+			} else {
+				cbnext = cbthis;
+				crnext = crthis;
+			}
+			/* 3/4 * nearer chroma sample + 1/4 * further one, to the left */
+			y = (inptr0[col++] & 0xFF);
+			cb = (cbthis * 3 + cblast + even_bias) >> 4;
+			cr = (crthis * 3 + crlast + even_bias) >> 4;
+			output_buf[outptr_offset + RGB_RED] =	range_limit[y + Crrtab[cr] + range_limit_offset];
+			output_buf[outptr_offset + RGB_GREEN] = range_limit[y + ((Cbgtab[cb] + Crgtab[cr]>>SCALEBITS)) + range_limit_offset];
+			output_buf[outptr_offset + RGB_BLUE] =	range_limit[y + Cbbtab[cb] + range_limit_offset];
 			outptr_offset += RGB_PIXELSIZE;
+			if (col < num_cols) {
+				/* ... and to the right */
+				y = (inptr0[col++] & 0xFF);
+				cb = (cbthis * 3 + cbnext + odd_bias) >> 4;
+				cr = (crthis * 3 + crnext + odd_bias) >> 4;
+				output_buf[outptr_offset + RGB_RED] =	range_limit[y + Crrtab[cr] + range_limit_offset];
+				output_buf[outptr_offset + RGB_GREEN] = range_limit[y + ((Cbgtab[cb] + Crgtab[cr]>>SCALEBITS)) + range_limit_offset];
+				output_buf[outptr_offset + RGB_BLUE] =	range_limit[y + Cbbtab[cb] + range_limit_offset];
+				outptr_offset += RGB_PIXELSIZE;
+			}
+			cblast = cbthis; cbthis = cbnext;
+			crlast = crthis; crthis = crnext;
 		}
+		output_offset += cinfo.output_stride;
 	}
 }
 
@@ -6273,12 +7046,149 @@ static boolean isFileFormat(LEDataInputStream stream) {
 }
 
 static ImageData[] loadFromByteStream(InputStream inputStream, ImageLoader loader) {
-	jpeg_decompress_struct cinfo = new jpeg_decompress_struct();
-	cinfo.inputStream = inputStream;
-	jpeg_create_decompress(cinfo);
-	jpeg_read_header(cinfo, true);
-	cinfo.buffered_image = cinfo.progressive_mode && loader.hasListeners();
-	jpeg_start_decompress(cinfo);
+	return loadFromByteStream(inputStream, loader, 0, 0);
+}
+
+/*
+ * Selects the IDCT used at full scale: "islow" (the default) is the accurate
+ * integer IDCT, "ifast" trades some accuracy for speed and "float" is
+ * accurate and fast on hardware with fast floating point.
+ */
+static final String DCT_METHOD_PROPERTY = "org.eclipse.swt.internal.image.JPEGDecoder.dctMethod";
+
+static int get_dct_method () {
+	String method = System.getProperty(DCT_METHOD_PROPERTY);
+	if ("ifast".equals(method)) return JDCT_IFAST;
+	if ("float".equals(method)) return JDCT_FLOAT;
+	return JDCT_DEFAULT;
+}
+
+/* Number of iMCU rows the entropy decoder may run ahead of the output side */
+static final int PIPELINE_DEPTH = 8;
+
+/* Milliseconds to wait for the executor to start the entropy decoder before running it on the calling thread */
+static final int PIPELINE_START_TIMEOUT = 20;
+
+static volatile Executor executor;
+
+/**
+ * Sets the executor that runs the parallel parts of decoding large
+ * images, which turns parallel decoding on. With <code>null</code>,
+ * images are only decoded on several threads when the system property
+ * <code>org.eclipse.swt.internal.image.threads</code> is set, and then
+ * on the executor shared by the image code. The thread that decodes
+ * the image also does work the executor has not started, so a busy
+ * executor slows decoding down but never blocks it.
+ *
+ * @param executor the executor, or <code>null</code>
+ *
+ * @see ImageExecutor
+ */
+public static void setExecutor(Executor executor) {
+	JPEGDecoder.executor = executor;
+}
+
+/*
+ * Decode the image at 1/2, 1/4 or 1/8 of its size when that is still at
+ * least targetWidth by targetHeight. The scaling happens in the IDCT, so
+ * the full size image is never produced.
+ *
+ * Parallel decoding is opt-in. Large images with restart markers are split
+ * into strips of restart intervals that are decoded at the same time, which
+ * needs the whole stream in memory. Other large single scan images run the
+ * entropy decoder ahead of the IDCT on a second thread while streaming.
+ */
+static ImageData[] loadFromByteStream(InputStream inputStream, ImageLoader loader, int targetWidth, int targetHeight) {
+	Executor executor = JPEGDecoder.executor;
+	int threads = ImageExecutor.getMaxThreads();
+	if (threads == 1 || (executor == null && !ImageExecutor.isRequested())) {
+		return new ImageData[]{decompress(inputStream, loader, targetWidth, targetHeight, null)};
+	}
+	if (executor == null) executor = ImageExecutor.getExecutor();
+
+	/* Look at the frame header before deciding whether to buffer the stream */
+	ByteArrayOutputStream header = new ByteArrayOutputStream();
+	int[] frame = null;
+	try {
+		frame = read_frame_header(inputStream, header);
+	} catch (IOException e) {
+		error(SWT.ERROR_IO);
+	}
+	InputStream stream = new SequenceInputStream(new ByteArrayInputStream(header.toByteArray()), inputStream);
+	if (frame == null || (long)frame[0] * frame[1] < ImageExecutor.MIN_PARALLEL_PIXELS) {
+		return new ImageData[]{decompress(stream, loader, targetWidth, targetHeight, null)};
+	}
+	if (frame[3] == 0 || (frame[2] != M_SOF0 && frame[2] != M_SOF1)) {
+		return new ImageData[]{decompress(stream, loader, targetWidth, targetHeight, executor)};
+	}
+	byte[] bytes = null;
+	try {
+		bytes = stream.readAllBytes();
+	} catch (IOException e) {
+		error(SWT.ERROR_IO);
+	}
+	ImageData imageData = decompress_restart_intervals(bytes, targetWidth, targetHeight, threads, executor);
+	if (imageData == null) imageData = decompress(new ByteArrayInputStream(bytes), loader, targetWidth, targetHeight, executor);
+	return new ImageData[]{imageData};
+}
+
+/*
+ * Copy the markers up to and including the first scan header into header,
+ * and answer the width, height and frame marker of the image and its
+ * restart interval, or null when the stream does not start that way.
+ */
+static int[] read_frame_header (InputStream inputStream, ByteArrayOutputStream header) throws IOException {
+	if (copy_byte(inputStream, header) != 0xFF || copy_byte(inputStream, header) != M_SOI) return null;
+	int[] frame = null;
+	int restart_interval = 0;
+	for (;;) {
+		if (copy_byte(inputStream, header) != 0xFF) return null;
+		int marker;
+		while ((marker = copy_byte(inputStream, header)) == 0xFF) {}
+		/* Only marker segments with a length are expected before the scan */
+		if (marker == -1 || marker == 0 || marker == M_SOI || marker == M_EOI || marker == M_TEM || (M_RST0 <= marker && marker <= M_RST7)) return null;
+		int high = copy_byte(inputStream, header), low = copy_byte(inputStream, header);
+		if (low == -1) return null;
+		int length = ((high << 8) | low) - 2;
+		if (length < 0) return null;
+		byte[] segment = inputStream.readNBytes(length);
+		header.write(segment, 0, segment.length);
+		if (segment.length < length) return null;
+		if (M_SOF0 <= marker && marker <= M_SOF15 && marker != M_DHT && marker != M_JPG && marker != M_DAC) {
+			if (length < 5) return null;
+			int height = ((segment[1] & 0xFF) << 8) | (segment[2] & 0xFF);
+			int width = ((segment[3] & 0xFF) << 8) | (segment[4] & 0xFF);
+			frame = new int[]{width, height, marker, 0};
+		} else if (marker == M_DRI) {
+			if (length < 2) return null;
+			restart_interval = ((segment[0] & 0xFF) << 8) | (segment[1] & 0xFF);
+		} else if (marker == M_SOS) {
+			if (frame != null) frame[3] = restart_interval;
+			return frame;
+		}
+	}
+}
+
+static int copy_byte (InputStream inputStream, ByteArrayOutputStream header) throws IOException {
+	int value = inputStream.read();
+	if (value != -1) header.write(value);
+	return value;
+}
+
+static void setup_output (jpeg_decompress_struct cinfo, int targetWidth, int targetHeight) {
+	cinfo.dct_method = get_dct_method();
+	if (targetWidth > 0 && targetHeight > 0) {
+		for (int denom = 8; denom > 1; denom /= 2) {
+			if (jdiv_round_up(cinfo.image_width, denom) >= targetWidth && jdiv_round_up(cinfo.image_height, denom) >= targetHeight) {
+				cinfo.scale_num = 1;
+				cinfo.scale_denom = denom;
+				break;
+			}
+		}
+	}
+}
+
+static ImageData new_image_data (jpeg_decompress_struct cinfo) {
 	PaletteData palette = null;
 	switch (cinfo.out_color_space) {
 		case JCS_RGB:
@@ -6296,34 +7206,328 @@ static ImageData[] loadFromByteStream(InputStream inputStream, ImageLoader loade
 	}
 	int scanlinePad = 4;
 	int row_stride = (((cinfo.output_width * cinfo.out_color_components * 8 + 7) / 8) + (scanlinePad - 1)) / scanlinePad * scanlinePad;
-	byte[][] buffer = new byte[1][row_stride];
 	byte[] data = new byte[row_stride * cinfo.output_height];
-	ImageData imageData = ImageData.internal_new(
+	return ImageData.internal_new(
 			cinfo.output_width, cinfo.output_height, palette.isDirect ? 24 : 8, palette, scanlinePad, data,
 			0, null, null, -1, -1, SWT.IMAGE_JPEG, 0, 0, 0, 0);
+}
+
+static ImageData decompress (InputStream inputStream, ImageLoader loader, int targetWidth, int targetHeight, Executor executor) {
+	jpeg_decompress_struct cinfo = new jpeg_decompress_struct();
+	cinfo.inputStream = inputStream;
+	jpeg_create_decompress(cinfo);
+	jpeg_read_header(cinfo, true);
+	setup_output(cinfo, targetWidth, targetHeight);
+	cinfo.buffered_image = cinfo.progressive_mode && loader.hasListeners();
+	if (executor != null && !cinfo.buffered_image && !cinfo.inputctl.has_multiple_scans &&
+		(long)cinfo.image_width * cinfo.image_height >= ImageExecutor.MIN_PARALLEL_PIXELS)
+	{
+		cinfo.pipeline = new jpeg_d_pipeline();
+	}
+	jpeg_start_decompress(cinfo);
+	ImageData imageData = new_image_data(cinfo);
+	byte[] data = imageData.data;
+	int row_stride = imageData.bytesPerLine;
 	if (cinfo.buffered_image) {
 		boolean done;
 		do {
 			int incrementCount = cinfo.input_scan_number - 1;
 			jpeg_start_output(cinfo, cinfo.input_scan_number);
 			while (cinfo.output_scanline < cinfo.output_height) {
-				int offset = row_stride * cinfo.output_scanline;
-				jpeg_read_scanlines(cinfo, buffer, 1);
-				System.arraycopy(buffer[0], 0, data, offset, row_stride);
+				jpeg_read_scanlines(cinfo, data, row_stride, cinfo.output_height - cinfo.output_scanline);
 			}
 			jpeg_finish_output(cinfo);
 			loader.notifyListeners(new ImageLoaderEvent(loader, (ImageData)imageData.clone(), incrementCount, done = jpeg_input_complete(cinfo)));
 		} while (!done);
 	} else {
-		while (cinfo.output_scanline < cinfo.output_height) {
-			int offset = row_stride * cinfo.output_scanline;
-			jpeg_read_scanlines(cinfo, buffer, 1);
-			System.arraycopy(buffer[0], 0, data, offset, row_stride);
+		if (cinfo.pipeline != null) start_pipeline(cinfo, executor);
+		try {
+			while (cinfo.output_scanline < cinfo.output_height) {
+				jpeg_read_scanlines(cinfo, data, row_stride, cinfo.output_height - cinfo.output_scanline);
+			}
+		} finally {
+			if (cinfo.pipeline != null) finish_pipeline(cinfo);
 		}
 	}
 	jpeg_finish_decompress(cinfo);
 	jpeg_destroy_decompress(cinfo);
-	return new ImageData[]{imageData};
+	return imageData;
+}
+
+/*
+ * Run the entropy decoder on the executor, ahead of the IDCT and color
+ * conversion done by jpeg_read_scanlines() on the calling thread.
+ */
+static void start_pipeline (jpeg_decompress_struct cinfo, Executor executor) {
+	jpeg_d_pipeline pipeline = cinfo.pipeline;
+	pipeline.task = new FutureTask<>(() -> {
+		try {
+			consume_pipelined(cinfo);
+		} finally {
+			synchronized (pipeline) {
+				pipeline.finished = true;
+				pipeline.notifyAll();
+			}
+		}
+	}, null);
+	executor.execute(pipeline.task);
+}
+
+static void consume_pipelined (jpeg_decompress_struct cinfo) {
+	jpeg_d_pipeline pipeline = cinfo.pipeline;
+	jpeg_d_coef_controller coef = cinfo.coef;
+	boolean interrupted = false;
+	int retcode;
+	try {
+		do {
+			synchronized (pipeline) {
+				pipeline.started = true;
+				/* Bound the coefficients waiting for the output side */
+				while (!pipeline.cancelled && !pipeline.inline &&
+					cinfo.input_iMCU_row - pipeline.output_iMCU_row >= PIPELINE_DEPTH)
+				{
+					try {
+						pipeline.wait();
+					} catch (InterruptedException e) {
+						interrupted = true;
+					}
+				}
+				if (pipeline.cancelled) return;
+			}
+			/* Allocate the rows of the next iMCU row, zeroed as the entropy decoder expects */
+			for (int ci = 0; ci < cinfo.num_components; ci++) {
+				jpeg_component_info compptr = cinfo.comp_info[ci];
+				int row = cinfo.input_iMCU_row * compptr.v_samp_factor;
+				for (int i = 0; i < compptr.v_samp_factor; i++) {
+					coef.whole_image[ci][row + i] = new short[(int)jround_up(compptr.width_in_blocks, compptr.h_samp_factor)][DCTSIZE2];
+				}
+			}
+			retcode = consume_input(cinfo);
+			synchronized (pipeline) {
+				pipeline.iMCU_rows = cinfo.input_iMCU_row;
+				pipeline.notifyAll();
+			}
+		} while (retcode == JPEG_ROW_COMPLETED);
+	} finally {
+		if (interrupted) Thread.currentThread().interrupt();
+	}
+}
+
+static void await_iMCU_row (jpeg_decompress_struct cinfo) {
+	jpeg_d_pipeline pipeline = cinfo.pipeline;
+	boolean interrupted = false, waited = false;
+	try {
+		for (;;) {
+			synchronized (pipeline) {
+				pipeline.output_iMCU_row = cinfo.output_iMCU_row;
+				pipeline.notifyAll();
+				if (pipeline.iMCU_rows > cinfo.output_iMCU_row) return;
+				if (pipeline.finished) break;
+				if (pipeline.started || !waited) {
+					waited = true;
+					try {
+						pipeline.wait(PIPELINE_START_TIMEOUT);
+					} catch (InterruptedException e) {
+						interrupted = true;
+					}
+					continue;
+				}
+				pipeline.inline = true;
+			}
+			/* The executor is busy, run the entropy decoder on this thread */
+			pipeline.task.run();
+		}
+	} finally {
+		if (interrupted) Thread.currentThread().interrupt();
+	}
+	/* The entropy decoder failed or stopped early */
+	rethrow(join(pipeline.task));
+	error();
+}
+
+static void finish_pipeline (jpeg_decompress_struct cinfo) {
+	jpeg_d_pipeline pipeline = cinfo.pipeline;
+	synchronized (pipeline) {
+		pipeline.cancelled = true;
+		pipeline.notifyAll();
+	}
+	if (!pipeline.task.cancel(false)) join(pipeline.task);
+}
+
+/*
+ * Decode an image with restart markers as horizontal strips of restart
+ * intervals on the executor, or answer null when the image cannot be split.
+ * Each strip is decoded as an image of its own that also contains the
+ * intervals next to it, so that the upsampling of the rows that are kept
+ * sees the same neighbors as in a sequential decode.
+ */
+static ImageData decompress_restart_intervals (byte[] bytes, int targetWidth, int targetHeight, int threads, Executor executor) {
+	jpeg_decompress_struct cinfo = new jpeg_decompress_struct();
+	cinfo.inputStream = new ByteArrayInputStream(bytes);
+	jpeg_create_decompress(cinfo);
+	jpeg_read_header(cinfo, true);
+	if (cinfo.restart_interval == 0 || cinfo.inputctl.has_multiple_scans || cinfo.arith_code) return null;
+	if ((long)cinfo.image_width * cinfo.image_height < ImageExecutor.MIN_PARALLEL_PIXELS) return null;
+
+	/* Find the frame header and the end of the scan header */
+	int frame = -1, offset = 2;
+	for (;;) {
+		if (offset + 4 > bytes.length || (bytes[offset] & 0xFF) != 0xFF) return null;
+		int marker = bytes[offset + 1] & 0xFF;
+		if (marker == 0xFF) {
+			offset++;
+			continue;
+		}
+		if (marker == M_SOF0 || marker == M_SOF1) frame = offset;
+		offset += 2 + (((bytes[offset + 2] & 0xFF) << 8) | (bytes[offset + 3] & 0xFF));
+		if (marker == M_SOS) break;
+	}
+	if (frame == -1) return null;
+	int sof = frame, header_length = offset;
+
+	/* Find the restart markers, one between each pair of intervals */
+	int MCUs_per_row, MCU_rows, MCU_rows_per_iMCU_row;
+	if (cinfo.comps_in_scan == 1) {
+		jpeg_component_info compptr = cinfo.cur_comp_info[0];
+		MCUs_per_row = compptr.width_in_blocks;
+		MCU_rows = compptr.height_in_blocks;
+		MCU_rows_per_iMCU_row = compptr.v_samp_factor;
+	} else {
+		MCUs_per_row = (int)jdiv_round_up(cinfo.image_width, cinfo.max_h_samp_factor * DCTSIZE);
+		MCU_rows = cinfo.total_iMCU_rows;
+		MCU_rows_per_iMCU_row = 1;
+	}
+	int intervals = (int)jdiv_round_up((long)MCUs_per_row * MCU_rows, cinfo.restart_interval);
+	if (intervals < 2) return null;
+	int[] markers = new int[intervals - 1];
+	int count = 0, entropy_end = -1;
+	for (int i = header_length; i + 1 < bytes.length; i++) {
+		if (bytes[i] != (byte)0xFF) continue;
+		int marker = bytes[i + 1] & 0xFF;
+		if (marker == 0 || marker == 0xFF) continue;
+		if (M_RST0 <= marker && marker <= M_RST7) {
+			if (count == markers.length || marker != M_RST0 + (count & 7)) return null;
+			markers[count++] = i++;
+			continue;
+		}
+		entropy_end = i;
+		break;
+	}
+	if (entropy_end == -1 || (bytes[entropy_end + 1] & 0xFF) != M_EOI || count != markers.length) return null;
+
+	/* A strip can start with any interval that starts an iMCU row */
+	int[] split_interval = new int[intervals + 1];
+	int[] split_row = new int[intervals + 1];
+	int splits = 1;
+	for (int i = 1; i < intervals; i++) {
+		long MCU = (long)i * cinfo.restart_interval;
+		if (MCU % MCUs_per_row == 0 && MCU / MCUs_per_row % MCU_rows_per_iMCU_row == 0) {
+			split_interval[splits] = i;
+			split_row[splits++] = (int)(MCU / MCUs_per_row / MCU_rows_per_iMCU_row);
+		}
+	}
+	split_interval[splits] = intervals;
+	split_row[splits] = cinfo.total_iMCU_rows;
+	int strips = Math.min(threads, splits);
+	if (strips < 2) return null;
+	int[] bounds = new int[strips + 1];
+	count = 0;
+	for (int k = 1, split = 0; k < strips; k++) {
+		int row = (int)((long)cinfo.total_iMCU_rows * k / strips);
+		while (split_row[split] < row) split++;
+		if (split < splits && split > bounds[count]) bounds[++count] = split;
+	}
+	bounds[++count] = splits;
+	if (count < 2) return null;
+
+	setup_output(cinfo, targetWidth, targetHeight);
+	jpeg_calc_output_dimensions(cinfo);
+	ImageData imageData = new_image_data(cinfo);
+	int row_stride = imageData.bytesPerLine;
+	int iMCU_height = cinfo.max_v_samp_factor * DCTSIZE;
+	int output_iMCU_height = cinfo.max_v_samp_factor * cinfo.min_DCT_scaled_size;
+	List<FutureTask<Void>> tasks = new ArrayList<>(count);
+	for (int s = 0; s < count; s++) {
+		int first = bounds[s], last = bounds[s + 1];
+		int top = Math.max(first - 1, 0), bottom = Math.min(last + 1, splits);
+		int start = split_interval[top] == 0 ? header_length : markers[split_interval[top] - 1] + 2;
+		int end = split_interval[bottom] == intervals ? entropy_end : markers[split_interval[bottom] - 1];
+		int height = Math.min(cinfo.image_height, split_row[bottom] * iMCU_height) - split_row[top] * iMCU_height;
+		int skip = (split_row[first] - split_row[top]) * output_iMCU_height;
+		int y = split_row[first] * output_iMCU_height;
+		int rows = Math.min(cinfo.output_height, split_row[last] * output_iMCU_height) - y;
+		tasks.add(new FutureTask<>(() -> {
+			byte[] strip = new byte[header_length + end - start + 2];
+			System.arraycopy(bytes, 0, strip, 0, header_length);
+			strip[sof + 5] = (byte)(height >> 8);
+			strip[sof + 6] = (byte)height;
+			System.arraycopy(bytes, start, strip, header_length, end - start);
+			/* Number the restart markers from zero again */
+			for (int m = split_interval[top]; m < split_interval[bottom] - 1; m++) {
+				strip[header_length + markers[m] - start + 1] = (byte)(M_RST0 + ((m - split_interval[top]) & 7));
+			}
+			strip[strip.length - 2] = (byte)0xFF;
+			strip[strip.length - 1] = (byte)M_EOI;
+			byte[] data = decompress_strip(strip, cinfo.dct_method, cinfo.scale_denom).data;
+			System.arraycopy(data, skip * row_stride, imageData.data, y * row_stride, rows * row_stride);
+		}, null));
+	}
+	for (FutureTask<Void> task : tasks) {
+		executor.execute(task);
+	}
+	/* Decode the strips the executor has not started yet on this thread */
+	for (int s = tasks.size() - 1; s >= 0; s--) {
+		tasks.get(s).run();
+	}
+	for (FutureTask<Void> task : tasks) {
+		rethrow(join(task));
+	}
+	return imageData;
+}
+
+static ImageData decompress_strip (byte[] strip, int dct_method, int scale_denom) {
+	jpeg_decompress_struct cinfo = new jpeg_decompress_struct();
+	cinfo.inputStream = new ByteArrayInputStream(strip);
+	jpeg_create_decompress(cinfo);
+	jpeg_read_header(cinfo, true);
+	cinfo.dct_method = dct_method;
+	cinfo.scale_num = 1;
+	cinfo.scale_denom = scale_denom;
+	jpeg_start_decompress(cinfo);
+	ImageData imageData = new_image_data(cinfo);
+	while (cinfo.output_scanline < cinfo.output_height) {
+		jpeg_read_scanlines(cinfo, imageData.data, imageData.bytesPerLine, cinfo.output_height - cinfo.output_scanline);
+	}
+	jpeg_finish_decompress(cinfo);
+	jpeg_destroy_decompress(cinfo);
+	return imageData;
+}
+
+/* Wait for the task to complete, and answer why it failed or null */
+static Throwable join (Future<?> task) {
+	boolean interrupted = false;
+	try {
+		for (;;) {
+			try {
+				task.get();
+				return null;
+			} catch (InterruptedException e) {
+				interrupted = true;
+			} catch (ExecutionException e) {
+				return e.getCause();
+			} catch (CancellationException e) {
+				return e;
+			}
+		}
+	} finally {
+		if (interrupted) Thread.currentThread().interrupt();
+	}
+}
+
+static void rethrow (Throwable throwable) {
+	if (throwable instanceof RuntimeException) throw (RuntimeException)throwable;
+	if (throwable instanceof Error) throw (Error)throwable;
+	if (throwable != null) error();
 }
 
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2014 IBM Corporation and others.
+ * Copyright (c) 2000, 2026 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -21,6 +21,8 @@ package org.eclipse.swt.internal.image;
 import org.eclipse.swt.*;
 import org.eclipse.swt.graphics.*;
 import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
 
 public final class JPEGFileFormat extends FileFormat {
 	int restartInterval;
@@ -143,6 +145,19 @@ public final class JPEGFileFormat extends FileFormat {
 		0, -1, -3, -7, -15, -31, -63, -127, -255, -511, -1023, -2047,
 		-4095, -8191, -16383, -32767, -65535, -131071, -262143
 	};
+	/* AAN scale factors, 1 and cos(k*PI/16) * sqrt(2) for k = 1..7 */
+	static final double[] AANScaleFactors = {
+		1.0, 1.387039845, 1.306562965, 1.175875602,
+		1.0, 0.785694958, 0.541196100, 0.275899379
+	};
+	/*
+	 * When set to "true", images are saved with Huffman tables computed for
+	 * the image instead of the standard tables, which makes the files smaller.
+	 * The coefficients are computed with the floating point AAN forward DCT,
+	 * one MCU row per task on the shared ImageExecutor, before the entropy
+	 * coding.
+	 */
+	static final String OPTIMIZE_CODING_PROPERTY = "org.eclipse.swt.internal.image.JPEGFileFormat.optimizeCoding";
 	public static final int[] ZigZag8x8 = {
 		0, 1, 8, 16, 9, 2, 3, 10,
 		17, 24, 32, 25, 18, 11, 4, 5,
@@ -290,6 +305,24 @@ void compress(ImageData image, byte[] dataYComp, byte[] dataCbComp, byte[] dataC
 		}
 	}
 }
+/*
+ * Answer the divisors that quantize the output of forwardDCTAndQuantize()
+ * for each quantization table, in natural order.
+ */
+float[][] computeDivisors() {
+	float[][] divisors = new float[quantizationTables.length][];
+	for (int t = 0; t < quantizationTables.length; t++) {
+		int[] qTable = quantizationTables[t];
+		if (qTable == null) continue;
+		float[] divisor = new float[DCTSIZESQR];
+		for (int i = 0; i < DCTSIZESQR; i++) {
+			int k = ZigZag8x8[i];
+			divisor[k] = (float)(1.0 / (qTable[i] * AANScaleFactors[k >> 3] * AANScaleFactors[k & 7] * 8.0));
+		}
+		divisors[t] = divisor;
+	}
+	return divisors;
+}
 void convert4BitRGBToYCbCr(ImageData image) {
 	RGB[] rgbs = image.getRGBs();
 	int paletteSize = rgbs.length;
@@ -905,6 +938,29 @@ void encodeACCoefficients(int[] dataUnit, int iComp) {
 		}
 	}
 }
+/*
+ * Entropy code the coefficients computed by transformImage().
+ */
+void encodeCoefficients(McuRow[] rows) {
+	int[] blockComponents = getBlockComponents();
+	dataUnit = new int[64];
+	for (int ymcu = 0; ymcu < rows.length; ymcu++) {
+		short[] coefficients = rows[ymcu].coefficients;
+		rows[ymcu] = null;
+		for (int block = 0, offset = 0; offset < coefficients.length; block++, offset += DCTSIZESQR) {
+			int iComp = blockComponents[block % blockComponents.length];
+			for (int i = 0; i < DCTSIZESQR; i++) {
+				dataUnit[i] = coefficients[offset + i];
+			}
+			encodeDCCoefficients(dataUnit, iComp);
+			encodeACCoefficients(dataUnit, iComp);
+		}
+	}
+	if (currentBitCount != 0) {
+		emitByte((byte)currentByte);
+	}
+	resetOutputBuffer();
+}
 void encodeDCCoefficients(int[] dataUnit, int iComp) {
 	int[] sParams = scanHeader.componentParameters[iComp];
 	JPEGHuffmanTable dcTable = dcHuffmanTables[sParams[DC]];
@@ -1149,12 +1205,240 @@ void forwardDCT(int[] dataUnit) {
 		if ((n < 0) && ((n & 0x3FFFF) != 0)) dataUnit[c1]--;
 	}
 }
+/*
+ * Floating point AAN forward DCT of the 8x8 samples at srcIndex, followed by
+ * quantization. The AAN scale factors are folded into the divisors, see
+ * computeDivisors(). The coefficients are stored in natural order.
+ */
+void forwardDCTAndQuantize(byte[] compImage, int srcIndex, int compWidth, float[] workspace, float[] divisors, short[] coefficients, int offset) {
+	/* Pass 1: process rows. */
+	for (int row = 0; row < DCTSIZE; row++) {
+		int i = srcIndex + row * compWidth;
+		int w = row * DCTSIZE;
+		float d0 = (compImage[i] & 0xFF) - 128;
+		float d1 = (compImage[i + 1] & 0xFF) - 128;
+		float d2 = (compImage[i + 2] & 0xFF) - 128;
+		float d3 = (compImage[i + 3] & 0xFF) - 128;
+		float d4 = (compImage[i + 4] & 0xFF) - 128;
+		float d5 = (compImage[i + 5] & 0xFF) - 128;
+		float d6 = (compImage[i + 6] & 0xFF) - 128;
+		float d7 = (compImage[i + 7] & 0xFF) - 128;
+		float tmp0 = d0 + d7;
+		float tmp7 = d0 - d7;
+		float tmp1 = d1 + d6;
+		float tmp6 = d1 - d6;
+		float tmp2 = d2 + d5;
+		float tmp5 = d2 - d5;
+		float tmp3 = d3 + d4;
+		float tmp4 = d3 - d4;
+
+		/* Even part */
+		float tmp10 = tmp0 + tmp3;
+		float tmp13 = tmp0 - tmp3;
+		float tmp11 = tmp1 + tmp2;
+		float tmp12 = tmp1 - tmp2;
+		workspace[w] = tmp10 + tmp11;
+		workspace[w + 4] = tmp10 - tmp11;
+		float z1 = (tmp12 + tmp13) * 0.707106781f;
+		workspace[w + 2] = tmp13 + z1;
+		workspace[w + 6] = tmp13 - z1;
+
+		/* Odd part */
+		tmp10 = tmp4 + tmp5;
+		tmp11 = tmp5 + tmp6;
+		tmp12 = tmp6 + tmp7;
+		float z5 = (tmp10 - tmp12) * 0.382683433f;
+		float z2 = 0.541196100f * tmp10 + z5;
+		float z4 = 1.306562965f * tmp12 + z5;
+		float z3 = tmp11 * 0.707106781f;
+		float z11 = tmp7 + z3;
+		float z13 = tmp7 - z3;
+		workspace[w + 5] = z13 + z2;
+		workspace[w + 3] = z13 - z2;
+		workspace[w + 1] = z11 + z4;
+		workspace[w + 7] = z11 - z4;
+	}
+
+	/* Pass 2: process columns and quantize. */
+	for (int col = 0; col < DCTSIZE; col++) {
+		float tmp0 = workspace[col] + workspace[col + 56];
+		float tmp7 = workspace[col] - workspace[col + 56];
+		float tmp1 = workspace[col + 8] + workspace[col + 48];
+		float tmp6 = workspace[col + 8] - workspace[col + 48];
+		float tmp2 = workspace[col + 16] + workspace[col + 40];
+		float tmp5 = workspace[col + 16] - workspace[col + 40];
+		float tmp3 = workspace[col + 24] + workspace[col + 32];
+		float tmp4 = workspace[col + 24] - workspace[col + 32];
+
+		/* Even part */
+		float tmp10 = tmp0 + tmp3;
+		float tmp13 = tmp0 - tmp3;
+		float tmp11 = tmp1 + tmp2;
+		float tmp12 = tmp1 - tmp2;
+		int o = offset + col;
+		coefficients[o] = quantize((tmp10 + tmp11) * divisors[col]);
+		coefficients[o + 32] = quantize((tmp10 - tmp11) * divisors[col + 32]);
+		float z1 = (tmp12 + tmp13) * 0.707106781f;
+		coefficients[o + 16] = quantize((tmp13 + z1) * divisors[col + 16]);
+		coefficients[o + 48] = quantize((tmp13 - z1) * divisors[col + 48]);
+
+		/* Odd part */
+		tmp10 = tmp4 + tmp5;
+		tmp11 = tmp5 + tmp6;
+		tmp12 = tmp6 + tmp7;
+		float z5 = (tmp10 - tmp12) * 0.382683433f;
+		float z2 = 0.541196100f * tmp10 + z5;
+		float z4 = 1.306562965f * tmp12 + z5;
+		float z3 = tmp11 * 0.707106781f;
+		float z11 = tmp7 + z3;
+		float z13 = tmp7 - z3;
+		coefficients[o + 40] = quantize((z13 + z2) * divisors[col + 40]);
+		coefficients[o + 24] = quantize((z13 - z2) * divisors[col + 24]);
+		coefficients[o + 8] = quantize((z11 + z4) * divisors[col + 8]);
+		coefficients[o + 56] = quantize((z11 - z4) * divisors[col + 56]);
+	}
+}
+/*
+ * Count the Huffman symbols encodeACCoefficients() would emit for the
+ * block at offset.
+ */
+static void gatherStatistics(short[] coefficients, int offset, int[] acCounts) {
+	int r = 0;
+	for (int k = 1; k < DCTSIZESQR; k++) {
+		int acValue = coefficients[offset + ZigZag8x8[k]];
+		if (acValue == 0) {
+			r++;
+		} else {
+			while (r > 15) {
+				acCounts[0xF0]++;
+				r -= 16;
+			}
+			acCounts[r * 16 + NBitsTable[acValue < 0 ? -acValue : acValue]]++;
+			r = 0;
+		}
+	}
+	if (r > 0) {
+		acCounts[0]++;
+	}
+}
+/*
+ * Compute the shortest Huffman code for the symbol counts, limited to code
+ * lengths of 16 bits and without a code of all ones, as done by
+ * jpeg_gen_optimal_table() in the IJG jchuff.c. Answer the table as it is
+ * stored in a DHT segment: class and identifier, 16 counts and the symbols.
+ */
+static byte[] generateOptimalTable(int[] counts, int tableClass, int tableIdentifier) {
+	int maxCodeLength = 32;
+	long[] freq = new long[257];
+	for (int i = 0; i < 256; i++) {
+		freq[i] = counts[i];
+	}
+	/* Reserve one code point so that no real code is all ones */
+	freq[256] = 1;
+	int[] codeSize = new int[257];
+	int[] others = new int[257];
+	Arrays.fill(others, -1);
+	while (true) {
+		/* Find the smallest nonzero frequency, preferring the larger symbol on ties */
+		int c1 = -1;
+		long v = Long.MAX_VALUE;
+		for (int i = 0; i <= 256; i++) {
+			if (freq[i] != 0 && freq[i] <= v) {
+				v = freq[i];
+				c1 = i;
+			}
+		}
+		/* Find the next smallest nonzero frequency */
+		int c2 = -1;
+		v = Long.MAX_VALUE;
+		for (int i = 0; i <= 256; i++) {
+			if (freq[i] != 0 && freq[i] <= v && i != c1) {
+				v = freq[i];
+				c2 = i;
+			}
+		}
+		if (c2 < 0) break;
+		/* Merge the two trees and lengthen the codes of all their symbols */
+		freq[c1] += freq[c2];
+		freq[c2] = 0;
+		codeSize[c1]++;
+		while (others[c1] >= 0) {
+			c1 = others[c1];
+			codeSize[c1]++;
+		}
+		others[c1] = c2;
+		codeSize[c2]++;
+		while (others[c2] >= 0) {
+			c2 = others[c2];
+			codeSize[c2]++;
+		}
+	}
+	int[] bits = new int[maxCodeLength + 1];
+	for (int i = 0; i <= 256; i++) {
+		if (codeSize[i] != 0) {
+			if (codeSize[i] > maxCodeLength) SWT.error(SWT.ERROR_INVALID_IMAGE);
+			bits[codeSize[i]]++;
+		}
+	}
+	/*
+	 * Move pairs of symbols from the longest codes: one takes the prefix of
+	 * the pair, the other becomes the sibling of a shorter code.
+	 */
+	for (int i = maxCodeLength; i > 16; i--) {
+		while (bits[i] > 0) {
+			int j = i - 2;
+			while (bits[j] == 0) j--;
+			bits[i] -= 2;
+			bits[i - 1]++;
+			bits[j + 1] += 2;
+			bits[j]--;
+		}
+	}
+	/* Remove the reserved code point, which has the longest code */
+	int length = 16;
+	while (bits[length] == 0) length--;
+	bits[length]--;
+	int count = 0;
+	for (int i = 1; i <= 16; i++) {
+		count += bits[i];
+	}
+	byte[] table = new byte[17 + count];
+	table[0] = (byte)((tableClass << 4) | tableIdentifier);
+	for (int i = 1; i <= 16; i++) {
+		table[i] = (byte)bits[i];
+	}
+	int p = 17;
+	for (int i = 1; i <= maxCodeLength; i++) {
+		for (int j = 0; j < 256; j++) {
+			if (codeSize[j] == i) table[p++] = (byte)j;
+		}
+	}
+	return table;
+}
 void getAPP0() {
 	JPEGAppn appn = new JPEGAppn(inputStream);
 	if (!appn.verify()) {
 		SWT.error(SWT.ERROR_INVALID_IMAGE);
 	}
 }
+/*
+ * Answer the component of each block of an MCU, in encoding order.
+ */
+int[] getBlockComponents() {
+	int blocksPerMcu = 0;
+	for (int iComp = 0; iComp < nComponents; iComp++) {
+		int[] frameComponent = frameComponents[componentIds[iComp]];
+		blocksPerMcu += frameComponent[HI] * frameComponent[VI];
+	}
+	int[] blockComponents = new int[blocksPerMcu];
+	for (int iComp = 0, block = 0; iComp < nComponents; iComp++) {
+		int[] frameComponent = frameComponents[componentIds[iComp]];
+		for (int i = 0; i < frameComponent[HI] * frameComponent[VI]; i++) {
+			blockComponents[block++] = iComp;
+		}
+	}
+	return blockComponents;
+}
 void getCOM() {
 	new JPEGComment(inputStream);
 }
@@ -1363,14 +1647,9 @@ void inverseDCT(int[] dataUnit) {
 	}
 }
 @Override
-boolean isFileFormat(LEDataInputStream stream) {
-	try {
-		JPEGStartOfImage soi = new JPEGStartOfImage(stream);
-		stream.unread(soi.reference);
-		return soi.verify();  // we no longer check for appN
-	} catch (Exception e) {
-		return false;
-	}
+boolean isFileFormat(byte[] signature, int length) {
+	if (length < 2) return false;
+	return ((signature[0] & 0xFF) << 8 | (signature[1] & 0xFF)) == SOI;  // we no longer check for appN
 }
 boolean isZeroInColumn(int[] dataUnit, int col) {
 	return dataUnit[col + 8] == 0 && dataUnit[col + 16] == 0
@@ -1388,7 +1667,7 @@ boolean isZeroInRow(int[] dataUnit, int rIndex) {
 ImageData[] loadFromByteStream() {
 	//TEMPORARY CODE
 	if (System.getProperty("org.eclipse.swt.internal.image.JPEGFileFormat_3.2") == null) {
-		return JPEGDecoder.loadFromByteStream(inputStream, loader);
+		return JPEGDecoder.loadFromByteStream(inputStream, loader, targetWidth, targetHeight);
 	}
 	JPEGStartOfImage soi = new JPEGStartOfImage(inputStream);
 	if (!soi.verify()) SWT.error(SWT.ERROR_INVALID_IMAGE);
@@ -1500,6 +1779,25 @@ ImageData[] loadFromByteStream() {
 	}
 	return new ImageData[] {imageData};
 }
+@Override
+ImageInfo probeFromByteStream() {
+	JPEGStartOfImage soi = new JPEGStartOfImage(inputStream);
+	if (!soi.verify()) SWT.error(SWT.ERROR_INVALID_IMAGE);
+	/* Skip the tables preceding the frame header without reading them */
+	while (true) {
+		JPEGSegment jpegSegment = seekUnspecifiedMarker(inputStream);
+		if (jpegSegment == null) SWT.error(SWT.ERROR_INVALID_IMAGE);
+		if (new JPEGFrameHeader(jpegSegment.reference).verify()) break;
+		int marker = jpegSegment.getSegmentMarker();
+		if (marker == SOI || marker == EOI || marker == SOS) SWT.error(SWT.ERROR_INVALID_IMAGE);
+		skipSegmentFrom(inputStream);
+	}
+	JPEGFrameHeader frameHeader = new JPEGFrameHeader(inputStream);
+	if (!frameHeader.verify()) SWT.error(SWT.ERROR_INVALID_IMAGE);
+	/* Grayscale images are decoded to 8 bit palettes, all others to 24 bit RGB */
+	int depth = frameHeader.getNumberOfImageComponents() == 1 ? 8 : 24;
+	return new ImageInfo(SWT.IMAGE_JPEG, frameHeader.getSamplesPerLine(), frameHeader.getNumberOfLines(), depth, 1);
+}
 ImageData createImageData() {
 	return ImageData.internal_new(
 		imageWidth,
@@ -1669,6 +1967,10 @@ void quantizeData(int[] dataUnit, int iComp) {
 		}
 	}
 }
+static short quantize(float value) {
+	/* Round to nearest, the offset avoids rounding towards zero in the cast */
+	return (short)((int)(value + 16384.5f) - 16384);
+}
 int receive(int nBits) {
 	int v = 0;
 	for (int i = 0; i < nBits; i++) {
@@ -1765,6 +2067,60 @@ void storeData(int[] dataUnit, int iComp, int xmcu, int ymcu, int hi, int ihi, i
 		destIndex += compWidth;
 	}
 }
+/*
+ * Compute the quantized coefficients of all MCU rows. The rows are
+ * independent, so they are transformed in parallel when the image
+ * is large enough.
+ */
+McuRow[] transformImage(float[][] divisors, int[][] scanParams) {
+	McuRow[] rows = new McuRow[interleavedMcuRows];
+	int threads = ImageExecutor.getThreads((long) imageWidth * imageHeight, interleavedMcuRows);
+	if (threads == 1) {
+		for (int ymcu = 0; ymcu < interleavedMcuRows; ymcu++) {
+			rows[ymcu] = transformMcuRow(ymcu, divisors, scanParams);
+		}
+		return rows;
+	}
+	List<Callable<McuRow>> tasks = new ArrayList<>(interleavedMcuRows);
+	for (int ymcu = 0; ymcu < interleavedMcuRows; ymcu++) {
+		int row = ymcu;
+		tasks.add(() -> transformMcuRow(row, divisors, scanParams));
+	}
+	try {
+		return ImageExecutor.invokeAll(tasks, threads).toArray(rows);
+	} catch (IOException e) {
+		SWT.error(SWT.ERROR_IO, e);
+	}
+	return rows;
+}
+McuRow transformMcuRow(int ymcu, float[][] divisors, int[][] scanParams) {
+	McuRow row = new McuRow();
+	int blocksPerMcu = getBlockComponents().length;
+	row.coefficients = new short[interleavedMcuCols * blocksPerMcu * DCTSIZESQR];
+	row.acCounts = new int[4][256];
+	float[] workspace = new float[DCTSIZESQR];
+	int offset = 0;
+	for (int xmcu = 0; xmcu < interleavedMcuCols; xmcu++) {
+		for (int iComp = 0; iComp < nComponents; iComp++) {
+			byte[] compImage = imageComponents[iComp];
+			int[] frameComponent = frameComponents[componentIds[iComp]];
+			int hi = frameComponent[HI];
+			int vi = frameComponent[VI];
+			int compWidth = frameComponent[CW];
+			float[] divisor = divisors[frameComponent[TQI]];
+			int[] acCounts = row.acCounts[scanParams[iComp][AC]];
+			for (int ivi = 0; ivi < vi; ivi++) {
+				for (int ihi = 0; ihi < hi; ihi++) {
+					int srcIndex = ((ymcu * vi + ivi) * compWidth * DCTSIZE) + ((xmcu * hi + ihi) * DCTSIZE);
+					forwardDCTAndQuantize(compImage, srcIndex, compWidth, workspace, divisor, row.coefficients, offset);
+					gatherStatistics(row.coefficients, offset, acCounts);
+					offset += DCTSIZESQR;
+				}
+			}
+		}
+	}
+	return row;
+}
 @Override
 void unloadIntoByteStream(ImageLoader loader) {
 	ImageData image = loader.data[0];
@@ -1847,21 +2203,30 @@ void unloadIntoByteStream(ImageLoader loader) {
 	interleavedMcuRows = (imageHeight + mcuHeight - 1) / mcuHeight;
 	acHuffmanTables = new JPEGHuffmanTable[4];
 	dcHuffmanTables = new JPEGHuffmanTable[4];
-	JPEGHuffmanTable[] dhtTables = new JPEGHuffmanTable[] {
-		JPEGHuffmanTable.getDefaultDCLuminanceTable(),
-		JPEGHuffmanTable.getDefaultDCChrominanceTable(),
-		JPEGHuffmanTable.getDefaultACLuminanceTable(),
-		JPEGHuffmanTable.getDefaultACChrominanceTable()
-	};
-	for (JPEGHuffmanTable dhtTable : dhtTables) {
-		if (!dhtTable.writeToStream(outputStream)) {
-			SWT.error(SWT.ERROR_IO);
-		}
-		for (JPEGHuffmanTable huffmanTable : dhtTable.getAllTables()) {
-			if (huffmanTable.getTableClass() == 0) {
-				dcHuffmanTables[huffmanTable.getTableIdentifier()] = huffmanTable;
-			} else {
-				acHuffmanTables[huffmanTable.getTableIdentifier()] = huffmanTable;
+	boolean optimizeCoding = Boolean.getBoolean(OPTIMIZE_CODING_PROPERTY);
+	McuRow[] rows = null;
+	if (optimizeCoding) {
+		convertImageToYCbCr(image);
+		rows = transformImage(computeDivisors(), scanParams);
+		imageComponents = null;
+		writeOptimalHuffmanTables(rows, scanParams);
+	} else {
+		JPEGHuffmanTable[] dhtTables = new JPEGHuffmanTable[] {
+			JPEGHuffmanTable.getDefaultDCLuminanceTable(),
+			JPEGHuffmanTable.getDefaultDCChrominanceTable(),
+			JPEGHuffmanTable.getDefaultACLuminanceTable(),
+			JPEGHuffmanTable.getDefaultACChrominanceTable()
+		};
+		for (JPEGHuffmanTable dhtTable : dhtTables) {
+			if (!dhtTable.writeToStream(outputStream)) {
+				SWT.error(SWT.ERROR_IO);
+			}
+			for (JPEGHuffmanTable huffmanTable : dhtTable.getAllTables()) {
+				if (huffmanTable.getTableClass() == 0) {
+					dcHuffmanTables[huffmanTable.getTableIdentifier()] = huffmanTable;
+				} else {
+					acHuffmanTables[huffmanTable.getTableIdentifier()] = huffmanTable;
+				}
 			}
 		}
 	}
@@ -1877,13 +2242,82 @@ void unloadIntoByteStream(ImageLoader loader) {
 	if (!scanHeader.writeToStream(outputStream)) {
 		SWT.error(SWT.ERROR_IO);
 	}
-	convertImageToYCbCr(image);
 	resetOutputBuffer();
 	currentByte = 0;
 	currentBitCount = 0;
-	encodeScan();
+	if (optimizeCoding) {
+		encodeCoefficients(rows);
+	} else {
+		convertImageToYCbCr(image);
+		encodeScan();
+	}
 	if (!new JPEGEndOfImage().writeToStream(outputStream)) {
 		SWT.error(SWT.ERROR_IO);
 	}
 }
+/*
+ * Compute the Huffman tables for the coefficients of the image, write
+ * them in a single DHT segment and use them for encoding.
+ */
+void writeOptimalHuffmanTables(McuRow[] rows, int[][] scanParams) {
+	int[][] dcCounts = new int[4][256];
+	int[][] acCounts = new int[4][256];
+	int[] blockComponents = getBlockComponents();
+	int[] lastDCs = new int[nComponents];
+	for (McuRow row : rows) {
+		short[] coefficients = row.coefficients;
+		for (int block = 0, offset = 0; offset < coefficients.length; block++, offset += DCTSIZESQR) {
+			int iComp = blockComponents[block % blockComponents.length];
+			int diff = coefficients[offset] - lastDCs[iComp];
+			lastDCs[iComp] = coefficients[offset];
+			dcCounts[scanParams[iComp][DC]][NBitsTable[diff < 0 ? -diff : diff]]++;
+		}
+		for (int t = 0; t < acCounts.length; t++) {
+			for (int i = 0; i < 256; i++) {
+				acCounts[t][i] += row.acCounts[t][i];
+			}
+		}
+	}
+	boolean[][] used = new boolean[2][4];
+	for (int[] scanParam : scanParams) {
+		used[0][scanParam[DC]] = true;
+		used[1][scanParam[AC]] = true;
+	}
+	ByteArrayOutputStream tables = new ByteArrayOutputStream();
+	for (int tableClass = 0; tableClass < 2; tableClass++) {
+		for (int id = 0; id < 4; id++) {
+			if (!used[tableClass][id]) continue;
+			byte[] table = generateOptimalTable(tableClass == 0 ? dcCounts[id] : acCounts[id], tableClass, id);
+			tables.write(table, 0, table.length);
+		}
+	}
+	int segmentLength = tables.size() + 2;
+	byte[] reference = new byte[segmentLength + 2];
+	reference[0] = (byte)0xFF;
+	reference[1] = (byte)DHT;
+	reference[2] = (byte)(segmentLength >> 8);
+	reference[3] = (byte)segmentLength;
+	System.arraycopy(tables.toByteArray(), 0, reference, 4, tables.size());
+	JPEGHuffmanTable dhtTable = new JPEGHuffmanTable(reference);
+	dhtTable.initialize();
+	if (!dhtTable.writeToStream(outputStream)) {
+		SWT.error(SWT.ERROR_IO);
+	}
+	for (JPEGHuffmanTable huffmanTable : dhtTable.getAllTables()) {
+		if (huffmanTable.getTableClass() == 0) {
+			dcHuffmanTables[huffmanTable.getTableIdentifier()] = huffmanTable;
+		} else {
+			acHuffmanTables[huffmanTable.getTableIdentifier()] = huffmanTable;
+		}
+	}
+}
+
+/*
+ * The quantized coefficients of an MCU row, in encoding order, and the
+ * number of times each AC symbol occurs in the row, for each table.
+ */
+static class McuRow {
+	short[] coefficients;
+	int[][] acCounts;
+}
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2011 IBM Corporation and others.
+ * Copyright (c) 2000, 2026 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -21,17 +21,20 @@ final class LEDataInputStream extends InputStream {
 	InputStream in;
 
 	/**
-	 * The byte array containing the bytes to read.
+	 * The byte array containing the bytes peeked from the input
+	 * stream and the bytes pushed back. These are the bytes from
+	 * <code>pos</code> up to, but not including, <code>limit</code>.
+	 * Bytes are only taken from the input stream when they are read
+	 * or peeked, so the stream is never consumed past the image.
 	 */
-	protected byte[] buf;
+	byte[] buf;
+	int pos, limit;
 
 	/**
-	 * The current position within the byte array <code>buf</code>. A value
-	 * equal to buf.length indicates no bytes available.  A value of
-	 * 0 indicates the buffer is full.
+	 * The room kept in front of the bytes read ahead, so that the
+	 * bytes that were just read can always be pushed back.
 	 */
-	protected int pos;
-
+	static final int PUSHBACK_SIZE = 64;
 
 	public LEDataInputStream(InputStream input) {
 		this(input, 512);
@@ -40,8 +43,8 @@ final class LEDataInputStream extends InputStream {
 	public LEDataInputStream(InputStream input, int bufferSize) {
 		this.in = input;
 		if (bufferSize > 0) {
-			buf = new byte[bufferSize];
-			pos = bufferSize;
+			buf = new byte[PUSHBACK_SIZE + Math.max(bufferSize, 8)];
+			pos = limit = PUSHBACK_SIZE;
 		}
 		else throw new IllegalArgumentException();
 	}
@@ -68,7 +71,26 @@ final class LEDataInputStream extends InputStream {
 	@Override
 	public int available() throws IOException {
 		if (buf == null) throw new IOException();
-		return (buf.length - pos) + in.available();
+		return (limit - pos) + in.available();
+	}
+
+	/**
+	 * Make sure that the next <code>count</code> bytes are buffered,
+	 * unless the input stream ends before. Answer whether they are.
+	 */
+	boolean ensure(int count) throws IOException {
+		if (buf == null) throw new IOException();
+		int remaining = limit - pos;
+		if (remaining >= count) return true;
+		System.arraycopy(buf, pos, buf, PUSHBACK_SIZE, remaining);
+		pos = PUSHBACK_SIZE;
+		limit = PUSHBACK_SIZE + remaining;
+		while (limit - pos < count) {
+			int read = in.read(buf, limit, count - (limit - pos));
+			if (read <= 0) return false;
+			limit += read;
+		}
+		return true;
 	}
 
 	/**
@@ -77,9 +99,9 @@ final class LEDataInputStream extends InputStream {
 	@Override
 	public int read() throws IOException {
 		if (buf == null) throw new IOException();
-		if (pos < buf.length) {
+		if (pos < limit) {
 			position++;
-			return (buf[pos++] & 0xFF);
+			return buf[pos++] & 0xFF;
 		}
 		int c = in.read();
 		if (c != -1) position++;
@@ -92,10 +114,23 @@ final class LEDataInputStream extends InputStream {
 	 */
 	@Override
 	public int read(byte b[], int off, int len) throws IOException {
-		int read = 0, count;
-		while (read != len && (count = readData(b, off, len - read)) != -1) {
-			off += count;
-			read += count;
+		if (buf == null) throw new IOException();
+		if (off < 0 || len < 0 || len > b.length - off) {
+			throw new ArrayIndexOutOfBoundsException();
+		}
+		int read = 0;
+		while (read < len) {
+			int available = limit - pos;
+			if (available > 0) {
+				int count = Math.min(available, len - read);
+				System.arraycopy(buf, pos, b, off + read, count);
+				pos += count;
+				read += count;
+			} else {
+				int count = in.read(b, off + read, len - read);
+				if (count <= 0) break;
+				read += count;
+			}
 		}
 		position += read;
 		if (read == 0 && read != len) return -1;
@@ -103,49 +138,49 @@ final class LEDataInputStream extends InputStream {
 	}
 
 	/**
-	 * Reads at most <code>length</code> bytes from this LEDataInputStream and
-	 * stores them in byte array <code>buffer</code> starting at <code>offset</code>.
-	 * <p>
-	 * Answer the number of bytes actually read or -1 if no bytes were read and
-	 * end of stream was encountered.  This implementation reads bytes from
-	 * the pushback buffer first, then the target stream if more bytes are required
-	 * to satisfy <code>count</code>.
-	 * </p>
-	 * @param buffer the byte array in which to store the read bytes.
-	 * @param offset the offset in <code>buffer</code> to store the read bytes.
-	 * @param length the maximum number of bytes to store in <code>buffer</code>.
-	 *
-	 * @return int the number of bytes actually read or -1 if end of stream.
-	 *
-	 * @exception java.io.IOException if an IOException occurs.
+	 * Skip <code>n</code> bytes, or up to the end of the stream.
+	 * The bytes are read rather than skipped in the input stream,
+	 * because not all input streams can skip reliably.
 	 */
-	private int readData(byte[] buffer, int offset, int length) throws IOException {
+	@Override
+	public long skip(long n) throws IOException {
 		if (buf == null) throw new IOException();
-		if (offset < 0 || offset > buffer.length ||
-			length < 0 || (length > buffer.length - offset)) {
-			throw new ArrayIndexOutOfBoundsException();
+		long skipped = 0;
+		while (skipped < n) {
+			if (pos == limit) {
+				pos = limit = PUSHBACK_SIZE;
+				int count = in.read(buf, limit, (int)Math.min(buf.length - limit, n - skipped));
+				if (count <= 0) break;
+				limit += count;
 			}
-
-		int cacheCopied = 0;
-		int newOffset = offset;
-
-		// Are there pushback bytes available?
-		int available = buf.length - pos;
-		if (available > 0) {
-			cacheCopied = (available >= length) ? length : available;
-			System.arraycopy(buf, pos, buffer, newOffset, cacheCopied);
-			newOffset += cacheCopied;
-			pos += cacheCopied;
+			int count = (int)Math.min(limit - pos, n - skipped);
+			pos += count;
+			skipped += count;
 		}
+		position += skipped;
+		return skipped;
+	}
 
-		// Have we copied enough?
-		if (cacheCopied == length) return length;
-
-		int inCopied = in.read(buffer, newOffset, length - cacheCopied);
-
-		if (inCopied > 0) return inCopied + cacheCopied;
-		if (cacheCopied == 0) return inCopied;
-		return cacheCopied;
+	/**
+	 * Answer the little endian value comprised of the next
+	 * <code>size</code> bytes of the input stream. Bytes past
+	 * the end of the stream are zero.
+	 */
+	int readValue(int size) throws IOException {
+		int value = 0;
+		if (ensure(size)) {
+			for (int i = size - 1; i >= 0; i--) {
+				value = (value << 8) | (buf[pos + i] & 0xFF);
+			}
+			pos += size;
+			position += size;
+			return value;
+		}
+		for (int shift = 0; pos < limit; shift += 8) {
+			value |= (buf[pos++] & 0xFF) << shift;
+			position++;
+		}
+		return value;
 	}
 
 	/**
@@ -153,12 +188,7 @@ final class LEDataInputStream extends InputStream {
 	 * four bytes of the input stream.
 	 */
 	public int readInt() throws IOException {
-		byte[] buf = new byte[4];
-		read(buf);
-		return ((buf[3] & 0xFF) << 24) |
-			((buf[2] & 0xFF) << 16) |
-			((buf[1] & 0xFF) << 8) |
-			(buf[0] & 0xFF);
+		return readValue(4);
 	}
 
 	/**
@@ -166,26 +196,45 @@ final class LEDataInputStream extends InputStream {
 	 * two bytes of the input stream.
 	 */
 	public short readShort() throws IOException {
-		byte[] buf = new byte[2];
-		read(buf);
-		return (short)(((buf[1] & 0xFF) << 8) | (buf[0] & 0xFF));
+		return (short)readValue(2);
+	}
+
+	/**
+	 * Copy the next bytes of the input stream into <code>b</code>
+	 * without reading them, so that the next read answers them again.
+	 * Answer the number of bytes copied, which is less than the length
+	 * of <code>b</code> only at the end of the stream.
+	 */
+	public int peek(byte[] b) throws IOException {
+		ensure(Math.min(b.length, buf.length - PUSHBACK_SIZE));
+		int count = Math.min(b.length, limit - pos);
+		System.arraycopy(buf, pos, b, 0, count);
+		return count;
 	}
 
 	/**
 	 * Push back the entire content of the given buffer <code>b</code>.
 	 * <p>
 	 * The bytes are pushed so that they would be read back b[0], b[1], etc.
-	 * If the push back buffer cannot handle the bytes copied from <code>b</code>,
-	 * an IOException will be thrown and no byte will be pushed back.
+	 * The buffer grows when there is not enough room in front of the
+	 * buffered bytes.
 	 * </p>
 	 *
 	 * @param b the byte array containing bytes to push back into the stream
 	 *
-	 * @exception 	java.io.IOException if the pushback buffer is too small
+	 * @exception 	java.io.IOException if the stream is closed
 	 */
 	public void unread(byte[] b) throws IOException {
+		if (buf == null) throw new IOException();
 		int length = b.length;
-		if (length > pos) throw new IOException();
+		if (length > pos) {
+			int count = limit - pos;
+			byte[] newBuf = new byte[Math.max(buf.length, PUSHBACK_SIZE + length + count)];
+			System.arraycopy(buf, pos, newBuf, newBuf.length - count, count);
+			buf = newBuf;
+			limit = newBuf.length;
+			pos = limit - count;
+		}
 		position -= length;
 		pos -= length;
 		System.arraycopy(b, 0, buf, pos, length);
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2011 IBM Corporation and others.
+ * Copyright (c) 2000, 2026 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -14,467 +14,347 @@
 package org.eclipse.swt.internal.image;
 
 
+import java.io.*;
+import java.util.*;
+
 import org.eclipse.swt.*;
 import org.eclipse.swt.graphics.*;
 
+/**
+ * LZW codec for GIF images and LZW compressed TIFF strips.
+ * <p>
+ * The decoder writes every string into one output buffer, so the
+ * dictionary only has to remember where each code's string was last
+ * written and how long it is: the string of a new code is the string
+ * of the previous code followed by the byte after it in the output.
+ * Decoding a code is then a single copy of earlier output.
+ * </p><p>
+ * The encoder looks up (prefix code, pixel) pairs in an open addressing
+ * hash table. The tables of a codec are reused for every image it codes.
+ * </p>
+ */
 final class LZWCodec {
-	int bitsPerPixel, blockSize, blockIndex, currentByte, bitsLeft,
-		codeSize, clearCode, endCode, newCodes, topSlot, currentSlot,
-		imageWidth, imageHeight, imageX, imageY, pass, line, codeMask;
-	byte[] block, lineArray;
-	int[] stack, suffix, prefix;
-	LZWNode[] nodeStack;
-	LEDataInputStream inputStream;
+	/* Decoder tables, indexed by code */
+	int[] offsets, lengths;
+	/* Encoder hash table */
+	int[] hashKeys, hashCodes;
+	/* Encoder output state */
 	LEDataOutputStream outputStream;
-	ImageData image;
-	ImageLoader loader;
-	boolean interlaced;
-	static final int[] MASK_TABLE = new int[] {
-		0x1, 0x3, 0x7, 0xF, 0x1F, 0x3F, 0x7F,
-		0xFF, 0x1FF, 0x3FF, 0x7FF, 0xFFF
-	};
+	byte[] block;
+	int blockIndex, bitBuffer, bitCount;
+
+	static final int MAX_CODES = 4096;
+	static final int MAX_CODE_SIZE = 12;
+	/* A prime about 25% larger than MAX_CODES */
+	static final int HASH_SIZE = 5003;
+	static final int HASH_SHIFT = 4;
+	/* GIF data sub-blocks hold up to 255 bytes, the encoder writes 254 */
+	static final int BLOCK_SIZE = 254;
+
+LZWCodec() {
+	offsets = new int[MAX_CODES];
+	lengths = new int[MAX_CODES];
+}
 
 /**
- * Decode the input.
+ * Decode the LZW codes in <code>src</code> into <code>dest</code>.
+ * GIF packs the codes least significant bit first, TIFF packs them most
+ * significant bit first and widens them one code early. Decoding stops
+ * at the end code, at the end of the input, at an invalid code, or when
+ * <code>dest</code> is full. Answer the number of bytes decoded.
  */
-void decode() {
-	int code;
-	int oc = 0;
-	int fc = 0;
-	byte[] buf = new byte[imageWidth];
-	int stackIndex = 0;
-	int bufIndex = 0;
-	int c;
-	while ((c = nextCode()) != endCode) {
-		if (c == clearCode) {
-			codeSize = bitsPerPixel + 1;
-			codeMask = MASK_TABLE[bitsPerPixel];
-			currentSlot = newCodes;
-			topSlot = 1 << codeSize;
-			while ((c = nextCode()) == clearCode) {}
-			if (c != endCode) {
-				oc = fc = c;
-				buf[bufIndex] = (byte)c;
-				bufIndex++;
-				if (bufIndex == imageWidth) {
-					nextPutPixels(buf);
-					bufIndex = 0;
-				}
+int decode(byte[] src, int srcIndex, int srcEnd, byte[] dest, int destIndex, int destEnd, int minCodeSize, boolean msbFirst, boolean earlyChange) {
+	int[] offsets = this.offsets, lengths = this.lengths;
+	int clearCode = 1 << minCodeSize;
+	int endCode = clearCode + 1;
+	int firstSlot = clearCode + 2;
+	int change = earlyChange ? 1 : 0;
+	int codeSize = minCodeSize + 1;
+	int codeMask = (1 << codeSize) - 1;
+	int limit = (1 << codeSize) - change;
+	int slot = firstSlot;
+	int bits = 0, bitCount = 0;
+	int out = destIndex;
+	int previousOffset = -1, previousLength = 0;
+	while (out < destEnd) {
+		while (bitCount < codeSize) {
+			if (srcIndex >= srcEnd) return out - destIndex;
+			int b = src[srcIndex++] & 0xFF;
+			if (msbFirst) {
+				bits = (bits << 8) | b;
+			} else {
+				bits |= b << bitCount;
 			}
+			bitCount += 8;
+		}
+		int code;
+		if (msbFirst) {
+			code = (bits >>> (bitCount - codeSize)) & codeMask;
 		} else {
-			code = c;
-			if (code >= currentSlot) {
-				code = oc;
-				stack[stackIndex] = fc;
-				stackIndex++;
-			}
-			while (code >= newCodes) {
-				stack[stackIndex] = suffix[code];
-				stackIndex++;
-				code = prefix[code];
-			}
-			stack[stackIndex] = code;
-			stackIndex++;
-			if (currentSlot < topSlot) {
-				fc = code;
-				suffix[currentSlot] = fc;
-				prefix[currentSlot] = oc;
-				currentSlot++;
-				oc = c;
-			}
-			if (currentSlot >= topSlot) {
-				if (codeSize < 12) {
-					codeMask = MASK_TABLE[codeSize];
-					codeSize++;
-					topSlot = topSlot + topSlot;
-				}
+			code = bits & codeMask;
+			bits >>>= codeSize;
+		}
+		bitCount -= codeSize;
+
+		if (code == clearCode) {
+			codeSize = minCodeSize + 1;
+			codeMask = (1 << codeSize) - 1;
+			limit = (1 << codeSize) - change;
+			slot = firstSlot;
+			previousOffset = -1;
+			continue;
+		}
+		if (code == endCode) break;
+
+		int length;
+		if (code < clearCode) {
+			dest[out] = (byte)code;
+			length = 1;
+		} else if (previousOffset < 0) {
+			/* The first code after a clear code must be a literal */
+			break;
+		} else {
+			int offset;
+			if (code < slot) {
+				offset = offsets[code];
+				length = lengths[code];
+			} else if (code == slot) {
+				/* The code being defined: the previous string and its first byte */
+				offset = previousOffset;
+				length = previousLength + 1;
+			} else {
+				break;
 			}
-			while (stackIndex > 0) {
-				stackIndex--;
-				buf[bufIndex] = (byte)stack[stackIndex];
-				bufIndex++;
-				if (bufIndex == imageWidth) {
-					nextPutPixels(buf);
-					bufIndex = 0;
+			if (length > destEnd - out) length = destEnd - out;
+			if (length > 8 && offset + length <= out) {
+				System.arraycopy(dest, offset, dest, out, length);
+			} else {
+				for (int i = 0; i < length; i++) {
+					dest[out + i] = dest[offset + i];
 				}
 			}
 		}
+		if (previousOffset >= 0 && slot < MAX_CODES) {
+			offsets[slot] = previousOffset;
+			lengths[slot] = previousLength + 1;
+			slot++;
+		}
+		/*
+		 * Widen the codes once the next slot no longer fits. This is also
+		 * checked after the first code, because with a minimum code size
+		 * of 1 the first free slot already needs the wider codes.
+		 */
+		if (slot >= limit && codeSize < MAX_CODE_SIZE) {
+			codeSize++;
+			codeMask = (1 << codeSize) - 1;
+			limit = (1 << codeSize) - change;
+		}
+		previousOffset = out;
+		previousLength = length;
+		out += length;
 	}
-	if (bufIndex != 0 && line < imageHeight) {
-		nextPutPixels(buf);
-	}
+	return out - destIndex;
 }
+
 /**
  * Decode the LZW-encoded bytes in the given byte stream
  * into the given DeviceIndependentImage.
  */
 public void decode(LEDataInputStream inputStream, ImageLoader loader, ImageData image, boolean interlaced, int depth) {
-	this.inputStream = inputStream;
-	this.loader = loader;
-	this.image = image;
-	this.interlaced = interlaced;
-	this.bitsPerPixel = depth;
-	initializeForDecoding();
-	decode();
-}
-/**
- * Encode the image.
- */
-void encode() {
-	nextPutCode(clearCode);
-	int lastPrefix = encodeLoop();
-	nextPutCode(lastPrefix);
-	nextPutCode(endCode);
-
-	// Write out last partial block
-	if (bitsLeft == 8) {
-		block[0] = (byte)(blockIndex - 1); // Nothing in last byte
-	} else {
-		block[0] = (byte)(blockIndex); // Last byte has data
-	}
-	writeBlock();
-
-	// Write out empty block to indicate the end (if needed)
-	if (block[0] != 0) {
-		block[0] = 0;
-		writeBlock();
+	if (depth < 1 || depth >= MAX_CODE_SIZE) SWT.error(SWT.ERROR_INVALID_IMAGE);
+	byte[] data = readBlocks(inputStream);
+	int width = image.width, height = image.height;
+	byte[] pixels = new byte[width * height];
+	decode(data, 0, data.length, pixels, 0, pixels.length, depth, false, false);
+	if (!interlaced) {
+		for (int y = 0; y < height; y++) {
+			putRow(image, y, pixels, y * width);
+		}
+		return;
 	}
-}
-/**
- * Encode the bytes into the given byte stream
- * from the given DeviceIndependentImage.
- */
-public void encode(LEDataOutputStream byteStream, ImageData image) {
-	this.outputStream = byteStream;
-	this.image = image;
-	initializeForEncoding();
-	encode();
-}
-/**
- * Encoding loop broken out to allow early return.
- */
-int encodeLoop() {
-	int pixel = nextPixel();
-	boolean found;
-	LZWNode node;
-	while (true) {
-		int currentPrefix = pixel;
-		node = nodeStack[currentPrefix];
-		found = true;
-		pixel = nextPixel();
-		if (pixel < 0)
-			return currentPrefix;
-		while (found && (node.children != null)) {
-			node = node.children;
-			while (found && (node.suffix != pixel)) {
-				if (pixel < node.suffix) {
-					if (node.left == null) {
-						node.left = new LZWNode();
-						found = false;
-					}
-					node = node.left;
-				} else {
-					if (node.right == null) {
-						node.right = new LZWNode();
-						found = false;
-					}
-					node = node.right;
+	/* Rows are stored in four passes: every 8th row from 0, every 8th from 4, every 4th from 2 and every 2nd from 1 */
+	boolean progressive = loader.hasListeners();
+	int row = 0;
+	for (int pass = 0; pass < 4; pass++) {
+		int start = pass == 0 ? 0 : 8 >> pass;
+		int step = pass == 0 ? 8 : 16 >> pass;
+		for (int y = start; y < height; y += step) {
+			putRow(image, y, pixels, row * width);
+			if (progressive) {
+				/* Fill the rows that later passes replace, so that partial images look complete */
+				for (int i = 1; i < step - start && pass < 3 && y + i < height; i++) {
+					putRow(image, y + i, pixels, row * width);
 				}
 			}
-			if (found) {
-				currentPrefix = node.code;
-				pixel = nextPixel();
-				if (pixel < 0)
-					return currentPrefix;
-			}
+			row++;
 		}
-		if (found) {
-			node.children = new LZWNode();
-			node = node.children;
+		if (progressive && pass < 3) {
+			loader.notifyListeners(new ImageLoaderEvent(loader, (ImageData)image.clone(), pass, false));
 		}
-		node.children = null;
-		node.left = null;
-		node.right = null;
-		node.code = currentSlot;
-		node.prefix = currentPrefix;
-		node.suffix = pixel;
-		nextPutCode(currentPrefix);
-		currentSlot++;
-		// Off by one?
-		if (currentSlot < 4096) {
-			if (currentSlot > topSlot) {
-				codeSize++;
-				codeMask = MASK_TABLE[codeSize - 1];
-				topSlot *= 2;
-			}
-		} else {
-			nextPutCode(clearCode);
-			for (LZWNode lzwnode : nodeStack) {
-				lzwnode.children = null;
-			}
-			codeSize = bitsPerPixel + 1;
-			codeMask = MASK_TABLE[codeSize - 1];
-			currentSlot = newCodes;
-			topSlot = 1 << codeSize;
-		}
-	}
-}
-/**
- * Initialize the receiver for decoding the given
- * byte array.
- */
-void initializeForDecoding() {
-	pass = 1;
-	line = 0;
-	codeSize = bitsPerPixel + 1;
-	topSlot = 1 << codeSize;
-	clearCode = 1 << bitsPerPixel;
-	endCode = clearCode + 1;
-	newCodes = currentSlot = endCode + 1;
-	currentByte = -1;
-	blockSize = bitsLeft = 0;
-	blockIndex = 0;
-	codeMask = MASK_TABLE[codeSize - 1];
-	stack = new int[4096];
-	suffix = new int[4096];
-	prefix = new int[4096];
-	block = new byte[256];
-	imageWidth = image.width;
-	imageHeight = image.height;
-}
-/**
- * Initialize the receiver for encoding the given
- * byte array.
- */
-void initializeForEncoding() {
-	interlaced = false;
-	bitsPerPixel = image.depth;
-	codeSize = bitsPerPixel + 1;
-	topSlot = 1 << codeSize;
-	clearCode = 1 << bitsPerPixel;
-	endCode = clearCode + 1;
-	newCodes = currentSlot = endCode + 1;
-	bitsLeft = 8;
-	currentByte = 0;
-	blockIndex = 1;
-	blockSize = 255;
-	block = new byte[blockSize];
-	block[0] = (byte)(blockSize - 1);
-	nodeStack = new LZWNode[1 << bitsPerPixel];
-	for (int i = 0; i < nodeStack.length; i++) {
-		LZWNode node = new LZWNode();
-		node.code = i + 1;
-		node.prefix = -1;
-		node.suffix = i + 1;
-		nodeStack[i] = node;
 	}
-	imageWidth = image.width;
-	imageHeight = image.height;
-	imageY = -1;
-	lineArray = new byte[imageWidth];
-	imageX = imageWidth + 1; // Force a read
 }
+
 /**
- * Answer the next code from the input byte array.
+ * Copy a row of pixel values to the image.
  */
-int nextCode() {
-	int code;
-	if (bitsLeft == 0) {
-		if (blockIndex >= blockSize) {
-			blockSize = readBlock();
-			blockIndex = 0;
-			if (blockSize == 0) return endCode;
-		}
-		blockIndex++;
-		currentByte = block[blockIndex] & 0xFF;
-		bitsLeft = 8;
-		code = currentByte;
+static void putRow(ImageData image, int y, byte[] pixels, int offset) {
+	if (image.depth == 8) {
+		System.arraycopy(pixels, offset, image.data, y * image.bytesPerLine, image.width);
 	} else {
-		int shift = bitsLeft - 8;
-		if (shift < 0)
-			code = currentByte >> (0 - shift);
-		else
-			code = currentByte << shift;
+		image.setPixels(0, y, image.width, pixels, offset);
 	}
-	while (codeSize > bitsLeft) {
-		if (blockIndex >= blockSize) {
-			blockSize = readBlock();
-			blockIndex = 0;
-			if (blockSize == 0) return endCode;
-		}
-		blockIndex++;
-		currentByte = block[blockIndex] & 0xFF;
-		code += currentByte << bitsLeft;
-		bitsLeft += 8;
-	}
-	bitsLeft -= codeSize;
-	return code & codeMask;
 }
+
 /**
- * Answer the next pixel to encode in the image
+ * Read the data sub-blocks of an image, up to and including the
+ * empty block that terminates them, and answer their contents.
  */
-int nextPixel() {
-	imageX++;
-	if (imageX > imageWidth) {
-		imageY++;
-		if (imageY >= imageHeight) {
-			return -1;
-		} else {
-			nextPixels(lineArray, imageWidth);
+static byte[] readBlocks(LEDataInputStream inputStream) {
+	ByteArrayOutputStream data = new ByteArrayOutputStream();
+	byte[] block = new byte[255];
+	try {
+		int size;
+		while ((size = inputStream.read()) > 0) {
+			int count = 0;
+			while (count < size) {
+				int read = inputStream.read(block, count, size - count);
+				if (read <= 0) SWT.error(SWT.ERROR_INVALID_IMAGE);
+				count += read;
+			}
+			data.write(block, 0, size);
 		}
-		imageX = 1;
+		if (size < 0) SWT.error(SWT.ERROR_INVALID_IMAGE);
+	} catch (IOException e) {
+		SWT.error(SWT.ERROR_IO, e);
 	}
-	return this.lineArray[imageX - 1] & 0xFF;
+	return data.toByteArray();
 }
+
 /**
- * Copy a row of pixel values from the image.
+ * Decode an LZW compressed TIFF strip into <code>dest</code>.
+ * Strips written by old versions of the specification pack
+ * the codes like GIF does. Answer the number of bytes decoded.
  */
-void nextPixels(byte[] buf, int lineWidth) {
-	if (image.depth == 8) {
-		System.arraycopy(image.data, imageY * image.bytesPerLine, buf, 0, lineWidth);
-	} else {
-		image.getPixels(0, imageY, lineWidth, buf, 0);
-	}
+int decodeTIFF(byte[] src, byte[] dest, int destIndex, int destEnd) {
+	boolean oldStyle = src.length >= 2 && src[0] == 0 && (src[1] & 0x1) != 0;
+	return decode(src, 0, src.length, dest, destIndex, destEnd, 8, !oldStyle, !oldStyle);
 }
+
 /**
- * Output aCode to the output stream.
+ * Encode the bytes into the given byte stream
+ * from the given DeviceIndependentImage.
  */
-void nextPutCode(int aCode) {
-	int codeToDo = aCode;
-	int codeBitsToDo = codeSize;
-	// Fill in the remainder of the current byte with the
-	// *high-order* bits of the code.
-	int c = codeToDo & MASK_TABLE[bitsLeft - 1];
-	currentByte = currentByte | (c << (8 - bitsLeft));
-	block[blockIndex] = (byte)currentByte;
-	codeBitsToDo -= bitsLeft;
-	if (codeBitsToDo < 1) {
-		// The whole code fit in the first byte, so we are done.
-		bitsLeft -= codeSize;
-		if (bitsLeft == 0) {
-			// We used the whole last byte, so get ready
-			// for the next one.
-			bitsLeft = 8;
-			blockIndex++;
-			if (blockIndex >= blockSize) {
-				writeBlock();
-				blockIndex = 1;
-			}
-			currentByte = 0;
-		}
-		return;
+public void encode(LEDataOutputStream byteStream, ImageData image) {
+	if (hashKeys == null) {
+		hashKeys = new int[HASH_SIZE];
+		hashCodes = new int[HASH_SIZE];
+		block = new byte[BLOCK_SIZE + 1];
 	}
-	codeToDo = codeToDo >> bitsLeft;
+	outputStream = byteStream;
+	blockIndex = 1;
+	bitBuffer = bitCount = 0;
+	int[] hashKeys = this.hashKeys, hashCodes = this.hashCodes;
+	Arrays.fill(hashKeys, -1);
 
-	// Fill in any remaining whole bytes (i.e. not the last one!)
-	blockIndex++;
-	if (blockIndex >= blockSize) {
-		writeBlock();
-		blockIndex = 1;
-	}
-	while (codeBitsToDo >= 8) {
-		currentByte = codeToDo & 0xFF;
-		block[blockIndex] = (byte)currentByte;
-		codeToDo = codeToDo >> 8;
-		codeBitsToDo -= 8;
-		blockIndex++;
-		if (blockIndex >= blockSize) {
-			writeBlock();
-			blockIndex = 1;
+	int bitsPerPixel = image.depth;
+	int clearCode = 1 << bitsPerPixel;
+	int endCode = clearCode + 1;
+	int firstSlot = clearCode + 2;
+	int codeSize = bitsPerPixel + 1;
+	int topSlot = 1 << codeSize;
+	int slot = firstSlot;
+	putCode(clearCode, codeSize);
+
+	int width = image.width, height = image.height;
+	byte[] row = new byte[width];
+	int prefix = -1;
+	for (int y = 0; y < height; y++) {
+		byte[] pixels = row;
+		int offset = 0;
+		if (image.depth == 8) {
+			pixels = image.data;
+			offset = y * image.bytesPerLine;
+		} else {
+			image.getPixels(0, y, width, row, 0);
 		}
-	}
-	// Fill the *low-order* bits of the last byte with the remainder
-	bitsLeft = 8 - codeBitsToDo;
-	currentByte = codeToDo;
-	block[blockIndex] = (byte)currentByte;
-}
-/**
- * Copy a row of pixel values to the image.
- */
-void nextPutPixels(byte[] buf) {
-	if (image.depth == 8) {
-		// Slight optimization for depth = 8.
-		int start = line * image.bytesPerLine;
-		System.arraycopy(buf, 0, image.data, start, imageWidth);
-	} else {
-		image.setPixels(0, line, imageWidth, buf, 0);
-	}
-	if (interlaced) {
-		if (pass == 1) {
-			copyRow(buf, 7);
-			line += 8;
-		} else if (pass == 2) {
-			copyRow(buf, 3);
-			line += 8;
-		} else if (pass == 3) {
-			copyRow(buf, 1);
-			line += 4;
-		} else if (pass == 4) {
-			line += 2;
-		} else if (pass == 5) {
-			line += 0;
+		int x = 0;
+		if (prefix < 0) {
+			prefix = pixels[offset] & 0xFF;
+			x = 1;
 		}
-		if (line >= imageHeight) {
-			pass++;
-			if (pass == 2) line = 4;
-			else if (pass == 3) line = 2;
-			else if (pass == 4) line = 1;
-			else if (pass == 5) line = 0;
-			if (pass < 5) {
-				if (loader.hasListeners()) {
-					ImageData imageCopy = (ImageData) image.clone();
-					loader.notifyListeners(
-						new ImageLoaderEvent(loader, imageCopy, pass - 2, false));
+		for (; x < width; x++) {
+			int pixel = pixels[offset + x] & 0xFF;
+			int key = (prefix << 8) | pixel;
+			int index = (pixel << HASH_SHIFT) ^ prefix;
+			int step = index == 0 ? 1 : HASH_SIZE - index;
+			int k;
+			while ((k = hashKeys[index]) != key && k != -1) {
+				index -= step;
+				if (index < 0) index += HASH_SIZE;
+			}
+			if (k == key) {
+				prefix = hashCodes[index];
+				continue;
+			}
+			putCode(prefix, codeSize);
+			hashKeys[index] = key;
+			hashCodes[index] = slot;
+			slot++;
+			if (slot < MAX_CODES) {
+				if (slot > topSlot) {
+					codeSize++;
+					topSlot *= 2;
 				}
+			} else {
+				putCode(clearCode, codeSize);
+				Arrays.fill(hashKeys, -1);
+				codeSize = bitsPerPixel + 1;
+				topSlot = 1 << codeSize;
+				slot = firstSlot;
 			}
+			prefix = pixel;
 		}
-		if (line >= imageHeight) line = 0;
-	} else {
-		line++;
 	}
+	putCode(prefix, codeSize);
+	putCode(endCode, codeSize);
+
+	/* Write out the last partial byte and block, and the empty block that ends the data */
+	if (bitCount > 0) putByte(bitBuffer);
+	if (blockIndex > 1) writeBlock();
+	block[0] = 0;
+	blockIndex = 1;
+	writeBlock();
 }
+
 /**
- * Copy duplicate rows of pixel values to the image.
- * This is to fill in rows if the image is interlaced.
+ * Output a code, least significant bit first.
  */
-void copyRow(byte[] buf, int copies) {
-	for (int i = 1; i <= copies; i++) {
-		if (line + i < imageHeight) {
-			image.setPixels(0, line + i, imageWidth, buf, 0);
-		}
+void putCode(int code, int codeSize) {
+	bitBuffer |= code << bitCount;
+	bitCount += codeSize;
+	while (bitCount >= 8) {
+		putByte(bitBuffer);
+		bitBuffer >>>= 8;
+		bitCount -= 8;
 	}
 }
-/**
- * Read a block from the byte stream.
- * Return the number of bytes read.
- * Throw an exception if the block could not be read.
- */
-int readBlock() {
-	int size = -1;
-	try {
-		size = inputStream.read();
-		if (size == -1) {
-			SWT.error(SWT.ERROR_INVALID_IMAGE);
-		}
-		block[0] = (byte)size;
-		size = inputStream.read(block, 1, size);
-		if (size == -1) {
-			SWT.error(SWT.ERROR_INVALID_IMAGE);
-		}
-	} catch (Exception e) {
-		SWT.error(SWT.ERROR_IO, e);
-	}
-	return size;
+
+void putByte(int value) {
+	block[blockIndex++] = (byte)value;
+	if (blockIndex > BLOCK_SIZE) writeBlock();
 }
+
 /**
  * Write a block to the byte stream.
  * Throw an exception if the block could not be written.
  */
 void writeBlock() {
+	block[0] = (byte)(blockIndex - 1);
 	try {
-		outputStream.write(block, 0, (block[0] & 0xFF) + 1);
+		outputStream.write(block, 0, blockIndex);
 	} catch (Exception e) {
 		SWT.error(SWT.ERROR_IO, e);
 	}
+	blockIndex = 1;
 }
 }
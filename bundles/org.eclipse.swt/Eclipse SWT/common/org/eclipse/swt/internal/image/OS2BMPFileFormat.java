@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2008 IBM Corporation and others.
+ * Copyright (c) 2000, 2026 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -24,16 +24,14 @@ public final class OS2BMPFileFormat extends FileFormat {
 	int width, height, bitCount;
 
 @Override
-boolean isFileFormat(LEDataInputStream stream) {
-	try {
-		byte[] header = new byte[18];
-		stream.read(header);
-		stream.unread(header);
-		int infoHeaderSize = (header[14] & 0xFF) | ((header[15] & 0xFF) << 8) | ((header[16] & 0xFF) << 16) | ((header[17] & 0xFF) << 24);
-		return header[0] == 0x42 && header[1] == 0x4D && infoHeaderSize == BMPHeaderFixedSize;
-	} catch (Exception e) {
-		return false;
+boolean isFileFormat(byte[] header, int length) {
+	if (length < 2) return false;
+	/* The bytes of the info header size past the end of a short stream are zero */
+	int infoHeaderSize = 0;
+	for (int i = Math.min(length, 18) - 1; i >= 14; i--) {
+		infoHeaderSize = (infoHeaderSize << 8) | (header[i] & 0xFF);
 	}
+	return header[0] == 0x42 && header[1] == 0x4D && infoHeaderSize == BMPHeaderFixedSize;
 }
 byte[] loadData(byte[] infoHeader) {
 	int stride = (width * bitCount + 7) / 8;
@@ -111,6 +109,20 @@ ImageData[] loadFromByteStream() {
 			0)
 	};
 }
+@Override
+ImageInfo probeFromByteStream() {
+	loadFileHeader();
+	byte[] infoHeader = new byte[BMPHeaderFixedSize];
+	try {
+		if (inputStream.read(infoHeader) != infoHeader.length) SWT.error(SWT.ERROR_INVALID_IMAGE);
+	} catch (IOException e) {
+		SWT.error(SWT.ERROR_IO, e);
+	}
+	int width = (infoHeader[4] & 0xFF) | ((infoHeader[5] & 0xFF) << 8);
+	int height = (infoHeader[6] & 0xFF) | ((infoHeader[7] & 0xFF) << 8);
+	int bitCount = (infoHeader[10] & 0xFF) | ((infoHeader[11] & 0xFF) << 8);
+	return new ImageInfo(SWT.IMAGE_OS2_BMP, width, height, bitCount, 1);
+}
 PaletteData loadPalette(byte[] infoHeader) {
 	if (bitCount <= 8) {
 		int numColors = 1 << bitCount;
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2011 IBM Corporation and others.
+ * Copyright (c) 2000, 2026 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -86,6 +86,19 @@ ImageData[] loadFromByteStream() {
 		return null;
 	}
 }
+@Override
+ImageInfo probeFromByteStream() {
+	try {
+		readSignature();
+		PngIhdrChunk headerChunk = new PngChunkReader(inputStream).getIhdrChunk();
+		int width = headerChunk.getWidth(), height = headerChunk.getHeight();
+		if (width <= 0 || height <= 0) SWT.error(SWT.ERROR_INVALID_IMAGE);
+		return new ImageInfo(SWT.IMAGE_PNG, width, height, headerChunk.getSwtBitsPerPixel(), 1);
+	} catch (IOException e) {
+		SWT.error(SWT.ERROR_INVALID_IMAGE);
+		return null;
+	}
+}
 /**
  * Read and handle the next chunk of data from the
  * PNG file.
@@ -152,23 +165,17 @@ void unloadIntoByteStream(ImageLoader loader) {
 	encoder.encode(outputStream);
 }
 @Override
-boolean isFileFormat(LEDataInputStream stream) {
-	try {
-		byte[] signature = new byte[SIGNATURE_LENGTH];
-		stream.read(signature);
-		stream.unread(signature);
-		if ((signature[0] & 0xFF) != 137) return false; //137
-		if ((signature[1] & 0xFF) != 80) return false; //P
-		if ((signature[2] & 0xFF) != 78) return false; //N
-		if ((signature[3] & 0xFF) != 71) return false; //G
-		if ((signature[4] & 0xFF) != 13) return false; //<RETURN>
-		if ((signature[5] & 0xFF) != 10) return false; //<LINEFEED>
-		if ((signature[6] & 0xFF) != 26) return false; //<CTRL/Z>
-		if ((signature[7] & 0xFF) != 10) return false; //<LINEFEED>
-		return true;
-	} catch (Exception e) {
-		return false;
-	}
+boolean isFileFormat(byte[] signature, int length) {
+	if (length < SIGNATURE_LENGTH) return false;
+	if ((signature[0] & 0xFF) != 137) return false; //137
+	if ((signature[1] & 0xFF) != 80) return false; //P
+	if ((signature[2] & 0xFF) != 78) return false; //N
+	if ((signature[3] & 0xFF) != 71) return false; //G
+	if ((signature[4] & 0xFF) != 13) return false; //<RETURN>
+	if ((signature[5] & 0xFF) != 10) return false; //<LINEFEED>
+	if ((signature[6] & 0xFF) != 26) return false; //<CTRL/Z>
+	if ((signature[7] & 0xFF) != 10) return false; //<LINEFEED>
+	return true;
 }
 /**
  * SWT does not support 16-bit depths. If this image uses
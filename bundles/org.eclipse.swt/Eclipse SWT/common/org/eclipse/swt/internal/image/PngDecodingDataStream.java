@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2011 IBM Corporation and others.
+ * Copyright (c) 2000, 2026 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -20,19 +20,38 @@ import org.eclipse.swt.*;
 
 public class PngDecodingDataStream extends InputStream {
 	InputStream stream;
-	byte currentByte;
-	int nextBitIndex;
+	byte[] inputBuffer;
+	int inputIndex;
+	int inputLength;
+
+	/*
+	 * Compressed data is consumed least significant bit first.
+	 * The bit buffer holds up to 64 bits that have been read
+	 * from the input but not yet consumed by the decoder.
+	 */
+	long bitBuffer;
+	int bitCount;
 
 	PngLzBlockReader lzBlockReader;
 	int adlerValue;
+	byte[] singleByte;
 
 	static final int PRIME = 65521;
-	static final int MAX_BIT = 7;
+	/* The largest n such that 255n(n+1)/2 + (n+1)(PRIME-1) fits in 32 unsigned bits */
+	static final int ADLER_BLOCK_SIZE = 5552;
+	static final int INPUT_BUFFER_SIZE = 8192;
+	static final int MAX_BUFFERED_BITS = 56;
 
-PngDecodingDataStream(InputStream stream) throws IOException {
+/**
+ * Creates a stream that inflates the zlib compressed data read
+ * from the given stream, which is the concatenated content of
+ * the IDAT chunks of a PNG image.
+ */
+public PngDecodingDataStream(InputStream stream) throws IOException {
 	super();
 	this.stream = stream;
-	nextBitIndex = MAX_BIT + 1;
+	inputBuffer = new byte[INPUT_BUFFER_SIZE];
+	singleByte = new byte[1];
 	adlerValue = 1;
 	lzBlockReader = new PngLzBlockReader(this);
 	readCompressedDataHeader();
@@ -56,52 +75,118 @@ public void close() throws IOException {
 	checkAdler();
 }
 
-int getNextIdatBits(int length) throws IOException {
-	int value = 0;
-	for (int i = 0; i < length; i++) {
-		value |= (getNextIdatBit() << i);
+/**
+ * Make at least <code>length</code> bits available in the bit
+ * buffer, if the input has that many left. The underlying stream
+ * is only read when the buffered input cannot satisfy the request,
+ * so the decoder never reads past the end of the compressed data.
+ */
+void fillBits(int length) throws IOException {
+	while (bitCount <= MAX_BUFFERED_BITS) {
+		if (inputIndex == inputLength) {
+			if (bitCount >= length) return;
+			inputIndex = 0;
+			inputLength = stream.read(inputBuffer, 0, inputBuffer.length);
+			if (inputLength <= 0) {
+				inputLength = 0;
+				return;
+			}
+		}
+		bitBuffer |= (long)(inputBuffer[inputIndex++] & 0xFF) << bitCount;
+		bitCount += 8;
 	}
+}
+
+/**
+ * Answer the next <code>length</code> bits without consuming
+ * them. Bits past the end of the input read as zero.
+ */
+int peekBits(int length) throws IOException {
+	if (bitCount < length) fillBits(length);
+	return (int)bitBuffer & ((1 << length) - 1);
+}
+
+void skipBits(int length) {
+	if (length > bitCount) error();
+	bitBuffer >>>= length;
+	bitCount -= length;
+}
+
+int getNextIdatBits(int length) throws IOException {
+	if (length == 0) return 0;
+	int value = peekBits(length);
+	skipBits(length);
 	return value;
 }
 
-int getNextIdatBit() throws IOException {
-	if (nextBitIndex > MAX_BIT) {
-		currentByte = getNextIdatByte();
-		nextBitIndex = 0;
-	}
-	return (currentByte & (1 << nextBitIndex)) >> nextBitIndex++;
+/**
+ * Discard the bits remaining in the current byte.
+ */
+void alignToByte() {
+	skipBits(bitCount & 7);
 }
 
 byte getNextIdatByte() throws IOException {
-	byte nextByte = (byte)stream.read();
-	nextBitIndex = MAX_BIT + 1;
-	return nextByte;
+	alignToByte();
+	return (byte)getNextIdatBits(8);
+}
+
+/**
+ * Copy byte aligned data, such as the contents of an uncompressed
+ * block, into the given buffer. Answer the number of bytes copied,
+ * which is at least one.
+ */
+int readAlignedBytes(byte[] buffer, int offset, int length) throws IOException {
+	alignToByte();
+	int count = 0;
+	while (bitCount > 0 && count < length) {
+		buffer[offset + count++] = (byte)bitBuffer;
+		bitBuffer >>>= 8;
+		bitCount -= 8;
+	}
+	if (count < length && bitCount == 0) {
+		if (inputIndex == inputLength) {
+			int read = stream.read(buffer, offset + count, length - count);
+			if (read > 0) count += read;
+		} else {
+			int available = Math.min(inputLength - inputIndex, length - count);
+			System.arraycopy(inputBuffer, inputIndex, buffer, offset + count, available);
+			inputIndex += available;
+			count += available;
+		}
+	}
+	if (count == 0) error();
+	return count;
 }
 
-void updateAdler(byte value) {
+void updateAdler(byte[] buffer, int offset, int length) {
 	int low = adlerValue & 0xFFFF;
-	int high = (adlerValue >> 16) & 0xFFFF;
-	int valueInt = value & 0xFF;
-	low = (low + valueInt) % PRIME;
-	high = (low + high) % PRIME;
+	int high = (adlerValue >>> 16) & 0xFFFF;
+	while (length > 0) {
+		int count = Math.min(length, ADLER_BLOCK_SIZE);
+		length -= count;
+		while (count-- > 0) {
+			low += buffer[offset++] & 0xFF;
+			high += low;
+		}
+		low %= PRIME;
+		high = Integer.remainderUnsigned(high, PRIME);
+	}
 	adlerValue = (high << 16) | low;
 }
 
 @Override
 public int read() throws IOException {
-	byte nextDecodedByte = lzBlockReader.getNextByte();
-	updateAdler(nextDecodedByte);
-	return nextDecodedByte & 0xFF;
+	if (read(singleByte, 0, 1) != 1) return -1;
+	return singleByte[0] & 0xFF;
 }
 
 @Override
 public int read(byte[] buffer, int off, int len) throws IOException {
-	for (int i = 0; i < len; i++) {
-		int b = read();
-		if (b == -1) return i;
-		buffer[off + i] = (byte)b;
-	}
-	return len;
+	if (len == 0) return 0;
+	int count = lzBlockReader.read(buffer, off, len);
+	if (count > 0) updateAdler(buffer, off, count);
+	return count;
 }
 
 void error() {
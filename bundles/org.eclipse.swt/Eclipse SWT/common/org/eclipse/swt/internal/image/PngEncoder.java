@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2011 IBM Corporation and others.
+ * Copyright (c) 2000, 2026 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -14,6 +14,8 @@
 package org.eclipse.swt.internal.image;
 
 import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
 import java.util.zip.*;
 
 import org.eclipse.swt.*;
@@ -33,6 +35,10 @@ final class PngEncoder extends Object {
 	static final int BEST_COMPRESSION = 9;
 	static final int DEFAULT_COMPRESSION = -1;
 
+	static final int BAND_SIZE = 256 * 1024;
+	static final int DICTIONARY_SIZE = 32 * 1024;
+	static final int PRIME = 65521;
+
 	ByteArrayOutputStream bytes = new ByteArrayOutputStream(1024);
 	PngChunk chunk;
 
@@ -235,90 +241,342 @@ void writeTransparency() {
 
 void writeImageData() throws IOException {
 
-	ByteArrayOutputStream baos = new ByteArrayOutputStream(1024);
-	OutputStream os = new DeflaterOutputStream(baos, new Deflater(switch (loader.compression) {
+	int level = switch (loader.compression) {
 	case 0 -> NO_COMPRESSION;
 	case 1 -> BEST_SPEED;
 	case 3 -> BEST_COMPRESSION;
 	default -> DEFAULT_COMPRESSION;
-	}));
+	};
+
+	/*
+	* The rows are split into bands that are filtered and deflated
+	* independently, each band primed with the end of the previous
+	* one as its dictionary. The compressed bands are concatenated
+	* into a single zlib stream.
+	*/
+	int bytesPerRow = width * getBytesPerPixel() + 1;
+	int rowsPerBand = Math.max(1, BAND_SIZE / bytesPerRow);
+	int bandCount = (height + rowsPerBand - 1) / rowsPerBand;
+	int threads = ImageExecutor.getThreads((long) width * height, bandCount);
+
+	List<Callable<Band>> tasks = new ArrayList<>(bandCount);
+	for (int i = 0; i < bandCount; i++) {
+		int startRow = i * rowsPerBand;
+		int endRow = Math.min(height, startRow + rowsPerBand);
+		tasks.add(() -> compressBand(startRow, endRow, level));
+	}
+	List<Band> bands = ImageExecutor.invokeAll(tasks, threads);
+
+	int compressedLength = 0;
+	for (Band band : bands) {
+		compressedLength += band.data.length;
+	}
+
+	ByteArrayOutputStream baos = new ByteArrayOutputStream(compressedLength + 6);
+
+	int levelFlag = switch (level) {
+	case NO_COMPRESSION, BEST_SPEED -> 0;
+	case BEST_COMPRESSION -> 3;
+	default -> 2;
+	};
+	int header = (0x78 << 8) | (levelFlag << 6);
+	header += 31 - (header % 31);
+	writeShort(baos, header);
+
+	long adler = 1;
+	for (Band band : bands) {
+		baos.write(band.data, 0, band.data.length);
+		adler = combineAdler(adler, band.adler, band.length);
+	}
+	writeInt(baos, (int) adler);
 
-	if (colorType == 3) {
+	writeChunk(TAG_IDAT, baos.toByteArray());
+
+}
 
-		byte[] lineData = new byte[width];
+static class Band {
 
-		for (int y = 0; y < height; y++) {
+	byte[] data;
+	long adler;
+	int length;
 
-			int filter = 0;
-			os.write(filter);
+}
 
-			data.getPixels(0, y, width, lineData, 0);
+int getBytesPerPixel() {
 
-			os.write(lineData);
+	return switch (colorType) {
+	case 6 -> 4;
+	case 3 -> 1;
+	default -> 3;
+	};
 
-		}
+}
 
+/**
+ * Filter the rows from startRow (inclusive) to endRow (exclusive)
+ * and deflate them as a raw deflate stream. All but the last band
+ * end with a sync flush, so that the bands can be concatenated.
+ */
+Band compressBand(int startRow, int endRow, int level) {
+
+	int bytesPerPixel = getBytesPerPixel();
+	int bytesPerRow = width * bytesPerPixel;
+	boolean adaptive = colorType != 3 && level != NO_COMPRESSION;
+
+	RowFilter filter = new RowFilter(bytesPerRow, bytesPerPixel);
+	byte[] filtered = new byte[(endRow - startRow) * (bytesPerRow + 1)];
+
+	/*
+	* Prime the deflater with the filtered bytes of the rows
+	* preceding the band, so that matches can reach back into
+	* the previous band as they would in a sequential stream.
+	*/
+	byte[] dictionary = null;
+	if (startRow > 0 && level != NO_COMPRESSION) {
+		int dictionaryRows = Math.min(startRow, (DICTIONARY_SIZE + bytesPerRow) / (bytesPerRow + 1));
+		dictionary = new byte[dictionaryRows * (bytesPerRow + 1)];
+		filter.filterRows(startRow - dictionaryRows, startRow, adaptive, dictionary);
 	}
 
-	else {
+	filter.filterRows(startRow, endRow, adaptive, filtered);
 
-		int[] lineData = new int[width];
-		byte[] alphaData = null;
-		if (colorType == 6) {
-			alphaData = new byte[width];
+	Adler32 adler = new Adler32();
+	adler.update(filtered, 0, filtered.length);
+
+	Deflater deflater = new Deflater(level, true);
+	try {
+
+		if (dictionary != null) {
+			int offset = Math.max(0, dictionary.length - DICTIONARY_SIZE);
+			deflater.setDictionary(dictionary, offset, dictionary.length - offset);
 		}
 
-		int redMask = data.palette.redMask;
-		int redShift = data.palette.redShift;
-		int greenMask = data.palette.greenMask;
-		int greenShift = data.palette.greenShift;
-		int blueShift = data.palette.blueShift;
-		int blueMask = data.palette.blueMask;
+		deflater.setInput(filtered);
+		boolean last = endRow == height;
+		if (last) deflater.finish();
 
-		byte[] lineBytes = new byte[width * (colorType == 6 ? 4 : 3)];
+		ByteArrayOutputStream baos = new ByteArrayOutputStream(filtered.length / 2 + 64);
+		byte[] buffer = new byte[8192];
+		while (true) {
+			int count = deflater.deflate(buffer, 0, buffer.length, last ? Deflater.NO_FLUSH : Deflater.SYNC_FLUSH);
+			baos.write(buffer, 0, count);
+			if (last ? deflater.finished() : count < buffer.length) break;
+		}
+
+		Band band = new Band();
+		band.data = baos.toByteArray();
+		band.adler = adler.getValue();
+		band.length = filtered.length;
+		return band;
+
+	}
 
-		for (int y = 0; y < height; y++) {
+	finally {
 
-			int filter = 0;
-			os.write(filter);
+		deflater.end();
 
-			data.getPixels(0, y, width, lineData, 0);
+	}
 
+}
+
+/**
+ * Answer the Adler-32 checksum of the concatenation of two
+ * sequences, given the checksum of each and the length of
+ * the second one.
+ */
+static long combineAdler(long adler1, long adler2, int length2) {
+
+	long remainder = length2 % PRIME;
+	long sum1 = adler1 & 0xFFFF;
+	long sum2 = (remainder * sum1) % PRIME;
+	sum1 += (adler2 & 0xFFFF) + PRIME - 1;
+	sum2 += ((adler1 >> 16) & 0xFFFF) + ((adler2 >> 16) & 0xFFFF) + PRIME - remainder;
+	sum1 %= PRIME;
+	sum2 %= PRIME;
+	return (sum2 << 16) | sum1;
+
+}
+
+/**
+ * Converts rows of the image data into PNG scanlines, and chooses
+ * a filter type for each scanline.
+ */
+class RowFilter {
+
+	int bytesPerRow, bytesPerPixel;
+	byte[] row, previousRow;
+	byte[][] candidates = new byte[5][];
+	int[] lineData;
+	byte[] alphaData;
+
+	RowFilter(int bytesPerRow, int bytesPerPixel) {
+
+		this.bytesPerRow = bytesPerRow;
+		this.bytesPerPixel = bytesPerPixel;
+		row = new byte[bytesPerRow];
+		previousRow = new byte[bytesPerRow];
+		for (int i = 0; i < candidates.length; i++) {
+			candidates[i] = new byte[bytesPerRow];
+		}
+		if (colorType != 3) {
+			lineData = new int[width];
 			if (colorType == 6) {
-				data.getAlphas(0, y, width, alphaData, 0);
+				alphaData = new byte[width];
 			}
+		}
 
-			int offset = 0;
-			for (int x = 0; x < lineData.length; x++) {
+	}
 
-				int pixel = lineData[x];
+	/**
+	 * Filter the rows from startRow (inclusive) to endRow (exclusive)
+	 * into the given buffer, each preceded by its filter type.
+	 */
+	void filterRows(int startRow, int endRow, boolean adaptive, byte[] out) {
 
-				int r = pixel & redMask;
-				lineBytes[offset++] = (byte) ((redShift < 0) ? r >>> -redShift
-						: r << redShift);
-				int g = pixel & greenMask;
-				lineBytes[offset++] = (byte) ((greenShift < 0) ? g >>> -greenShift
-						: g << greenShift);
-				int b = pixel & blueMask;
-				lineBytes[offset++] = (byte) ((blueShift < 0) ? b >>> -blueShift
-						: b << blueShift);
+		if (startRow > 0) {
+			getRowBytes(startRow - 1, previousRow);
+		} else {
+			Arrays.fill(previousRow, (byte) 0);
+		}
 
-				if (colorType == 6) {
-					lineBytes[offset++] = alphaData[x];
+		int offset = 0;
+		for (int y = startRow; y < endRow; y++) {
+
+			getRowBytes(y, row);
+
+			int filterType = PngIhdrChunk.FILTER_NONE;
+			byte[] result = row;
+
+			if (adaptive) {
+
+				long bestSum = sumAbsolute(row);
+				for (int type = PngIhdrChunk.FILTER_SUB; type <= PngIhdrChunk.FILTER_PAETH; type++) {
+					byte[] candidate = candidates[type];
+					filterRow(type, candidate);
+					long sum = sumAbsolute(candidate);
+					if (sum < bestSum) {
+						bestSum = sum;
+						filterType = type;
+						result = candidate;
+					}
 				}
 
 			}
 
-			os.write(lineBytes);
+			out[offset++] = (byte) filterType;
+			System.arraycopy(result, 0, out, offset, bytesPerRow);
+			offset += bytesPerRow;
+
+			byte[] temp = previousRow;
+			previousRow = row;
+			row = temp;
 
 		}
 
 	}
 
-	os.flush();
-	os.close();
+	void filterRow(int filterType, byte[] out) {
 
-	writeChunk(TAG_IDAT, baos.toByteArray());
+		int bpp = bytesPerPixel;
+		switch (filterType) {
+
+			case PngIhdrChunk.FILTER_SUB:
+				for (int i = 0; i < bytesPerRow; i++) {
+					int left = i < bpp ? 0 : row[i - bpp] & 0xFF;
+					out[i] = (byte) (row[i] - left);
+				}
+				break;
+
+			case PngIhdrChunk.FILTER_UP:
+				for (int i = 0; i < bytesPerRow; i++) {
+					out[i] = (byte) (row[i] - previousRow[i]);
+				}
+				break;
+
+			case PngIhdrChunk.FILTER_AVERAGE:
+				for (int i = 0; i < bytesPerRow; i++) {
+					int left = i < bpp ? 0 : row[i - bpp] & 0xFF;
+					int above = previousRow[i] & 0xFF;
+					out[i] = (byte) (row[i] - ((left + above) >> 1));
+				}
+				break;
+
+			case PngIhdrChunk.FILTER_PAETH:
+				for (int i = 0; i < bytesPerRow; i++) {
+					int left = i < bpp ? 0 : row[i - bpp] & 0xFF;
+					int aboveLeft = i < bpp ? 0 : previousRow[i - bpp] & 0xFF;
+					int above = previousRow[i] & 0xFF;
+					int a = Math.abs(above - aboveLeft);
+					int b = Math.abs(left - aboveLeft);
+					int c = Math.abs(left - aboveLeft + above - aboveLeft);
+					int predictor = (a <= b && a <= c) ? left : (b <= c) ? above : aboveLeft;
+					out[i] = (byte) (row[i] - predictor);
+				}
+				break;
+
+		}
+
+	}
+
+	/**
+	 * The minimum sum of absolute differences heuristic: treat the
+	 * filtered bytes as signed and prefer the filter with the
+	 * smallest sum of magnitudes.
+	 */
+	long sumAbsolute(byte[] bytes) {
+
+		long sum = 0;
+		for (int i = 0; i < bytesPerRow; i++) {
+			sum += Math.abs(bytes[i]);
+		}
+		return sum;
+
+	}
+
+	void getRowBytes(int y, byte[] lineBytes) {
+
+		if (colorType == 3) {
+
+			data.getPixels(0, y, width, lineBytes, 0);
+			return;
+
+		}
+
+		int redMask = data.palette.redMask;
+		int redShift = data.palette.redShift;
+		int greenMask = data.palette.greenMask;
+		int greenShift = data.palette.greenShift;
+		int blueShift = data.palette.blueShift;
+		int blueMask = data.palette.blueMask;
+
+		data.getPixels(0, y, width, lineData, 0);
+
+		if (colorType == 6) {
+			data.getAlphas(0, y, width, alphaData, 0);
+		}
+
+		int offset = 0;
+		for (int x = 0; x < lineData.length; x++) {
+
+			int pixel = lineData[x];
+
+			int r = pixel & redMask;
+			lineBytes[offset++] = (byte) ((redShift < 0) ? r >>> -redShift
+					: r << redShift);
+			int g = pixel & greenMask;
+			lineBytes[offset++] = (byte) ((greenShift < 0) ? g >>> -greenShift
+					: g << greenShift);
+			int b = pixel & blueMask;
+			lineBytes[offset++] = (byte) ((blueShift < 0) ? b >>> -blueShift
+					: b << blueShift);
+
+			if (colorType == 6) {
+				lineBytes[offset++] = alphaData[x];
+			}
+
+		}
+
+	}
 
 }
 
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2011 IBM Corporation and others.
+ * Copyright (c) 2000, 2026 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -15,114 +15,118 @@ package org.eclipse.swt.internal.image;
 
 import java.io.*;
 
+import org.eclipse.swt.*;
+
+/**
+ * A canonical Huffman code decoded through lookup tables. The
+ * root table is indexed by the next ROOT_BITS bits of input and
+ * resolves all shorter codes in a single step. Longer codes are
+ * resolved through a second-level table linked from the root
+ * entry that shares their first ROOT_BITS bits.
+ */
 public class PngHuffmanTable {
-	CodeLengthInfo[] codeLengthInfo;
-	int[] codeValues;
+	/*
+	 * Each entry holds the decoded value in the upper bits and
+	 * the code length in the lower LENGTH_BITS bits. A zero length
+	 * marks an unused code. Entries that link to a second-level
+	 * table have SUBTABLE set and hold the offset of that table and
+	 * the number of bits it is indexed by instead.
+	 */
+	int[] table;
+	int rootBits;
 
 	static final int MAX_CODE_LENGTH = 15;
-	static final int BAD_CODE = 0xFFFFFFF;
-	static final int incs[] = {1391376, 463792, 198768, 86961, 33936, 13776, 4592, 1968, 861, 336, 112, 48, 21, 7, 3, 1};
+	static final int ROOT_BITS = 9;
+	static final int LENGTH_BITS = 4;
+	static final int LENGTH_MASK = (1 << LENGTH_BITS) - 1;
+	static final int SUBTABLE = 0x80000000;
 
 PngHuffmanTable (int[] lengths) {
 	super();
-	initialize(lengths);
 	generateTable(lengths);
 }
 
-private void initialize(int[] lengths) {
-	codeValues = new int[lengths.length];
-	for (int i = 0; i < codeValues.length; i++) {
-		codeValues[i] = i;
+private void generateTable(int[] lengths) {
+	int[] lengthCounts = new int[MAX_CODE_LENGTH + 1];
+	int maxLength = 0;
+	for (int length : lengths) {
+		if (length > MAX_CODE_LENGTH) SWT.error(SWT.ERROR_INVALID_IMAGE);
+		lengthCounts[length]++;
+		maxLength = Math.max(maxLength, length);
 	}
+	lengthCounts[0] = 0;
 
-	// minCodesByLength[n] : The smallest Huffman code of length n + 1.
-	// maxCodesByLength[n] : The largest Huffman code of length n + 1.
-	// indexesByLength[n] : Index into the values array. First value with a code of length n + 1.
-	codeLengthInfo = new CodeLengthInfo[MAX_CODE_LENGTH];
-	for (int i = 0; i < MAX_CODE_LENGTH; i++) {
-		codeLengthInfo[i] = new CodeLengthInfo();
-		codeLengthInfo[i].length = i;
-		codeLengthInfo[i].baseIndex = 0;
-		codeLengthInfo[i].min = BAD_CODE;
-		codeLengthInfo[i].max = -1;
+	// nextCodes[n] : The next unassigned Huffman code of length n.
+	int[] nextCodes = new int[MAX_CODE_LENGTH + 1];
+	int code = 0;
+	for (int length = 1; length <= MAX_CODE_LENGTH; length++) {
+		code = (code + lengthCounts[length - 1]) << 1;
+		nextCodes[length] = code;
+		if (code + lengthCounts[length] > (1 << length)) SWT.error(SWT.ERROR_INVALID_IMAGE);
 	}
-}
 
-private void generateTable(int[] lengths) {
-	// Sort the values using shellsort. Primary key is code size. Secondary key is value.
-	int codeValuesTemp;
-	for (int k = 0; k < 16; k++) {
-		for (int h = incs[k], i = h; i < lengths.length; i++) {
-			int v = lengths[i];
-			codeValuesTemp = codeValues[i];
-			int j = i;
-			while (j >= h && (lengths[j - h] > v || (lengths[j - h] == v && codeValues[j - h] > codeValuesTemp))) {
-				lengths[j] = lengths[j - h];
-				codeValues[j] = codeValues[j - h];
-				j -= h;
-			}
-			lengths[j] = v;
-			codeValues[j] = codeValuesTemp;
+	// The compressed stream stores Huffman codes starting with their
+	// most significant bit, but bits are read starting with the least
+	// significant one, so the tables are indexed by the reversed code.
+	int[] codes = new int[lengths.length];
+	for (int i = 0; i < lengths.length; i++) {
+		int length = lengths[i];
+		if (length != 0) {
+			codes[i] = Integer.reverse(nextCodes[length]++) >>> (32 - length);
 		}
 	}
 
-	// These values in these arrays correspond to the elements of the
-	// "values" array. The Huffman code for codeValues[N] is codes[N]
-	// and the length of the code is lengths[N].
-	int[] codes = new int[lengths.length];
-	int lastLength = 0;
-	int code = 0;
+	rootBits = Math.max(1, Math.min(ROOT_BITS, maxLength));
+	int rootSize = 1 << rootBits;
+	int rootMask = rootSize - 1;
+	int subBits = maxLength - rootBits;
+	int size = rootSize;
+	int[] subTableOffsets = new int[rootSize];
 	for (int i = 0; i < lengths.length; i++) {
-		while (lastLength != lengths[i]) {
-			lastLength++;
-			code <<= 1;
-		}
-		if (lastLength != 0) {
-			codes[i] = code;
-			code++;
+		if (lengths[i] > rootBits) {
+			int prefix = codes[i] & rootMask;
+			if (subTableOffsets[prefix] == 0) {
+				subTableOffsets[prefix] = size;
+				size += 1 << subBits;
+			}
 		}
 	}
 
-	int last = 0;
+	table = new int[size];
+	for (int prefix = 0; prefix < rootSize; prefix++) {
+		if (subTableOffsets[prefix] != 0) {
+			table[prefix] = SUBTABLE | (subTableOffsets[prefix] << LENGTH_BITS) | subBits;
+		}
+	}
 	for (int i = 0; i < lengths.length; i++) {
-		if (last != lengths[i]) {
-			last = lengths[i];
-			codeLengthInfo[last - 1].baseIndex = i;
-			codeLengthInfo[last - 1].min = codes[i];
+		int length = lengths[i];
+		if (length == 0) continue;
+		int entry = (i << LENGTH_BITS) | length;
+		if (length <= rootBits) {
+			for (int index = codes[i]; index < rootSize; index += 1 << length) {
+				table[index] = entry;
+			}
+		} else {
+			int offset = subTableOffsets[codes[i] & rootMask];
+			for (int index = codes[i] >>> rootBits; index < (1 << subBits); index += 1 << (length - rootBits)) {
+				table[offset + index] = entry;
+			}
 		}
-		if (last != 0) codeLengthInfo[last - 1].max = codes[i];
 	}
 }
 
 int getNextValue(PngDecodingDataStream stream) throws IOException {
-	int code = stream.getNextIdatBit();
-	int codelength = 0;
-
-	// Here we are taking advantage of the fact that 1 bits are used as
-	// a prefix to the longer codeValues.
-	while (codelength < MAX_CODE_LENGTH && code > codeLengthInfo[codelength].max) {
-		code = ((code << 1) | stream.getNextIdatBit());
-		codelength++;
+	int bits = stream.peekBits(MAX_CODE_LENGTH);
+	int entry = table[bits & ((1 << rootBits) - 1)];
+	if (entry < 0) {
+		int offset = (entry & ~SUBTABLE) >>> LENGTH_BITS;
+		int subBits = entry & LENGTH_MASK;
+		entry = table[offset + ((bits >>> rootBits) & ((1 << subBits) - 1))];
 	}
-	if (codelength >= MAX_CODE_LENGTH) stream.error();
-
-	// Now we have a Huffman code of length (codelength + 1) that
-	// is somewhere in the range
-	// minCodesByLength[codelength]..maxCodesByLength[codelength].
-	// This code is the (offset + 1)'th code of (codelength + 1);
-	int offset = code - codeLengthInfo[codelength].min;
-
-	// indexesByLength[codelength] is the first code of length (codelength + 1)
-	// so now we can look up the value for the Huffman code in the table.
-	int index = codeLengthInfo[codelength].baseIndex + offset;
-	return codeValues[index];
-}
-
-static class CodeLengthInfo {
-	int length;
-	int max;
-	int min;
-	int baseIndex;
+	int length = entry & LENGTH_MASK;
+	if (length == 0) stream.error();
+	stream.skipBits(length);
+	return entry >>> LENGTH_BITS;
 }
 
 }
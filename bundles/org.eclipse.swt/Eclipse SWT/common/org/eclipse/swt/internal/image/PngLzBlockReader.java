@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2011 IBM Corporation and others.
+ * Copyright (c) 2000, 2026 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -22,7 +22,10 @@ public class PngLzBlockReader {
 	PngDecodingDataStream stream;
 	PngHuffmanTables huffmanTables;
 
+	boolean isBlockFinished;
+
 	byte[] window;
+	int windowMask;
 	int windowIndex;
 	int copyIndex;
 	int copyBytesRemaining;
@@ -65,20 +68,21 @@ PngLzBlockReader(PngDecodingDataStream stream) {
 
 void setWindowSize(int windowSize) {
 	window = new byte[windowSize];
+	windowMask = windowSize - 1;
 }
 
 void readNextBlockHeader() throws IOException {
-	isLastBlock = stream.getNextIdatBit() != 0;
+	isLastBlock = stream.getNextIdatBits(1) != 0;
+	isBlockFinished = false;
 	compressionType = (byte) stream.getNextIdatBits(2);
 	if (compressionType > 2) stream.error();
 
 	if (compressionType == UNCOMPRESSED) {
-		byte b1 = stream.getNextIdatByte();
-		byte b2 = stream.getNextIdatByte();
-		byte b3 = stream.getNextIdatByte();
-		byte b4 = stream.getNextIdatByte();
-		if (b1 != ~b3 || b2 != ~b4) stream.error();
-		uncompressedBytesRemaining = (b1 & 0xFF) | ((b2 & 0xFF) << 8);
+		stream.alignToByte();
+		int length = stream.getNextIdatBits(16);
+		int complement = stream.getNextIdatBits(16);
+		if ((length ^ 0xFFFF) != complement) stream.error();
+		uncompressedBytesRemaining = length;
 	} else if (compressionType == COMPRESSED_DYNAMIC) {
 		huffmanTables = PngHuffmanTables.getDynamicTables(stream);
 	} else {
@@ -86,28 +90,98 @@ void readNextBlockHeader() throws IOException {
 	}
 }
 
-byte getNextByte() throws IOException {
-	if (compressionType == UNCOMPRESSED) {
-		if (uncompressedBytesRemaining == 0) {
+/**
+ * Decode up to <code>length</code> bytes into the given buffer.
+ * Answer the number of bytes decoded, or -1 if the last block
+ * has been fully decoded.
+ */
+int read(byte[] buffer, int offset, int length) throws IOException {
+	int start = offset, end = offset + length;
+	while (offset < end) {
+		if (copyBytesRemaining > 0) {
+			int count = Math.min(copyBytesRemaining, end - offset);
+			copyBytesRemaining -= count;
+			while (count-- > 0) {
+				byte value = window[copyIndex];
+				window[windowIndex] = value;
+				buffer[offset++] = value;
+				copyIndex = (copyIndex + 1) & windowMask;
+				windowIndex = (windowIndex + 1) & windowMask;
+			}
+		} else if (isBlockFinished) {
+			if (isLastBlock) break;
 			readNextBlockHeader();
-			return getNextByte();
+		} else if (compressionType == UNCOMPRESSED) {
+			if (uncompressedBytesRemaining == 0) {
+				isBlockFinished = true;
+				continue;
+			}
+			int count = stream.readAlignedBytes(buffer, offset, Math.min(uncompressedBytesRemaining, end - offset));
+			uncompressedBytesRemaining -= count;
+			while (count-- > 0) {
+				window[windowIndex] = buffer[offset++];
+				windowIndex = (windowIndex + 1) & windowMask;
+			}
+		} else {
+			offset = readCompressedBytes(buffer, offset, end);
+		}
+	}
+	if (offset == start) return -1;
+	return offset - start;
+}
+
+/**
+ * Decode literals into the buffer until it is full or until a
+ * length/distance pair or the end of the block is encountered.
+ * Answer the offset of the next byte to be decoded.
+ */
+private int readCompressedBytes(byte[] buffer, int offset, int end) throws IOException {
+	while (offset < end) {
+		int value = huffmanTables.getNextLiteralValue(stream);
+		if (value < END_OF_COMPRESSED_BLOCK) {
+			window[windowIndex] = (byte) value;
+			windowIndex = (windowIndex + 1) & windowMask;
+			buffer[offset++] = (byte) value;
+		} else if (value == END_OF_COMPRESSED_BLOCK) {
+			isBlockFinished = true;
+			break;
+		} else if (value <= LAST_LENGTH_CODE) {
+			int extraBits = extraLengthBits[value - FIRST_LENGTH_CODE];
+			int length = lengthBases[value - FIRST_LENGTH_CODE];
+			if (extraBits > 0) {
+				length += stream.getNextIdatBits(extraBits);
+			}
+
+			value = huffmanTables.getNextDistanceValue(stream);
+			if (value > LAST_DISTANCE_CODE) stream.error();
+			extraBits = extraDistanceBits[value];
+			int distance = distanceBases[value];
+			if (extraBits > 0) {
+				distance += stream.getNextIdatBits(extraBits);
+			}
+			if (distance > window.length) stream.error();
+
+			copyIndex = (windowIndex - distance) & windowMask;
+			copyBytesRemaining = length;
+			break;
+		} else {
+			stream.error();
 		}
-		uncompressedBytesRemaining--;
-		return stream.getNextIdatByte();
-	} else {
-		return getNextCompressedByte();
 	}
+	return offset;
 }
 
 private void assertBlockAtEnd() throws IOException {
+	if (copyBytesRemaining > 0) stream.error();
+	if (isBlockFinished) return;
 	if (compressionType == UNCOMPRESSED) {
 		if (uncompressedBytesRemaining > 0) stream.error();
-	} else if (copyBytesRemaining > 0 ||
-		(huffmanTables.getNextLiteralValue(stream) != END_OF_COMPRESSED_BLOCK))
-	{
+	} else if (huffmanTables.getNextLiteralValue(stream) != END_OF_COMPRESSED_BLOCK) {
 		stream.error();
 	}
+	isBlockFinished = true;
 }
+
 void assertCompressedDataAtEnd() throws IOException {
 	assertBlockAtEnd();
 	while (!isLastBlock) {
@@ -116,53 +190,4 @@ void assertCompressedDataAtEnd() throws IOException {
 	}
 }
 
-private byte getNextCompressedByte() throws IOException {
-	if (copyBytesRemaining > 0) {
-		byte value = window[copyIndex];
-		window[windowIndex] = value;
-		copyBytesRemaining--;
-
-		copyIndex++;
-		windowIndex++;
-		if (copyIndex == window.length) copyIndex = 0;
-		if (windowIndex == window.length) windowIndex = 0;
-
-		return value;
-	}
-
-	int value = huffmanTables.getNextLiteralValue(stream);
-	if (value < END_OF_COMPRESSED_BLOCK) {
-		window[windowIndex] = (byte) value;
-		windowIndex++;
-		if (windowIndex >= window.length) windowIndex = 0;
-		return (byte) value;
-	} else if (value == END_OF_COMPRESSED_BLOCK) {
-		readNextBlockHeader();
-		return getNextByte();
-	} else if (value <= LAST_LENGTH_CODE) {
-		int extraBits = extraLengthBits[value - FIRST_LENGTH_CODE];
-		int length = lengthBases[value - FIRST_LENGTH_CODE];
-		if (extraBits > 0) {
-			length += stream.getNextIdatBits(extraBits);
-		}
-
-		value = huffmanTables.getNextDistanceValue(stream);
-		if (value > LAST_DISTANCE_CODE) stream.error();
-		extraBits = extraDistanceBits[value];
-		int distance = distanceBases[value];
-		if (extraBits > 0) {
-			distance += stream.getNextIdatBits(extraBits);
-		}
-
-		copyIndex = windowIndex - distance;
-		if (copyIndex < 0) copyIndex += window.length;
-
-		copyBytesRemaining = length;
-		return getNextCompressedByte();
-	} else {
-		stream.error();
-		return 0;
-	}
-}
-
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2009 IBM Corporation and others.
+ * Copyright (c) 2000, 2026 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -17,6 +17,8 @@ package org.eclipse.swt.internal.image;
 import org.eclipse.swt.*;
 import org.eclipse.swt.graphics.*;
 import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
 
 final class TIFFDirectory {
 
@@ -38,6 +40,12 @@ final class TIFFDirectory {
 	int[] stripByteCounts;
 	int t4Options;
 	int colorMapOffset;
+	int predictor;
+	int tileWidth;
+	int tileLength;
+	int[] tileOffsets;
+	int[] tileByteCounts;
+	PaletteData palette;
 
 	/* Encoder fields */
 	ImageData image;
@@ -66,7 +74,12 @@ final class TIFFDirectory {
 	static final short TAG_ResolutionUnit = 296;
 	static final short TAG_Software = 305;
 	static final short TAG_DateTime = 306;
+	static final short TAG_Predictor = 317;
 	static final short TAG_ColorMap = 320;
+	static final short TAG_TileWidth = 322;
+	static final short TAG_TileLength = 323;
+	static final short TAG_TileOffsets = 324;
+	static final short TAG_TileByteCounts = 325;
 
 	static final int TYPE_BYTE = 1;
 	static final int TYPE_ASCII = 2;
@@ -84,8 +97,13 @@ final class TIFFDirectory {
 	/* Different compression schemes */
 	static final int COMPRESSION_NONE = 1;
 	static final int COMPRESSION_CCITT_3_1 = 2;
+	static final int COMPRESSION_CCITT_T4 = 3;
+	static final int COMPRESSION_LZW = 5;
 	static final int COMPRESSION_PACKBITS = 32773;
 
+	static final int PREDICTOR_NONE = 1;
+	static final int PREDICTOR_HORIZONTAL = 2;
+
 	static final int IFD_ENTRY_SIZE = 12;
 
 public TIFFDirectory(TIFFRandomFileAccess file, boolean isLittleEndian, ImageLoader loader) {
@@ -153,32 +171,145 @@ void getEntryValue(int type, byte[] buffer, int index, int[] values) throws IOEx
 }
 
 void decodePixels(ImageData image) throws IOException {
-	/* Each row is byte aligned */
-	byte[] imageData = new byte[(imageWidth * depth + 7) / 8 * imageLength];
-	image.data = imageData;
-	int destIndex = 0;
-	int length = stripOffsets.length;
-	for (int i = 0; i < length; i++) {
-		/* Read a strip */
-		byte[] data = new byte[stripByteCounts[i]];
-		file.seek(stripOffsets[i]);
-		file.read(data);
-		if (compression == COMPRESSION_NONE) {
-			System.arraycopy(data, 0, imageData, destIndex, data.length);
-			destIndex += data.length;
-		} else if (compression == COMPRESSION_PACKBITS) {
-			destIndex += decodePackBits(data, imageData, destIndex);
-		} else if (compression == COMPRESSION_CCITT_3_1 || compression == 3) {
-			TIFFModifiedHuffmanCodec codec = new TIFFModifiedHuffmanCodec();
-			int nRows = rowsPerStrip;
-			if (i == length -1) {
-				int n = imageLength % rowsPerStrip;
-				if (n != 0) nRows = n;
-			}
-			destIndex += codec.decode(data, imageData, destIndex, imageWidth, nRows);
+	decodeRegion(image, 0, 0);
+}
+
+/*
+ * Decode the pixels of the image that starts at (x, y) in the directory's
+ * image. Only the strips or tiles that intersect the image are read, and
+ * each row of them is decoded by a separate task, so that no two tasks
+ * write to the same bytes of the image.
+ */
+void decodeRegion(ImageData image, int x, int y) throws IOException {
+	if (predictor == PREDICTOR_HORIZONTAL && bitsPerSample[0] != 8) SWT.error(SWT.ERROR_UNSUPPORTED_FORMAT);
+	boolean tiled = tileOffsets != null;
+	int[] offsets = tiled ? tileOffsets : stripOffsets;
+	int[] byteCounts = tiled ? tileByteCounts : stripByteCounts;
+	if (offsets == null || byteCounts == null || byteCounts.length < offsets.length) SWT.error(SWT.ERROR_INVALID_IMAGE);
+	int chunkWidth = tiled ? tileWidth : imageWidth;
+	int chunkLength = tiled ? tileLength : Math.min(rowsPerStrip, imageLength);
+	if (chunkWidth <= 0 || chunkLength <= 0) SWT.error(SWT.ERROR_INVALID_IMAGE);
+	int chunksAcross = (imageWidth + chunkWidth - 1) / chunkWidth;
+	int firstColumn = x / chunkWidth, lastColumn = (x + image.width - 1) / chunkWidth;
+	int firstRow = y / chunkLength, lastRow = (y + image.height - 1) / chunkLength;
+	if ((lastRow + 1) * chunksAcross > offsets.length) SWT.error(SWT.ERROR_INVALID_IMAGE);
+	int rows = lastRow - firstRow + 1;
+
+	boolean progressive = loader != null && loader.hasListeners();
+	int threads = progressive ? 1 : ImageExecutor.getThreads((long) image.width * image.height, rows);
+	if (threads == 1) {
+		for (int row = firstRow; row <= lastRow; row++) {
+			for (int column = firstColumn; column <= lastColumn; column++) {
+				decodeChunk(image, x, y, row * chunksAcross + column, column * chunkWidth, row * chunkLength, chunkWidth, chunkLength, offsets, byteCounts);
+			}
+			if (progressive) {
+				loader.notifyListeners(new ImageLoaderEvent(loader, image, row - firstRow, row == lastRow));
+			}
+		}
+		return;
+	}
+	List<Callable<Void>> tasks = new ArrayList<>(rows);
+	for (int r = firstRow; r <= lastRow; r++) {
+		int row = r;
+		tasks.add(() -> {
+			for (int column = firstColumn; column <= lastColumn; column++) {
+				decodeChunk(image, x, y, row * chunksAcross + column, column * chunkWidth, row * chunkLength, chunkWidth, chunkLength, offsets, byteCounts);
+			}
+			return null;
+		});
+	}
+	ImageExecutor.invokeAll(tasks, threads);
+}
+
+/*
+ * Decode the rows of a strip or tile that are inside the image, and copy
+ * the part of them that is inside the image. Strips and tiles are stored
+ * as rows of chunkWidth pixels, and only the last strip may be shorter.
+ */
+void decodeChunk(ImageData image, int x, int y, int index, int chunkX, int chunkY, int chunkWidth, int chunkLength, int[] offsets, int[] byteCounts) throws IOException {
+	int rowBytes = (chunkWidth * depth + 7) / 8;
+	int firstRow = Math.max(y, chunkY) - chunkY;
+	int endRow = Math.min(Math.min(y + image.height, chunkY + chunkLength), imageLength) - chunkY;
+	byte[] rows;
+	int rowIndex = 0;
+	if (compression == COMPRESSION_NONE) {
+		/* Only read the rows that are needed */
+		int start = firstRow * rowBytes;
+		rows = readChunk(offsets[index] + start, Math.max(0, Math.min((endRow - firstRow) * rowBytes, byteCounts[index] - start)));
+	} else {
+		byte[] data = readChunk(offsets[index], byteCounts[index]);
+		switch (compression) {
+			case COMPRESSION_PACKBITS: {
+				/* The decoder does not stop at the end of the buffer */
+				rows = new byte[rowBytes * chunkLength];
+				decodePackBits(data, rows, 0);
+				break;
+			}
+			case COMPRESSION_CCITT_3_1:
+			case COMPRESSION_CCITT_T4: {
+				rows = new byte[rowBytes * endRow];
+				new TIFFModifiedHuffmanCodec().decode(data, rows, 0, chunkWidth, endRow);
+				break;
+			}
+			case COMPRESSION_LZW: {
+				rows = new byte[rowBytes * endRow];
+				new LZWCodec().decodeTIFF(data, rows, 0, rows.length);
+				break;
+			}
+			default: SWT.error(SWT.ERROR_UNSUPPORTED_FORMAT); return;
 		}
-		if (loader.hasListeners()) {
-			loader.notifyListeners(new ImageLoaderEvent(loader, image, i, i == length - 1));
+		if (predictor == PREDICTOR_HORIZONTAL) undoHorizontalDifferencing(rows, 0, rowBytes * endRow, rowBytes);
+		rowIndex = firstRow * rowBytes;
+	}
+	int firstX = Math.max(x, chunkX);
+	int endX = Math.min(Math.min(x + image.width, chunkX + chunkWidth), imageWidth);
+	int srcBit = (firstX - chunkX) * depth, destBit = (firstX - x) * depth, bits = (endX - firstX) * depth;
+	int destY = chunkY + firstRow - y;
+	for (int row = firstRow; row < endRow; row++, destY++, rowIndex += rowBytes) {
+		if (rowIndex >= rows.length) break;
+		copyBits(rows, rowIndex, srcBit, image.data, destY * image.bytesPerLine, destBit, Math.min(bits, (rows.length - rowIndex) * 8 - srcBit));
+	}
+}
+
+/*
+ * Copy a run of bits, most significant bit first. The bit
+ * offsets are relative to the given byte indices.
+ */
+static void copyBits(byte[] src, int srcIndex, int srcBit, byte[] dest, int destIndex, int destBit, int count) {
+	if (count <= 0) return;
+	if ((srcBit & 7) == 0 && (destBit & 7) == 0) {
+		int bytes = count >> 3;
+		System.arraycopy(src, srcIndex + (srcBit >> 3), dest, destIndex + (destBit >> 3), bytes);
+		srcBit += bytes << 3;
+		destBit += bytes << 3;
+		count &= 7;
+	}
+	for (int i = 0; i < count; i++, srcBit++, destBit++) {
+		int mask = 0x80 >> (destBit & 7);
+		if ((src[srcIndex + (srcBit >> 3)] & (0x80 >> (srcBit & 7))) != 0) {
+			dest[destIndex + (destBit >> 3)] |= mask;
+		} else {
+			dest[destIndex + (destBit >> 3)] &= ~mask;
+		}
+	}
+}
+
+byte[] readChunk(int offset, int count) throws IOException {
+	byte[] data = new byte[count];
+	file.read(offset, data);
+	return data;
+}
+
+/*
+ * Each sample of a row was stored as the difference to the
+ * same sample of the previous pixel. Only 8 bit samples are
+ * supported.
+ */
+void undoHorizontalDifferencing(byte[] data, int start, int end, int rowBytes) {
+	for (int row = start; row < end; row += rowBytes) {
+		int rowEnd = Math.min(row + rowBytes, end);
+		for (int i = row + samplesPerPixel; i < rowEnd; i++) {
+			data[i] += data[i - samplesPerPixel];
 		}
 	}
 }
@@ -343,6 +474,17 @@ void parseEntries(byte[] buffer) throws IOException {
 			}
 			case TAG_Compression: {
 				compression = getEntryValue(type, buffer, offset);
+				switch (compression) {
+					case COMPRESSION_NONE:
+					case COMPRESSION_CCITT_3_1:
+					case COMPRESSION_CCITT_T4:
+					case COMPRESSION_LZW:
+					case COMPRESSION_PACKBITS:
+						break;
+					default:
+						/* Deflate, JPEG and CCITT group 4 pages would decode as blank images */
+						SWT.error(SWT.ERROR_UNSUPPORTED_FORMAT);
+				}
 				break;
 			}
 			case TAG_FillOrder: {
@@ -416,17 +558,58 @@ void parseEntries(byte[] buffer) throws IOException {
 				/* Ignored */
 				break;
 			}
+			case TAG_Predictor: {
+				predictor = getEntryValue(type, buffer, offset);
+				if (predictor != PREDICTOR_NONE && predictor != PREDICTOR_HORIZONTAL) SWT.error(SWT.ERROR_UNSUPPORTED_FORMAT);
+				break;
+			}
 			case TAG_ColorMap: {
 				if (type != TYPE_SHORT) SWT.error(SWT.ERROR_INVALID_IMAGE);
 				/* Get the offset of the colorMap (use TYPE_LONG) */
 				colorMapOffset = getEntryValue(TYPE_LONG, buffer, offset);
 				break;
 			}
+			case TAG_TileWidth: {
+				tileWidth = getEntryValue(type, buffer, offset);
+				break;
+			}
+			case TAG_TileLength: {
+				tileLength = getEntryValue(type, buffer, offset);
+				break;
+			}
+			case TAG_TileOffsets: {
+				if (type != TYPE_LONG && type != TYPE_SHORT) SWT.error(SWT.ERROR_INVALID_IMAGE);
+				tileOffsets = new int[count];
+				getEntryValue(type, buffer, offset, tileOffsets);
+				break;
+			}
+			case TAG_TileByteCounts: {
+				tileByteCounts = new int[count];
+				getEntryValue(type, buffer, offset, tileByteCounts);
+				break;
+			}
 		}
 	}
 }
 
 public ImageData read(int [] nextIFDOffset) throws IOException {
+	readEntries(nextIFDOffset);
+	ImageData image = newImageData(imageWidth, imageLength);
+	decodePixels(image);
+	return image;
+}
+
+/*
+ * Read the given rectangle of the image. The entries of the
+ * directory must have been read.
+ */
+ImageData read(int x, int y, int width, int height) throws IOException {
+	ImageData image = newImageData(width, height);
+	decodeRegion(image, x, y);
+	return image;
+}
+
+void readEntries(int [] nextIFDOffset) throws IOException {
 	/* Set TIFF default values */
 	bitsPerSample = new int[] {1};
 	colorMapOffset = NO_VALUE;
@@ -434,10 +617,14 @@ public ImageData read(int [] nextIFDOffset) throws IOException {
 	imageLength = NO_VALUE;
 	imageWidth = NO_VALUE;
 	photometricInterpretation = NO_VALUE;
+	predictor = PREDICTOR_NONE;
 	rowsPerStrip = Integer.MAX_VALUE;
 	samplesPerPixel = 1;
 	stripByteCounts = null;
 	stripOffsets = null;
+	tileByteCounts = null;
+	tileOffsets = null;
+	tileLength = tileWidth = NO_VALUE;
 
 	byte[] buffer = new byte[2];
 	file.read(buffer);
@@ -449,7 +636,7 @@ public ImageData read(int [] nextIFDOffset) throws IOException {
 	nextIFDOffset[0] = toInt(buffer2, 0, TYPE_LONG);
 	parseEntries(buffer);
 
-	PaletteData palette = null;
+	palette = null;
 	depth = 0;
 	switch (photometricInterpretation) {
 		case 0:
@@ -478,10 +665,12 @@ public ImageData read(int [] nextIFDOffset) throws IOException {
 			SWT.error(SWT.ERROR_INVALID_IMAGE);
 		}
 	}
+}
 
-	ImageData image = ImageData.internal_new(
-			imageWidth,
-			imageLength,
+ImageData newImageData(int width, int height) {
+	return ImageData.internal_new(
+			width,
+			height,
 			depth,
 			palette,
 			1,
@@ -496,8 +685,6 @@ public ImageData read(int [] nextIFDOffset) throws IOException {
 			0,
 			0,
 			0);
-	decodePixels(image);
-	return image;
 }
 
 int toInt(byte[] buffer, int i, int type) {
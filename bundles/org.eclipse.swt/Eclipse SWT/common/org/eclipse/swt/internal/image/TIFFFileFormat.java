@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2009 IBM Corporation and others.
+ * Copyright (c) 2000, 2026 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -17,47 +17,49 @@ package org.eclipse.swt.internal.image;
 import org.eclipse.swt.*;
 import org.eclipse.swt.graphics.*;
 import java.io.*;
+import java.util.*;
 
 /**
  * Baseline TIFF decoder revision 6.0
  * Extension T4-encoding CCITT T.4 1D
  */
 public final class TIFFFileFormat extends FileFormat {
+	boolean isLittleEndian;
 
 @Override
-boolean isFileFormat(LEDataInputStream stream) {
-	try {
-		byte[] header = new byte[4];
-		stream.read(header);
-		stream.unread(header);
-		if (header[0] != header[1]) return false;
-		if (!(header[0] == 0x49 && header[2] == 42 && header[3] == 0) &&
-			!(header[0] == 0x4d && header[2] == 0 && header[3] == 42)) {
-			return false;
-		}
-		return true;
-	} catch (Exception e) {
+boolean isFileFormat(byte[] header, int length) {
+	if (length < 4) return false;
+	if (header[0] != header[1]) return false;
+	if (!(header[0] == 0x49 && header[2] == 42 && header[3] == 0) &&
+		!(header[0] == 0x4d && header[2] == 0 && header[3] == 42)) {
 		return false;
 	}
+	return true;
+}
+
+/*
+ * Read the header of the file, and answer the offset of the first directory.
+ */
+int readHeader(TIFFRandomFileAccess file) throws IOException {
+	byte[] header = new byte[8];
+	file.read(header);
+	if (header[0] != header[1]) SWT.error(SWT.ERROR_INVALID_IMAGE);
+	if (!(header[0] == 0x49 && header[2] == 42 && header[3] == 0) &&
+		!(header[0] == 0x4d && header[2] == 0 && header[3] == 42)) {
+		SWT.error(SWT.ERROR_INVALID_IMAGE);
+	}
+	isLittleEndian = header[0] == 0x49;
+	return isLittleEndian ?
+		(header[4] & 0xFF) | ((header[5] & 0xFF) << 8) | ((header[6] & 0xFF) << 16) | ((header[7] & 0xFF) << 24) :
+		(header[7] & 0xFF) | ((header[6] & 0xFF) << 8) | ((header[5] & 0xFF) << 16) | ((header[4] & 0xFF) << 24);
 }
 
 @Override
 ImageData[] loadFromByteStream() {
-	byte[] header = new byte[8];
-	boolean isLittleEndian;
 	ImageData[] images = new ImageData[0];
 	TIFFRandomFileAccess file = new TIFFRandomFileAccess(inputStream);
 	try {
-		file.read(header);
-		if (header[0] != header[1]) SWT.error(SWT.ERROR_INVALID_IMAGE);
-		if (!(header[0] == 0x49 && header[2] == 42 && header[3] == 0) &&
-			!(header[0] == 0x4d && header[2] == 0 && header[3] == 42)) {
-			SWT.error(SWT.ERROR_INVALID_IMAGE);
-		}
-		isLittleEndian = header[0] == 0x49;
-		int offset = isLittleEndian ?
-			(header[4] & 0xFF) | ((header[5] & 0xFF) << 8) | ((header[6] & 0xFF) << 16) | ((header[7] & 0xFF) << 24) :
-			(header[7] & 0xFF) | ((header[6] & 0xFF) << 8) | ((header[5] & 0xFF) << 16) | ((header[4] & 0xFF) << 24);
+		int offset = readHeader(file);
 		while (offset != 0) {
 			file.seek(offset);
 			TIFFDirectory directory = new TIFFDirectory(file, isLittleEndian, loader);
@@ -75,6 +77,42 @@ ImageData[] loadFromByteStream() {
 	return images;
 }
 
+/*
+ * Read the entries of the first directory, and follow the chain
+ * of directories to count the pages without reading their entries.
+ */
+@Override
+ImageInfo probeFromByteStream() {
+	TIFFRandomFileAccess file = new TIFFRandomFileAccess(inputStream);
+	try {
+		int offset = readHeader(file);
+		if (offset == 0) SWT.error(SWT.ERROR_INVALID_IMAGE);
+		file.seek(offset);
+		TIFFDirectory directory = new TIFFDirectory(file, isLittleEndian, loader);
+		int [] nextIFDOffset = new int[1];
+		directory.readEntries(nextIFDOffset);
+		Set<Integer> visited = new HashSet<>();
+		visited.add(offset);
+		int count = 1;
+		byte[] buffer = new byte[4];
+		byte[] numberEntries = new byte[2];
+		offset = nextIFDOffset[0];
+		while (offset != 0) {
+			if (!visited.add(offset)) SWT.error(SWT.ERROR_INVALID_IMAGE);
+			file.seek(offset);
+			file.read(numberEntries);
+			file.seek(offset + 2 + directory.toInt(numberEntries, 0, TIFFDirectory.TYPE_SHORT) * TIFFDirectory.IFD_ENTRY_SIZE);
+			file.read(buffer);
+			offset = directory.toInt(buffer, 0, TIFFDirectory.TYPE_LONG);
+			count++;
+		}
+		return new ImageInfo(SWT.IMAGE_TIFF, directory.imageWidth, directory.imageLength, directory.depth, count);
+	} catch (IOException e) {
+		SWT.error(SWT.ERROR_IO, e);
+		return null;
+	}
+}
+
 @Override
 void unloadIntoByteStream(ImageLoader loader) {
 	/* We do not currently support writing multi-page tiff,
@@ -0,0 +1,120 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Eclipse Foundation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Eclipse Foundation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.swt.internal.image;
+
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.file.*;
+import java.util.*;
+
+import org.eclipse.swt.*;
+import org.eclipse.swt.graphics.*;
+
+/**
+ * A TIFF file that is mapped into memory. Only the directories of
+ * the pages are read when the file is opened. The strips or tiles of
+ * a page are read from the mapping when a part of the page is read,
+ * and only those that intersect that part.
+ */
+public final class TIFFMappedFile implements Closeable {
+	FileChannel channel;
+	ByteBuffer buffer;
+	boolean isLittleEndian;
+	int[] pageOffsets;
+
+public TIFFMappedFile(String filename) throws IOException {
+	channel = FileChannel.open(Paths.get(filename), StandardOpenOption.READ);
+	try {
+		long size = channel.size();
+		/* The offsets in a TIFF file are read as signed integers */
+		if (size > Integer.MAX_VALUE) SWT.error(SWT.ERROR_UNSUPPORTED_FORMAT);
+		buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+		if (size < 8) SWT.error(SWT.ERROR_INVALID_IMAGE);
+		int b0 = buffer.get(0), b1 = buffer.get(1), b2 = buffer.get(2), b3 = buffer.get(3);
+		if (b0 != b1) SWT.error(SWT.ERROR_INVALID_IMAGE);
+		if (!(b0 == 0x49 && b2 == 42 && b3 == 0) && !(b0 == 0x4d && b2 == 0 && b3 == 42)) {
+			SWT.error(SWT.ERROR_INVALID_IMAGE);
+		}
+		isLittleEndian = b0 == 0x49;
+		buffer.order(isLittleEndian ? ByteOrder.LITTLE_ENDIAN : ByteOrder.BIG_ENDIAN);
+		readPageOffsets();
+	} catch (IOException | RuntimeException e) {
+		channel.close();
+		throw e;
+	}
+}
+
+/*
+ * Follow the chain of directories, without reading their entries.
+ */
+void readPageOffsets() throws IOException {
+	List<Integer> offsets = new ArrayList<>();
+	Set<Integer> visited = new HashSet<>();
+	int offset = buffer.getInt(4);
+	while (offset != 0) {
+		if (!visited.add(offset)) SWT.error(SWT.ERROR_INVALID_IMAGE);
+		if (offset < 0 || offset > buffer.limit() - 2) throw new EOFException();
+		int numberEntries = buffer.getShort(offset) & 0xFFFF;
+		int next = offset + 2 + numberEntries * TIFFDirectory.IFD_ENTRY_SIZE;
+		if (next > buffer.limit() - 4) throw new EOFException();
+		offsets.add(offset);
+		offset = buffer.getInt(next);
+	}
+	if (offsets.isEmpty()) SWT.error(SWT.ERROR_INVALID_IMAGE);
+	pageOffsets = new int[offsets.size()];
+	for (int i = 0; i < pageOffsets.length; i++) {
+		pageOffsets[i] = offsets.get(i);
+	}
+}
+
+/*
+ * Read the entries of the directory of a page. Every call uses its
+ * own view of the mapping, so that pages can be read concurrently.
+ */
+TIFFDirectory readDirectory(int page) throws IOException {
+	TIFFRandomFileAccess file = new TIFFRandomFileAccess(buffer);
+	file.seek(pageOffsets[page]);
+	TIFFDirectory directory = new TIFFDirectory(file, isLittleEndian, null);
+	directory.readEntries(new int[1]);
+	return directory;
+}
+
+public int getPageCount() {
+	return pageOffsets.length;
+}
+
+public Rectangle getBounds(int page) throws IOException {
+	TIFFDirectory directory = readDirectory(page);
+	return new Rectangle(0, 0, directory.imageWidth, directory.imageLength);
+}
+
+/**
+ * Decode the given rectangle of a page. The rectangle must be
+ * inside the bounds of the page.
+ */
+public ImageData read(int page, int x, int y, int width, int height) throws IOException {
+	TIFFDirectory directory = readDirectory(page);
+	if (x < 0 || y < 0 || width <= 0 || height <= 0 || x + width > directory.imageWidth || y + height > directory.imageLength) {
+		SWT.error(SWT.ERROR_INVALID_ARGUMENT);
+	}
+	return directory.read(x, y, width, height);
+}
+
+@Override
+public void close() throws IOException {
+	channel.close();
+}
+}
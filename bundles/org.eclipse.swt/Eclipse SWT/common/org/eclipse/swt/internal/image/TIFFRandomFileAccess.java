@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2005 IBM Corporation and others.
+ * Copyright (c) 2000, 2026 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -14,12 +14,15 @@
 package org.eclipse.swt.internal.image;
 
 import java.io.*;
+import java.nio.*;
 
 final class TIFFRandomFileAccess {
 
 	LEDataInputStream inputStream;
 	int start, current, next;
 	byte[][] buffers;
+	/* The whole file, when it is memory mapped */
+	ByteBuffer buffer;
 
 	static final int CHUNK_SIZE = 8192;
 	static final int LIST_SIZE = 128;
@@ -30,7 +33,16 @@ public TIFFRandomFileAccess(LEDataInputStream stream) {
 	buffers = new byte[LIST_SIZE][];
 }
 
+public TIFFRandomFileAccess(ByteBuffer buffer) {
+	this.buffer = buffer;
+}
+
 void seek(int pos) throws IOException {
+	if (buffer != null) {
+		if (pos < 0 || pos > buffer.limit()) throw new EOFException();
+		current = pos;
+		return;
+	}
 	if (pos == current) return;
 	if (pos < start) throw new IOException();
 	current = pos;
@@ -57,6 +69,12 @@ void seek(int pos) throws IOException {
 
 void read(byte b[]) throws IOException {
 	int size = b.length;
+	if (buffer != null) {
+		if (size > buffer.limit() - current) throw new EOFException();
+		buffer.get(current, b);
+		current += size;
+		return;
+	}
 	int nCached = Math.min(size, next - current);
 	int nMissing = size - next + current;
 	int destNext = 0;
@@ -96,4 +114,19 @@ void read(byte b[]) throws IOException {
 	current += size;
 }
 
+/*
+ * Read at the given position, which can be done by several threads.
+ */
+void read(int pos, byte b[]) throws IOException {
+	if (buffer != null) {
+		if (pos < 0 || b.length > buffer.limit() - pos) throw new EOFException();
+		buffer.get(pos, b);
+		return;
+	}
+	synchronized (this) {
+		seek(pos);
+		read(b);
+	}
+}
+
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2011 IBM Corporation and others.
+ * Copyright (c) 2000, 2026 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -416,16 +416,14 @@ int decompressRLE8Data(byte[] src, int numBytes, int stride, byte[] dest, int de
 	return 1;
 }
 @Override
-boolean isFileFormat(LEDataInputStream stream) {
-	try {
-		byte[] header = new byte[18];
-		stream.read(header);
-		stream.unread(header);
-		int infoHeaderSize = (header[14] & 0xFF) | ((header[15] & 0xFF) << 8) | ((header[16] & 0xFF) << 16) | ((header[17] & 0xFF) << 24);
-		return header[0] == 0x42 && header[1] == 0x4D && infoHeaderSize >= BMPHeaderFixedSize;
-	} catch (Exception e) {
-		return false;
-	}
+boolean isFileFormat(byte[] header, int length) {
+	if (length < 2) return false;
+	/* The bytes of the info header size past the end of a short stream are zero */
+	int infoHeaderSize = 0;
+	for (int i = Math.min(length, 18) - 1; i >= 14; i--) {
+		infoHeaderSize = (infoHeaderSize << 8) | (header[i] & 0xFF);
+	}
+	return header[0] == 0x42 && header[1] == 0x4D && infoHeaderSize >= BMPHeaderFixedSize;
 }
 boolean isPaletteBMP(PaletteData pal, int depth) {
 	switch(depth) {
@@ -542,6 +540,23 @@ ImageData[] loadFromByteStream() {
 			0)
 	};
 }
+@Override
+ImageInfo probeFromByteStream() {
+	loadFileHeader();
+	byte[] infoHeader = new byte[BMPHeaderFixedSize];
+	try {
+		if (inputStream.read(infoHeader) != infoHeader.length) SWT.error(SWT.ERROR_INVALID_IMAGE);
+	} catch (IOException e) {
+		SWT.error(SWT.ERROR_IO, e);
+	}
+	int width = (infoHeader[4] & 0xFF) | ((infoHeader[5] & 0xFF) << 8) | ((infoHeader[6] & 0xFF) << 16) | ((infoHeader[7] & 0xFF) << 24);
+	int height = (infoHeader[8] & 0xFF) | ((infoHeader[9] & 0xFF) << 8) | ((infoHeader[10] & 0xFF) << 16) | ((infoHeader[11] & 0xFF) << 24);
+	if (height < 0) height = -height;
+	int bitCount = (infoHeader[14] & 0xFF) | ((infoHeader[15] & 0xFF) << 8);
+	int compression = (infoHeader[16] & 0xFF) | ((infoHeader[17] & 0xFF) << 8) | ((infoHeader[18] & 0xFF) << 16) | ((infoHeader[19] & 0xFF) << 24);
+	int type = (compression == 1 /*BMP_RLE8_COMPRESSION*/) || (compression == 2 /*BMP_RLE4_COMPRESSION*/) ? SWT.IMAGE_BMP_RLE : SWT.IMAGE_BMP;
+	return new ImageInfo(type, width, height, bitCount, 1);
+}
 PaletteData loadPalette(byte[] infoHeader) {
 	int depth = (infoHeader[14] & 0xFF) | ((infoHeader[15] & 0xFF) << 8);
 	if (depth <= 8) {
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2012 IBM Corporation and others.
+ * Copyright (c) 2000, 2026 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -54,15 +54,8 @@ int iconSize(ImageData i) {
 	return WinBMPFileFormat.BMPHeaderFixedSize + paletteSize + dataSize;
 }
 @Override
-boolean isFileFormat(LEDataInputStream stream) {
-	try {
-		byte[] header = new byte[4];
-		stream.read(header);
-		stream.unread(header);
-		return header[0] == 0 && header[1] == 0 && header[2] == 1 && header[3] == 0;
-	} catch (Exception e) {
-		return false;
-	}
+boolean isFileFormat(byte[] header, int length) {
+	return length >= 4 && header[0] == 0 && header[1] == 0 && header[2] == 1 && header[3] == 0;
 }
 boolean isValidIcon(ImageData i) {
 	switch (i.depth) {
@@ -125,13 +118,42 @@ ImageData[] loadFromByteStream() {
 	}
 	return icons;
 }
+/**
+ * Answer the size and depth of the first icon, which are read
+ * from its own header rather than from the directory entry,
+ * since the entry cannot describe icons larger than 255 pixels.
+ */
+@Override
+ImageInfo probeFromByteStream() {
+	int numIcons = loadFileHeader(inputStream);
+	int[][] headers = loadIconHeaders(numIcons);
+	int[] iconHeader = headers[0];
+	if (inputStream.getPosition() < iconHeader[6]) {
+		try {
+			inputStream.skip(iconHeader[6] - inputStream.getPosition());
+		} catch (IOException e) {
+			SWT.error(SWT.ERROR_IO, e);
+		}
+	}
+	FileFormat png = new PNGFileFormat();
+	if (png.isFileFormat(inputStream)) {
+		png.inputStream = inputStream;
+		ImageInfo info = png.probeFromByteStream();
+		return new ImageInfo(SWT.IMAGE_ICO, info.width, info.height, info.depth, numIcons);
+	}
+	byte[] infoHeader = loadInfoHeader(iconHeader);
+	int width = (infoHeader[4] & 0xFF) | ((infoHeader[5] & 0xFF) << 8) | ((infoHeader[6] & 0xFF) << 16) | ((infoHeader[7] & 0xFF) << 24);
+	int height = (infoHeader[8] & 0xFF) | ((infoHeader[9] & 0xFF) << 8) | ((infoHeader[10] & 0xFF) << 16) | ((infoHeader[11] & 0xFF) << 24);
+	int depth = (infoHeader[14] & 0xFF) | ((infoHeader[15] & 0xFF) << 8);
+	return new ImageInfo(SWT.IMAGE_ICO, width, height, depth, numIcons);
+}
 /**
  * Load one icon from the byte stream.
  */
 ImageData loadIcon(int[] iconHeader) {
 	try {
-		FileFormat png = getFileFormat(inputStream, "PNG");
-		if (png != null) {
+		FileFormat png = new PNGFileFormat();
+		if (png.isFileFormat(inputStream)) {
 			png.loader = this.loader;
 			return png.loadFromStream(inputStream)[0];
 		}
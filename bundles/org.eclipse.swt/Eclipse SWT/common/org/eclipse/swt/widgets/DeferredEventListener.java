@@ -0,0 +1,42 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Eclipse Foundation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Eclipse Foundation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.swt.widgets;
+
+
+/**
+ * Implementers of <code>DeferredEventListener</code> are notified
+ * by a <code>Display</code> each time it has run the events that were
+ * deferred until the event loop, such as the events posted by widgets
+ * while the display was busy.
+ * <p>
+ * The listener is notified in the user-interface thread, after the
+ * events. It should return quickly, and should not read and dispatch
+ * events of the display.
+ * </p>
+ *
+ * @see Display#addDeferredEventListener(DeferredEventListener)
+ * @since 3.127
+ */
+@FunctionalInterface
+public interface DeferredEventListener {
+
+/**
+ * Sent when the display has run its deferred events.
+ *
+ * @param count the number of events that were taken from the queue, including those of disposed widgets
+ * @param runTime the time it took to run the events, in nanoseconds
+ * @param maxSize the largest number of events that were queued since the previous notification
+ */
+void eventsRun (int count, long runTime, int maxSize);
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2011 IBM Corporation and others.
+ * Copyright (c) 2000, 2026 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -14,6 +14,8 @@
 package org.eclipse.swt.widgets;
 
 
+import java.util.concurrent.locks.*;
+
 /**
  * Instances of this class are used to ensure that an
  * application cannot interfere with the locking mechanism
@@ -25,13 +27,35 @@ class RunnableLock {
 	Runnable runnable;
 	Thread thread;
 	Throwable throwable;
+	final long time = System.nanoTime ();
+	volatile boolean completed;
 
 RunnableLock (Runnable runnable) {
 	this.runnable = runnable;
 }
 
-boolean done () {
-	return runnable == null || throwable != null;
+/*
+* Mark the lock as completed, whether it was run or not, and
+* unpark the thread that waits for it.
+*/
+void complete () {
+	completed = true;
+	Thread thread = this.thread;
+	if (thread != null) LockSupport.unpark (thread);
+}
+
+/*
+* Park the calling thread until the lock is completed. Parking does
+* not hold a monitor, so a virtual thread does not pin its carrier.
+* The interrupted state of the thread is restored when it returns.
+*/
+void await () {
+	boolean interrupted = false;
+	while (!completed) {
+		LockSupport.park (this);
+		if (Thread.interrupted ()) interrupted = true;
+	}
+	if (interrupted) Thread.currentThread ().interrupt ();
 }
 
 void run (Display display) {
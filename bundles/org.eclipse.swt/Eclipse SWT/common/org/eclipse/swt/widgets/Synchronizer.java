@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2014 IBM Corporation and others.
+ * Copyright (c) 2000, 2026 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -15,6 +15,7 @@ package org.eclipse.swt.widgets;
 
 import java.util.*;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
 
 import org.eclipse.swt.*;
 import org.eclipse.swt.graphics.*;
@@ -38,12 +39,82 @@ import org.eclipse.swt.graphics.*;
  * @see <a href="http://www.eclipse.org/swt/">Sample code and further information</a>
  */
 public class Synchronizer {
-	Display display;
+	volatile Display display;
 	final ConcurrentLinkedQueue<RunnableLock>  messages= new ConcurrentLinkedQueue<>();
-	Thread syncThread;
+	volatile Thread syncThread;
 	static final int GROW_SIZE = 4;
 	static final int MESSAGE_LIMIT = 64;
 
+	/* Set when the receiver is released, or replaced by the synchronizer that runs its messages */
+	volatile boolean released;
+	volatile Synchronizer successor;
+
+	/* The limits of the batches of messages that are run at once */
+	static final String BATCH_TIME_PROPERTY = "org.eclipse.swt.widgets.Synchronizer.batchTime"; //$NON-NLS-1$
+	static final String BATCH_COUNT_PROPERTY = "org.eclipse.swt.widgets.Synchronizer.batchCount"; //$NON-NLS-1$
+	volatile int batchTime = Math.max (0, Integer.getInteger (BATCH_TIME_PROPERTY, 0));
+	volatile int batchCount = Math.max (1, Integer.getInteger (BATCH_COUNT_PROPERTY, batchTime == 0 ? 1 : Integer.MAX_VALUE));
+	final java.util.List<SynchronizerBatchListener> batchListeners = new CopyOnWriteArrayList<> ();
+
+	/* The queued runnables of the keys of asyncExecCoalesced */
+	final ConcurrentHashMap<Object, CoalescedRunnable> coalesced = new ConcurrentHashMap<> ();
+
+	/*
+	* Runs the latest runnable that was submitted for a key while it was
+	* queued. A runnable that is submitted after it was taken to be run
+	* is queued again.
+	*/
+	final class CoalescedRunnable implements Runnable {
+		final Object key;
+		final AtomicReference<Runnable> latest;
+
+		CoalescedRunnable (Object key, Runnable runnable) {
+			this.key = key;
+			latest = new AtomicReference<> (runnable);
+		}
+
+		boolean replace (Runnable runnable) {
+			Runnable current;
+			do {
+				current = latest.get ();
+				if (current == null) return false;
+			} while (!latest.compareAndSet (current, runnable));
+			return true;
+		}
+
+		@Override
+		public void run () {
+			Runnable runnable = latest.getAndSet (null);
+			coalesced.remove (key, this);
+			if (runnable != null) runnable.run ();
+		}
+	}
+
+	/*
+	* Runs the callable of Display.submit() and completes the future
+	* with its result, unless the future was completed before. The
+	* future of a callable that is released without being run is
+	* completed exceptionally.
+	*/
+	static final class SubmittedCallable<T> implements Runnable {
+		final Callable<T> callable;
+		final CompletableFuture<T> future = new CompletableFuture<> ();
+
+		SubmittedCallable (Callable<T> callable) {
+			this.callable = callable;
+		}
+
+		@Override
+		public void run () {
+			if (future.isDone ()) return;
+			try {
+				future.complete (callable.call ());
+			} catch (Throwable t) {
+				future.completeExceptionally (t);
+			}
+		}
+	}
+
 	//TEMPORARY CODE
 	static final boolean IS_COCOA = "cocoa".equals (SWT.getPlatform ());
 	static final boolean IS_GTK = "gtk".equals (SWT.getPlatform ());
@@ -57,6 +128,106 @@ public Synchronizer (Display display) {
 	this.display = display;
 }
 
+/**
+ * Adds the listener to the collection of listeners who will be
+ * notified each time the receiver has run a batch of runnables.
+ *
+ * @param listener the listener which should be notified
+ *
+ * @exception IllegalArgumentException <ul>
+ *    <li>ERROR_NULL_ARGUMENT - if the listener is null</li>
+ * </ul>
+ *
+ * @see SynchronizerBatchListener
+ * @see #removeBatchListener(SynchronizerBatchListener)
+ * @since 3.127
+ */
+public void addBatchListener (SynchronizerBatchListener listener) {
+	if (listener == null) SWT.error (SWT.ERROR_NULL_ARGUMENT);
+	batchListeners.add (listener);
+}
+
+/**
+ * Removes the listener from the collection of listeners who will be
+ * notified each time the receiver has run a batch of runnables.
+ *
+ * @param listener the listener which should no longer be notified
+ *
+ * @exception IllegalArgumentException <ul>
+ *    <li>ERROR_NULL_ARGUMENT - if the listener is null</li>
+ * </ul>
+ *
+ * @see SynchronizerBatchListener
+ * @see #addBatchListener(SynchronizerBatchListener)
+ * @since 3.127
+ */
+public void removeBatchListener (SynchronizerBatchListener listener) {
+	if (listener == null) SWT.error (SWT.ERROR_NULL_ARGUMENT);
+	batchListeners.remove (listener);
+}
+
+/**
+ * Returns the time budget of a batch of runnables, in milliseconds,
+ * or 0 when the batches are only limited by their count.
+ *
+ * @return the time budget of a batch
+ *
+ * @see #setBatchLimits(int, int)
+ * @since 3.127
+ */
+public int getBatchTime () {
+	return batchTime;
+}
+
+/**
+ * Returns the largest number of runnables of a batch.
+ *
+ * @return the largest count of a batch
+ *
+ * @see #setBatchLimits(int, int)
+ * @since 3.127
+ */
+public int getBatchCount () {
+	return batchCount;
+}
+
+/**
+ * Sets the limits of the batches of runnables that the receiver runs
+ * each time the display runs its queued runnables, such as once per
+ * call of <code>Display.readAndDispatch()</code>.
+ * <p>
+ * A batch runs the queued runnables one after the other, until the
+ * queue is empty, the given number of runnables has run, or the
+ * runnables have run for the given number of milliseconds. The
+ * display then handles its pending input before it runs the next
+ * batch, so that a large number of runnables is run much faster than
+ * one at a time, while the user interface stays responsive.
+ * </p>
+ * <p>
+ * By default a batch runs a single runnable. The defaults can be
+ * changed with the system properties
+ * <code>org.eclipse.swt.widgets.Synchronizer.batchTime</code>, in
+ * milliseconds, and <code>org.eclipse.swt.widgets.Synchronizer.batchCount</code>,
+ * which is unlimited when only a time is given. A time budget of about
+ * 8 milliseconds with an unlimited count suits most applications.
+ * </p>
+ *
+ * @param milliseconds the time budget of a batch, or 0 for no time limit
+ * @param count the largest number of runnables of a batch, at least 1
+ *
+ * @exception IllegalArgumentException <ul>
+ *    <li>ERROR_INVALID_ARGUMENT - if milliseconds is negative or count is less than 1</li>
+ * </ul>
+ *
+ * @see #addBatchListener(SynchronizerBatchListener)
+ * @since 3.127
+ */
+public void setBatchLimits (int milliseconds, int count) {
+	if (milliseconds < 0 || count < 1) SWT.error (SWT.ERROR_INVALID_ARGUMENT);
+	batchTime = milliseconds;
+	batchCount = count;
+}
+
 /**
  * Removes all pending events from the receiver and inserts them into the beginning of the given
  * synchronizer's queue
@@ -64,6 +235,12 @@ public Synchronizer (Display display) {
  * @param toReceiveTheEvents the synchronizer that will receive the events
  */
 void moveAllEventsTo (Synchronizer toReceiveTheEvents) {
+	/*
+	* Pass the messages that are added from now on to the new
+	* synchronizer, which may be the receiver's predecessor.
+	*/
+	toReceiveTheEvents.successor = null;
+	successor = toReceiveTheEvents;
 	// Drain target queue and add it later again to insert at the beginning of the
 	// queue for backward compatibility:
 	java.util.List<RunnableLock> tail = new ArrayList<>();
@@ -73,10 +250,25 @@ void moveAllEventsTo (Synchronizer toReceiveTheEvents) {
 }
 
 
-void addLast (RunnableLock lock) {
+/*
+* Queue the lock and wake the display, and return whether it was
+* queued. A lock that is added while the receiver is released or
+* replaced is taken back, unless the release or the move took it
+* first, and is passed to the synchronizer that replaced the receiver.
+*/
+boolean addLast (RunnableLock lock) {
+	Synchronizer successor = this.successor;
+	if (successor != null) return successor.addLast (lock);
+	if (released) return false;
 	boolean wake = messages.isEmpty();
 	messages.add(lock);
-	if (wake) display.wakeThread ();
+	if ((released || this.successor != null) && messages.remove (lock)) {
+		successor = this.successor;
+		return successor != null && successor.addLast (lock);
+	}
+	Display display = this.display;
+	if (wake && display != null) display.wakeThread ();
+	return true;
 }
 
 /**
@@ -88,17 +280,76 @@ void addLast (RunnableLock lock) {
  *
  * @param runnable code to run on the user-interface thread.
  *
+ * @exception SWTException <ul>
+ *    <li>ERROR_DEVICE_DISPOSED - if the display has been disposed</li>
+ * </ul>
+ *
  * @see #syncExec
  */
 protected void asyncExec (Runnable runnable) {
 	if (runnable == null) {
 		//TEMPORARY CODE
 		if (!(IS_GTK || IS_COCOA)) {
+			Display display = this.display;
+			if (display == null) SWT.error (SWT.ERROR_DEVICE_DISPOSED);
 			display.wake ();
 			return;
 		}
 	}
-	addLast (new RunnableLock (runnable));
+	if (!addLast (new RunnableLock (runnable))) SWT.error (SWT.ERROR_DEVICE_DISPOSED);
+}
+
+/**
+ * Causes the <code>run()</code> method of the runnable to
+ * be invoked by the user-interface thread at the next
+ * reasonable opportunity, unless a runnable submitted for an
+ * equal key is still queued, in which case the runnable replaces
+ * it in its place in the queue. The caller of this method
+ * continues to run in parallel, and is not notified when the
+ * runnable has completed.
+ * <p>
+ * The queue holds at most one runnable per key, so that only
+ * the latest of the runnables that are submitted for a key faster
+ * than the user-interface thread runs them is run. Replacing a
+ * queued runnable does not block.
+ * </p>
+ *
+ * @param key the key of the runnable, compared with <code>equals()</code>
+ * @param runnable code to run on the user-interface thread
+ *
+ * @exception IllegalArgumentException <ul>
+ *    <li>ERROR_NULL_ARGUMENT - if the key or the runnable is null</li>
+ * </ul>
+ * @exception SWTException <ul>
+ *    <li>ERROR_DEVICE_DISPOSED - if the display has been disposed</li>
+ * </ul>
+ *
+ * @see #asyncExec
+ * @since 3.127
+ */
+protected void asyncExecCoalesced (Object key, Runnable runnable) {
+	if (key == null || runnable == null) SWT.error (SWT.ERROR_NULL_ARGUMENT);
+	CoalescedRunnable pending = coalesced.get (key);
+	while (pending == null || !pending.replace (runnable)) {
+		CoalescedRunnable next = new CoalescedRunnable (key, runnable);
+		if (pending == null ? coalesced.putIfAbsent (key, next) == null : coalesced.replace (key, pending, next)) {
+			if (!addLast (new RunnableLock (next))) {
+				coalesced.remove (key, next);
+				SWT.error (SWT.ERROR_DEVICE_DISPOSED);
+			}
+			return;
+		}
+		pending = coalesced.get (key);
+	}
+}
+
+/*
+* Replace the queued runnable of the key without blocking, and
+* return whether there was one.
+*/
+boolean replaceCoalesced (Object key, Runnable runnable) {
+	CoalescedRunnable pending = coalesced.get (key);
+	return pending != null && pending.replace (runnable);
 }
 
 boolean isMessagesEmpty() {
@@ -106,8 +357,19 @@ boolean isMessagesEmpty() {
 }
 
 void releaseSynchronizer () {
+	released = true;
 	display = null;
-	messages.clear();
+	/*
+	* Wake the threads that wait for the messages that will not be run.
+	*/
+	RunnableLock lock;
+	while ((lock = messages.poll ()) != null) {
+		if (lock.runnable instanceof SubmittedCallable<?> submitted) {
+			submitted.future.completeExceptionally (new SWTException (SWT.ERROR_DEVICE_DISPOSED));
+		}
+		lock.complete ();
+	}
+	coalesced.clear();
 	syncThread = null;
 }
 
@@ -122,61 +384,88 @@ boolean runAsyncMessages () {
 boolean runAsyncMessages (boolean all) {
 	boolean run = false;
 	do {
-		RunnableLock lock = removeFirst ();
-		if (lock == null) return run;
+		if (runBatch () == 0) return run;
 		run = true;
-		synchronized (lock) {
-			syncThread = lock.thread;
-			display.sendPreEvent(SWT.None);
-			try {
-				lock.run (display);
-			} catch (Throwable t) {
-				lock.throwable = t;
-				SWT.error (SWT.ERROR_FAILED_EXEC, t);
-			} finally {
-				if (display != null && !display.isDisposed()) {
-					display.sendPostEvent(SWT.None);
-				}
-				syncThread = null;
-				lock.notifyAll ();
-			}
-		}
 	} while (all);
 	return run;
 }
 
+/*
+* Run the queued messages until the queue is empty or a limit of
+* the batch is reached, and return the number of messages that ran.
+* The pre and post events are sent once for the whole batch.
+*/
+int runBatch () {
+	RunnableLock lock = removeFirst ();
+	if (lock == null) return 0;
+	int maxCount = batchCount;
+	long budget = batchTime * 1_000_000L;
+	boolean notify = !batchListeners.isEmpty ();
+	long startTime = budget != 0 || notify ? System.nanoTime () : 0;
+	long latency = 0;
+	int count = 0;
+	display.sendPreEvent (SWT.None);
+	try {
+		while (true) {
+			count++;
+			if (notify) latency = Math.max (latency, System.nanoTime () - lock.time);
+			run (lock);
+			if (count >= maxCount || display == null) break;
+			if (budget != 0 && System.nanoTime () - startTime >= budget) break;
+			lock = removeFirst ();
+			if (lock == null) break;
+		}
+	} finally {
+		if (display != null && !display.isDisposed ()) {
+			display.sendPostEvent (SWT.None);
+		}
+	}
+	if (notify) {
+		long runTime = System.nanoTime () - startTime;
+		for (SynchronizerBatchListener listener : batchListeners) {
+			listener.batchRun (count, runTime, latency);
+		}
+	}
+	return count;
+}
+
+void run (RunnableLock lock) {
+	syncThread = lock.thread;
+	try {
+		lock.run (display);
+	} catch (Throwable t) {
+		lock.throwable = t;
+		SWT.error (SWT.ERROR_FAILED_EXEC, t);
+	} finally {
+		syncThread = null;
+		lock.complete ();
+	}
+}
+
 /**
  * Causes the <code>run()</code> method of the runnable to
  * be invoked by the user-interface thread at the next
  * reasonable opportunity. The thread which calls this method
  * is suspended until the runnable completes.
+ * <p>
+ * The calling thread is parked without holding a monitor, so
+ * that many threads, including virtual threads, can wait for
+ * their runnables at the same time.
+ * </p>
  *
  * @param runnable code to run on the user-interface thread.
  *
  * @exception SWTException <ul>
  *    <li>ERROR_FAILED_EXEC - if an exception occurred when executing the runnable</li>
+ *    <li>ERROR_DEVICE_DISPOSED - if the display has been disposed before the runnable was run</li>
  * </ul>
  *
  * @see #asyncExec
  */
 protected void syncExec (Runnable runnable) {
-	RunnableLock lock = null;
-	synchronized (Device.class) {
-		if (display == null || display.isDisposed ()) SWT.error (SWT.ERROR_DEVICE_DISPOSED);
-		if (!display.isValidThread ()) {
-			if (runnable == null) {
-				display.wake ();
-				return;
-			}
-			lock = new RunnableLock (runnable);
-			/*
-			 * Only remember the syncThread for syncExec.
-			 */
-			lock.thread = Thread.currentThread();
-			addLast (lock);
-		}
-	}
-	if (lock == null) {
+	Display display = this.display;
+	if (display == null || display.isDisposed ()) SWT.error (SWT.ERROR_DEVICE_DISPOSED);
+	if (display.isValidThread ()) {
 		if (runnable != null) {
 			display.sendPreEvent(SWT.None);
 			try {
@@ -193,22 +482,24 @@ protected void syncExec (Runnable runnable) {
 		}
 		return;
 	}
-	synchronized (lock) {
-		boolean interrupted = false;
-		while (!lock.done ()) {
-			try {
-				lock.wait ();
-			} catch (InterruptedException e) {
-				interrupted = true;
-			}
-		}
-		if (interrupted) {
-			Thread.currentThread().interrupt();
-		}
-		if (lock.throwable != null) {
-			SWT.error (SWT.ERROR_FAILED_EXEC, lock.throwable);
-		}
+	if (runnable == null) {
+		display.wake ();
+		return;
+	}
+	RunnableLock lock = new RunnableLock (runnable);
+	/*
+	 * Only remember the syncThread for syncExec.
+	 */
+	lock.thread = Thread.currentThread();
+	if (!addLast (lock)) SWT.error (SWT.ERROR_DEVICE_DISPOSED);
+	lock.await ();
+	if (lock.throwable != null) {
+		SWT.error (SWT.ERROR_FAILED_EXEC, lock.throwable);
 	}
+	/*
+	* The lock was completed without being run when the display was disposed.
+	*/
+	if (lock.runnable != null) SWT.error (SWT.ERROR_DEVICE_DISPOSED);
 }
 
 }
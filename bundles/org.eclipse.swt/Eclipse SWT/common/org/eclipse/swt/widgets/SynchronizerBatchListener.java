@@ -0,0 +1,42 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Eclipse Foundation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Eclipse Foundation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.swt.widgets;
+
+
+/**
+ * Implementers of <code>SynchronizerBatchListener</code> are notified
+ * by a <code>Synchronizer</code> each time it has run a batch of the
+ * runnables queued with <code>asyncExec</code> and <code>syncExec</code>.
+ * <p>
+ * The listener is notified in the user-interface thread, after the
+ * runnables of the batch. It should return quickly, and should not run
+ * runnables of the synchronizer.
+ * </p>
+ *
+ * @see Synchronizer#addBatchListener(SynchronizerBatchListener)
+ * @see Synchronizer#setBatchLimits(int, int)
+ * @since 3.127
+ */
+@FunctionalInterface
+public interface SynchronizerBatchListener {
+
+/**
+ * Sent when the synchronizer has run a batch of runnables.
+ *
+ * @param count the number of runnables of the batch
+ * @param runTime the time it took to run the batch, in nanoseconds
+ * @param latency the longest time a runnable of the batch was queued before it was run, in nanoseconds
+ */
+void batchRun (int count, long runTime, long latency);
+}
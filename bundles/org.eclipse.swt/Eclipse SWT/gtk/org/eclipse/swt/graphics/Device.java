@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2018 IBM Corporation and others.
+ * Copyright (c) 2000, 2026 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -100,6 +100,9 @@ public abstract class Device implements Drawable {
 
 	long emptyTab;
 
+	/* Layouts shared by the GCs of the device */
+	PangoLayoutCache layoutCache;
+
 	/*
 	* TEMPORARY CODE. When a graphics object is
 	* created and the device parameter is null,
@@ -894,7 +897,9 @@ public boolean loadFont (String path) {
 	checkDevice();
 	if (path == null) SWT.error (SWT.ERROR_NULL_ARGUMENT);
 	byte [] buffer = Converter.wcsToMbcs (path, true);
-	return OS.FcConfigAppFontAddFile (0, buffer);
+	boolean loaded = OS.FcConfigAppFontAddFile (0, buffer);
+	if (loaded) FontSettings.changed ();
+	return loaded;
 }
 
 long logProc (long log_domain, long log_level, long message, long user_data) {
@@ -910,6 +915,11 @@ long logProc (long log_domain, long log_level, long message, long user_data) {
 	return 0;
 }
 
+PangoLayoutCache getLayoutCache () {
+	if (layoutCache == null) layoutCache = new PangoLayoutCache (this);
+	return layoutCache;
+}
+
 void new_Object (Object object) {
 	synchronized (trackingLock) {
 		for (int i=0; i<objects.length; i++) {
@@ -984,6 +994,9 @@ protected void release () {
 	COLOR_DARK_MAGENTA = COLOR_DARK_CYAN = COLOR_GRAY = COLOR_DARK_GRAY = COLOR_RED =
 	COLOR_GREEN = COLOR_YELLOW = COLOR_BLUE = COLOR_MAGENTA = COLOR_CYAN = COLOR_WHITE = null;
 
+	if (layoutCache != null) layoutCache.clear();
+	layoutCache = null;
+
 	if (emptyTab != 0) OS.pango_tab_array_free(emptyTab);
 	emptyTab = 0;
 
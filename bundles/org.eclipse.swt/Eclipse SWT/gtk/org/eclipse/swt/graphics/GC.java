@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2022 IBM Corporation and others.
+ * Copyright (c) 2000, 2026 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -633,7 +633,7 @@ void copyAreaInPixels(int srcX, int srcY, int width, int height, int destX, int
 	}
 }
 
-void createLayout() {
+static long createContext(boolean mirrored) {
 	long context;
 	if (GTK.GTK4) {
 		long fontMap = OS.pango_cairo_font_map_get_default ();
@@ -642,17 +642,23 @@ void createLayout() {
 		context = GDK.gdk_pango_context_get();
 	}
 	if (context == 0) SWT.error(SWT.ERROR_NO_HANDLES);
+	OS.pango_context_set_language(context, GTK.gtk_get_default_language());
+	OS.pango_context_set_base_dir(context, mirrored ? OS.PANGO_DIRECTION_RTL : OS.PANGO_DIRECTION_LTR);
+	return context;
+}
+
+void createLayout() {
+	long context = createContext((data.style & SWT.MIRRORED) != 0);
 	data.context = context;
 	long layout = OS.pango_layout_new(context);
 	if (layout == 0) SWT.error(SWT.ERROR_NO_HANDLES);
 	data.layout = layout;
-	OS.pango_context_set_language(context, GTK.gtk_get_default_language());
-	OS.pango_context_set_base_dir(context, (data.style & SWT.MIRRORED) != 0 ? OS.PANGO_DIRECTION_RTL : OS.PANGO_DIRECTION_LTR);
 	OS.pango_layout_set_auto_dir(layout, false);
 }
 
 void disposeLayout() {
 	data.string = null;
+	releaseStringLayout();
 	if (data.context != 0) OS.g_object_unref(data.context);
 	if (data.layout != 0) OS.g_object_unref(data.layout);
 	data.layout = data.context = 0;
@@ -1466,7 +1472,7 @@ void drawTextInPixels (String string, int x, int y, int flags) {
 		Cairo.cairo_translate(cairo, -2 * x - data.stringWidth, 0);
 	}
 	Cairo.cairo_move_to(cairo, x, y);
-	OS.pango_cairo_show_layout(cairo, data.layout);
+	OS.pango_cairo_show_layout(cairo, data.stringLayout != 0 ? data.stringLayout : data.layout);
 	if ((data.style & SWT.MIRRORED) != 0) {
 		Cairo.cairo_restore(cairo);
 	}
@@ -1889,7 +1895,7 @@ void fillRoundRectangleInPixels(int x, int y, int width, int height, int arcWidt
 	Cairo.cairo_fill(cairo);
 }
 
-int fixMnemonic (char [] buffer) {
+static int fixMnemonic (char [] buffer) {
 	int i=0, j=0;
 	int mnemonic=-1;
 	while (i < buffer.length) {
@@ -2684,7 +2690,7 @@ void initCairo() {
 
 void computeStringSize() {
 	int[] width = new int[1], height = new int[1];
-	OS.pango_layout_get_pixel_size(data.layout, width, height);
+	OS.pango_layout_get_pixel_size(data.stringLayout != 0 ? data.stringLayout : data.layout, width, height);
 	data.stringHeight = height[0];
 	data.stringWidth = width[0];
 }
@@ -3253,6 +3259,11 @@ public void setFont(Font font) {
 	data.font = font != null ? font : data.device.systemFont;
 	data.state &= ~FONT;
 	data.stringWidth = data.stringHeight = -1;
+	if (data.stringLayout != 0) {
+		/* The shared layout of the string was shaped with the previous font */
+		releaseStringLayout();
+		data.string = null;
+	}
 }
 
 /**
@@ -3673,17 +3684,56 @@ void setLineWidthInPixels(int lineWidth) {
 	data.state &= ~(LINE_WIDTH | DRAW_OFFSET);
 }
 
+void releaseStringLayout() {
+	if (data.stringLayout != 0) OS.g_object_unref(data.stringLayout);
+	data.stringLayout = 0;
+}
+
 void setString(String string, int flags) {
 	if (data.layout == 0) createLayout();
 	if (string == data.string && (flags & ~SWT.DRAW_TRANSPARENT) == (data.drawFlags  & ~SWT.DRAW_TRANSPARENT)) {
 		return;
 	}
+	releaseStringLayout();
+	/*
+	* Strings are drawn and measured with the layouts the GCs of the
+	* device share, unless the font options of the context of the GC
+	* were changed, as the shared layouts are shaped with other contexts.
+	*/
+	PangoLayoutCache.Entry entry = null;
+	if (!data.textOptions) {
+		entry = data.device.getLayoutCache().get(string, data.font, flags, (data.style & SWT.MIRRORED) != 0);
+	}
+	if (entry != null) {
+		data.stringLayout = OS.g_object_ref(entry.layout);
+		data.stringWidth = entry.width;
+		data.stringHeight = entry.height;
+	} else {
+		setLayoutString(data.layout, string, flags, data.device);
+		data.stringWidth = data.stringHeight = -1;
+	}
+	data.string = string;
+	data.drawFlags = flags;
+}
+
+static void setLayoutString(long layout, String string, int flags, Device device) {
+	if ((flags & SWT.DRAW_MNEMONIC) == 0 || string.indexOf('&') == -1) {
+		Converter.MbcsBuffer buffer = Converter.wcsToMbcsBuffer(string);
+		OS.pango_layout_set_attributes(layout, 0);
+		OS.pango_layout_set_text(layout, buffer.bytes, buffer.length);
+	} else {
+		setMnemonicLayoutString(layout, string);
+	}
+	OS.pango_layout_set_single_paragraph_mode(layout, (flags & SWT.DRAW_DELIMITER) == 0);
+	OS.pango_layout_set_tabs(layout, (flags & SWT.DRAW_TAB) != 0 ? 0 : device.emptyTab);
+}
+
+static void setMnemonicLayoutString(long layout, String string) {
 	byte[] buffer;
 	int mnemonic, length = string.length ();
-	long layout = data.layout;
 	char[] text = new char[length];
 	string.getChars(0, length, text, 0);
-	if ((flags & SWT.DRAW_MNEMONIC) != 0 && (mnemonic = fixMnemonic(text)) != -1) {
+	if ((mnemonic = fixMnemonic(text)) != -1) {
 		char[] text1 = new char[mnemonic - 1];
 		System.arraycopy(text, 0, text1, 0, text1.length);
 		byte[] buffer1 = Converter.wcsToMbcs(text1, false);
@@ -3708,11 +3758,6 @@ void setString(String string, int flags) {
 		OS.pango_layout_set_attributes(layout, 0);
 	}
 	OS.pango_layout_set_text(layout, buffer, buffer.length);
-	OS.pango_layout_set_single_paragraph_mode(layout, (flags & SWT.DRAW_DELIMITER) == 0);
-	OS.pango_layout_set_tabs(layout, (flags & SWT.DRAW_TAB) != 0 ? 0 : data.device.emptyTab);
-	data.string = string;
-	data.stringWidth = data.stringHeight = -1;
-	data.drawFlags = flags;
 }
 
 /**
@@ -3761,6 +3806,11 @@ public void setTextAntialias(int antialias) {
 	if (data.context == 0) createLayout();
 	OS.pango_cairo_context_set_font_options(data.context, options);
 	Cairo.cairo_font_options_destroy(options);
+	data.textOptions = true;
+	if (data.stringLayout != 0) {
+		releaseStringLayout();
+		data.string = null;
+	}
 }
 
 /**
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2011 IBM Corporation and others.
+ * Copyright (c) 2000, 2026 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -67,6 +67,8 @@ public final class GCData {
 	public boolean disposeCairo;
 	public double[] identity, clippingTransform;
 	public String string;
+	public long stringLayout;
+	public boolean textOptions;
 	public int stringWidth = -1;
 	public int stringHeight = -1;
 	public int drawFlags;
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2022 IBM Corporation and others.
+ * Copyright (c) 2000, 2026 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -141,6 +141,11 @@ public final class Image extends Resource implements Drawable {
 	 */
 	static final int DEFAULT_SCANLINE_PAD = 4;
 
+	/**
+	 * The number of bytes of a surface converted from image data at a time.
+	 */
+	static final int UPLOAD_BAND_SIZE = 256 * 1024;
+
 	/**
 	 * ImageFileNameProvider to provide file names at various Zoom levels
 	 */
@@ -523,10 +528,24 @@ public Image(Device device, ImageData source, ImageData mask) {
  */
 public Image(Device device, InputStream stream) {
 	super(device);
-	ImageData data = new ImageData(stream);
+	if (stream == null) SWT.error(SWT.ERROR_NULL_ARGUMENT);
 	currentDeviceZoom = DPIUtil.getDeviceZoom();
-	data = DPIUtil.autoScaleUp (device, data);
-	init(data);
+	/*
+	* The stream is decoded into a GdkPixbuf as it is read, and the pixbuf
+	* is converted straight to the cairo surface. ImageData is only created
+	* when the image has to be scaled to the device zoom.
+	*/
+	long pixbuf = ImageLoader.loadPixbuf(stream);
+	try {
+		if (currentDeviceZoom != 100 && (device == null || device.isAutoScalable())) {
+			ImageData data = ImageLoader.pixbufToImageData(pixbuf);
+			init(DPIUtil.autoScaleUp (device, data));
+		} else {
+			createFromPixbuf(SWT.BITMAP, pixbuf);
+		}
+	} finally {
+		OS.g_object_unref(pixbuf);
+	}
 	init();
 }
 
@@ -765,6 +784,7 @@ void createFromPixbuf(int type, long pixbuf) {
 	this.height = (int) Math.round(pixbufHeight / scaleFactor);
 
 	int stride = GDK.gdk_pixbuf_get_rowstride(pixbuf);
+	int n_channels = GDK.gdk_pixbuf_get_n_channels(pixbuf);
 	long pixels = GDK.gdk_pixbuf_get_pixels(pixbuf);
 	boolean hasAlpha = GDK.gdk_pixbuf_get_has_alpha(pixbuf);
 	int format = hasAlpha ? Cairo.CAIRO_FORMAT_ARGB32 : Cairo.CAIRO_FORMAT_RGB24;
@@ -782,10 +802,15 @@ void createFromPixbuf(int type, long pixbuf) {
 	} else {
 		oa = 3; or = 2; og = 1; ob = 0;
 	}
-	byte[] line = new byte[stride];
+	/*
+	* The last row of the pixbuf may not be as wide as the rowstride,
+	* so only the pixels of each row are copied.
+	*/
+	int rowBytes = pixbufWidth * n_channels;
+	byte[] line = new byte[rowBytes];
 	if (hasAlpha) {
 		for (int y = 0; y < pixbufHeight; y++) {
-			C.memmove(line, pixels + (y * stride), stride);
+			C.memmove(line, pixels + ((long) y * stride), rowBytes);
 			for (int x = 0, offset = 0; x < pixbufWidth; x++, offset += 4) {
 				int a = line[offset + 3] & 0xFF;
 				int r = ((line[offset + 0] & 0xFF) * a) + 128;
@@ -799,13 +824,13 @@ void createFromPixbuf(int type, long pixbuf) {
 				line[offset + og] = (byte)g;
 				line[offset + ob] = (byte)b;
 			}
-			C.memmove(data + (y * stride), line, stride);
+			C.memmove(data + ((long) y * cairoStride), line, rowBytes);
 		}
 	} else {
-		byte[] cairoLine = new byte[cairoStride];
+		byte[] cairoLine = new byte[pixbufWidth * 4];
 		for (int y = 0; y < pixbufHeight; y++) {
-			C.memmove(line, pixels + (y * stride), stride);
-			for (int x = 0, offset = 0, cairoOffset = 0; x < pixbufWidth; x++, offset += 3, cairoOffset += 4) {
+			C.memmove(line, pixels + ((long) y * stride), rowBytes);
+			for (int x = 0, offset = 0, cairoOffset = 0; x < pixbufWidth; x++, offset += n_channels, cairoOffset += 4) {
 				int r = line[offset + 0] & 0xFF;
 				int g = line[offset + 1] & 0xFF;
 				int b = line[offset + 2] & 0xFF;
@@ -813,7 +838,7 @@ void createFromPixbuf(int type, long pixbuf) {
 				cairoLine[cairoOffset + og] = (byte)g;
 				cairoLine[cairoOffset + ob] = (byte)b;
 			}
-			C.memmove(data + (y * cairoStride), cairoLine, cairoStride);
+			C.memmove(data + ((long) y * cairoStride), cairoLine, cairoLine.length);
 		}
 	}
 	Cairo.cairo_surface_mark_dirty(surface);
@@ -1257,105 +1282,113 @@ void init(ImageData image) {
 		blueMask = 0xFF;
 		destOrder = ImageData.LSB_FIRST;
 	}
-	byte[] buffer = image.data;
-	if (!palette.isDirect || image.depth != destDepth || stride != image.bytesPerLine || palette.redMask != redMask || palette.greenMask != greenMask || palette.blueMask != blueMask || destOrder != image.getByteOrder()) {
-		buffer = new byte[stride * imageDataHeight];
+	boolean convert = !palette.isDirect || image.depth != destDepth || stride != image.bytesPerLine || palette.redMask != redMask || palette.greenMask != greenMask || palette.blueMask != blueMask || destOrder != image.getByteOrder();
+	byte[] srcReds = null, srcGreens = null, srcBlues = null;
+	if (convert && !palette.isDirect) {
+		RGB[] rgbs = palette.getRGBs();
+		int length = rgbs.length;
+		srcReds = new byte[length];
+		srcGreens = new byte[length];
+		srcBlues = new byte[length];
+		for (int i = 0; i < rgbs.length; i++) {
+			RGB rgb = rgbs[i];
+			if (rgb == null) continue;
+			srcReds[i] = (byte)rgb.red;
+			srcGreens[i] = (byte)rgb.green;
+			srcBlues[i] = (byte)rgb.blue;
+		}
+	}
+	boolean isIcon = image.getTransparencyType() == SWT.TRANSPARENCY_MASK;
+	this.type = isIcon ? SWT.ICON : SWT.BITMAP;
+	if (image.transparentPixel != -1) {
+		RGB rgb = null;
 		if (palette.isDirect) {
-			ImageData.blit(
-				image.data, image.depth, image.bytesPerLine, image.getByteOrder(), imageDataWidth, imageDataHeight, palette.redMask, palette.greenMask, palette.blueMask,
-				buffer, destDepth, stride, destOrder, imageDataWidth, imageDataHeight, redMask, greenMask, blueMask,
-				false, false);
+			rgb = palette.getRGB(image.transparentPixel);
 		} else {
-			RGB[] rgbs = palette.getRGBs();
-			int length = rgbs.length;
-			byte[] srcReds = new byte[length];
-			byte[] srcGreens = new byte[length];
-			byte[] srcBlues = new byte[length];
-			for (int i = 0; i < rgbs.length; i++) {
-				RGB rgb = rgbs[i];
-				if (rgb == null) continue;
-				srcReds[i] = (byte)rgb.red;
-				srcGreens[i] = (byte)rgb.green;
-				srcBlues[i] = (byte)rgb.blue;
+			if (image.transparentPixel < palette.colors.length) {
+				rgb = palette.getRGB(image.transparentPixel);
 			}
-			ImageData.blit(
-				imageDataWidth, imageDataHeight,
-				image.data, image.depth, image.bytesPerLine, image.getByteOrder(), srcReds, srcGreens, srcBlues,
-				buffer, destDepth, stride, destOrder, redMask, greenMask, blueMask);
+		}
+		if (rgb != null) {
+			transparentPixel = rgb.red << 16 | rgb.green << 8 | rgb.blue;
 		}
 	}
-	boolean isIcon = image.getTransparencyType() == SWT.TRANSPARENCY_MASK;
-	this.type = isIcon ? SWT.ICON : SWT.BITMAP;
-	if (isIcon || image.transparentPixel != -1) {
-		if (image.transparentPixel != -1) {
-			RGB rgb = null;
+	if (!convert && !hasAlpha) {
+		/* The image data is already in the layout of the surface */
+		C.memmove(data, image.data, stride * imageDataHeight);
+		Cairo.cairo_surface_mark_dirty(surface);
+		return;
+	}
+	/*
+	* Convert the image to the layout of the surface and premultiply it
+	* by alpha in bands of rows small enough to stay in the cache, and
+	* copy each band into the surface, so that the image data is walked
+	* once and never copied as a whole.
+	*/
+	ImageData mask = image.maskData != null ? image.getTransparencyMask() : null;
+	int[] pixels = mask == null && image.transparentPixel != -1 ? new int[imageDataWidth] : null;
+	byte[] maskPixels = mask != null ? new byte[imageDataWidth] : null;
+	int bandHeight = Math.max(1, Math.min(imageDataHeight, UPLOAD_BAND_SIZE / stride));
+	byte[] band = new byte[bandHeight * stride];
+	byte[] srcBand = convert ? new byte[bandHeight * image.bytesPerLine] : null;
+	for (int bandY = 0; bandY < imageDataHeight; bandY += bandHeight) {
+		int rows = Math.min(bandHeight, imageDataHeight - bandY);
+		int srcOffset = bandY * image.bytesPerLine;
+		if (convert) {
+			System.arraycopy(image.data, srcOffset, srcBand, 0, Math.min(rows * image.bytesPerLine, image.data.length - srcOffset));
 			if (palette.isDirect) {
-				rgb = palette.getRGB(image.transparentPixel);
+				ImageData.blit(
+					srcBand, image.depth, image.bytesPerLine, image.getByteOrder(), imageDataWidth, rows, palette.redMask, palette.greenMask, palette.blueMask,
+					band, destDepth, stride, destOrder, imageDataWidth, rows, redMask, greenMask, blueMask,
+					false, false);
 			} else {
-				if (image.transparentPixel < palette.colors.length) {
-					rgb = palette.getRGB(image.transparentPixel);
-				}
-			}
-			if (rgb != null) {
-				transparentPixel = rgb.red << 16 | rgb.green << 8 | rgb.blue;
+				ImageData.blit(
+					imageDataWidth, rows,
+					srcBand, image.depth, image.bytesPerLine, image.getByteOrder(), srcReds, srcGreens, srcBlues,
+					band, destDepth, stride, destOrder, redMask, greenMask, blueMask);
 			}
+		} else {
+			/* Copy the band so that the premultiplication does not modify the image data */
+			System.arraycopy(image.data, srcOffset, band, 0, rows * stride);
 		}
-		ImageData mask = image.getTransparencyMask();
-		for (int y = 0, offset = 0; y < imageDataHeight; y++) {
-			for (int x=0; x<imageDataWidth; x++, offset += 4) {
-				int alpha = mask.getPixel(x, y) == 0 ? 0 : 0xff;
-				/* pre-multiplied alpha */
-				int r = ((buffer[offset + or] & 0xFF) * alpha) + 128;
-				r = (r + (r >> 8)) >> 8;
-				int g = ((buffer[offset + og] & 0xFF) * alpha) + 128;
-				g = (g + (g >> 8)) >> 8;
-				int b = ((buffer[offset + ob] & 0xFF) * alpha) + 128;
-				b = (b + (b >> 8)) >> 8;
-				buffer[offset + oa] = (byte)alpha;
-				buffer[offset + or] = (byte)r;
-				buffer[offset + og] = (byte)g;
-				buffer[offset + ob] = (byte)b;
+		for (int row = 0; row < rows; row++) {
+			int y = bandY + row;
+			int offset = row * stride;
+			if (mask != null) {
+				mask.getPixels(0, y, imageDataWidth, maskPixels, 0);
+			} else if (pixels != null) {
+				image.getPixels(0, y, imageDataWidth, pixels, 0);
 			}
-		}
-	} else {
-		if (image.alpha != -1) {
-			int alpha = image.alpha;
-			for (int y = 0, offset = 0; y < imageDataHeight; y++) {
-				for (int x=0; x<imageDataWidth; x++, offset += 4) {
-					/* pre-multiplied alpha */
-					int r = ((buffer[offset + or] & 0xFF) * alpha) + 128;
-					r = (r + (r >> 8)) >> 8;
-					int g = ((buffer[offset + og] & 0xFF) * alpha) + 128;
-					g = (g + (g >> 8)) >> 8;
-					int b = ((buffer[offset + ob] & 0xFF) * alpha) + 128;
-					b = (b + (b >> 8)) >> 8;
-					buffer[offset + oa] = (byte)alpha;
-					buffer[offset + or] = (byte)r;
-					buffer[offset + og] = (byte)g;
-					buffer[offset + ob] = (byte)b;
+			for (int x = 0; x < imageDataWidth; x++, offset += 4) {
+				int alpha;
+				if (mask != null) {
+					alpha = maskPixels[x] == 0 ? 0 : 0xff;
+				} else if (pixels != null) {
+					alpha = pixels[x] == image.transparentPixel ? 0 : 0xff;
+				} else if (image.alpha != -1) {
+					alpha = image.alpha;
+				} else if (image.alphaData != null) {
+					alpha = image.alphaData[y * imageDataWidth + x] & 0xFF;
+				} else {
+					continue;
 				}
-			}
-		} else if (image.alphaData != null) {
-			byte[] alphaData = image.alphaData;
-			for (int y = 0, offset = 0; y < imageDataHeight; y++) {
-				for (int x=0; x<imageDataWidth; x++, offset += 4) {
-					int alpha = alphaData [y*imageDataWidth+x] & 0xFF;
-					/* pre-multiplied alpha */
-					int r = ((buffer[offset + or] & 0xFF) * alpha) + 128;
+				/* pre-multiplied alpha */
+				if (alpha != 0xff) {
+					int r = ((band[offset + or] & 0xFF) * alpha) + 128;
 					r = (r + (r >> 8)) >> 8;
-					int g = ((buffer[offset + og] & 0xFF) * alpha) + 128;
+					int g = ((band[offset + og] & 0xFF) * alpha) + 128;
 					g = (g + (g >> 8)) >> 8;
-					int b = ((buffer[offset + ob] & 0xFF) * alpha) + 128;
+					int b = ((band[offset + ob] & 0xFF) * alpha) + 128;
 					b = (b + (b >> 8)) >> 8;
-					buffer[offset + oa] = (byte)alpha;
-					buffer[offset + or] = (byte)r;
-					buffer[offset + og] = (byte)g;
-					buffer[offset + ob] = (byte)b;
+					band[offset + or] = (byte)r;
+					band[offset + og] = (byte)g;
+					band[offset + ob] = (byte)b;
 				}
+				band[offset + oa] = (byte)alpha;
 			}
 		}
+		C.memmove(data + (long) bandY * stride, band, (long) rows * stride);
 	}
-	C.memmove(data, buffer, stride * imageDataHeight);
 	Cairo.cairo_surface_mark_dirty(surface);
 }
 
@@ -115,6 +115,11 @@ public class ImageLoader {
 	 */
 	final static int PNG_INTERLACE_METHOD_OFFSET = 28;
 
+	/**
+	 * The number of bytes read from a stream and written to a GdkPixbufLoader at a time.
+	 */
+	final static int CHUNK_SIZE = 64 * 1024;
+
 	/*
 	 * the set of ImageLoader event listeners, created on demand
 	 */
@@ -166,6 +171,60 @@ public ImageData[] load(InputStream stream) {
 	return imgDataArray;
 }
 
+/**
+ * Loads an array of <code>ImageData</code> objects from the
+ * specified input stream, decoding them at a reduced size when
+ * the image format supports it. Throws an error if either an error
+ * occurs while loading the images, or if the images are not
+ * of a supported type. Returns the loaded image data array.
+ * <p>
+ * JPEG images are scaled by 1/2, 1/4 or 1/8 while they are decoded,
+ * choosing the smallest of these sizes that is still at least
+ * <code>width</code> by <code>height</code> pixels. This is much
+ * faster and uses much less memory than decoding the full image and
+ * scaling it afterwards, which makes it well suited for thumbnails.
+ * The returned image may be larger than the requested size, and
+ * images in other formats are loaded at their full size.
+ * </p>
+ *
+ * @param stream the input stream to load the images from
+ * @param width the smallest width of interest, in pixels
+ * @param height the smallest height of interest, in pixels
+ * @return an array of <code>ImageData</code> objects loaded from the specified input stream
+ *
+ * @exception IllegalArgumentException <ul>
+ *    <li>ERROR_NULL_ARGUMENT - if the stream is null</li>
+ *    <li>ERROR_INVALID_ARGUMENT - if the width or height is not positive</li>
+ * </ul>
+ * @exception SWTException <ul>
+ *    <li>ERROR_IO - if an IO error occurs while reading from the stream</li>
+ *    <li>ERROR_INVALID_IMAGE - if the image stream contains invalid data</li>
+ *    <li>ERROR_UNSUPPORTED_FORMAT - if the image stream contains an unrecognized format</li>
+ * </ul>
+ *
+ * @since 3.127
+ */
+public ImageData[] load(InputStream stream, int width, int height) {
+	if (stream == null) SWT.error(SWT.ERROR_NULL_ARGUMENT);
+	if (width <= 0 || height <= 0) SWT.error(SWT.ERROR_INVALID_ARGUMENT);
+	reset();
+	/*
+	 * GdkPixbufLoader always decodes the full image, so JPEG images
+	 * are decoded by SWT, which can scale them in the IDCT.
+	 */
+	if (!stream.markSupported()) stream = new BufferedInputStream(stream);
+	boolean isJPEG = false;
+	try {
+		stream.mark(2);
+		isJPEG = stream.read() == 0xFF && stream.read() == 0xD8;
+		stream.reset();
+	} catch (IOException e) {
+		SWT.error(SWT.ERROR_IO, e);
+	}
+	data = isJPEG ? FileFormat.load(stream, this, width, height) : getImageDataArrayFromStream(stream);
+	return data;
+}
+
 /**
  * Return true if the image is an interlaced PNG file.
  * This is used to check whether ImageLoaderEvent should be fired when loading images.
@@ -176,36 +235,46 @@ boolean isInterlacedPNG(byte [] imageAsByteArray) {
 }
 
 ImageData [] getImageDataArrayFromStream(InputStream stream) {
+	/*
+	 * GdkPixbuf reads the built-in formats. Streams that none of them
+	 * recognizes are offered to the plugged in ImageCodecs first.
+	 *
+	 * GdkPixbufAnimation cannot tell the number of frames, and copying
+	 * its composited frames keeps a full canvas per frame, so GIF streams
+	 * are decoded by SWT. This returns the frames as stored in the stream,
+	 * as on the other platforms, each reported to the listeners as it is
+	 * read, and ImageAnimation plays them composited one frame at a time.
+	 */
+	if (!stream.markSupported()) stream = new BufferedInputStream(stream);
+	byte[] signature = new byte[ImageCodec.SIGNATURE_LENGTH];
+	int length = 0;
+	try {
+		stream.mark(signature.length);
+		length = stream.readNBytes(signature, 0, signature.length);
+		stream.reset();
+	} catch (IOException e) {
+		SWT.error(SWT.ERROR_IO, e);
+	}
+	boolean isGIF = length >= 3 && signature[0] == 'G' && signature[1] == 'I' && signature[2] == 'F';
+	if (isGIF) {
+		ImageData[] frames = FileFormat.load(stream, this);
+		try {
+			stream.close();
+		} catch (IOException e) {
+			SWT.error(SWT.ERROR_IO);
+		}
+		return frames;
+	}
+	if (FileFormat.isPluggedFormat(signature, length)) return FileFormat.load(stream, this);
 	long loader = GDK.gdk_pixbuf_loader_new();
 	List<ImageData> imgDataList = new ArrayList<>();
 	try {
-		// 1) Load InputStream into byte array
-		ByteArrayOutputStream baos = new ByteArrayOutputStream();
-		stream.transferTo(baos);
-		baos.flush();
-		byte[] data_buffer = baos.toByteArray();
-		if (data_buffer.length == 0) SWT.error(SWT.ERROR_UNSUPPORTED_FORMAT);	// empty stream
-
-		// 2) Copy byte array to C memory, write to GdkPixbufLoader
-		long buffer_ptr = OS.g_malloc(data_buffer.length);
-		C.memmove(buffer_ptr, data_buffer, data_buffer.length);
-		long [] error = new long [1];
-		GDK.gdk_pixbuf_loader_write(loader, buffer_ptr, data_buffer.length, error);
-		if(error[0] != 0) {
-			/* Bug 576484
-			 * It is safe just to assume if this fails it is most likely an IO error
-			 * since unsupported format is checked before, and invalid image right after.
-			 * Still, check if it belongs to the G_FILE_ERROR domain and IO error code
-			 */
-			if(OS.g_error_matches(error[0], OS.g_file_error_quark(), OS.G_FILE_ERROR_IO)){
-				SWT.error(SWT.ERROR_IO, null, Display.extractFreeGError(error[0]));
-			} else {
-				OS.g_error_free(error[0]);
-			}
-		}
-		GDK.gdk_pixbuf_loader_close(loader, null);
+		// 1) Write the stream to the GdkPixbufLoader as it is read, keeping the
+		// header to check for interlacing
+		byte[] header = new byte[PNG_INTERLACE_METHOD_OFFSET + 1];
+		writeToPixbufLoader(loader, stream, header);
 
-		// 3) Get GdkPixbufAnimation from loader
+		// 2) Get GdkPixbufAnimation from loader
 		long pixbuf_animation = GDK.gdk_pixbuf_loader_get_animation(loader);
 		if (pixbuf_animation == 0) SWT.error(SWT.ERROR_INVALID_IMAGE);
 
@@ -257,23 +326,91 @@ ImageData [] getImageDataArrayFromStream(InputStream stream) {
 			// listener should only be called when loading interlaced/progressive PNG/JPG/GIF ?
 			ImageData data = (ImageData) imgDataArray [i].clone();
 			if (this.hasListeners() && imgDataArray != null) {
-				if (data.type == SWT.IMAGE_PNG && isInterlacedPNG(data_buffer)) {
+				if (data.type == SWT.IMAGE_PNG && isInterlacedPNG(header)) {
 					this.notifyListeners(new ImageLoaderEvent(this, data, i, true));
 				} else if (data.type != SWT.IMAGE_PNG) {
 					this.notifyListeners(new ImageLoaderEvent(this, data, i, true));
 				}
 			}
 		}
-		OS.g_free(buffer_ptr);
-		OS.g_object_unref(loader);
 		stream.close();
 		return imgDataArray;
 	} catch (IOException e) {
 		SWT.error(SWT.ERROR_IO);
+	} finally {
+		OS.g_object_unref(loader);
 	}
 	return null;
 }
 
+/**
+ * Writes the stream to the GdkPixbufLoader in chunks of CHUNK_SIZE bytes
+ * as it is read, and closes the loader, so that the encoded image is never
+ * held in memory as a whole.
+ *
+ * @param loader the GdkPixbufLoader to write to
+ * @param stream the stream to read the encoded image from
+ * @param header receives the first bytes of the stream, or null
+ */
+static void writeToPixbufLoader(long loader, InputStream stream, byte[] header) throws IOException {
+	byte[] chunk = new byte[CHUNK_SIZE];
+	long buffer_ptr = OS.g_malloc(CHUNK_SIZE);
+	try {
+		long total = 0;
+		int count;
+		while ((count = stream.readNBytes(chunk, 0, CHUNK_SIZE)) > 0) {
+			if (header != null && total < header.length) {
+				System.arraycopy(chunk, 0, header, (int) total, (int) Math.min(count, header.length - total));
+			}
+			total += count;
+			C.memmove(buffer_ptr, chunk, count);
+			long [] error = new long [1];
+			if (!GDK.gdk_pixbuf_loader_write(loader, buffer_ptr, count, error)) {
+				if (error[0] != 0) {
+					/* Bug 576484
+					 * It is safe just to assume if this fails it is most likely an IO error
+					 * since unsupported format is checked before, and invalid image right after.
+					 * Still, check if it belongs to the G_FILE_ERROR domain and IO error code
+					 */
+					if (OS.g_error_matches(error[0], OS.g_file_error_quark(), OS.G_FILE_ERROR_IO)) {
+						SWT.error(SWT.ERROR_IO, null, Display.extractFreeGError(error[0]));
+					} else {
+						OS.g_error_free(error[0]);
+					}
+				}
+				/* The loader does not accept any more data after an error */
+				break;
+			}
+		}
+		if (total == 0) SWT.error(SWT.ERROR_UNSUPPORTED_FORMAT);	// empty stream
+	} finally {
+		OS.g_free(buffer_ptr);
+		GDK.gdk_pixbuf_loader_close(loader, null);
+	}
+}
+
+/**
+ * Loads the first image of the stream into a GdkPixbuf, without
+ * converting it to <code>ImageData</code>, and closes the stream
+ * once it is read, like <code>load(InputStream)</code>. The caller
+ * must unref the returned pixbuf.
+ */
+static long loadPixbuf(InputStream stream) {
+	long loader = GDK.gdk_pixbuf_loader_new();
+	try {
+		writeToPixbufLoader(loader, stream, null);
+		stream.close();
+		long pixbuf = GDK.gdk_pixbuf_loader_get_pixbuf(loader);
+		if (pixbuf == 0) SWT.error(SWT.ERROR_INVALID_IMAGE);
+		return OS.g_object_ref(pixbuf);
+	} catch (IOException e) {
+		SWT.error(SWT.ERROR_IO, e);
+		return 0;
+	} finally {
+		OS.g_object_unref(loader);
+	}
+}
+
 /**
  * Loads an array of <code>ImageData</code> objects from the
  * file with the specified name. Throws an error if either
@@ -310,6 +447,88 @@ public ImageData[] load(String filename) {
 	return null;
 }
 
+/**
+ * Reads the headers of the specified input stream, and returns the
+ * format, size and depth of the images it contains and the number
+ * of images. The pixels are not decoded and no <code>ImageData</code>
+ * is created, so this is much cheaper than loading the images, for
+ * example to lay out thumbnails of many files before loading them.
+ * <p>
+ * For animated GIF images, the size is that of the logical screen.
+ * For GIF and TIFF files the rest of the stream is read to count the
+ * images, skipping the image data.
+ * </p>
+ *
+ * @param stream the input stream to read the headers from
+ * @return a description of the images in the specified input stream
+ *
+ * @exception IllegalArgumentException <ul>
+ *    <li>ERROR_NULL_ARGUMENT - if the stream is null</li>
+ * </ul>
+ * @exception SWTException <ul>
+ *    <li>ERROR_IO - if an IO error occurs while reading from the stream</li>
+ *    <li>ERROR_INVALID_IMAGE - if the image stream contains invalid data</li>
+ *    <li>ERROR_UNSUPPORTED_FORMAT - if the image stream contains an unrecognized format</li>
+ * </ul>
+ *
+ * @see #load(InputStream)
+ * @since 3.127
+ */
+public static ImageInfo probe(InputStream stream) {
+	if (stream == null) SWT.error(SWT.ERROR_NULL_ARGUMENT);
+	return FileFormat.probe(stream);
+}
+
+/**
+ * Reads the headers of the file with the specified name, and returns
+ * the format, size and depth of the images it contains and the number
+ * of images, without decoding them.
+ *
+ * @param filename the name of the file to read the headers from
+ * @return a description of the images in the specified file
+ *
+ * @exception IllegalArgumentException <ul>
+ *    <li>ERROR_NULL_ARGUMENT - if the file name is null</li>
+ * </ul>
+ * @exception SWTException <ul>
+ *    <li>ERROR_IO - if an IO error occurs while reading from the file</li>
+ *    <li>ERROR_INVALID_IMAGE - if the image file contains invalid data</li>
+ *    <li>ERROR_UNSUPPORTED_FORMAT - if the image file contains an unrecognized format</li>
+ * </ul>
+ *
+ * @see #probe(InputStream)
+ * @since 3.127
+ */
+public static ImageInfo probe(String filename) {
+	if (filename == null) SWT.error(SWT.ERROR_NULL_ARGUMENT);
+	return FileFormat.probe(filename);
+}
+
+/**
+ * Reads the headers of the files with the specified names, and returns
+ * a description of the images in each file, without decoding them. The
+ * files are read on several threads. The description of a file that
+ * cannot be read, or that is not a valid image in a supported format,
+ * is <code>null</code>.
+ *
+ * @param filenames the names of the files to read the headers from
+ * @return an array with a description of the images in each file, or <code>null</code>
+ *
+ * @exception IllegalArgumentException <ul>
+ *    <li>ERROR_NULL_ARGUMENT - if the array or one of the file names is null</li>
+ * </ul>
+ *
+ * @see #probe(String)
+ * @since 3.127
+ */
+public static ImageInfo[] probe(String[] filenames) {
+	if (filenames == null) SWT.error(SWT.ERROR_NULL_ARGUMENT);
+	for (String filename : filenames) {
+		if (filename == null) SWT.error(SWT.ERROR_NULL_ARGUMENT);
+	}
+	return FileFormat.probe(filenames);
+}
+
 /**
  * Load GdkPixbuf directly using gdk_pixbuf_new_from_file,
  * without FileInputStream.
@@ -476,7 +695,8 @@ public void save(OutputStream stream, int format) {
 	// Native implementation only supports a subset of possible image configurations.
 	// Redirect the not supported variants to the Java implementation.
 	// See also https://bugs.eclipse.org/bugs/show_bug.cgi?id=558043
-	if (!imgData.palette.isDirect || n_channels < 3 || n_channels > 4) {
+	// GdkPixbuf cannot write GIF, the Java implementation reduces the colors to a palette.
+	if (!imgData.palette.isDirect || n_channels < 3 || n_channels > 4 || format == SWT.IMAGE_GIF) {
 		FileFormat.save(stream, format, this);
 		return;
 	}
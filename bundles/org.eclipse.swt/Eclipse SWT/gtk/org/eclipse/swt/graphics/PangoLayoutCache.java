@@ -0,0 +1,195 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Eclipse Foundation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Eclipse Foundation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.swt.graphics;
+
+
+import java.util.*;
+
+import org.eclipse.swt.*;
+import org.eclipse.swt.internal.*;
+import org.eclipse.swt.internal.gtk.*;
+
+/**
+ * Instances of this class keep the Pango layouts of the strings that
+ * the GCs of a device draw and measure, so that a string drawn again
+ * with the same font and flags is not converted and shaped again.
+ * <p>
+ * The layouts are kept from the least to the most recently used,
+ * and the least recently used layout is discarded when the cache is
+ * full. The size of the cache is 1024 layouts by default, and can be
+ * changed with the system property
+ * <code>org.eclipse.swt.graphics.PangoLayoutCache.size</code>.
+ * </p>
+ * <p>
+ * All the layouts are discarded when the fonts or the font settings
+ * of the process change, as counted by <code>FontSettings</code>.
+ * The hits, misses and evictions of the cache are counted, and
+ * shown by <code>toString()</code>.
+ * </p>
+ * <p>
+ * The layouts are shaped with contexts of the cache, so a GC that
+ * changes the font options of its own context must not use them.
+ * </p>
+ */
+final class PangoLayoutCache {
+	static final String SIZE_PROPERTY = "org.eclipse.swt.graphics.PangoLayoutCache.size"; //$NON-NLS-1$
+	static final int DEFAULT_SIZE = 1024;
+
+	/* Longer strings are rarely drawn again and are shaped by the layout of the GC */
+	static final int MAX_LENGTH = 1024;
+
+	/* The flags that change the layout of a string */
+	static final int LAYOUT_FLAGS = SWT.DRAW_DELIMITER | SWT.DRAW_TAB | SWT.DRAW_MNEMONIC;
+
+	Device device;
+	int maxSize;
+	long context, mirroredContext;
+	int serial = FontSettings.getSerial();
+	long hits, misses, evictions;
+
+	/* The entries from the least to the most recently used */
+	LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true) {
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+			if (size() <= maxSize) return false;
+			OS.g_object_unref(eldest.getValue().layout);
+			evictions++;
+			return true;
+		}
+	};
+
+	/*
+	* The string and the font, flags and direction it was shaped with.
+	* Fonts are compared by identity, as the font description of a font
+	* that does not own it may be freed and its address reused.
+	*/
+	record Key(String string, Font font, int flags, boolean mirrored) {
+		@Override
+		public boolean equals(Object object) {
+			return object instanceof Key key && string.equals(key.string) && font == key.font && flags == key.flags && mirrored == key.mirrored;
+		}
+
+		@Override
+		public int hashCode() {
+			return (string.hashCode() * 31 + System.identityHashCode(font)) * 31 + flags * 2 + (mirrored ? 1 : 0);
+		}
+	}
+
+	static final class Entry {
+		final long layout;
+		final int width, height;
+
+		Entry(long layout, int width, int height) {
+			this.layout = layout;
+			this.width = width;
+			this.height = height;
+		}
+	}
+
+PangoLayoutCache(Device device) {
+	this(device, Integer.getInteger(SIZE_PROPERTY, DEFAULT_SIZE));
+}
+
+PangoLayoutCache(Device device, int maxSize) {
+	this.device = device;
+	this.maxSize = Math.max(0, maxSize);
+}
+
+/**
+ * Returns the entry of the layout of the given string, shaping it
+ * when it is not in the cache, or <code>null</code> when the string
+ * is not cached. The layout belongs to the cache, and must be
+ * referenced by a caller that keeps it.
+ */
+synchronized Entry get(String string, Font font, int flags, boolean mirrored) {
+	if (maxSize == 0 || font == null || string.length() > MAX_LENGTH) return null;
+	int serial = FontSettings.getSerial();
+	if (serial != this.serial) {
+		clear();
+		this.serial = serial;
+	}
+	Key key = new Key(string, font, flags & LAYOUT_FLAGS, mirrored);
+	Entry entry = entries.get(key);
+	if (entry != null) {
+		hits++;
+		return entry;
+	}
+	misses++;
+	long context = mirrored ? mirroredContext : this.context;
+	if (context == 0) {
+		context = GC.createContext(mirrored);
+		if (mirrored) {
+			mirroredContext = context;
+		} else {
+			this.context = context;
+		}
+	}
+	long layout = OS.pango_layout_new(context);
+	if (layout == 0) SWT.error(SWT.ERROR_NO_HANDLES);
+	OS.pango_layout_set_auto_dir(layout, false);
+	OS.pango_layout_set_font_description(layout, font.handle);
+	GC.setLayoutString(layout, string, flags, device);
+	int[] width = new int[1], height = new int[1];
+	OS.pango_layout_get_pixel_size(layout, width, height);
+	entry = new Entry(layout, width[0], height[0]);
+	entries.put(key, entry);
+	return entry;
+}
+
+/**
+ * Discards the layouts shaped with the given font, before its
+ * font description is freed.
+ */
+synchronized void remove(Font font) {
+	Iterator<Map.Entry<Key, Entry>> iterator = entries.entrySet().iterator();
+	while (iterator.hasNext()) {
+		Map.Entry<Key, Entry> entry = iterator.next();
+		if (entry.getKey().font == font) {
+			OS.g_object_unref(entry.getValue().layout);
+			iterator.remove();
+		}
+	}
+}
+
+/**
+ * Discards all the layouts and the contexts they were shaped with,
+ * so that layouts shaped later pick up changed font settings.
+ */
+synchronized void clear() {
+	for (Entry entry : entries.values()) {
+		OS.g_object_unref(entry.layout);
+	}
+	entries.clear();
+	if (context != 0) OS.g_object_unref(context);
+	if (mirroredContext != 0) OS.g_object_unref(mirroredContext);
+	context = mirroredContext = 0;
+}
+
+synchronized long getHitCount() {
+	return hits;
+}
+
+synchronized long getMissCount() {
+	return misses;
+}
+
+synchronized long getEvictionCount() {
+	return evictions;
+}
+
+@Override
+public synchronized String toString() {
+	return "PangoLayoutCache {layouts=" + entries.size() + ", maxSize=" + maxSize + ", hits=" + hits + ", misses=" + misses + ", evictions=" + evictions + "}";
+}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2020 IBM Corporation and others.
+ * Copyright (c) 2000, 2026 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -51,6 +51,128 @@ public final class TextLayout extends Resource {
 		}
 	}
 
+	/*
+	* Maps between the UTF-16 offsets of the text of the layout and the
+	* UTF-8 byte and character offsets of Pango, answering the same as
+	* g_utf16_offset_to_pointer(), g_utf16_pointer_to_offset() and their
+	* siblings without walking the text from its start. The offsets of
+	* every 64th character are sampled, so a conversion searches the
+	* samples and walks at most 63 characters.
+	*/
+	static final class OffsetIndex {
+		static final int SAMPLE_SHIFT = 6;
+		static final int UTF16 = 0, BYTE = 1, CHAR = 2;
+
+		final byte[] bytes;
+		final int utf16Length, charLength;
+
+		/* The UTF-16, byte and character offsets of the samples, or null when the text is ASCII */
+		final int[][] samples;
+
+		OffsetIndex(byte[] bytes) {
+			this.bytes = bytes;
+			int length = bytes.length, i = 0;
+			while (i < length && bytes[i] >= 0) i++;
+			if (i == length) {
+				utf16Length = charLength = length;
+				samples = null;
+				return;
+			}
+			int utf16 = i, chars = i;
+			while (i < length) {
+				utf16 += units(bytes[i]);
+				i += skip(bytes[i]);
+				chars++;
+			}
+			utf16Length = utf16;
+			charLength = chars;
+			samples = new int[3][(chars >> SAMPLE_SHIFT) + 1];
+			utf16 = i = chars = 0;
+			while (i < length) {
+				if ((chars & ((1 << SAMPLE_SHIFT) - 1)) == 0) {
+					int sample = chars >> SAMPLE_SHIFT;
+					samples[UTF16][sample] = utf16;
+					samples[BYTE][sample] = i;
+					samples[CHAR][sample] = chars;
+				}
+				utf16 += units(bytes[i]);
+				i += skip(bytes[i]);
+				chars++;
+			}
+		}
+
+		/* The number of bytes of a character, like g_utf8_next_char() */
+		static int skip(byte lead) {
+			int b = lead & 0xFF;
+			if (b < 0xC0) return 1;
+			if (b < 0xE0) return 2;
+			if (b < 0xF0) return 3;
+			if (b < 0xF8) return 4;
+			if (b < 0xFC) return 5;
+			if (b < 0xFE) return 6;
+			return 1;
+		}
+
+		/* The number of UTF-16 characters of a character */
+		static int units(byte lead) {
+			int b = lead & 0xFF;
+			return 0xF0 <= b && b <= 0xFD ? 2 : 1;
+		}
+
+		/*
+		* Answers the offset in the coordinate to of the first character
+		* whose offset in the coordinate from is not less than the given
+		* offset, or the length of the text.
+		*/
+		int map(int from, int offset, int to) {
+			int length = bytes.length;
+			if (samples == null) return Math.max(0, Math.min(offset, length));
+			int[] keys = samples[from];
+			int low = 0, high = keys.length - 1;
+			while (low < high) {
+				int mid = (low + high + 1) >>> 1;
+				if (keys[mid] <= offset) {
+					low = mid;
+				} else {
+					high = mid - 1;
+				}
+			}
+			int[] position = {samples[UTF16][low], samples[BYTE][low], samples[CHAR][low]};
+			while (position[from] < offset && position[BYTE] < length) {
+				byte lead = bytes[position[BYTE]];
+				position[UTF16] += units(lead);
+				position[BYTE] += skip(lead);
+				position[CHAR]++;
+			}
+			return Math.min(position[to], to == BYTE ? length : to == UTF16 ? utf16Length : charLength);
+		}
+
+		/* Like g_utf16_offset_to_pointer() - text */
+		int byteOffset(int offset) {
+			return map(UTF16, offset, BYTE);
+		}
+
+		/* Like g_utf16_pointer_to_offset() */
+		int utf16Offset(int byteOffset) {
+			return map(BYTE, byteOffset, UTF16);
+		}
+
+		/* Like g_utf16_offset_to_utf8_offset() */
+		int charOffset(int offset) {
+			return map(UTF16, offset, CHAR);
+		}
+
+		/* Like g_utf8_offset_to_utf16_offset() */
+		int utf16OffsetOfChar(int charOffset) {
+			return map(CHAR, charOffset, UTF16);
+		}
+
+		/* Like g_utf8_pointer_to_offset() */
+		int charOffsetOfByte(int byteOffset) {
+			return map(BYTE, byteOffset, CHAR);
+		}
+	}
+
 	Font font;
 	String text;
 	int ascentInPoints, descentInPoints;
@@ -62,6 +184,7 @@ public final class TextLayout extends Resource {
 	int stylesCount;
 	long layout, context, attrList, selAttrList;
 	int[] invalidOffsets;
+	OffsetIndex offsetIndex;
 	int verticalIndentInPoints;
 	MetricsAdapter metricsAdapter = new MetricsAdapter();
 	static final char LTR_MARK = '\u200E', RTL_MARK = '\u200F', ZWS = '\u200B', ZWNBS = '\uFEFF';
@@ -267,6 +390,7 @@ void computeRuns () {
 	String segmentsText = getSegmentsText();
 	byte[] buffer = Converter.wcsToMbcs(segmentsText, false);
 	OS.pango_layout_set_text (layout, buffer, buffer.length);
+	offsetIndex = new OffsetIndex(buffer);
 	attrList = OS.pango_attr_list_new();
 	selAttrList = OS.pango_attr_list_new();
 	// pango_attr_insert_hyphens_new function is available only on Pango 1.44.0+
@@ -282,7 +406,6 @@ void computeRuns () {
 		OS.pango_layout_set_attributes(layout, attrList);
 		return;
 	}
-	long ptr = OS.pango_layout_get_text(layout);
 	PangoAttribute attribute = new PangoAttribute();
 	char[] chars = null;
 	int segementsLength = segmentsText.length();
@@ -323,7 +446,7 @@ void computeRuns () {
 			OS.memmove (attr, attribute, PangoAttribute.sizeof);
 			OS.pango_attr_list_insert(attrList, attr);
 			OS.pango_attr_list_insert(selAttrList, OS.pango_attribute_copy(attr));
-			int pos = (int)OS.g_utf16_pointer_to_offset(ptr, ptr + bytePos);
+			int pos = offsetIndex.utf16Offset(bytePos);
 			chars[pos + lineIndex * 2] = ZWS;
 			chars[pos + lineIndex * 2 + 1] = ZWNBS;
 			segmentsText.getChars(oldPos, pos, chars,  oldPos + lineIndex * 2);
@@ -334,7 +457,7 @@ void computeRuns () {
 		segmentsText.getChars(oldPos, segementsLength, chars,  oldPos + lineIndex * 2);
 		buffer = Converter.wcsToMbcs(chars, false);
 		OS.pango_layout_set_text (layout, buffer, buffer.length);
-		ptr = OS.pango_layout_get_text(layout);
+		offsetIndex = new OffsetIndex(buffer);
 		offsetCount += 2 * lineCount;
 	} else {
 		chars = new char[segementsLength];
@@ -357,7 +480,6 @@ void computeRuns () {
 			}
 		}
 	}
-	int strlen = C.strlen(ptr);
 	Font defaultFont = font != null ? font : device.systemFont;
 	for (int i = 0; i < stylesCount - 1; i++) {
 		StyleItem styleItem = styles[i];
@@ -365,10 +487,8 @@ void computeRuns () {
 		if (style == null) continue;
 		int start = translateOffset(styleItem.start);
 		int end = translateOffset(styles[i+1].start - 1);
-		int byteStart = (int)(OS.g_utf16_offset_to_pointer(ptr, start) - ptr);
-		int byteEnd = (int)(OS.g_utf16_offset_to_pointer(ptr, end + 1) - ptr);
-		byteStart = Math.min(byteStart, strlen);
-		byteEnd = Math.min(byteEnd, strlen);
+		int byteStart = offsetIndex.byteOffset(start);
+		int byteEnd = offsetIndex.byteOffset(end + 1);
 		Font font = style.font;
 		if (font != null && !font.isDisposed() && !defaultFont.equals(font)) {
 			long attr = OS.pango_attr_font_desc_new (font.handle);
@@ -650,7 +770,6 @@ void drawInPixels(GC gc, int x, int y, int selectionStart, int selectionEnd, Col
 		PangoLogAttr logAttr = new PangoLogAttr();
 		PangoRectangle rect = new PangoRectangle();
 		int lineCount = OS.pango_layout_get_line_count(layout);
-		long ptr = OS.pango_layout_get_text(layout);
 		long iter = OS.pango_layout_get_iter(layout);
 		if (selectionBackground == null) selectionBackground = device.getSystemColor(SWT.COLOR_LIST_SELECTION);
 		Cairo.cairo_save(cairo);
@@ -662,9 +781,9 @@ void drawInPixels(GC gc, int x, int y, int selectionStart, int selectionEnd, Col
 			metricsAdapter.pango_layout_iter_get_line_extents(iter, null, rect);
 			if (OS.pango_layout_iter_next_line(iter)) {
 				int bytePos = OS.pango_layout_iter_get_index(iter);
-				lineEnd = (int)OS.g_utf16_pointer_to_offset(ptr, ptr + bytePos);
+				lineEnd = offsetIndex.utf16Offset(bytePos);
 			} else {
-				lineEnd = (int)OS.g_utf16_strlen(ptr, -1);
+				lineEnd = offsetIndex.utf16Length;
 			}
 			boolean extent = false;
 			if (lineIndex == lineCount - 1 && (flags & SWT.LAST_LINE_SELECTION) != 0) {
@@ -712,31 +831,26 @@ void drawInPixels(GC gc, int x, int y, int selectionStart, int selectionEnd, Col
 	} else {
 		selectionStart = Math.min(Math.max(0, selectionStart), length - 1);
 		selectionEnd = Math.min(Math.max(0, selectionEnd), length - 1);
-		length = (int)OS.g_utf16_strlen(OS.pango_layout_get_text(layout), -1);
+		length = offsetIndex.utf16Length;
 		selectionStart = translateOffset(selectionStart);
 		selectionEnd = translateOffset(selectionEnd);
 		if (selectionForeground == null) selectionForeground = device.getSystemColor(SWT.COLOR_LIST_SELECTION_TEXT);
 		if (selectionBackground == null) selectionBackground = device.getSystemColor(SWT.COLOR_LIST_SELECTION);
 		boolean fullSelection = selectionStart == 0 && selectionEnd == length - 1;
 		if (fullSelection) {
-			long ptr = OS.pango_layout_get_text(layout);
 			if ((data.style & SWT.MIRRORED) != 0) {
 				Cairo.cairo_save(cairo);
 				Cairo.cairo_scale(cairo, -1,  1);
 				Cairo.cairo_translate(cairo, -2 * x - width(), 0);
 			}
-			drawWithCairo(gc, x, y, 0, C.strlen(ptr), fullSelection, selectionForeground.handle,
+			drawWithCairo(gc, x, y, 0, offsetIndex.bytes.length, fullSelection, selectionForeground.handle,
 					selectionBackground.handle);
 			if ((data.style & SWT.MIRRORED) != 0) {
 				Cairo.cairo_restore(cairo);
 			}
 		} else {
-			long ptr = OS.pango_layout_get_text(layout);
-			int byteSelStart = (int)(OS.g_utf16_offset_to_pointer(ptr, selectionStart) - ptr);
-			int byteSelEnd = (int)(OS.g_utf16_offset_to_pointer(ptr, selectionEnd + 1) - ptr);
-			int strlen = C.strlen(ptr);
-			byteSelStart = Math.min(byteSelStart, strlen);
-			byteSelEnd = Math.min(byteSelEnd, strlen);
+			int byteSelStart = offsetIndex.byteOffset(selectionStart);
+			int byteSelEnd = offsetIndex.byteOffset(selectionEnd + 1);
 			if ((data.style & SWT.MIRRORED) != 0) {
 				Cairo.cairo_save(cairo);
 				Cairo.cairo_scale(cairo, -1,  1);
@@ -780,7 +894,6 @@ void drawWithCairo(GC gc, int x, int y, int start, int end, boolean fullSelectio
 void drawBorder(GC gc, int x, int y, GdkRGBA selectionColor) {
 	GCData data = gc.data;
 	long cairo = data.cairo;
-	long ptr = OS.pango_layout_get_text(layout);
 	Cairo.cairo_save(cairo);
 	for (int i = 0; i < stylesCount - 1; i++) {
 		TextStyle style = styles[i].style;
@@ -794,8 +907,8 @@ void drawBorder(GC gc, int x, int y, GdkRGBA selectionColor) {
 			}
 			start = translateOffset(start);
 			int end = translateOffset(styles[i+1].start - 1);
-			int byteStart = (int)(OS.g_utf16_offset_to_pointer(ptr, start) - ptr);
-			int byteEnd = (int)(OS.g_utf16_offset_to_pointer(ptr, end + 1) - ptr);
+			int byteStart = offsetIndex.byteOffset(start);
+			int byteEnd = offsetIndex.byteOffset(end + 1);
 			int[] ranges = new int[]{byteStart, byteEnd};
 			long rgn = metricsAdapter.gdk_pango_layout_get_clip_region(layout, x, y, ranges, ranges.length / 2);
 			if (rgn != 0) {
@@ -849,6 +962,7 @@ void freeRuns() {
 		selAttrList = 0;
 	}
 	invalidOffsets = null;
+	offsetIndex = null;
 }
 
 /**
@@ -956,12 +1070,8 @@ Rectangle getBoundsInPixels(int start, int end) {
 	end = Math.min(Math.max(0, end), length - 1);
 	start = translateOffset(start);
 	end = translateOffset(end);
-	long ptr = OS.pango_layout_get_text(layout);
-	int byteStart = (int)(OS.g_utf16_offset_to_pointer (ptr, start) - ptr);
-	int byteEnd = (int)(OS.g_utf16_offset_to_pointer (ptr, end + 1) - ptr);
-	int strlen = C.strlen(ptr);
-	byteStart = Math.min(byteStart, strlen);
-	byteEnd = Math.min(byteEnd, strlen);
+	int byteStart = offsetIndex.byteOffset(start);
+	int byteEnd = offsetIndex.byteOffset(end + 1);
 	int[] ranges = new int[]{byteStart, byteEnd};
 	long clipRegion = metricsAdapter.gdk_pango_layout_get_clip_region(layout, 0, 0, ranges, 1);
 	if (clipRegion == 0) return new Rectangle(0, 0, 0, 0);
@@ -983,7 +1093,7 @@ Rectangle getBoundsInPixels(int start, int end) {
 		if (OS.pango_layout_iter_next_line(iter)) {
 			lineEnd = OS.pango_layout_iter_get_index(iter) - 1;
 		} else {
-			lineEnd = strlen;
+			lineEnd = offsetIndex.bytes.length;
 		}
 		if (byteStart > lineEnd) continue;
 		rect.x = OS.PANGO_PIXELS(pangoRect.x);
@@ -1097,10 +1207,7 @@ public int getLevel(int offset) {
 	int level = 0;
 	PangoItem item = new PangoItem();
 	PangoLayoutRun run = new PangoLayoutRun();
-	long ptr = OS.pango_layout_get_text(layout);
-	long byteOffset = OS.g_utf16_offset_to_pointer(ptr, offset) - ptr;
-	int strlen = C.strlen(ptr);
-	byteOffset = Math.min(byteOffset, strlen);
+	int byteOffset = offsetIndex.byteOffset(offset);
 	do {
 		long runPtr = OS.pango_layout_iter_get_run(iter);
 		if (runPtr != 0) {
@@ -1199,10 +1306,7 @@ public int getLineIndex(int offset) {
 	if (!(0 <= offset && offset <= length)) SWT.error(SWT.ERROR_INVALID_ARGUMENT);
 	offset = translateOffset(offset);
 	int line = 0;
-	long ptr = OS.pango_layout_get_text(layout);
-	long byteOffset = OS.g_utf16_offset_to_pointer(ptr,offset) - ptr;
-	int strlen = C.strlen(ptr);
-	byteOffset = Math.min(byteOffset, strlen);
+	int byteOffset = offsetIndex.byteOffset(offset);
 	long iter = OS.pango_layout_get_iter(layout);
 	if (iter == 0) SWT.error(SWT.ERROR_NO_HANDLES);
 	while (OS.pango_layout_iter_next_line(iter)) {
@@ -1280,12 +1384,11 @@ public int[] getLineOffsets() {
 	computeRuns();
 	int lineCount = OS.pango_layout_get_line_count(layout);
 	int[] offsets = new int [lineCount + 1];
-	long ptr = OS.pango_layout_get_text(layout);
 	PangoLayoutLine line = new PangoLayoutLine();
 	for (int i = 0; i < lineCount; i++) {
 		long linePtr = OS.pango_layout_get_line(layout, i);
 		OS.memmove(line, linePtr, PangoLayoutLine.sizeof);
-		int pos = (int)OS.g_utf16_pointer_to_offset(ptr, ptr + line.start_index);
+		int pos = offsetIndex.utf16Offset(line.start_index);
 		offsets[i] = untranslateOffset(pos);
 	}
 	offsets[lineCount] = text.length();
@@ -1318,10 +1421,7 @@ Point getLocationInPixels(int offset, boolean trailing) {
 	int length = text.length();
 	if (!(0 <= offset && offset <= length)) SWT.error(SWT.ERROR_INVALID_RANGE);
 	offset = translateOffset(offset);
-	long ptr = OS.pango_layout_get_text(layout);
-	int byteOffset = (int)(OS.g_utf16_offset_to_pointer(ptr, offset) - ptr);
-	int strlen = C.strlen(ptr);
-	byteOffset = Math.min(byteOffset, strlen);
+	int byteOffset = offsetIndex.byteOffset(offset);
 	PangoRectangle pos = new PangoRectangle();
 	OS.pango_layout_index_to_pos(layout, byteOffset, pos);
 	int x = trailing ? pos.x + pos.width : pos.x;
@@ -1374,9 +1474,8 @@ int _getOffset (int offset, int movement, boolean forward) {
 	OS.pango_layout_get_log_attrs(layout, attrs, nAttrs);
 	if (attrs[0] == 0) return offset + step;
 
-	long ptr = OS.pango_layout_get_text(layout);
-	int utf8Offset = (int)OS.g_utf16_offset_to_utf8_offset (ptr, translateOffset(offset));
-	int utf8Length = (int)OS.g_utf8_strlen(ptr, -1);
+	int utf8Offset = offsetIndex.charOffset(translateOffset(offset));
+	int utf8Length = offsetIndex.charLength;
 	utf8Offset += step;
 	PangoLogAttr logAttr = new PangoLogAttr();
 	while (0 <= utf8Offset && utf8Offset <= utf8Length) {
@@ -1404,14 +1503,9 @@ int _getOffset (int offset, int movement, boolean forward) {
 			if (utf8Offset == 0) limit = true;
 		}
 		if (found || limit) {
-			int testOffset = (int)OS.g_utf8_offset_to_utf16_offset (ptr, utf8Offset);
-			if (found && invalidOffsets != null) {
-				for (int i = 0; i < invalidOffsets.length; i++) {
-					if (testOffset == invalidOffsets[i]) {
-						found = false;
-						break;
-					}
-				}
+			int testOffset = offsetIndex.utf16OffsetOfChar(utf8Offset);
+			if (found && invalidOffsets != null && Arrays.binarySearch(invalidOffsets, testOffset) >= 0) {
+				found = false;
 			}
 			if (found || limit) {
 				offset = untranslateOffset(testOffset);
@@ -1520,12 +1614,11 @@ int getOffsetInPixels(int x, int y, int[] trailing) {
 	int[] index = new int[1];
 	int[] piTrailing = new int[1];
 	OS.pango_layout_xy_to_index(layout, x * OS.PANGO_SCALE, y * OS.PANGO_SCALE, index, piTrailing);
-	long ptr = OS.pango_layout_get_text(layout);
-	int offset = (int)OS.g_utf16_pointer_to_offset(ptr, ptr + index[0]);
+	int offset = offsetIndex.utf16Offset(index[0]);
 	if (trailing != null) {
 		trailing[0] = piTrailing[0];
 		if (piTrailing[0] != 0) {
-			trailing[0] = (int)OS.g_utf8_offset_to_utf16_offset(ptr, OS.g_utf8_pointer_to_offset(ptr, ptr + index[0]) + piTrailing[0]) - offset;
+			trailing[0] = offsetIndex.utf16OffsetOfChar(offsetIndex.charOffsetOfByte(index[0]) + piTrailing[0]) - offset;
 		}
 	}
 	return untranslateOffset(offset);
@@ -2512,11 +2605,21 @@ int translateOffset(int offset) {
 	int length = text.length();
 	if (length == 0) return offset;
 	if (invalidOffsets == null) return offset;
-	for (int i = 0; i < invalidOffsets.length; i++) {
-		if (offset < invalidOffsets[i]) break;
-		offset++;
+	/*
+	* The client offset of the i-th invalid offset is invalidOffsets[i] - i,
+	* which never decreases, so the invalid offsets at or before the
+	* offset are found with a binary search.
+	*/
+	int low = 0, high = invalidOffsets.length;
+	while (low < high) {
+		int mid = (low + high) >>> 1;
+		if (invalidOffsets[mid] - mid <= offset) {
+			low = mid + 1;
+		} else {
+			high = mid;
+		}
 	}
-	return offset;
+	return offset + low;
 }
 
 /*
@@ -2526,11 +2629,16 @@ int untranslateOffset(int offset) {
 	int length = text.length();
 	if (length == 0) return offset;
 	if (invalidOffsets == null) return offset;
-	int i = 0;
-	while (i < invalidOffsets.length && offset > invalidOffsets[i]) {
-		i++;
+	int low = 0, high = invalidOffsets.length;
+	while (low < high) {
+		int mid = (low + high) >>> 1;
+		if (invalidOffsets[mid] < offset) {
+			low = mid + 1;
+		} else {
+			high = mid;
+		}
 	}
-	return offset - i;
+	return offset - low;
 }
 
 int width () {
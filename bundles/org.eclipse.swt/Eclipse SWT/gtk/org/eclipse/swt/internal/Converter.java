@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2017 IBM Corporation and others.
+ * Copyright (c) 2000, 2026 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -17,6 +17,7 @@ package org.eclipse.swt.internal;
 import java.io.*;
 import java.nio.*;
 import java.nio.charset.*;
+import java.util.*;
 
 import org.eclipse.swt.internal.gtk.*;
 
@@ -119,6 +120,44 @@ public final class Converter {
 	public static final byte [] EmptyByteArray = new byte [0];
 	public static final char [] EmptyCharArray = new char [0];
 
+	/**
+	 * System property that makes the conversions call glib, so that their
+	 * speed can be compared with the conversions implemented in Java.
+	 */
+	static final String NATIVE_PROPERTY = "org.eclipse.swt.internal.Converter.native"; //$NON-NLS-1$
+	static final boolean NATIVE = Boolean.getBoolean (NATIVE_PROPERTY);
+
+	/* Longer strings are converted by glib */
+	static final int MAX_POOLED_LENGTH = 64 * 1024;
+
+	/* Scratch arrays with more elements are not kept for the next conversion of a thread */
+	static final int MAX_POOLED_SIZE = 16 * 1024;
+
+	static final ThreadLocal<Buffers> BUFFERS = ThreadLocal.withInitial (Buffers::new);
+
+	/* The scratch buffers of a thread */
+	static final class Buffers {
+		char [] chars = new char [256];
+		byte [] bytes = new byte [1024];
+		final MbcsBuffer mbcs = new MbcsBuffer ();
+
+		Buffers () {
+			mbcs.bytes = new byte [1024];
+		}
+	}
+
+	/**
+	 * A C UTF-8 Multibyte string, converted into a byte array that is confined
+	 * to the thread that converted it and reused by the next conversion of the
+	 * thread, see {@link Converter#wcsToMbcsBuffer(String)}.
+	 */
+	public static final class MbcsBuffer {
+		/** The bytes of the string, followed by a null character */
+		public byte [] bytes;
+		/** The number of bytes of the string, without the null character */
+		public int length;
+	}
+
 
 /**
  * Convert a "C" multibyte UTF-8 string byte array into a Java UTF-16 Wide character array.
@@ -127,6 +166,10 @@ public final class Converter {
  * @return char array representing the string. Usually used for String construction like: new String(mbcsToWcs(..))
  */
 public static char [] mbcsToWcs (byte [] buffer) {
+	if (!NATIVE) {
+		char [] chars = decode (buffer);
+		if (chars != null) return chars;
+	}
 	long [] items_written = new long [1];
 	long ptr = OS.g_utf8_to_utf16 (buffer, buffer.length, null, items_written, null);
 	if (ptr == 0) return EmptyCharArray;
@@ -150,9 +193,67 @@ public static char [] mbcsToWcs (byte [] buffer) {
  */
 public static byte [] wcsToMbcs (String string, boolean terminate) {
 	int length = string.length ();
-	char [] buffer = new char [length];
-	string.getChars (0, length, buffer, 0);
-	return wcsToMbcs (buffer, terminate);
+	if (NATIVE || length > MAX_POOLED_LENGTH) {
+		char [] buffer = new char [length];
+		string.getChars (0, length, buffer, 0);
+		return wcsToMbcs (buffer, terminate);
+	}
+	Buffers buffers = BUFFERS.get ();
+	char [] chars = chars (buffers, length);
+	string.getChars (0, length, chars, 0);
+	return wcsToMbcs (buffers, chars, length, terminate);
+}
+
+/**
+ * Convert a Java String into a null terminated C UTF-8 Multibyte string,
+ * in a byte array that is borrowed from the calling thread instead of
+ * a new byte array.
+ * <p>
+ * The returned buffer is reused by the next call of this method on the same
+ * thread, but not by the other conversions. It must only be passed to native
+ * functions that copy the string before they return, and that do not call
+ * back into Java before they copied it, so the string does not have to be
+ * copied into a new array first.
+ * </p>
+ * <p>
+ * The buffer is usually longer than the string. It only saves a copy when it
+ * is passed with {@link MbcsBuffer#length} to a function that takes the length
+ * of the string, and whose glue does not copy the whole array in and out.
+ * Other functions should be passed the exact size array of
+ * {@link #wcsToMbcs(String, boolean)}.
+ * </p>
+ * <p>
+ * This algorithm stops when it finds the first NULL character, like
+ * {@link #wcsToMbcs(String, boolean)}. A string that is not valid UTF-16
+ * is converted into an empty string.
+ * </p>
+ *
+ * @param string - a regular Java String
+ * @return the buffer of the calling thread holding the converted string.
+ */
+public static MbcsBuffer wcsToMbcsBuffer (String string) {
+	int length = string.length ();
+	if (NATIVE || length > MAX_POOLED_LENGTH) {
+		MbcsBuffer buffer = new MbcsBuffer ();
+		buffer.bytes = wcsToMbcs (string, true);
+		buffer.length = buffer.bytes.length - 1;
+		return buffer;
+	}
+	Buffers buffers = BUFFERS.get ();
+	char [] chars = chars (buffers, length);
+	string.getChars (0, length, chars, 0);
+	MbcsBuffer buffer = buffers.mbcs;
+	int size = length * 3 + 1;
+	if (size > MAX_POOLED_SIZE) {
+		buffer = new MbcsBuffer ();
+		buffer.bytes = new byte [size];
+	} else if (buffer.bytes.length < size) {
+		buffer.bytes = new byte [Math.min (MAX_POOLED_SIZE, Math.max (size, buffer.bytes.length * 2))];
+	}
+	int written = Math.max (0, encode (chars, length, buffer.bytes));
+	buffer.bytes [written] = 0;
+	buffer.length = written;
+	return buffer;
 }
 
 /**
@@ -201,6 +302,9 @@ public static String cCharPtrToJavaString(long cCharPtr, boolean freecCharPtr) {
  * @return byte array that can be passed to a native function.
  */
 public static byte [] wcsToMbcs (char [] chars, boolean terminate) {
+	if (!NATIVE && chars.length <= MAX_POOLED_LENGTH) {
+		return wcsToMbcs (BUFFERS.get (), chars, chars.length, terminate);
+	}
 	long [] items_read = new long [1], items_written = new long [1];
 	/*
 	* Note that g_utf16_to_utf8()  stops converting
@@ -216,6 +320,134 @@ public static byte [] wcsToMbcs (char [] chars, boolean terminate) {
 }
 
 
+static byte [] wcsToMbcs (Buffers buffers, char [] chars, int length, boolean terminate) {
+	byte [] bytes = bytes (buffers, length);
+	int written = encode (chars, length, bytes);
+	if (written == -1) return terminate ? NullByteArray : EmptyByteArray;
+	bytes [written] = 0;
+	return Arrays.copyOf (bytes, written + (terminate ? 1 : 0));
+}
+
+static char [] chars (Buffers buffers, int length) {
+	if (length > MAX_POOLED_SIZE) return new char [length];
+	if (buffers.chars.length < length) buffers.chars = new char [Math.min (MAX_POOLED_SIZE, Math.max (length, buffers.chars.length * 2))];
+	return buffers.chars;
+}
+
+/* Answers a buffer for the UTF-8 bytes of length chars, and a null character */
+static byte [] bytes (Buffers buffers, int length) {
+	int size = length * 3 + 1;
+	if (size > MAX_POOLED_SIZE) return new byte [size];
+	if (buffers.bytes.length < size) buffers.bytes = new byte [Math.min (MAX_POOLED_SIZE, Math.max (size, buffers.bytes.length * 2))];
+	return buffers.bytes;
+}
+
+/**
+ * Encodes UTF-16 characters as UTF-8 the way g_utf16_to_utf8() does: the
+ * conversion stops at the first NULL character, a high surrogate at the
+ * end is dropped, and any other unpaired surrogate fails the conversion.
+ *
+ * @param bytes - a buffer of at least 3 bytes per character
+ * @return the number of bytes written, or -1 if the characters are not valid UTF-16
+ */
+static int encode (char [] chars, int length, byte [] bytes) {
+	int i = 0, j = 0;
+	/* ASCII fast path */
+	while (i < length) {
+		char c = chars [i];
+		if (c >= 0x80 || c == 0) break;
+		bytes [j++] = (byte) c;
+		i++;
+	}
+	while (i < length) {
+		char c = chars [i++];
+		if (c == 0) break;
+		if (c < 0x80) {
+			bytes [j++] = (byte) c;
+		} else if (c < 0x800) {
+			bytes [j++] = (byte) (0xC0 | (c >> 6));
+			bytes [j++] = (byte) (0x80 | (c & 0x3F));
+		} else if (Character.isSurrogate (c)) {
+			if (Character.isLowSurrogate (c)) return -1;
+			if (i == length || chars [i] == 0) break;
+			char low = chars [i++];
+			if (!Character.isLowSurrogate (low)) return -1;
+			int codePoint = Character.toCodePoint (c, low);
+			bytes [j++] = (byte) (0xF0 | (codePoint >> 18));
+			bytes [j++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+			bytes [j++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+			bytes [j++] = (byte) (0x80 | (codePoint & 0x3F));
+		} else {
+			bytes [j++] = (byte) (0xE0 | (c >> 12));
+			bytes [j++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+			bytes [j++] = (byte) (0x80 | (c & 0x3F));
+		}
+	}
+	return j;
+}
+
+/**
+ * Decodes UTF-8 bytes up to the first NULL byte as UTF-16 characters.
+ *
+ * @return the characters, or <code>null</code> if the bytes are not well-formed
+ * UTF-8, so that the conversion is left to g_utf8_to_utf16() and fails the same way
+ */
+static char [] decode (byte [] buffer) {
+	int length = buffer.length, i = 0;
+	/* ASCII fast path */
+	while (i < length && buffer [i] > 0) i++;
+	if (i == length || buffer [i] == 0) {
+		if (i == 0) return EmptyCharArray;
+		char [] chars = new char [i];
+		for (int k = 0; k < i; k++) chars [k] = (char) buffer [k];
+		return chars;
+	}
+	if (length > MAX_POOLED_LENGTH) return null;
+	Buffers buffers = BUFFERS.get ();
+	char [] chars = chars (buffers, length);
+	for (int k = 0; k < i; k++) chars [k] = (char) buffer [k];
+	int j = i;
+	while (i < length) {
+		int b = buffer [i++];
+		if (b == 0) break;
+		if (b > 0) {
+			chars [j++] = (char) b;
+			continue;
+		}
+		b &= 0xFF;
+		int count, codePoint;
+		if (b >= 0xC2 && b <= 0xDF) {
+			count = 1;
+			codePoint = b & 0x1F;
+		} else if (b >= 0xE0 && b <= 0xEF) {
+			count = 2;
+			codePoint = b & 0x0F;
+		} else if (b >= 0xF0 && b <= 0xF4) {
+			count = 3;
+			codePoint = b & 0x07;
+		} else {
+			return null;
+		}
+		if (i + count > length) return null;
+		for (int k = 0; k < count; k++) {
+			int next = buffer [i++];
+			if ((next & 0xC0) != 0x80) return null;
+			codePoint = (codePoint << 6) | (next & 0x3F);
+		}
+		if (count == 1) {
+			chars [j++] = (char) codePoint;
+		} else if (count == 2) {
+			/* Overlong encodings and surrogates */
+			if (codePoint < 0x800 || Character.isSurrogate ((char) codePoint)) return null;
+			chars [j++] = (char) codePoint;
+		} else {
+			if (codePoint < 0x10000 || codePoint > Character.MAX_CODE_POINT) return null;
+			chars [j++] = Character.highSurrogate (codePoint);
+			chars [j++] = Character.lowSurrogate (codePoint);
+		}
+	}
+	return Arrays.copyOf (chars, j);
+}
 
 /**
  * Convert a Java UTF-16 Wide character into a single C UTF-8 Multibyte character
@@ -0,0 +1,44 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Eclipse Foundation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Eclipse Foundation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.swt.internal;
+
+
+/**
+ * Counts the changes of the fonts and font settings of the process,
+ * such as a font loaded into fontconfig or changed GTK settings, so
+ * that text shaped before a change is not reused after it.
+ */
+public final class FontSettings {
+	static volatile int serial;
+
+private FontSettings() {
+}
+
+/**
+ * Records that the fonts or the font settings changed.
+ */
+public static void changed() {
+	synchronized (FontSettings.class) {
+		serial++;
+	}
+}
+
+/**
+ * Returns a number that differs after every change of the fonts
+ * or the font settings.
+ */
+public static int getSerial() {
+	return serial;
+}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2022 IBM Corporation and others.
+ * Copyright (c) 2000, 2026 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -126,7 +126,7 @@ public class Display extends Device implements Executor {
 	long [] gdkEvents;
 	Widget [] gdkEventWidgets;
 	int [] dispatchEvents;
-	Event [] eventQueue;
+	DeferredEventQueue eventQueue = new DeferredEventQueue ();
 	long fds;
 	int allocated_nfds;
 	boolean wake;
@@ -195,7 +195,7 @@ public class Display extends Device implements Executor {
 	long preeditWindow, preeditLabel;
 
 	/* Sync/Async Widget Communication */
-	Synchronizer synchronizer = new Synchronizer (this);
+	volatile Synchronizer synchronizer = new Synchronizer (this);
 	Consumer<RuntimeException> runtimeExceptionHandler = DefaultExceptionHandler.RUNTIME_EXCEPTION_HANDLER;
 	Consumer<Error> errorHandler = DefaultExceptionHandler.RUNTIME_ERROR_HANDLER;
 	Thread thread;
@@ -234,8 +234,9 @@ public class Display extends Device implements Executor {
 	TrayItem currentTrayItem;
 
 	/* Timers */
-	int [] timerIds;
-	Runnable [] timerList;
+	TimerWheel timerWheel;
+	int timerId;
+	long timerTime;
 	Callback timerCallback;
 	long timerProc;
 	Callback windowTimerCallback;
@@ -633,6 +634,31 @@ public Display (DeviceData data) {
 	super (data);
 }
 
+/**
+ * Adds the listener to the collection of listeners who will be
+ * notified each time the receiver has run the events that were
+ * deferred until the event loop.
+ *
+ * @param listener the listener which should be notified
+ *
+ * @exception IllegalArgumentException <ul>
+ *    <li>ERROR_NULL_ARGUMENT - if the listener is null</li>
+ * </ul>
+ * @exception SWTException <ul>
+ *    <li>ERROR_THREAD_INVALID_ACCESS - if not called from the thread that created the receiver</li>
+ *    <li>ERROR_DEVICE_DISPOSED - if the receiver has been disposed</li>
+ * </ul>
+ *
+ * @see DeferredEventListener
+ * @see #removeDeferredEventListener(DeferredEventListener)
+ * @since 3.127
+ */
+public void addDeferredEventListener (DeferredEventListener listener) {
+	checkDevice ();
+	if (listener == null) error (SWT.ERROR_NULL_ARGUMENT);
+	eventQueue.addListener (listener);
+}
+
 /**
  * Adds the listener to the collection of listeners who will
  * be notified when an event of the given type occurs anywhere
@@ -916,20 +942,76 @@ void addWidget (long handle, Widget widget) {
  * @see #syncExec
  */
 public void asyncExec (Runnable runnable) {
-	synchronized (Device.class) {
-		if (isDisposed ()) error (SWT.ERROR_DEVICE_DISPOSED);
-		synchronized (idleLock) {
-			if (idleNeeded && idleHandle == 0) {
-				if (GTK.GTK4) {
-					idleHandle = OS.g_idle_add (idleProc, 0);
-				} else {
-					idleHandle = GDK.gdk_threads_add_idle (idleProc, 0);
-				}
+	Synchronizer synchronizer = this.synchronizer;
+	if (synchronizer == null || isDisposed ()) error (SWT.ERROR_DEVICE_DISPOSED);
+	synchronized (idleLock) {
+		if (idleNeeded && idleHandle == 0) {
+			if (GTK.GTK4) {
+				idleHandle = OS.g_idle_add (idleProc, 0);
+			} else {
+				idleHandle = GDK.gdk_threads_add_idle (idleProc, 0);
+			}
+
+		}
+	}
+	synchronizer.asyncExec (runnable);
+}
 
+/**
+ * Causes the <code>run()</code> method of the runnable to
+ * be invoked by the user-interface thread at the next
+ * reasonable opportunity, unless a runnable submitted for an
+ * equal key is still queued, in which case the runnable replaces
+ * it in its place in the queue. The caller of this method
+ * continues to run in parallel, and is not notified when the
+ * runnable has completed.
+ * <p>
+ * This is meant for updates of which only the latest matters,
+ * such as the status of a background job shown in a label: the
+ * user-interface thread runs at most one runnable per key, however
+ * fast the updates are submitted. Replacing a queued runnable does
+ * not block, and the key is usually the widget that is updated.
+ * </p>
+ * <p>
+ * Note that at the time the runnable is invoked, widgets
+ * that have the receiver as their display may have been
+ * disposed. Therefore, it is necessary to check for this
+ * case inside the runnable before accessing the widget.
+ * </p>
+ *
+ * @param key the key of the runnable, compared with <code>equals()</code>
+ * @param runnable code to run on the user-interface thread
+ *
+ * @exception IllegalArgumentException <ul>
+ *    <li>ERROR_NULL_ARGUMENT - if the key or the runnable is null</li>
+ * </ul>
+ * @exception SWTException <ul>
+ *    <li>ERROR_DEVICE_DISPOSED - if the receiver has been disposed</li>
+ * </ul>
+ *
+ * @see #asyncExec
+ * @since 3.127
+ */
+public void asyncExecCoalesced (Object key, Runnable runnable) {
+	if (key == null || runnable == null) error (SWT.ERROR_NULL_ARGUMENT);
+	/*
+	* Replace a queued runnable without waking the display. A
+	* runnable that replaces a queued one is run, even when it was
+	* queued by a synchronizer that was replaced meanwhile.
+	*/
+	Synchronizer synchronizer = this.synchronizer;
+	if (synchronizer != null && synchronizer.replaceCoalesced (key, runnable)) return;
+	if (synchronizer == null || isDisposed ()) error (SWT.ERROR_DEVICE_DISPOSED);
+	synchronized (idleLock) {
+		if (idleNeeded && idleHandle == 0) {
+			if (GTK.GTK4) {
+				idleHandle = OS.g_idle_add (idleProc, 0);
+			} else {
+				idleHandle = GDK.gdk_threads_add_idle (idleProc, 0);
 			}
 		}
-		synchronizer.asyncExec (runnable);
 	}
+	synchronizer.asyncExecCoalesced (key, runnable);
 }
 
 /**
@@ -2711,6 +2793,26 @@ public Monitor[] getMonitors() {
 	return monitors;
 }
 
+/**
+ * Returns the number of runnables that were scheduled with
+ * <code>timerExec</code> and have not been run or cancelled yet.
+ *
+ * @return the number of pending timers
+ *
+ * @exception SWTException <ul>
+ *    <li>ERROR_THREAD_INVALID_ACCESS - if not called from the thread that created the receiver</li>
+ *    <li>ERROR_DEVICE_DISPOSED - if the receiver has been disposed</li>
+ * </ul>
+ *
+ * @see #timerExec(int, Runnable)
+ *
+ * @since 3.127
+ */
+public int getPendingTimerCount () {
+	checkDevice ();
+	return timerWheel.size ();
+}
+
 /**
  * Returns the primary monitor for that device.
  *
@@ -3702,6 +3804,7 @@ void initializeCallbacks () {
 
 	timerCallback = new Callback (this, "timerProc", 1); //$NON-NLS-1$
 	timerProc = timerCallback.getAddress ();
+	timerWheel = new TimerWheel ();
 
 	windowTimerCallback = new Callback (this, "windowTimerProc", 1); //$NON-NLS-1$
 	windowTimerProc = windowTimerCallback.getAddress ();
@@ -4435,19 +4538,7 @@ void postEvent (Event event) {
 	* thread so it must be re-enterant but does not
 	* need to be synchronized.
 	*/
-	if (eventQueue == null) eventQueue = new Event [4];
-	int index = 0;
-	int length = eventQueue.length;
-	while (index < length) {
-		if (eventQueue [index] == null) break;
-		index++;
-	}
-	if (index == length) {
-		Event [] newQueue = new Event [length + 4];
-		System.arraycopy (eventQueue, 0, newQueue, 0, length);
-		eventQueue = newQueue;
-	}
-	eventQueue [index] = event;
+	eventQueue.add (event);
 }
 
 void putGdkEvents () {
@@ -4698,11 +4789,18 @@ void releaseDisplay () {
 	shellMapCallback.dispose (); shellMapCallback = null;
 	shellMapProc = 0;
 
-	/* Dispose the run async messages callback */
-	idleCallback.dispose (); idleCallback = null;
-	idleProc = 0;
-	if (idleHandle != 0) OS.g_source_remove (idleHandle);
-	idleHandle = 0;
+	/*
+	* Dispose the run async messages callback. Other threads that
+	* queue runnables check idleNeeded in the idle lock and do not
+	* add an idle source once it is cleared.
+	*/
+	synchronized (idleLock) {
+		idleNeeded = false;
+		idleCallback.dispose (); idleCallback = null;
+		idleProc = 0;
+		if (idleHandle != 0) OS.g_source_remove (idleHandle);
+		idleHandle = 0;
+	}
 
 	/* Dispose GtkTreeView callbacks */
 	cellDataCallback.dispose (); cellDataCallback = null;
@@ -4734,13 +4832,9 @@ void releaseDisplay () {
 	if (shellMapProcClosure != 0) OS.g_closure_unref (shellMapProcClosure);
 
 	/* Dispose the timer callback */
-	if (timerIds != null) {
-		for (int i=0; i<timerIds.length; i++) {
-			if (timerIds [i] != 0) OS.g_source_remove (timerIds [i]);
-		}
-	}
-	timerIds = null;
-	timerList = null;
+	if (timerId != 0) OS.g_source_remove (timerId);
+	timerId = 0;
+	timerWheel = null;
 	timerProc = 0;
 	timerCallback.dispose ();
 	timerCallback = null;
@@ -4873,6 +4967,31 @@ void releaseDisplay () {
 	}
 }
 
+/**
+ * Removes the listener from the collection of listeners who will be
+ * notified each time the receiver has run the events that were
+ * deferred until the event loop.
+ *
+ * @param listener the listener which should no longer be notified
+ *
+ * @exception IllegalArgumentException <ul>
+ *    <li>ERROR_NULL_ARGUMENT - if the listener is null</li>
+ * </ul>
+ * @exception SWTException <ul>
+ *    <li>ERROR_THREAD_INVALID_ACCESS - if not called from the thread that created the receiver</li>
+ *    <li>ERROR_DEVICE_DISPOSED - if the receiver has been disposed</li>
+ * </ul>
+ *
+ * @see DeferredEventListener
+ * @see #addDeferredEventListener(DeferredEventListener)
+ * @since 3.127
+ */
+public void removeDeferredEventListener (DeferredEventListener listener) {
+	checkDevice ();
+	if (listener == null) error (SWT.ERROR_NULL_ARGUMENT);
+	eventQueue.removeListener (listener);
+}
+
 /**
  * Removes the listener from the collection of listeners who will
  * be notified when an event of the given type occurs anywhere in
@@ -5047,34 +5166,30 @@ boolean runDeferredEvents () {
 	* called in the Display's thread so it must
 	* be re-enterant but need not be synchronized.
 	*/
-	while (eventQueue != null) {
-
-		/* Take an event off the queue */
-		Event event = eventQueue [0];
-		if (event == null) break;
-		int length = eventQueue.length;
-		System.arraycopy (eventQueue, 1, eventQueue, 0, --length);
-		eventQueue [length] = null;
-
-		/* Run the event */
-		Widget widget = event.widget;
-		if (widget != null && !widget.isDisposed ()) {
-			Widget item = event.item;
-			if (item == null || !item.isDisposed ()) {
-				run = true;
-				widget.sendEvent (event);
+	long startTime = eventQueue.beginDrain ();
+	try {
+		Event event;
+		while ((event = eventQueue.poll ()) != null) {
+
+			/* Run the event */
+			Widget widget = event.widget;
+			if (widget != null && !widget.isDisposed ()) {
+				Widget item = event.item;
+				if (item == null || !item.isDisposed ()) {
+					run = true;
+					widget.sendEvent (event);
+				}
 			}
-		}
 
-		/*
-		* At this point, the event queue could
-		* be null due to a recursive invokation
-		* when running the event.
-		*/
+			/*
+			* At this point, the event queue could have
+			* been drained by a recursive invocation when
+			* running the event.
+			*/
+		}
+	} finally {
+		eventQueue.endDrain (startTime, run);
 	}
-
-	/* Clear the queue */
-	eventQueue = null;
 	return run;
 }
 
@@ -5116,6 +5231,7 @@ boolean runSettings () {
 	runSettings = false;
 	saveResources ();
 	initializeSystemColors ();
+	FontSettings.changed ();
 	sendEvent (SWT.Settings, null);
 	Shell [] shells = getShells ();
 	for (int i=0; i<shells.length; i++) {
@@ -5679,66 +5795,108 @@ public boolean sleep () {
 public void timerExec (int milliseconds, Runnable runnable) {
 	checkDevice ();
 	if (runnable == null) error (SWT.ERROR_NULL_ARGUMENT);
-	if (timerList == null) timerList = new Runnable [4];
-	if (timerIds == null) timerIds = new int [4];
-	int index = 0;
-	while (index < timerList.length) {
-		if (timerList [index] == runnable) break;
-		index++;
-	}
-	if (index != timerList.length) {
-		OS.g_source_remove (timerIds [index]);
-		timerList [index] = null;
-		timerIds [index] = 0;
-		if (milliseconds < 0) return;
+	if (milliseconds < 0) {
+		timerWheel.cancel (runnable);
 	} else {
-		if (milliseconds < 0) return;
-		index = 0;
-		while (index < timerList.length) {
-			if (timerList [index] == null) break;
-			index++;
-		}
-		if (index == timerList.length) {
-			Runnable [] newTimerList = new Runnable [timerList.length + 4];
-			System.arraycopy (timerList, 0, newTimerList, 0, timerList.length);
-			timerList = newTimerList;
-			int [] newTimerIds = new int [timerIds.length + 4];
-			System.arraycopy (timerIds, 0, newTimerIds, 0, timerIds.length);
-			timerIds = newTimerIds;
-		}
-	}
-	int timerId;
-	if (GTK.GTK4) {
-		timerId = OS.g_timeout_add (milliseconds, timerProc, index);
-	} else {
-		timerId = GDK.gdk_threads_add_timeout (milliseconds, timerProc, index);
-	}
-	if (timerId != 0) {
-		timerIds [index] = timerId;
-		timerList [index] = runnable;
+		timerWheel.schedule (runnable, milliseconds, false);
 	}
+	updateTimer ();
+}
+
+/**
+ * Causes the <code>run()</code> method of the runnable to
+ * be invoked by the user-interface thread after the specified
+ * number of milliseconds have elapsed, unless it is already
+ * scheduled to be invoked earlier. If milliseconds is less
+ * than zero, the runnable is not scheduled again.
+ * <p>
+ * Unlike <code>timerExec</code>, which always reschedules the
+ * runnable, this method keeps the earliest of the pending and the
+ * requested time, so that a runnable that is requested many times
+ * runs once, no later than the first request asked for.
+ * </p>
+ * <p>
+ * Note that at the time the runnable is invoked, widgets
+ * that have the receiver as their display may have been
+ * disposed. Therefore, it is necessary to check for this
+ * case inside the runnable before accessing the widget.
+ * </p>
+ *
+ * @param milliseconds the longest delay before running the runnable
+ * @param runnable code to run on the user-interface thread
+ *
+ * @exception IllegalArgumentException <ul>
+ *    <li>ERROR_NULL_ARGUMENT - if the runnable is null</li>
+ * </ul>
+ * @exception SWTException <ul>
+ *    <li>ERROR_THREAD_INVALID_ACCESS - if not called from the thread that created the receiver</li>
+ *    <li>ERROR_DEVICE_DISPOSED - if the receiver has been disposed</li>
+ * </ul>
+ *
+ * @see #timerExec(int, Runnable)
+ *
+ * @since 3.127
+ */
+public void timerExecCoalesced (int milliseconds, Runnable runnable) {
+	checkDevice ();
+	if (runnable == null) error (SWT.ERROR_NULL_ARGUMENT);
+	if (milliseconds < 0) return;
+	timerWheel.schedule (runnable, milliseconds, true);
+	updateTimer ();
 }
 
 long timerProc (long i) {
-	if (timerList == null) return 0;
-	int index = (int)i;
-	if (0 <= index && index < timerList.length) {
-		Runnable runnable = timerList [index];
-		timerList [index] = null;
-		timerIds [index] = 0;
-		if (runnable != null) {
-			try {
-				runnable.run ();
-			} catch (RuntimeException exception) {
-				runtimeExceptionHandler.accept (exception);
-			} catch (Error exception) {
-				errorHandler.accept (exception);
-			}
+	timerId = 0;
+	if (timerWheel == null) return 0;
+	timerWheel.expire (timerWheel.now ());
+	Runnable runnable;
+	while ((runnable = timerWheel.poll ()) != null) {
+		/*
+		* Arm the source for the remaining expired timers, which
+		* run in the nested event loop of a runnable that opens
+		* a modal dialog.
+		*/
+		updateTimer ();
+		try {
+			runnable.run ();
+		} catch (RuntimeException exception) {
+			runtimeExceptionHandler.accept (exception);
+		} catch (Error exception) {
+			errorHandler.accept (exception);
 		}
+		if (timerWheel == null) return 0;
 	}
+	updateTimer ();
 	return 0;
 }
 
+/*
+* Keep a single main loop source for all the timers, which fires
+* at the next time of the timer wheel. A source that fires earlier
+* than needed, because its timer was rescheduled or cancelled, is
+* kept and armed again when it fires, so that timers that are
+* rescheduled many times do not add and remove sources.
+*/
+void updateTimer () {
+	long time = timerWheel.nextTime ();
+	if (time == Long.MAX_VALUE) {
+		if (timerId != 0) OS.g_source_remove (timerId);
+		timerId = 0;
+		return;
+	}
+	if (timerId != 0) {
+		if (timerTime <= time) return;
+		OS.g_source_remove (timerId);
+	}
+	int milliseconds = (int) Math.max (0, Math.min (Integer.MAX_VALUE, time - timerWheel.now ()));
+	if (GTK.GTK4) {
+		timerId = OS.g_timeout_add (milliseconds, timerProc, 0);
+	} else {
+		timerId = GDK.gdk_threads_add_timeout (milliseconds, timerProc, 0);
+	}
+	timerTime = time;
+}
+
 long caretProc (long clientData) {
 	caretId = 0;
 	if (currentCaret == null) {
@@ -5943,17 +6101,14 @@ long signalProc (long gobject, long arg1, long user_data) {
  * @see #asyncExec
  */
 public void syncExec (Runnable runnable) {
-	Synchronizer synchronizer;
-	synchronized (Device.class) {
-		if (isDisposed ()) error (SWT.ERROR_DEVICE_DISPOSED);
-		synchronizer = this.synchronizer;
-		synchronized (idleLock) {
-			if (idleNeeded && idleHandle == 0) {
-				if (GTK.GTK4) {
-					idleHandle = OS.g_idle_add (idleProc, 0);
-				} else {
-					idleHandle = GDK.gdk_threads_add_idle (idleProc, 0);
-				}
+	Synchronizer synchronizer = this.synchronizer;
+	if (synchronizer == null || isDisposed ()) error (SWT.ERROR_DEVICE_DISPOSED);
+	synchronized (idleLock) {
+		if (idleNeeded && idleHandle == 0) {
+			if (GTK.GTK4) {
+				idleHandle = OS.g_idle_add (idleProc, 0);
+			} else {
+				idleHandle = GDK.gdk_threads_add_idle (idleProc, 0);
 			}
 		}
 	}
@@ -6007,6 +6162,51 @@ public <T, E extends Exception> T syncCall(SwtCallable<T, E> callable) throws E
 	return result.getPlain();
 }
 
+/**
+ * Queues the callable to be called by the user-interface thread at the
+ * next reasonable opportunity, and returns a future that is completed
+ * with its result. The caller of this method continues to run in
+ * parallel, and is never blocked by the user-interface thread.
+ * <p>
+ * This is meant for code that runs on many threads, such as virtual
+ * threads, and should not block them while it waits for the user
+ * interface. The callable is queued like the runnables of
+ * <code>asyncExec</code>, even when this method is called from the
+ * user-interface thread.
+ * </p>
+ * <p>
+ * The future is completed exceptionally with the exception thrown by
+ * the callable, or with an <code>SWTException</code> when the receiver is
+ * disposed before the callable is called. The callable is not called when
+ * the future has been completed or cancelled before.
+ * </p>
+ * <p>
+ * Note that at the time the callable is invoked, widgets that have the receiver
+ * as their display may have been disposed. Therefore, it is necessary to check
+ * for this case inside the callable before accessing the widget.
+ * </p>
+ *
+ * @param callable the code to call on the user-interface thread
+ * @return a future that is completed with the result of the callable
+ *
+ * @exception IllegalArgumentException <ul>
+ *    <li>ERROR_NULL_ARGUMENT - if the callable is null</li>
+ * </ul>
+ * @exception SWTException <ul>
+ *    <li>ERROR_DEVICE_DISPOSED - if the receiver has been disposed</li>
+ * </ul>
+ *
+ * @see #asyncExec(Runnable)
+ * @see #syncCall(SwtCallable)
+ * @since 3.127
+ */
+public <T> CompletableFuture<T> submit (Callable<T> callable) {
+	if (callable == null) error (SWT.ERROR_NULL_ARGUMENT);
+	Synchronizer.SubmittedCallable<T> submitted = new Synchronizer.SubmittedCallable<> (callable);
+	asyncExec (submitted);
+	return submitted.future;
+}
+
 static int translateKey (int key) {
 	for (int i=0; i<KeyTable.length; i++) {
 		if (KeyTable [i] [0] == key) return KeyTable [i] [1];
@@ -0,0 +1,257 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Eclipse Foundation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Eclipse Foundation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.swt.widgets;
+
+
+import java.util.*;
+
+/**
+ * Instances of this class keep the runnables of <code>Display.timerExec</code>
+ * in a hierarchical timer wheel, so that scheduling, rescheduling and
+ * cancelling a timer take constant time however many timers are pending,
+ * and the display needs a single main loop source that fires at
+ * <code>nextTime()</code>.
+ * <p>
+ * Times are in milliseconds since the wheel was created. The wheel has
+ * 6 levels of 64 slots, and the slots of a level span 64 times the
+ * time of the slots of the level below, from 1 ms for the first level
+ * up to more than the largest delay of an int. A timer is kept in the
+ * level whose slots are as long as its remaining delay, and moves down
+ * a level whenever the time reaches the start of its slot, so that it
+ * expires at the exact millisecond.
+ * </p>
+ * <p>
+ * Expired timers are kept in order of expiration, and timers that expire
+ * in the same millisecond in the order they were scheduled in, until the
+ * display takes them with <code>expire(long)</code> and runs them with
+ * <code>poll()</code>.
+ * </p>
+ */
+final class TimerWheel {
+	static final int LEVELS = 6;
+	static final int SLOT_BITS = 6;
+	static final int SLOTS = 1 << SLOT_BITS;
+	static final int SLOT_MASK = SLOTS - 1;
+
+	final long origin = System.nanoTime ();
+	long time, sequence;
+
+	Map<Runnable, Timer> timers = new IdentityHashMap<> ();
+
+	/* The lists of the slots of each level, and a bit per slot that is not empty */
+	Timer [] [] slots = new Timer [LEVELS] [SLOTS];
+	long [] occupied = new long [LEVELS];
+
+	/* The expired timers, and the expired timers that are being run */
+	Timer due = new Timer (null), running = new Timer (null);
+
+	/* A timer in a circular list of a slot, or the head of the list */
+	static final class Timer {
+		Runnable runnable;
+		long deadline, sequence;
+		int level = -1, slot;
+		Timer previous = this, next = this;
+
+		Timer (Runnable runnable) {
+			this.runnable = runnable;
+		}
+	}
+
+TimerWheel () {
+	for (int level = 0; level < LEVELS; level++) {
+		for (int slot = 0; slot < SLOTS; slot++) {
+			slots [level] [slot] = new Timer (null);
+		}
+	}
+}
+
+/**
+ * Returns the current time of the wheel.
+ */
+long now () {
+	return (System.nanoTime () - origin) / 1_000_000;
+}
+
+/**
+ * Schedules the runnable to expire after the given delay. When the
+ * runnable is already scheduled, it is rescheduled, or it is kept
+ * when <code>keepEarliest</code> is set and it expires no later than
+ * the new time.
+ */
+void schedule (Runnable runnable, int milliseconds, boolean keepEarliest) {
+	long now = now ();
+	advance (now);
+	long deadline = now + milliseconds;
+	Timer timer = timers.get (runnable);
+	if (timer != null) {
+		if (keepEarliest && timer.deadline <= deadline) return;
+		unlink (timer);
+	} else {
+		timer = new Timer (runnable);
+		timers.put (runnable, timer);
+	}
+	timer.deadline = deadline;
+	timer.sequence = sequence++;
+	if (deadline <= time) {
+		append (due, timer);
+	} else {
+		place (timer);
+	}
+}
+
+/**
+ * Cancels the runnable, and returns whether it was scheduled.
+ */
+boolean cancel (Runnable runnable) {
+	Timer timer = timers.remove (runnable);
+	if (timer == null) return false;
+	unlink (timer);
+	return true;
+}
+
+/**
+ * Returns the number of timers that have not been run.
+ */
+int size () {
+	return timers.size ();
+}
+
+/**
+ * Returns the time at which the wheel must be advanced to expire or
+ * move down a timer, which is the current time when expired timers
+ * have not been run, or <code>Long.MAX_VALUE</code> when no timer is
+ * pending.
+ */
+long nextTime () {
+	if (due.next != due || running.next != running) return time;
+	return nextWheelTime ();
+}
+
+/**
+ * Advances the wheel to the given time, and moves the timers that
+ * expire until then to the timers that are run by <code>poll()</code>.
+ */
+void expire (long now) {
+	advance (now);
+	if (due.next == due) return;
+	/* Append the expired timers to the timers of a run that was not finished */
+	Timer first = due.next, last = due.previous;
+	first.previous = running.previous;
+	running.previous.next = first;
+	last.next = running;
+	running.previous = last;
+	due.next = due.previous = due;
+}
+
+/**
+ * Removes the first expired timer taken by <code>expire(long)</code>
+ * and returns its runnable, or returns <code>null</code> when all of
+ * them have been run or cancelled.
+ */
+Runnable poll () {
+	Timer timer = running.next;
+	if (timer == running) return null;
+	timers.remove (timer.runnable);
+	unlink (timer);
+	return timer.runnable;
+}
+
+void advance (long now) {
+	long next;
+	while ((next = nextWheelTime ()) <= now) {
+		time = next;
+		tick (next);
+	}
+	time = Math.max (time, now);
+}
+
+/* Returns the start of the next slot that is not empty in any level */
+long nextWheelTime () {
+	long next = Long.MAX_VALUE;
+	for (int level = 0; level < LEVELS; level++) {
+		if (occupied [level] == 0) continue;
+		int shift = level * SLOT_BITS;
+		long block = time >>> shift;
+		/*
+		* Find the first slot that is not empty after the current slot,
+		* which is reached after a whole turn when it is the current slot.
+		*/
+		long bits = Long.rotateRight (occupied [level], (int) ((block + 1) & SLOT_MASK));
+		next = Math.min (next, (block + 1 + Long.numberOfTrailingZeros (bits)) << shift);
+	}
+	return next;
+}
+
+/* Move down the timers of the slots that start at the time, and expire the timers of the time */
+void tick (long time) {
+	for (int level = LEVELS - 1; level > 0; level--) {
+		int shift = level * SLOT_BITS;
+		if ((time & ((1L << shift) - 1)) != 0) continue;
+		int slot = (int) ((time >>> shift) & SLOT_MASK);
+		if ((occupied [level] & (1L << slot)) == 0) continue;
+		Timer head = slots [level] [slot];
+		Timer timer = head.next;
+		head.next = head.previous = head;
+		occupied [level] &= ~(1L << slot);
+		while (timer != head) {
+			Timer next = timer.next;
+			place (timer);
+			timer = next;
+		}
+	}
+	int slot = (int) (time & SLOT_MASK);
+	if ((occupied [0] & (1L << slot)) == 0) return;
+	Timer head = slots [0] [slot];
+	ArrayList<Timer> expired = new ArrayList<> ();
+	for (Timer timer = head.next; timer != head; timer = timer.next) {
+		expired.add (timer);
+	}
+	head.next = head.previous = head;
+	occupied [0] &= ~(1L << slot);
+	expired.sort ((timer1, timer2) -> Long.compare (timer1.sequence, timer2.sequence));
+	for (Timer timer : expired) {
+		append (due, timer);
+	}
+}
+
+/* Add the timer to the slot of the level of its remaining delay */
+void place (Timer timer) {
+	long delay = timer.deadline - time;
+	int level = delay < SLOTS ? 0 : (63 - Long.numberOfLeadingZeros (delay)) / SLOT_BITS;
+	int slot = (int) ((timer.deadline >>> (level * SLOT_BITS)) & SLOT_MASK);
+	append (slots [level] [slot], timer);
+	timer.level = level;
+	timer.slot = slot;
+	occupied [level] |= 1L << slot;
+}
+
+void append (Timer head, Timer timer) {
+	timer.previous = head.previous;
+	timer.next = head;
+	head.previous.next = timer;
+	head.previous = timer;
+	timer.level = -1;
+}
+
+void unlink (Timer timer) {
+	timer.previous.next = timer.next;
+	timer.next.previous = timer.previous;
+	timer.previous = timer.next = timer;
+	if (0 <= timer.level && timer.level < LEVELS) {
+		Timer head = slots [timer.level] [timer.slot];
+		if (head.next == head) occupied [timer.level] &= ~(1L << timer.slot);
+	}
+	timer.level = -1;
+}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2016 IBM Corporation and others.
+ * Copyright (c) 2000, 2026 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -155,6 +155,47 @@ public ImageData[] load(InputStream stream) {
 	return data;
 }
 
+/**
+ * Loads an array of <code>ImageData</code> objects from the
+ * specified input stream, decoding them at a reduced size when
+ * the image format supports it. Throws an error if either an error
+ * occurs while loading the images, or if the images are not
+ * of a supported type. Returns the loaded image data array.
+ * <p>
+ * JPEG images are scaled by 1/2, 1/4 or 1/8 while they are decoded,
+ * choosing the smallest of these sizes that is still at least
+ * <code>width</code> by <code>height</code> pixels. This is much
+ * faster and uses much less memory than decoding the full image and
+ * scaling it afterwards, which makes it well suited for thumbnails.
+ * The returned image may be larger than the requested size, and
+ * images in other formats are loaded at their full size.
+ * </p>
+ *
+ * @param stream the input stream to load the images from
+ * @param width the smallest width of interest, in pixels
+ * @param height the smallest height of interest, in pixels
+ * @return an array of <code>ImageData</code> objects loaded from the specified input stream
+ *
+ * @exception IllegalArgumentException <ul>
+ *    <li>ERROR_NULL_ARGUMENT - if the stream is null</li>
+ *    <li>ERROR_INVALID_ARGUMENT - if the width or height is not positive</li>
+ * </ul>
+ * @exception SWTException <ul>
+ *    <li>ERROR_IO - if an IO error occurs while reading from the stream</li>
+ *    <li>ERROR_INVALID_IMAGE - if the image stream contains invalid data</li>
+ *    <li>ERROR_UNSUPPORTED_FORMAT - if the image stream contains an unrecognized format</li>
+ * </ul>
+ *
+ * @since 3.127
+ */
+public ImageData[] load(InputStream stream, int width, int height) {
+	if (stream == null) SWT.error(SWT.ERROR_NULL_ARGUMENT);
+	if (width <= 0 || height <= 0) SWT.error(SWT.ERROR_INVALID_ARGUMENT);
+	reset();
+	data = FileFormat.load(stream, this, width, height);
+	return data;
+}
+
 /**
  * Loads an array of <code>ImageData</code> objects from the
  * file with the specified name. Throws an error if either
@@ -183,6 +224,88 @@ public ImageData[] load(String filename) {
 	return null;
 }
 
+/**
+ * Reads the headers of the specified input stream, and returns the
+ * format, size and depth of the images it contains and the number
+ * of images. The pixels are not decoded and no <code>ImageData</code>
+ * is created, so this is much cheaper than loading the images, for
+ * example to lay out thumbnails of many files before loading them.
+ * <p>
+ * For animated GIF images, the size is that of the logical screen.
+ * For GIF and TIFF files the rest of the stream is read to count the
+ * images, skipping the image data.
+ * </p>
+ *
+ * @param stream the input stream to read the headers from
+ * @return a description of the images in the specified input stream
+ *
+ * @exception IllegalArgumentException <ul>
+ *    <li>ERROR_NULL_ARGUMENT - if the stream is null</li>
+ * </ul>
+ * @exception SWTException <ul>
+ *    <li>ERROR_IO - if an IO error occurs while reading from the stream</li>
+ *    <li>ERROR_INVALID_IMAGE - if the image stream contains invalid data</li>
+ *    <li>ERROR_UNSUPPORTED_FORMAT - if the image stream contains an unrecognized format</li>
+ * </ul>
+ *
+ * @see #load(InputStream)
+ * @since 3.127
+ */
+public static ImageInfo probe(InputStream stream) {
+	if (stream == null) SWT.error(SWT.ERROR_NULL_ARGUMENT);
+	return FileFormat.probe(stream);
+}
+
+/**
+ * Reads the headers of the file with the specified name, and returns
+ * the format, size and depth of the images it contains and the number
+ * of images, without decoding them.
+ *
+ * @param filename the name of the file to read the headers from
+ * @return a description of the images in the specified file
+ *
+ * @exception IllegalArgumentException <ul>
+ *    <li>ERROR_NULL_ARGUMENT - if the file name is null</li>
+ * </ul>
+ * @exception SWTException <ul>
+ *    <li>ERROR_IO - if an IO error occurs while reading from the file</li>
+ *    <li>ERROR_INVALID_IMAGE - if the image file contains invalid data</li>
+ *    <li>ERROR_UNSUPPORTED_FORMAT - if the image file contains an unrecognized format</li>
+ * </ul>
+ *
+ * @see #probe(InputStream)
+ * @since 3.127
+ */
+public static ImageInfo probe(String filename) {
+	if (filename == null) SWT.error(SWT.ERROR_NULL_ARGUMENT);
+	return FileFormat.probe(filename);
+}
+
+/**
+ * Reads the headers of the files with the specified names, and returns
+ * a description of the images in each file, without decoding them. The
+ * files are read on several threads. The description of a file that
+ * cannot be read, or that is not a valid image in a supported format,
+ * is <code>null</code>.
+ *
+ * @param filenames the names of the files to read the headers from
+ * @return an array with a description of the images in each file, or <code>null</code>
+ *
+ * @exception IllegalArgumentException <ul>
+ *    <li>ERROR_NULL_ARGUMENT - if the array or one of the file names is null</li>
+ * </ul>
+ *
+ * @see #probe(String)
+ * @since 3.127
+ */
+public static ImageInfo[] probe(String[] filenames) {
+	if (filenames == null) SWT.error(SWT.ERROR_NULL_ARGUMENT);
+	for (String filename : filenames) {
+		if (filename == null) SWT.error(SWT.ERROR_NULL_ARGUMENT);
+	}
+	return FileFormat.probe(filenames);
+}
+
 /**
  * Saves the image data in this ImageLoader to the specified stream.
  * The format parameter can have one of the following values:
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2022 IBM Corporation and others.
+ * Copyright (c) 2000, 2026 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -126,7 +126,7 @@ public class Display extends Device implements Executor {
 	String appLocalDir;
 
 	/* Windows and Events */
-	Event [] eventQueue;
+	DeferredEventQueue eventQueue = new DeferredEventQueue ();
 	Callback windowCallback;
 	long windowProc;
 	int threadId;
@@ -309,7 +309,7 @@ public class Display extends Device implements Executor {
 	static final short [] ACCENTS = new short [] {'~', '`', '\'', '^', '"'};
 
 	/* Sync/Async Widget Communication */
-	Synchronizer synchronizer;
+	volatile Synchronizer synchronizer;
 	Consumer<RuntimeException> runtimeExceptionHandler = DefaultExceptionHandler.RUNTIME_EXCEPTION_HANDLER;
 	Consumer<Error> errorHandler = DefaultExceptionHandler.RUNTIME_ERROR_HANDLER;
 	boolean runMessagesInIdle = false, runMessagesInMessageProc = true;
@@ -338,7 +338,7 @@ public class Display extends Device implements Executor {
 	static final String LAUNCHER_PREFIX = "--launcher.openFile "; //$NON-NLS-1$
 
 	/* Timers */
-	long [] timerIds;
+	long [] timerIds, timerTimes;
 	Runnable [] timerList;
 	long nextTimerId = SETTINGS_ID + 1;
 
@@ -620,6 +620,31 @@ void addSkinnableWidget (Widget widget) {
 	skinList [skinCount++] = widget;
 }
 
+/**
+ * Adds the listener to the collection of listeners who will be
+ * notified each time the receiver has run the events that were
+ * deferred until the event loop.
+ *
+ * @param listener the listener which should be notified
+ *
+ * @exception IllegalArgumentException <ul>
+ *    <li>ERROR_NULL_ARGUMENT - if the listener is null</li>
+ * </ul>
+ * @exception SWTException <ul>
+ *    <li>ERROR_THREAD_INVALID_ACCESS - if not called from the thread that created the receiver</li>
+ *    <li>ERROR_DEVICE_DISPOSED - if the receiver has been disposed</li>
+ * </ul>
+ *
+ * @see DeferredEventListener
+ * @see #removeDeferredEventListener(DeferredEventListener)
+ * @since 3.127
+ */
+public void addDeferredEventListener (DeferredEventListener listener) {
+	checkDevice ();
+	if (listener == null) error (SWT.ERROR_NULL_ARGUMENT);
+	eventQueue.addListener (listener);
+}
+
 /**
  * Adds the listener to the collection of listeners who will
  * be notified when an event of the given type occurs anywhere
@@ -778,10 +803,57 @@ int asciiKey (int key) {
  * @see #syncExec
  */
 public void asyncExec (Runnable runnable) {
-	synchronized (Device.class) {
-		if (isDisposed ()) error (SWT.ERROR_DEVICE_DISPOSED);
-		synchronizer.asyncExec (runnable);
-	}
+	Synchronizer synchronizer = this.synchronizer;
+	if (synchronizer == null || isDisposed ()) error (SWT.ERROR_DEVICE_DISPOSED);
+	synchronizer.asyncExec (runnable);
+}
+
+/**
+ * Causes the <code>run()</code> method of the runnable to
+ * be invoked by the user-interface thread at the next
+ * reasonable opportunity, unless a runnable submitted for an
+ * equal key is still queued, in which case the runnable replaces
+ * it in its place in the queue. The caller of this method
+ * continues to run in parallel, and is not notified when the
+ * runnable has completed.
+ * <p>
+ * This is meant for updates of which only the latest matters,
+ * such as the status of a background job shown in a label: the
+ * user-interface thread runs at most one runnable per key, however
+ * fast the updates are submitted. Replacing a queued runnable does
+ * not block, and the key is usually the widget that is updated.
+ * </p>
+ * <p>
+ * Note that at the time the runnable is invoked, widgets
+ * that have the receiver as their display may have been
+ * disposed. Therefore, it is necessary to check for this
+ * case inside the runnable before accessing the widget.
+ * </p>
+ *
+ * @param key the key of the runnable, compared with <code>equals()</code>
+ * @param runnable code to run on the user-interface thread
+ *
+ * @exception IllegalArgumentException <ul>
+ *    <li>ERROR_NULL_ARGUMENT - if the key or the runnable is null</li>
+ * </ul>
+ * @exception SWTException <ul>
+ *    <li>ERROR_DEVICE_DISPOSED - if the receiver has been disposed</li>
+ * </ul>
+ *
+ * @see #asyncExec
+ * @since 3.127
+ */
+public void asyncExecCoalesced (Object key, Runnable runnable) {
+	if (key == null || runnable == null) error (SWT.ERROR_NULL_ARGUMENT);
+	/*
+	* Replace a queued runnable without waking the display. A
+	* runnable that replaces a queued one is run, even when it was
+	* queued by a synchronizer that was replaced meanwhile.
+	*/
+	Synchronizer synchronizer = this.synchronizer;
+	if (synchronizer != null && synchronizer.replaceCoalesced (key, runnable)) return;
+	if (synchronizer == null || isDisposed ()) error (SWT.ERROR_DEVICE_DISPOSED);
+	synchronizer.asyncExecCoalesced (key, runnable);
 }
 
 /**
@@ -2235,6 +2307,32 @@ long getMsgProc (long code, long wParam, long lParam) {
 	return OS.CallNextHookEx (msgHook, (int)code, wParam, lParam);
 }
 
+/**
+ * Returns the number of runnables that were scheduled with
+ * <code>timerExec</code> and have not been run or cancelled yet.
+ *
+ * @return the number of pending timers
+ *
+ * @exception SWTException <ul>
+ *    <li>ERROR_THREAD_INVALID_ACCESS - if not called from the thread that created the receiver</li>
+ *    <li>ERROR_DEVICE_DISPOSED - if the receiver has been disposed</li>
+ * </ul>
+ *
+ * @see #timerExec(int, Runnable)
+ *
+ * @since 3.127
+ */
+public int getPendingTimerCount () {
+	checkDevice ();
+	int count = 0;
+	if (timerList != null) {
+		for (int i=0; i<timerList.length; i++) {
+			if (timerList [i] != null) count++;
+		}
+	}
+	return count;
+}
+
 /**
  * Returns the primary monitor for that device.
  *
@@ -3634,19 +3732,7 @@ void postEvent (Event event) {
 	* thread so it must be re-enterant but does not
 	* need to be synchronized.
 	*/
-	if (eventQueue == null) eventQueue = new Event [4];
-	int index = 0;
-	int length = eventQueue.length;
-	while (index < length) {
-		if (eventQueue [index] == null) break;
-		index++;
-	}
-	if (index == length) {
-		Event [] newQueue = new Event [length + 4];
-		System.arraycopy (eventQueue, 0, newQueue, 0, length);
-		eventQueue = newQueue;
-	}
-	eventQueue [index] = event;
+	eventQueue.add (event);
 }
 
 /**
@@ -3888,7 +3974,7 @@ void releaseDisplay () {
 	keys = null;
 	values = null;
 	bars = popups = null;
-	timerIds = null;
+	timerIds = timerTimes = null;
 	lastHittestControl = null;
 	imageList = toolImageList = toolHotImageList = toolDisabledImageList = null;
 	timerList = null;
@@ -3979,6 +4065,31 @@ void releaseToolDisabledImageList (ImageList list) {
 	}
 }
 
+/**
+ * Removes the listener from the collection of listeners who will be
+ * notified each time the receiver has run the events that were
+ * deferred until the event loop.
+ *
+ * @param listener the listener which should no longer be notified
+ *
+ * @exception IllegalArgumentException <ul>
+ *    <li>ERROR_NULL_ARGUMENT - if the listener is null</li>
+ * </ul>
+ * @exception SWTException <ul>
+ *    <li>ERROR_THREAD_INVALID_ACCESS - if not called from the thread that created the receiver</li>
+ *    <li>ERROR_DEVICE_DISPOSED - if the receiver has been disposed</li>
+ * </ul>
+ *
+ * @see DeferredEventListener
+ * @see #addDeferredEventListener(DeferredEventListener)
+ * @since 3.127
+ */
+public void removeDeferredEventListener (DeferredEventListener listener) {
+	checkDevice ();
+	if (listener == null) error (SWT.ERROR_NULL_ARGUMENT);
+	eventQueue.removeListener (listener);
+}
+
 /**
  * Removes the listener from the collection of listeners who will
  * be notified when an event of the given type occurs anywhere in
@@ -4080,34 +4191,30 @@ boolean runDeferredEvents () {
 	* called in the Display's thread so it must
 	* be re-enterant but need not be synchronized.
 	*/
-	while (eventQueue != null) {
-
-		/* Take an event off the queue */
-		Event event = eventQueue [0];
-		if (event == null) break;
-		int length = eventQueue.length;
-		System.arraycopy (eventQueue, 1, eventQueue, 0, --length);
-		eventQueue [length] = null;
-
-		/* Run the event */
-		Widget widget = event.widget;
-		if (widget != null && !widget.isDisposed ()) {
-			Widget item = event.item;
-			if (item == null || !item.isDisposed ()) {
-				run = true;
-				widget.sendEvent (event);
+	long startTime = eventQueue.beginDrain ();
+	try {
+		Event event;
+		while ((event = eventQueue.poll ()) != null) {
+
+			/* Run the event */
+			Widget widget = event.widget;
+			if (widget != null && !widget.isDisposed ()) {
+				Widget item = event.item;
+				if (item == null || !item.isDisposed ()) {
+					run = true;
+					widget.sendEvent (event);
+				}
 			}
-		}
 
-		/*
-		* At this point, the event queue could
-		* be null due to a recursive invocation
-		* when running the event.
-		*/
+			/*
+			* At this point, the event queue could have
+			* been drained by a recursive invocation when
+			* running the event.
+			*/
+		}
+	} finally {
+		eventQueue.endDrain (startTime, run);
 	}
-
-	/* Clear the queue */
-	eventQueue = null;
 	return run;
 }
 
@@ -4821,11 +4928,8 @@ public boolean sleep () {
  * @see #asyncExec
  */
 public void syncExec (Runnable runnable) {
-	Synchronizer synchronizer;
-	synchronized (Device.class) {
-		if (isDisposed ()) error (SWT.ERROR_DEVICE_DISPOSED);
-		synchronizer = this.synchronizer;
-	}
+	Synchronizer synchronizer = this.synchronizer;
+	if (synchronizer == null || isDisposed ()) error (SWT.ERROR_DEVICE_DISPOSED);
 	synchronizer.syncExec (runnable);
 }
 
@@ -4876,6 +4980,51 @@ public <T, E extends Exception> T syncCall(SwtCallable<T, E> callable) throws E
 	return result.getPlain();
 }
 
+/**
+ * Queues the callable to be called by the user-interface thread at the
+ * next reasonable opportunity, and returns a future that is completed
+ * with its result. The caller of this method continues to run in
+ * parallel, and is never blocked by the user-interface thread.
+ * <p>
+ * This is meant for code that runs on many threads, such as virtual
+ * threads, and should not block them while it waits for the user
+ * interface. The callable is queued like the runnables of
+ * <code>asyncExec</code>, even when this method is called from the
+ * user-interface thread.
+ * </p>
+ * <p>
+ * The future is completed exceptionally with the exception thrown by
+ * the callable, or with an <code>SWTException</code> when the receiver is
+ * disposed before the callable is called. The callable is not called when
+ * the future has been completed or cancelled before.
+ * </p>
+ * <p>
+ * Note that at the time the callable is invoked, widgets that have the receiver
+ * as their display may have been disposed. Therefore, it is necessary to check
+ * for this case inside the callable before accessing the widget.
+ * </p>
+ *
+ * @param callable the code to call on the user-interface thread
+ * @return a future that is completed with the result of the callable
+ *
+ * @exception IllegalArgumentException <ul>
+ *    <li>ERROR_NULL_ARGUMENT - if the callable is null</li>
+ * </ul>
+ * @exception SWTException <ul>
+ *    <li>ERROR_DEVICE_DISPOSED - if the receiver has been disposed</li>
+ * </ul>
+ *
+ * @see #asyncExec(Runnable)
+ * @see #syncCall(SwtCallable)
+ * @since 3.127
+ */
+public <T> CompletableFuture<T> submit (Callable<T> callable) {
+	if (callable == null) error (SWT.ERROR_NULL_ARGUMENT);
+	Synchronizer.SubmittedCallable<T> submitted = new Synchronizer.SubmittedCallable<> (callable);
+	asyncExec (submitted);
+	return submitted.future;
+}
+
 /**
  * Causes the <code>run()</code> method of the runnable to
  * be invoked by the user-interface thread after the specified
@@ -4906,6 +5055,7 @@ public void timerExec (int milliseconds, Runnable runnable) {
 	if (runnable == null) error (SWT.ERROR_NULL_ARGUMENT);
 	if (timerList == null) timerList = new Runnable [4];
 	if (timerIds == null) timerIds = new long [4];
+	if (timerTimes == null) timerTimes = new long [4];
 	int index = 0;
 	while (index < timerList.length) {
 		if (timerList [index] == runnable) break;
@@ -4935,13 +5085,66 @@ public void timerExec (int milliseconds, Runnable runnable) {
 			long [] newTimerIds = new long [timerIds.length + 4];
 			System.arraycopy (timerIds, 0, newTimerIds, 0, timerIds.length);
 			timerIds = newTimerIds;
+			long [] newTimerTimes = new long [timerTimes.length + 4];
+			System.arraycopy (timerTimes, 0, newTimerTimes, 0, timerTimes.length);
+			timerTimes = newTimerTimes;
 		}
 	}
 	long newTimerID = OS.SetTimer (hwndMessage, timerId, milliseconds, 0);
 	if (newTimerID != 0) {
 		timerList [index] = runnable;
 		timerIds [index] = newTimerID;
+		timerTimes [index] = System.nanoTime () / 1_000_000 + milliseconds;
+	}
+}
+
+/**
+ * Causes the <code>run()</code> method of the runnable to
+ * be invoked by the user-interface thread after the specified
+ * number of milliseconds have elapsed, unless it is already
+ * scheduled to be invoked earlier. If milliseconds is less
+ * than zero, the runnable is not scheduled again.
+ * <p>
+ * Unlike <code>timerExec</code>, which always reschedules the
+ * runnable, this method keeps the earliest of the pending and the
+ * requested time, so that a runnable that is requested many times
+ * runs once, no later than the first request asked for.
+ * </p>
+ * <p>
+ * Note that at the time the runnable is invoked, widgets
+ * that have the receiver as their display may have been
+ * disposed. Therefore, it is necessary to check for this
+ * case inside the runnable before accessing the widget.
+ * </p>
+ *
+ * @param milliseconds the longest delay before running the runnable
+ * @param runnable code to run on the user-interface thread
+ *
+ * @exception IllegalArgumentException <ul>
+ *    <li>ERROR_NULL_ARGUMENT - if the runnable is null</li>
+ * </ul>
+ * @exception SWTException <ul>
+ *    <li>ERROR_THREAD_INVALID_ACCESS - if not called from the thread that created the receiver</li>
+ *    <li>ERROR_DEVICE_DISPOSED - if the receiver has been disposed</li>
+ * </ul>
+ *
+ * @see #timerExec(int, Runnable)
+ *
+ * @since 3.127
+ */
+public void timerExecCoalesced (int milliseconds, Runnable runnable) {
+	checkDevice ();
+	if (runnable == null) error (SWT.ERROR_NULL_ARGUMENT);
+	if (milliseconds < 0) return;
+	if (timerList != null) {
+		for (int i=0; i<timerList.length; i++) {
+			if (timerList [i] == runnable) {
+				if (timerTimes [i] <= System.nanoTime () / 1_000_000 + milliseconds) return;
+				break;
+			}
+		}
 	}
+	timerExec (milliseconds, runnable);
 }
 
 boolean translateAccelerator (MSG msg, Control control) {
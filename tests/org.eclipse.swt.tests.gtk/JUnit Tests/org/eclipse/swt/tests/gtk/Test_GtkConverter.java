@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2018 Red Hat and others. All rights reserved.
+ * Copyright (c) 2018, 2026 Red Hat and others. All rights reserved.
  * The contents of this file are made available under the terms
  * of the GNU Lesser General Public License (LGPL) Version 2.1 that
  * accompanies this distribution (lgpl-v21.txt).  The LGPL is also
@@ -14,9 +14,15 @@
  */
 package org.eclipse.swt.tests.gtk;
 
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 
 import org.eclipse.swt.internal.Converter;
 import org.junit.Ignore;
@@ -151,6 +157,56 @@ public class Test_GtkConverter {
 		helper_testHeuristic(testBytes, "Ё");
 	}
 
+	@Test
+	public void test_wcsToMbcs() {
+		String[] strings = {emptyStr, asciiLetters, codePoint174, unicodeCharactersLowCodePoints, unicodeCharactersHighCodePoints,
+				"emoji \uD83D\uDE00 and \uD834\uDD1E", "Ascii then \u00AE", "\uFFFF\u0800\u07FF\u0080\u007F"};
+		for (String string : strings) {
+			byte[] expected = string.getBytes(StandardCharsets.UTF_8);
+			assertArrayEquals(string, expected, Converter.wcsToMbcs(string, false));
+			assertArrayEquals(string, expected, Converter.wcsToMbcs(string.toCharArray(), false));
+			byte[] terminated = Converter.wcsToMbcs(string, true);
+			assertEquals(string, expected.length + 1, terminated.length);
+			assertEquals(0, terminated[expected.length]);
+			assertEquals(string, new String(Converter.mbcsToWcs(expected)));
+			assertEquals(string, new String(Converter.mbcsToWcs(terminated)));
+		}
+	}
+
+	@Test
+	public void test_wcsToMbcs_nullCharacter() {
+		assertArrayEquals("abc".getBytes(StandardCharsets.UTF_8), Converter.wcsToMbcs("abc\u0000def", false));
+		assertArrayEquals("\u00AE".getBytes(StandardCharsets.UTF_8), Converter.wcsToMbcs("\u00AE\u0000\u00AE", false));
+		assertEquals("abc", new String(Converter.mbcsToWcs(new byte[] {'a', 'b', 'c', 0, 'd'})));
+	}
+
+	@Test
+	public void test_wcsToMbcs_unpairedSurrogates() {
+		/* Like g_utf16_to_utf8(), a high surrogate at the end is dropped and other unpaired surrogates fail the conversion */
+		assertArrayEquals("ab".getBytes(StandardCharsets.UTF_8), Converter.wcsToMbcs("ab\uD83D", false));
+		assertSame(Converter.EmptyByteArray, Converter.wcsToMbcs("a\uDE00b", false));
+		assertSame(Converter.NullByteArray, Converter.wcsToMbcs("a\uD83Db", true));
+	}
+
+	@Test
+	public void test_wcsToMbcsBuffer() {
+		for (String string : new String[] {asciiLetters, unicodeCharactersHighCodePoints, emptyStr, "a\uDE00b"}) {
+			Converter.MbcsBuffer buffer = Converter.wcsToMbcsBuffer(string);
+			byte[] expected = Converter.wcsToMbcs(string, false);
+			assertEquals(string, expected.length, buffer.length);
+			assertArrayEquals(string, expected, Arrays.copyOf(buffer.bytes, buffer.length));
+			assertEquals(0, buffer.bytes[buffer.length]);
+		}
+
+		/* A long string is converted into its own buffer, the buffer of the thread is not grown for it */
+		String longString = "\u00E9".repeat(10_000);
+		Converter.MbcsBuffer longBuffer = Converter.wcsToMbcsBuffer(longString);
+		assertArrayEquals(longString.getBytes(StandardCharsets.UTF_8), Arrays.copyOf(longBuffer.bytes, longBuffer.length));
+		Converter.MbcsBuffer buffer = Converter.wcsToMbcsBuffer(asciiLetters);
+		assertNotSame(longBuffer.bytes, buffer.bytes);
+		assertTrue(buffer.bytes.length < longBuffer.bytes.length);
+	}
+
 	private void helper_testHeuristic(byte[] testBytes, String expected) {
 		String result = Converter.byteToStringViaHeuristic(testBytes);
 		if (!expected.equals(result)) {
@@ -0,0 +1,167 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Eclipse Foundation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Eclipse Foundation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.swt.tests.junit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.swt.internal.DeferredEventQueue;
+import org.eclipse.swt.widgets.DeferredEventListener;
+import org.eclipse.swt.widgets.Event;
+import org.junit.Test;
+
+/**
+ * Automated Test Suite for class org.eclipse.swt.internal.DeferredEventQueue
+ *
+ * @see org.eclipse.swt.internal.DeferredEventQueue
+ */
+@SuppressWarnings("restriction")
+public class DeferredEventQueueTests {
+
+	private static Event event(int detail) {
+		Event event = new Event();
+		event.detail = detail;
+		return event;
+	}
+
+	@Test
+	public void test_addAndPoll() {
+		DeferredEventQueue queue = new DeferredEventQueue();
+		assertNull(queue.poll());
+		/* Wrap around the end of the array before it grows */
+		int next = 0, expected = 0;
+		for (int round = 0; round < 100; round++) {
+			for (int i = 0; i < round % 7 + 1; i++) {
+				queue.add(event(next++));
+			}
+			for (int i = 0; i < round % 5 + 1 && queue.size() > 0; i++) {
+				assertEquals(expected++, queue.poll().detail);
+			}
+		}
+		while (queue.size() > 0) {
+			assertEquals(expected++, queue.poll().detail);
+		}
+		assertEquals(next, expected);
+		assertNull(queue.poll());
+		assertEquals(next, queue.getAddCount());
+	}
+
+	@Test
+	public void test_stress() {
+		final int count = 100_000;
+		DeferredEventQueue queue = new DeferredEventQueue();
+		for (int i = 0; i < count; i++) {
+			queue.add(event(i));
+		}
+		assertEquals(count, queue.size());
+		assertEquals(count, queue.getMaxSize());
+
+		/* Every tenth event posts another event while the queue is drained */
+		int expected = 0, posted = count;
+		long startTime = queue.beginDrain();
+		Event event;
+		while ((event = queue.poll()) != null) {
+			assertEquals(expected++, event.detail);
+			if (event.detail < count && event.detail % 10 == 0) {
+				queue.add(event(posted++));
+			}
+		}
+		queue.endDrain(startTime, true);
+		assertEquals(count + count / 10, expected);
+		assertEquals(expected, queue.getAddCount());
+		assertEquals(0, queue.size());
+		assertEquals(1, queue.getDrainCount());
+		assertTrue(queue.getDrainTime() > 0);
+		assertEquals(queue.getDrainTime(), queue.getMaxDrainTime());
+	}
+
+	@Test
+	public void test_nestedDrain() {
+		DeferredEventQueue queue = new DeferredEventQueue();
+		for (int i = 0; i < 10; i++) {
+			queue.add(event(i));
+		}
+		long startTime = queue.beginDrain();
+		assertEquals(0, queue.poll().detail);
+
+		/* A nested drain runs the remaining events and the events posted meanwhile */
+		Event posted = event(10);
+		queue.add(posted);
+		long nestedStartTime = queue.beginDrain();
+		for (int i = 1; i < 10; i++) {
+			assertEquals(i, queue.poll().detail);
+		}
+		assertSame(posted, queue.poll());
+		queue.endDrain(nestedStartTime, true);
+		assertEquals(0, queue.getDrainCount());
+
+		assertNull(queue.poll());
+		queue.endDrain(startTime, true);
+		assertEquals(1, queue.getDrainCount());
+		assertEquals(10, queue.getMaxSize());
+	}
+
+	@Test
+	public void test_listener() {
+		DeferredEventQueue queue = new DeferredEventQueue();
+		List<int[]> drains = new ArrayList<>();
+		DeferredEventListener listener = (count, runTime, maxSize) -> {
+			assertTrue(runTime >= 0);
+			drains.add(new int[] {count, maxSize});
+		};
+		queue.addListener(listener);
+		for (int i = 0; i < 5; i++) {
+			queue.add(event(i));
+		}
+
+		/* A nested drain is reported with the drain it is nested in */
+		long startTime = queue.beginDrain();
+		queue.poll();
+		queue.add(event(5));
+		queue.add(event(6));
+		long nestedStartTime = queue.beginDrain();
+		while (queue.poll() != null) {
+		}
+		queue.endDrain(nestedStartTime, true);
+		assertTrue(drains.isEmpty());
+		queue.endDrain(startTime, true);
+		assertEquals(1, drains.size());
+		assertEquals(7, drains.get(0)[0]);
+		assertEquals(6, drains.get(0)[1]);
+
+		/* Drains that ran no events are not reported */
+		queue.endDrain(queue.beginDrain(), false);
+		assertEquals(1, drains.size());
+
+		queue.add(event(7));
+		startTime = queue.beginDrain();
+		queue.poll();
+		queue.endDrain(startTime, true);
+		assertEquals(2, drains.size());
+		assertEquals(1, drains.get(1)[0]);
+		assertEquals(1, drains.get(1)[1]);
+
+		queue.removeListener(listener);
+		queue.add(event(8));
+		startTime = queue.beginDrain();
+		queue.poll();
+		queue.endDrain(startTime, true);
+		assertEquals(2, drains.size());
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2016 IBM Corporation and others.
+ * Copyright (c) 2000, 2026 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -27,11 +27,15 @@ import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
 import java.util.concurrent.atomic.AtomicReference;
 
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.graphics.Color;
+import org.eclipse.swt.graphics.Device;
 import org.eclipse.swt.graphics.Font;
+import org.eclipse.swt.graphics.FontData;
 import org.eclipse.swt.graphics.FontMetrics;
 import org.eclipse.swt.graphics.GC;
 import org.eclipse.swt.graphics.Image;
@@ -690,6 +694,55 @@ public void test_textExtentLjava_lang_StringI() {
 	assertTrue(pt.y > 0);
 }
 
+@Test
+public void test_textExtentLjava_lang_StringI_fontChanges() throws ReflectiveOperationException {
+	FontData fontData = display.getSystemFont().getFontData()[0];
+	Font small = new Font(display, fontData.getName(), 8, SWT.NORMAL);
+	Font large = new Font(display, fontData.getName(), 32, SWT.NORMAL);
+	try {
+		gc.setFont(small);
+		long hits = getLayoutCacheCount("getHitCount"), misses = getLayoutCacheCount("getMissCount");
+		Point smallExtent = gc.textExtent("abc", SWT.DRAW_MNEMONIC);
+		assertEquals(smallExtent, gc.textExtent(new String("abc"), SWT.DRAW_MNEMONIC));
+		if (SwtTestUtil.isGTK) {
+			/* The equal string is measured with the layout shaped for the first one */
+			assertEquals(misses + 1, getLayoutCacheCount("getMissCount"));
+			assertEquals(hits + 1, getLayoutCacheCount("getHitCount"));
+			assertTrue(getLayoutCacheCount("getEvictionCount") >= 0);
+		}
+		gc.setFont(large);
+		Point largeExtent = gc.textExtent("abc", SWT.DRAW_MNEMONIC);
+		assertTrue(largeExtent.x > smallExtent.x);
+		assertTrue(largeExtent.y > smallExtent.y);
+		assertEquals(gc.textExtent("abc", 0), gc.textExtent("&abc", SWT.DRAW_MNEMONIC));
+
+		/* The extent of a string measured with a disposed font is not answered for a new font */
+		gc.setFont(null);
+		large.dispose();
+		large = new Font(display, fontData.getName(), 8, SWT.NORMAL);
+		gc.setFont(large);
+		assertEquals(smallExtent, gc.textExtent("abc", SWT.DRAW_MNEMONIC));
+	} finally {
+		small.dispose();
+		large.dispose();
+	}
+}
+
+/*
+ * Answer a counter of the layout cache of the display on GTK, which
+ * has no API, or 0 on the other platforms.
+ */
+private long getLayoutCacheCount(String name) throws ReflectiveOperationException {
+	if (!SwtTestUtil.isGTK) return 0;
+	Field field = Device.class.getDeclaredField("layoutCache");
+	field.setAccessible(true);
+	Object cache = field.get(display);
+	if (cache == null) return 0;
+	Method method = cache.getClass().getDeclaredMethod(name);
+	method.setAccessible(true);
+	return (long) method.invoke(cache);
+}
+
 @Test
 public void test_toString() {
 	String s = gc.toString();
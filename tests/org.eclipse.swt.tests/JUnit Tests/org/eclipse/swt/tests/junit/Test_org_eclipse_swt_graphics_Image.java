@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2020 IBM Corporation and others.
+ * Copyright (c) 2000, 2026 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -16,6 +16,7 @@ package org.eclipse.swt.tests.junit;
 
 
 import static org.eclipse.swt.tests.junit.SwtTestUtil.assertSWTProblem;
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
@@ -23,10 +24,14 @@ import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
+import java.util.Random;
 import java.util.function.Consumer;
 
 import org.eclipse.swt.SWT;
@@ -37,6 +42,7 @@ import org.eclipse.swt.graphics.Image;
 import org.eclipse.swt.graphics.ImageData;
 import org.eclipse.swt.graphics.ImageDataProvider;
 import org.eclipse.swt.graphics.ImageFileNameProvider;
+import org.eclipse.swt.graphics.ImageLoader;
 import org.eclipse.swt.graphics.PaletteData;
 import org.eclipse.swt.graphics.RGB;
 import org.eclipse.swt.graphics.Rectangle;
@@ -253,6 +259,37 @@ public void test_ConstructorLorg_eclipse_swt_graphics_DeviceLorg_eclipse_swt_gra
 	image.dispose();
 }
 
+@Test
+public void test_ConstructorLorg_eclipse_swt_graphics_DeviceLorg_eclipse_swt_graphics_ImageData_alpha() {
+	/* Tall enough to be converted in several bands, in the layout of a little endian surface */
+	ImageData data = new ImageData(301, 700, 32, new PaletteData(0xFF0000, 0xFF00, 0xFF));
+	Random random = new Random(0);
+	random.nextBytes(data.data);
+	data.alphaData = new byte[data.width * data.height];
+	for (int i = 0; i < data.alphaData.length; i++) {
+		data.alphaData[i] = (byte) (i % 3 == 0 ? 0xFF : i % 3 == 1 ? 0 : 0x80);
+	}
+	byte[] pixels = data.data.clone();
+	Image image = new Image(display, data);
+	try {
+		assertArrayEquals("The image data was modified", pixels, data.data);
+		ImageData imageData = image.getImageData(DPIUtil.getDeviceZoom());
+		if (imageData.width == data.width && imageData.height == data.height) {
+			for (int y = 0; y < data.height; y++) {
+				for (int x = 0; x < data.width; x++) {
+					int alpha = data.getAlpha(x, y);
+					assertEquals(alpha, imageData.getAlpha(x, y));
+					if (alpha == 0xFF) {
+						assertEquals(data.palette.getRGB(data.getPixel(x, y)), imageData.palette.getRGB(imageData.getPixel(x, y)));
+					}
+				}
+			}
+		}
+	} finally {
+		image.dispose();
+	}
+}
+
 @Test
 public void test_ConstructorLorg_eclipse_swt_graphics_DeviceLorg_eclipse_swt_graphics_ImageDataLorg_eclipse_swt_graphics_ImageData() {
 	ImageData data = null;
@@ -409,6 +446,41 @@ public void test_ConstructorLorg_eclipse_swt_graphics_DeviceLjava_io_InputStream
 	}
 }
 
+@Test
+public void test_ConstructorLorg_eclipse_swt_graphics_DeviceLjava_io_InputStream_large() {
+	/* Noise does not compress, so the encoded image spans many reads of the stream */
+	ImageData source = new ImageData(300, 200, 24, new PaletteData(0xFF0000, 0xFF00, 0xFF));
+	new Random(0).nextBytes(source.data);
+	ImageLoader loader = new ImageLoader();
+	loader.data = new ImageData[] {source};
+	ByteArrayOutputStream outStream = new ByteArrayOutputStream();
+	loader.save(outStream, SWT.IMAGE_PNG);
+	byte[] bytes = outStream.toByteArray();
+
+	Image expected = new Image(display, new ImageData(new ByteArrayInputStream(bytes)));
+	/* A stream that returns at most 1000 bytes at a time */
+	InputStream stream = new FilterInputStream(new ByteArrayInputStream(bytes)) {
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			return super.read(b, off, Math.min(len, 1000));
+		}
+	};
+	Image image = new Image(display, stream);
+	try {
+		assertEquals(expected.getBounds(), image.getBounds());
+		ImageData expectedData = expected.getImageData();
+		ImageData data = image.getImageData();
+		for (int y = 0; y < data.height; y++) {
+			for (int x = 0; x < data.width; x++) {
+				assertEquals(expectedData.palette.getRGB(expectedData.getPixel(x, y)), data.palette.getRGB(data.getPixel(x, y)));
+			}
+		}
+	} finally {
+		image.dispose();
+		expected.dispose();
+	}
+}
+
 @Test
 public void test_ConstructorLorg_eclipse_swt_graphics_DeviceLjava_lang_String() {
 	String fileName = null;
@@ -0,0 +1,168 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Eclipse Foundation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Eclipse Foundation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.swt.tests.junit;
+
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.NoSuchElementException;
+
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.SWTException;
+import org.eclipse.swt.graphics.ImageAnimation;
+import org.eclipse.swt.graphics.ImageData;
+import org.eclipse.swt.graphics.ImageLoader;
+import org.eclipse.swt.graphics.PaletteData;
+import org.eclipse.swt.graphics.RGB;
+import org.junit.Test;
+
+/**
+ * Automated Test Suite for class org.eclipse.swt.graphics.ImageAnimation
+ *
+ * @see org.eclipse.swt.graphics.ImageAnimation
+ */
+public class Test_org_eclipse_swt_graphics_ImageAnimation {
+	static final int RED = 0xFF0000, GREEN = 0xFF00, BLUE = 0xFF, WHITE = 0xFFFFFF;
+
+@Test
+public void test_ConstructorLjava_io_InputStream() throws IOException {
+	try {
+		new ImageAnimation(null);
+		fail("No exception thrown for stream == null");
+	} catch (IllegalArgumentException e) {
+	}
+
+	try (InputStream stream = SwtTestUtil.class.getResourceAsStream("empty.txt")) {
+		new ImageAnimation(stream);
+		fail("No exception thrown for invalid stream");
+	} catch (SWTException e) {
+	}
+
+	try (InputStream stream = SwtTestUtil.class.getResourceAsStream("target.gif")) {
+		ImageAnimation animation = new ImageAnimation(stream);
+		assertTrue(animation.hasNext());
+		ImageData frame = animation.next();
+		assertEquals(animation.getWidth(), frame.width);
+		assertEquals(animation.getHeight(), frame.height);
+		assertFalse(animation.hasNext());
+	}
+}
+
+@Test
+public void test_next() {
+	ImageData[] frames = {
+		createFrame(0, 0, 4, 4, 0, SWT.DM_FILL_NONE),
+		createFrame(1, 1, 2, 2, 1, SWT.DM_FILL_PREVIOUS),
+		createFrame(0, 0, 1, 1, 2, SWT.DM_FILL_BACKGROUND),
+		createFrame(3, 3, 1, 1, 3, SWT.DM_FILL_NONE)
+	};
+	ImageAnimation animation = new ImageAnimation(new ByteArrayInputStream(saveGif(frames, 4, 4)));
+	assertEquals(4, animation.getWidth());
+	assertEquals(4, animation.getHeight());
+	assertEquals(0, animation.getRepeatCount());
+
+	ImageData canvas = animation.next();
+	assertEquals(10, canvas.delayTime);
+	assertPixel(canvas, 1, 1, RED);
+	assertPixel(canvas, 3, 3, RED);
+
+	assertSame(canvas, animation.next());
+	assertEquals(11, canvas.delayTime);
+	assertPixel(canvas, 0, 0, RED);
+	assertPixel(canvas, 1, 1, GREEN);
+	assertPixel(canvas, 2, 2, GREEN);
+
+	/* The previous frame is restored */
+	animation.next();
+	assertPixel(canvas, 0, 0, BLUE);
+	assertPixel(canvas, 1, 1, RED);
+	assertPixel(canvas, 2, 2, RED);
+
+	/* The previous frame is cleared */
+	animation.next();
+	assertEquals(0, canvas.getAlpha(0, 0));
+	assertPixel(canvas, 1, 1, RED);
+	assertPixel(canvas, 3, 3, WHITE);
+
+	assertFalse(animation.hasNext());
+	try {
+		animation.next();
+		fail("No exception thrown after the last frame");
+	} catch (NoSuchElementException e) {
+	}
+}
+
+@Test
+public void test_nextManyFrames() {
+	ImageData[] frames = new ImageData[1000];
+	for (int i = 0; i < frames.length; i++) {
+		frames[i] = createFrame(i % 8, i % 8, 8, 8, i % 4, SWT.DM_FILL_BACKGROUND);
+	}
+	ImageAnimation animation = new ImageAnimation(new ByteArrayInputStream(saveGif(frames, 16, 16)));
+	int count = 0;
+	while (animation.hasNext()) {
+		ImageData canvas = animation.next();
+		assertPixel(canvas, count % 8, count % 8, new int[] {RED, GREEN, BLUE, WHITE}[count % 4]);
+		count++;
+	}
+	assertEquals(frames.length, count);
+}
+
+ImageData createFrame(int x, int y, int width, int height, int pixel, int disposalMethod) {
+	RGB[] rgbs = new RGB[16];
+	for (int i = 0; i < rgbs.length; i++) {
+		rgbs[i] = new RGB(0, 0, 0);
+	}
+	rgbs[0] = new RGB(255, 0, 0);
+	rgbs[1] = new RGB(0, 255, 0);
+	rgbs[2] = new RGB(0, 0, 255);
+	rgbs[3] = new RGB(255, 255, 255);
+	ImageData frame = new ImageData(width, height, 4, new PaletteData(rgbs));
+	for (int i = 0; i < width; i++) {
+		for (int j = 0; j < height; j++) {
+			frame.setPixel(i, j, pixel);
+		}
+	}
+	frame.x = x;
+	frame.y = y;
+	frame.disposalMethod = disposalMethod;
+	frame.delayTime = 10 + pixel;
+	return frame;
+}
+
+byte[] saveGif(ImageData[] frames, int width, int height) {
+	ImageLoader loader = new ImageLoader();
+	loader.data = frames;
+	loader.logicalScreenWidth = width;
+	loader.logicalScreenHeight = height;
+	loader.repeatCount = 0;
+	ByteArrayOutputStream stream = new ByteArrayOutputStream();
+	loader.save(stream, SWT.IMAGE_GIF);
+	return stream.toByteArray();
+}
+
+void assertPixel(ImageData canvas, int x, int y, int rgb) {
+	RGB expected = new RGB(rgb >> 16, (rgb >> 8) & 0xFF, rgb & 0xFF);
+	assertEquals(expected, canvas.palette.getRGB(canvas.getPixel(x, y)));
+	assertEquals(255, canvas.getAlpha(x, y));
+}
+}
@@ -0,0 +1,178 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Eclipse Foundation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Eclipse Foundation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.swt.tests.junit;
+
+
+import static org.eclipse.swt.tests.junit.SwtTestUtil.assertSWTProblem;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.SWTException;
+import org.eclipse.swt.graphics.Image;
+import org.eclipse.swt.graphics.ImageCache;
+import org.eclipse.swt.graphics.ImageData;
+import org.eclipse.swt.graphics.ImageDataProvider;
+import org.eclipse.swt.graphics.PaletteData;
+import org.eclipse.swt.widgets.Display;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Automated Test Suite for class org.eclipse.swt.graphics.ImageCache
+ *
+ * @see org.eclipse.swt.graphics.ImageCache
+ */
+public class Test_org_eclipse_swt_graphics_ImageCache {
+	Display display;
+	ImageCache cache;
+
+@Before
+public void setUp() {
+	display = Display.getDefault();
+	cache = new ImageCache(display);
+}
+
+@After
+public void tearDown() {
+	cache.dispose();
+}
+
+private ImageDataProvider provider(int size) {
+	ImageData data = new ImageData(size, size, 24, new PaletteData(0xFF0000, 0xFF00, 0xFF));
+	return zoom -> data;
+}
+
+@Test
+public void test_ConstructorLorg_eclipse_swt_graphics_DeviceJ() {
+	try {
+		new ImageCache(display, -1);
+		fail("No exception thrown for budget < 0");
+	} catch (IllegalArgumentException e) {
+		assertSWTProblem("Incorrect exception thrown for budget < 0", SWT.ERROR_INVALID_ARGUMENT, e);
+	}
+	ImageCache cache = new ImageCache(display, 1024);
+	assertEquals(1024, cache.getBudget());
+	cache.dispose();
+}
+
+@Test
+public void test_acquireDataLorg_eclipse_swt_graphics_ImageDataProvider() {
+	try {
+		cache.acquireData(null);
+		fail("No exception thrown for provider == null");
+	} catch (IllegalArgumentException e) {
+		assertSWTProblem("Incorrect exception thrown for provider == null", SWT.ERROR_NULL_ARGUMENT, e);
+	}
+
+	ImageDataProvider provider = provider(16);
+	Image image = cache.acquireData(provider);
+	assertSame(image, cache.acquireData(provider));
+	assertEquals(1, cache.getMissCount());
+	assertEquals(1, cache.getHitCount());
+
+	ImageDataProvider otherProvider = provider(16);
+	Image other = cache.acquireData(otherProvider);
+	assertNotSame(image, other);
+	assertEquals(2, cache.getMissCount());
+	assertEquals(2, cache.getImageCount());
+	assertTrue(cache.getSize() >= 2 * 16 * 16 * 4);
+
+	/* An image disposed by mistake is created again */
+	other.dispose();
+	Image recreated = cache.acquireData(otherProvider);
+	assertNotSame(other, recreated);
+	assertFalse(recreated.isDisposed());
+}
+
+@Test
+public void test_releaseLorg_eclipse_swt_graphics_Image() {
+	try {
+		cache.release(null);
+		fail("No exception thrown for image == null");
+	} catch (IllegalArgumentException e) {
+		assertSWTProblem("Incorrect exception thrown for image == null", SWT.ERROR_NULL_ARGUMENT, e);
+	}
+	Image image = new Image(display, 10, 10);
+	try {
+		cache.release(image);
+		fail("No exception thrown for an image that was not acquired");
+	} catch (IllegalArgumentException e) {
+		assertSWTProblem("Incorrect exception thrown for an image that was not acquired", SWT.ERROR_INVALID_ARGUMENT, e);
+	} finally {
+		image.dispose();
+	}
+
+	image = cache.acquireData(provider(8));
+	cache.release(image);
+	try {
+		cache.release(image);
+		fail("No exception thrown for an image without references");
+	} catch (IllegalArgumentException e) {
+		assertSWTProblem("Incorrect exception thrown for an image without references", SWT.ERROR_INVALID_ARGUMENT, e);
+	}
+	/* The image is kept while the cache is within its budget */
+	assertFalse(image.isDisposed());
+	assertEquals(0, cache.getEvictionCount());
+}
+
+@Test
+public void test_evict() {
+	/* A budget for about two images of 32 by 32 pixels at 100% zoom */
+	ImageCache small = new ImageCache(display, 2 * 32 * 32 * 4);
+	try {
+		ImageDataProvider[] providers = {provider(32), provider(32), provider(32)};
+		Image first = small.acquireData(providers[0]);
+		Image second = small.acquireData(providers[1]);
+		Image third = small.acquireData(providers[2]);
+		/* Referenced images are never evicted */
+		assertFalse(first.isDisposed());
+		assertFalse(second.isDisposed());
+		assertFalse(third.isDisposed());
+
+		small.acquireData(providers[0]);
+		small.release(first);
+		small.release(second);
+		small.release(third);
+		small.release(first);
+		/* The least recently used images without references are evicted first */
+		assertTrue(second.isDisposed());
+		assertTrue(small.getEvictionCount() >= 1);
+		assertTrue(small.getSize() <= small.getBudget());
+	} finally {
+		small.dispose();
+	}
+}
+
+@Test
+public void test_dispose() {
+	Image image = cache.acquireData(provider(8));
+	cache.dispose();
+	assertTrue(cache.isDisposed());
+	assertTrue(image.isDisposed());
+	assertEquals(0, cache.getImageCount());
+	try {
+		cache.acquireData(provider(8));
+		fail("No exception thrown for a disposed cache");
+	} catch (SWTException e) {
+		assertSWTProblem("Incorrect exception thrown for a disposed cache", SWT.ERROR_GRAPHIC_DISPOSED, e);
+	}
+	cache.dispose();
+}
+}
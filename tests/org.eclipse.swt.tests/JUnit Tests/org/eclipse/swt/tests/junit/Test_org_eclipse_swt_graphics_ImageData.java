@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2022 IBM Corporation and others.
+ * Copyright (c) 2000, 2026 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -30,6 +30,7 @@ import java.io.InputStream;
 import java.lang.reflect.InvocationTargetException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Random;
 
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.SWTException;
@@ -114,6 +115,67 @@ public void test_blit() throws NoSuchMethodException, SecurityException, Illegal
 	}
 }
 
+/**
+ * Tests {@link ImageData#blit}:
+ * the blits specialized for 8 bit channels write the same pixels
+ * as the generic blit, for RGB, BGR, xRGB and ARGB layouts in both
+ * byte orders and for 8 bit indexed sources.
+ */
+@Test
+public void test_blit_wholePixels() throws NoSuchMethodException, SecurityException, IllegalAccessException, IllegalArgumentException, InvocationTargetException {
+	/* An odd size, so that the lines are padded */
+	final int width = 13, height = 7;
+	PaletteData[] layouts = {
+		new PaletteData(0xFF0000, 0xFF00, 0xFF),
+		new PaletteData(0xFF, 0xFF00, 0xFF0000),
+		new PaletteData(0xFF0000, 0xFF00, 0xFF),
+		new PaletteData(0xFF00, 0xFF0000, 0xFF000000),
+		new PaletteData(0xFF000000, 0xFF0000, 0xFF00),
+	};
+	int[] depths = {24, 24, 32, 32, 32};
+	Random random = new Random(0);
+	RGB[] rgbs = new RGB[256];
+	for (int i = 0; i < rgbs.length; i++) {
+		rgbs[i] = new RGB(random.nextInt(256), random.nextInt(256), random.nextInt(256));
+	}
+	List<ImageData> sources = new ArrayList<>();
+	List<Integer> sourceOrders = new ArrayList<>();
+	for (int i = 0; i < layouts.length; i++) {
+		for (int byteOrder : new int[] {MSB_FIRST, LSB_FIRST}) {
+			ImageData source = new ImageData(width, height, depths[i], layouts[i], 4, new byte[(width * depths[i] / 8 + 3) / 4 * 4 * height]);
+			/* Random bytes, including those of the unused or alpha channel */
+			random.nextBytes(source.data);
+			sources.add(source);
+			sourceOrders.add(byteOrder);
+		}
+	}
+	ImageData indexed = new ImageData(width, height, 8, new PaletteData(rgbs), 4, new byte[(width + 3) / 4 * 4 * height]);
+	random.nextBytes(indexed.data);
+	sources.add(indexed);
+	sourceOrders.add(MSB_FIRST);
+
+	String property = "org.eclipse.swt.graphics.ImageData.genericBlit";
+	try {
+		for (int s = 0; s < sources.size(); s++) {
+			ImageData source = sources.get(s);
+			for (int i = 0; i < layouts.length; i++) {
+				for (int byteOrder : new int[] {MSB_FIRST, LSB_FIRST}) {
+					int bytesPerLine = (width * depths[i] / 8 + 3) / 4 * 4;
+					ImageData fast = new ImageData(width, height, depths[i], layouts[i], 4, new byte[bytesPerLine * height]);
+					ImageData generic = new ImageData(width, height, depths[i], layouts[i], 4, new byte[bytesPerLine * height]);
+					System.clearProperty(property);
+					ImageDataTestHelper.blit(source, sourceOrders.get(s), fast, byteOrder);
+					System.setProperty(property, "true");
+					ImageDataTestHelper.blit(source, sourceOrders.get(s), generic, byteOrder);
+					assertArrayEquals("source " + s + " to layout " + i + " byte order " + byteOrder, generic.data, fast.data);
+				}
+			}
+		}
+	} finally {
+		System.clearProperty(property);
+	}
+}
+
 /**
  * Tests {@link ImageData#blit}:
  * Ensures that (MSB_FIRST, LSB_FIRST) round trip produces original.
@@ -735,6 +797,86 @@ public void test_scaledToII() {
 	assertArrayEquals(":d:", expectedPixelData, scaledPixelData);
 }
 
+@Test
+public void test_scaledToIII() {
+	/* A solid color stays solid, and an opaque image gets no alpha */
+	ImageData solid = new ImageData(7, 5, 8, new PaletteData(new RGB(10, 200, 30), new RGB(0, 0, 0)));
+	for (int interpolation : new int[] {SWT.LOW, SWT.DEFAULT, SWT.HIGH}) {
+		for (int[] size : new int[][] {{21, 15}, {3, 2}, {-7, 9}}) {
+			ImageData scaled = solid.scaledTo(size[0], size[1], interpolation);
+			assertEquals(Math.abs(size[0]), scaled.width);
+			assertEquals(Math.abs(size[1]), scaled.height);
+			assertNull(scaled.alphaData);
+			for (int y = 0; y < scaled.height; y++) {
+				for (int x = 0; x < scaled.width; x++) {
+					assertEquals(new RGB(10, 200, 30), scaled.palette.getRGB(scaled.getPixel(x, y)));
+				}
+			}
+		}
+	}
+
+	/* Transparent pixels do not bleed their color into the opaque ones */
+	ImageData image = new ImageData(8, 8, 24, new PaletteData(0xFF0000, 0xFF00, 0xFF));
+	image.alphaData = new byte[8 * 8];
+	for (int y = 0; y < 8; y++) {
+		for (int x = 0; x < 8; x++) {
+			boolean opaque = x < 4;
+			image.setPixel(x, y, opaque ? 0x0000FF : 0xFFFFFF);
+			image.setAlpha(x, y, opaque ? 255 : 0);
+		}
+	}
+	for (int interpolation : new int[] {SWT.LOW, SWT.DEFAULT, SWT.HIGH}) {
+		ImageData scaled = image.scaledTo(12, 12, interpolation);
+		assertNotNull(scaled.alphaData);
+		assertEquals(255, scaled.getAlpha(0, 0));
+		assertEquals(0, scaled.getAlpha(11, 11));
+		for (int y = 0; y < scaled.height; y++) {
+			for (int x = 0; x < scaled.width; x++) {
+				if (scaled.getAlpha(x, y) > 0) {
+					assertEquals(new RGB(0, 0, 255), scaled.palette.getRGB(scaled.getPixel(x, y)));
+				}
+			}
+		}
+	}
+
+	/* Flipping mirrors the pixels */
+	ImageData flipped = image.scaledTo(-8, 8, SWT.LOW);
+	assertEquals(0, flipped.getAlpha(0, 0));
+	assertEquals(255, flipped.getAlpha(7, 0));
+
+	/* SWT.NONE is nearest neighbor */
+	ImageData nearest = solid.scaledTo(14, 10, SWT.NONE);
+	assertEquals(8, nearest.depth);
+
+	IllegalArgumentException ex = assertThrows("No exception thrown for invalid interpolation", IllegalArgumentException.class,
+		() -> solid.scaledTo(4, 4, SWT.HIGH + 1));
+	assertSWTProblem("Incorrect exception thrown for invalid interpolation", SWT.ERROR_INVALID_ARGUMENT, ex);
+	ex = assertThrows("No exception thrown for zero width", IllegalArgumentException.class,
+		() -> solid.scaledTo(0, 4, SWT.HIGH));
+	assertSWTProblem("Incorrect exception thrown for zero width", SWT.ERROR_INVALID_ARGUMENT, ex);
+}
+
+@Test
+public void test_scaledToIII_large() {
+	/* Large images are filtered in bands on several threads, with the same result */
+	ImageData image = new ImageData(400, 320, 24, new PaletteData(0xFF0000, 0xFF00, 0xFF));
+	for (int y = 0; y < image.height; y++) {
+		for (int x = 0; x < image.width; x++) {
+			image.setPixel(x, y, ((x * 7) & 0xFF) << 16 | ((y * 3) & 0xFF) << 8 | ((x + y) & 0xFF));
+		}
+	}
+	String property = "org.eclipse.swt.internal.image.threads";
+	try {
+		System.setProperty(property, "4");
+		ImageData parallel = image.scaledTo(600, 480, SWT.HIGH);
+		System.setProperty(property, "1");
+		ImageData serial = image.scaledTo(600, 480, SWT.HIGH);
+		assertArrayEquals(serial.data, parallel.data);
+	} finally {
+		System.clearProperty(property);
+	}
+}
+
 @Test
 public void test_setAlphaIII() {
 	int value;
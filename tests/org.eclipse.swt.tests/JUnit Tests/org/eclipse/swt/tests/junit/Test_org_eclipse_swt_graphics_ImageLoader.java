@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2016 IBM Corporation and others.
+ * Copyright (c) 2000, 2026 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -18,21 +18,31 @@ package org.eclipse.swt.tests.junit;
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
 
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.SWTException;
 import org.eclipse.swt.graphics.ImageData;
+import org.eclipse.swt.graphics.ImageInfo;
 import org.eclipse.swt.graphics.ImageLoader;
 import org.eclipse.swt.graphics.ImageLoaderEvent;
 import org.eclipse.swt.graphics.ImageLoaderListener;
 import org.eclipse.swt.graphics.PaletteData;
+import org.eclipse.swt.graphics.RGB;
+import org.eclipse.swt.internal.image.FileFormat;
 import org.eclipse.swt.widgets.Display;
 import org.junit.Test;
 
@@ -109,6 +119,164 @@ public void test_loadLjava_io_InputStream() {
 		}
 }
 
+@Test
+public void test_loadLjava_io_InputStreamII() {
+	ImageLoader loader = new ImageLoader();
+	try {
+		loader.load((InputStream) null, 16, 16);
+		fail("No exception thrown for load inputStream == null");
+	} catch (IllegalArgumentException e) {
+	}
+
+	ImageData source = new ImageData(64, 48, 24, new PaletteData(0xFF0000, 0xFF00, 0xFF));
+	for (int y = 0; y < source.height; y++) {
+		for (int x = 0; x < source.width; x++) {
+			source.setPixel(x, y, (x * 4) << 16 | (y * 5) << 8 | 0x80);
+		}
+	}
+	loader.data = new ImageData[] {source};
+	ByteArrayOutputStream outStream = new ByteArrayOutputStream();
+	loader.save(outStream, SWT.IMAGE_JPEG);
+	byte[] jpeg = outStream.toByteArray();
+
+	try {
+		loader.load(new ByteArrayInputStream(jpeg), 0, 16);
+		fail("No exception thrown for load width == 0");
+	} catch (IllegalArgumentException e) {
+	}
+
+	ImageData data = loader.load(new ByteArrayInputStream(jpeg), 8, 6)[0];
+	assertEquals(8, data.width);
+	assertEquals(6, data.height);
+	data = loader.load(new ByteArrayInputStream(jpeg), 16, 10)[0];
+	assertEquals(16, data.width);
+	assertEquals(12, data.height);
+	data = loader.load(new ByteArrayInputStream(jpeg), 17, 12)[0];
+	assertEquals(32, data.width);
+	assertEquals(24, data.height);
+	data = loader.load(new ByteArrayInputStream(jpeg), 100, 100)[0];
+	assertEquals(64, data.width);
+	assertEquals(48, data.height);
+
+	/* Other formats load at full size */
+	loader.data = new ImageData[] {source};
+	outStream = new ByteArrayOutputStream();
+	loader.save(outStream, SWT.IMAGE_PNG);
+	data = loader.load(new ByteArrayInputStream(outStream.toByteArray()), 8, 6)[0];
+	assertEquals(64, data.width);
+	assertEquals(48, data.height);
+}
+
+@Test
+public void test_loadLjava_io_InputStreamII_multiThreaded() throws IOException {
+	byte[] restartIntervals;
+	try (InputStream stream = SwtTestUtil.class.getResourceAsStream("restart.jpg")) {
+		restartIntervals = stream.readAllBytes();
+	}
+	ImageLoader loader = new ImageLoader();
+	ImageData source = new ImageData(640, 480, 24, new PaletteData(0xFF0000, 0xFF00, 0xFF));
+	for (int y = 0; y < source.height; y++) {
+		for (int x = 0; x < source.width; x++) {
+			source.setPixel(x, y, (x & 0xFF) << 16 | (y & 0xFF) << 8 | ((x ^ y) & 0xFF));
+		}
+	}
+	loader.data = new ImageData[] {source};
+	ByteArrayOutputStream outStream = new ByteArrayOutputStream();
+	loader.save(outStream, SWT.IMAGE_JPEG);
+	byte[] noRestartIntervals = outStream.toByteArray();
+
+	/* Restart intervals are decoded in strips, other images in a pipeline */
+	for (byte[] jpeg : new byte[][] {restartIntervals, noRestartIntervals}) {
+		ImageData sequential = loadWithThreads(loader, jpeg, 1, 1);
+		ImageData parallel = loadWithThreads(loader, jpeg, 4, 1);
+		assertEquals(sequential.width, parallel.width);
+		assertEquals(sequential.height, parallel.height);
+		assertArrayEquals(sequential.data, parallel.data);
+		sequential = loadWithThreads(loader, jpeg, 1, 4);
+		parallel = loadWithThreads(loader, jpeg, 4, 4);
+		assertEquals(sequential.height, parallel.height);
+		assertArrayEquals(sequential.data, parallel.data);
+	}
+}
+
+private ImageData loadWithThreads(ImageLoader loader, byte[] jpeg, int threads, int scale) {
+	String property = "org.eclipse.swt.internal.image.threads";
+	System.setProperty(property, Integer.toString(threads));
+	try {
+		return loader.load(new ByteArrayInputStream(jpeg), 512 / scale, 480 / scale)[0];
+	} finally {
+		System.clearProperty(property);
+	}
+}
+
+@Test
+public void test_loadLjava_io_InputStream_unknownFormat() {
+	ImageLoader loader = new ImageLoader();
+	/* Unknown signatures, and signatures cut short by the end of the stream */
+	byte[][] signatures = {
+		{'q', 'o', 'i', 'f', 0, 0, 0, 1, 0, 0, 0, 1, 4, 0},
+		{'B', 'M', 0, 0},
+		{'G', 'I'},
+		{(byte)0x89, 'P', 'N', 'G'},
+		{},
+	};
+	for (byte[] signature : signatures) {
+		try {
+			loader.load(new ByteArrayInputStream(signature));
+			fail("No exception thrown for unknown format");
+		} catch (SWTException e) {
+			assertEquals(SWT.ERROR_UNSUPPORTED_FORMAT, e.code);
+		}
+	}
+}
+
+@Test
+public void test_loadLjava_io_InputStream_truncated() throws IOException {
+	ImageLoader loader = new ImageLoader();
+	byte[] gif = readResource("target.gif"), bmp = readResource("target.bmp");
+	/* GIFs cut inside their header or before their first image, and a BMP cut inside its info header */
+	List<byte[]> images = new ArrayList<>();
+	images.add(readResource("corrupt.gif"));
+	for (int length = 3; length <= 13; length++) {
+		images.add(Arrays.copyOf(gif, length));
+	}
+	for (byte[] image : images) {
+		try {
+			loader.load(new ByteArrayInputStream(image));
+			fail("No exception thrown for a GIF of " + image.length + " bytes");
+		} catch (SWTException e) {
+			assertEquals(SWT.ERROR_INVALID_IMAGE, e.code);
+		}
+		try {
+			ImageLoader.probe(new ByteArrayInputStream(image));
+			fail("No exception thrown for probing a GIF of " + image.length + " bytes");
+		} catch (SWTException e) {
+			assertEquals(SWT.ERROR_INVALID_IMAGE, e.code);
+		}
+	}
+	try {
+		loader.load(new ByteArrayInputStream(Arrays.copyOf(bmp, 16)));
+		fail("No exception thrown for a BMP of 16 bytes");
+	} catch (SWTException e) {
+		assertEquals(SWT.ERROR_INVALID_IMAGE, e.code);
+	}
+
+	/* The stream is not read past the end of the image, except by the JPEG decoder that buffers its input */
+	for (String resource : new String[] {"target.gif", "target.png", "target.bmp"}) {
+		byte[] image = readResource(resource);
+		byte[] data = Arrays.copyOf(image, image.length + 3);
+		ByteArrayInputStream stream = new ByteArrayInputStream(data);
+		loader.load(stream);
+		assertEquals(resource, 3, stream.available());
+	}
+}
+
+private static byte[] readResource(String resource) throws IOException {
+	try (InputStream stream = SwtTestUtil.class.getResourceAsStream(resource)) {
+		return stream.readAllBytes();
+	}
+}
+
 @Test
 public void test_loadLjava_lang_String() {
 	ImageLoader loader = new ImageLoader();
@@ -120,6 +288,117 @@ public void test_loadLjava_lang_String() {
 	}
 }
 
+@Test
+public void test_probeLjava_io_InputStream() throws IOException {
+	try {
+		ImageLoader.probe((InputStream) null);
+		fail("No exception thrown for probe inputStream == null");
+	} catch (IllegalArgumentException e) {
+	}
+
+	try (InputStream stream = SwtTestUtil.class.getResourceAsStream("empty.txt")) {
+		ImageLoader.probe(stream);
+		fail("No exception thrown for probe from invalid inputStream");
+	} catch (SWTException e) {
+	}
+
+	int[] types = {SWT.IMAGE_BMP, SWT.IMAGE_JPEG, SWT.IMAGE_GIF, SWT.IMAGE_PNG};
+	for (String fileName : SwtTestUtil.imageFilenames) {
+		for (int i = 0; i < SwtTestUtil.imageFormats.length; i++) {
+			String resource = fileName + "." + SwtTestUtil.imageFormats[i];
+			ImageInfo info;
+			try (InputStream stream = SwtTestUtil.class.getResourceAsStream(resource)) {
+				info = ImageLoader.probe(stream);
+			}
+			ImageData[] data;
+			try (InputStream stream = SwtTestUtil.class.getResourceAsStream(resource)) {
+				data = new ImageLoader().load(stream);
+			}
+			assertEquals(resource, types[i], info.type);
+			assertEquals(resource, data[0].width, info.width);
+			assertEquals(resource, data[0].height, info.height);
+			assertEquals(resource, data.length, info.imageCount);
+			/* GdkPixbuf loads all images with 32 bit depth */
+			if (!SwtTestUtil.isGTK) assertEquals(resource, data[0].depth, info.depth);
+		}
+	}
+}
+
+@Test
+public void test_probeLjava_io_InputStream_saved() {
+	ImageLoader loader = new ImageLoader();
+	loader.data = new ImageData[] {createImage(4, 4), createImage(4, 4), createImage(4, 4)};
+	loader.logicalScreenWidth = 50;
+	loader.logicalScreenHeight = 35;
+	assertEquals(new ImageInfo(SWT.IMAGE_GIF, 50, 35, 4, 3), probe(loader, SWT.IMAGE_GIF));
+	/* Only the first image is saved in the other formats */
+	assertEquals(new ImageInfo(SWT.IMAGE_ICO, 40, 30, 4, 1), probe(loader, SWT.IMAGE_ICO));
+	assertEquals(new ImageInfo(SWT.IMAGE_BMP, 40, 30, 4, 1), probe(loader, SWT.IMAGE_BMP));
+	assertEquals(new ImageInfo(SWT.IMAGE_BMP_RLE, 40, 30, 4, 1), probe(loader, SWT.IMAGE_BMP_RLE));
+	/* PNG saves indexed images with 8 bits per pixel */
+	assertEquals(new ImageInfo(SWT.IMAGE_PNG, 40, 30, 8, 1), probe(loader, SWT.IMAGE_PNG));
+	/* TIFF is only saved with a scanline pad of 1 */
+	loader.data = new ImageData[] {createImage(8, 1)};
+	assertEquals(new ImageInfo(SWT.IMAGE_TIFF, 40, 30, 8, 1), probe(loader, SWT.IMAGE_TIFF));
+}
+
+private ImageData createImage(int depth, int scanlinePad) {
+	RGB[] rgbs = new RGB[1 << depth];
+	for (int i = 0; i < rgbs.length; i++) {
+		int gray = i * 255 / (rgbs.length - 1);
+		rgbs[i] = new RGB(gray, gray, gray);
+	}
+	int bytesPerLine = (40 * depth + 7) / 8 + scanlinePad - 1;
+	bytesPerLine -= bytesPerLine % scanlinePad;
+	ImageData image = new ImageData(40, 30, depth, new PaletteData(rgbs), scanlinePad, new byte[bytesPerLine * 30]);
+	for (int y = 0; y < image.height; y++) {
+		for (int x = 0; x < image.width; x++) {
+			image.setPixel(x, y, (x + y) % rgbs.length);
+		}
+	}
+	return image;
+}
+
+private ImageInfo probe(ImageLoader loader, int format) {
+	ByteArrayOutputStream outStream = new ByteArrayOutputStream();
+	loader.save(outStream, format);
+	return ImageLoader.probe(new ByteArrayInputStream(outStream.toByteArray()));
+}
+
+@Test
+public void test_probe$Ljava_lang_String() throws IOException {
+	try {
+		ImageLoader.probe((String[]) null);
+		fail("No exception thrown for probe filenames == null");
+	} catch (IllegalArgumentException e) {
+	}
+
+	File directory = Files.createTempDirectory("swt").toFile();
+	try {
+		String[] resources = {"folder.png", "target.gif", "empty.txt", "restart.jpg", "missing.png"};
+		String[] filenames = new String[resources.length];
+		for (int i = 0; i < resources.length; i++) {
+			File file = new File(directory, resources[i]);
+			filenames[i] = file.getPath();
+			try (InputStream stream = SwtTestUtil.class.getResourceAsStream(resources[i])) {
+				if (stream != null) Files.copy(stream, file.toPath());
+			}
+		}
+		ImageInfo[] infos = ImageLoader.probe(filenames);
+		assertEquals(resources.length, infos.length);
+		for (int i = 0; i < resources.length; i++) {
+			if (resources[i].equals("empty.txt") || resources[i].equals("missing.png")) {
+				assertNull(resources[i], infos[i]);
+			} else {
+				assertEquals(resources[i], ImageLoader.probe(filenames[i]), infos[i]);
+			}
+		}
+	} finally {
+		for (File file : directory.listFiles()) file.delete();
+		directory.delete();
+	}
+}
+
 @Test
 public void test_saveLjava_io_OutputStreamI() {
 	ImageLoader loader = new ImageLoader();
@@ -167,6 +446,240 @@ public void test_saveLjava_io_OutputStreamI() {
 	}
 }
 
+@Test
+public void test_saveLjava_io_OutputStreamI_optimizeCoding() {
+	ImageData source = new ImageData(200, 150, 24, new PaletteData(0xFF0000, 0xFF00, 0xFF));
+	for (int y = 0; y < source.height; y++) {
+		for (int x = 0; x < source.width; x++) {
+			source.setPixel(x, y, (x & 0xFF) << 16 | (y & 0xFF) << 8 | ((x ^ y) & 0xFF));
+		}
+	}
+	byte[] standard = saveJpeg(source, false);
+	byte[] optimized = saveJpeg(source, true);
+	assertTrue(optimized.length < standard.length);
+	assertArrayEquals(optimized, saveJpeg(source, true));
+
+	ImageLoader loader = new ImageLoader();
+	ImageData expected = loader.load(new ByteArrayInputStream(standard))[0];
+	ImageData actual = loader.load(new ByteArrayInputStream(optimized))[0];
+	assertEquals(expected.width, actual.width);
+	assertEquals(expected.height, actual.height);
+	long error = 0;
+	for (int i = 0; i < expected.data.length; i++) {
+		error += Math.abs((expected.data[i] & 0xFF) - (actual.data[i] & 0xFF));
+	}
+	assertTrue(error < 4L * expected.data.length);
+}
+
+@Test
+public void test_saveLjava_io_OutputStreamI_png() {
+	/* Large enough to be split into several bands that are deflated in parallel */
+	int width = 700, height = 600;
+	Random random = new Random(7);
+	ImageData rgb = new ImageData(width, height, 24, new PaletteData(0xFF0000, 0xFF00, 0xFF));
+	ImageData rgba = new ImageData(width, height, 32, new PaletteData(0xFF00, 0xFF0000, 0xFF000000));
+	RGB[] colors = new RGB[256];
+	for (int i = 0; i < colors.length; i++) {
+		colors[i] = new RGB(i, 255 - i, (i * 7) & 0xFF);
+	}
+	ImageData indexed = new ImageData(width, height, 8, new PaletteData(colors));
+	for (int y = 0; y < height; y++) {
+		for (int x = 0; x < width; x++) {
+			/* Flat areas, gradients and noise select different filters */
+			int pixel = y < 200 ? 0x336699 : y < 400 ? (x & 0xFF) << 16 | (y & 0xFF) << 8 | ((x ^ y) & 0xFF) : random.nextInt(0x1000000);
+			rgb.setPixel(x, y, pixel);
+			rgba.setPixel(x, y, pixel);
+			rgba.setAlpha(x, y, (x + y) & 0xFF);
+			indexed.setPixel(x, y, pixel & 0xFF);
+		}
+	}
+	ImageData transparent = (ImageData) indexed.clone();
+	transparent.transparentPixel = 0x99;
+
+	for (ImageData source : new ImageData[] {rgb, rgba, indexed, transparent}) {
+		for (int compression = 0; compression <= 3; compression++) {
+			byte[] serial = savePng(source, compression, 1);
+			byte[] parallel = savePng(source, compression, 4);
+			assertArrayEquals(serial, parallel);
+
+			ImageData data = FileFormat.load(new ByteArrayInputStream(parallel), new ImageLoader())[0];
+			assertEquals(width, data.width);
+			assertEquals(height, data.height);
+			assertEquals(source.getTransparencyType(), data.getTransparencyType());
+			for (int y = 0; y < height; y++) {
+				for (int x = 0; x < width; x++) {
+					assertEquals(source.palette.getRGB(source.getPixel(x, y)), data.palette.getRGB(data.getPixel(x, y)));
+					if (source.alphaData != null) {
+						assertEquals(source.getAlpha(x, y), data.getAlpha(x, y));
+					}
+				}
+			}
+			if (source.transparentPixel != -1) {
+				assertEquals(source.palette.getRGB(source.transparentPixel), data.palette.getRGB(data.transparentPixel));
+			}
+		}
+	}
+}
+
+/* The Java encoder, which ImageLoader only uses for some images on GTK */
+private byte[] savePng(ImageData source, int compression, int threads) {
+	String property = "org.eclipse.swt.internal.image.threads";
+	System.setProperty(property, Integer.toString(threads));
+	try {
+		ImageLoader loader = new ImageLoader();
+		loader.data = new ImageData[] {source};
+		loader.compression = compression;
+		ByteArrayOutputStream stream = new ByteArrayOutputStream();
+		FileFormat.save(stream, SWT.IMAGE_PNG, loader);
+		return stream.toByteArray();
+	} finally {
+		System.clearProperty(property);
+	}
+}
+
+@Test
+public void test_saveLjava_io_OutputStreamI_gif() {
+	/* Small frames, and a noisy one that fills the code table several times */
+	int[][] sizes = {{1, 1}, {37, 11}, {19, 23}, {300, 200}};
+	Random random = new Random(0);
+	for (int depth : new int[] {1, 4, 8}) {
+		RGB[] rgbs = new RGB[1 << depth];
+		for (int i = 0; i < rgbs.length; i++) {
+			rgbs[i] = new RGB(i, i, i);
+		}
+		ImageData[] frames = new ImageData[sizes.length];
+		for (int i = 0; i < frames.length; i++) {
+			frames[i] = new ImageData(sizes[i][0], sizes[i][1], depth, new PaletteData(rgbs));
+			for (int y = 0; y < frames[i].height; y++) {
+				for (int x = 0; x < frames[i].width; x++) {
+					int pixel = i % 2 == 0 ? random.nextInt(rgbs.length) : (x / 3 + y) % rgbs.length;
+					frames[i].setPixel(x, y, pixel);
+				}
+			}
+		}
+		ImageLoader loader = new ImageLoader();
+		loader.data = frames;
+		loader.logicalScreenWidth = 300;
+		loader.logicalScreenHeight = 200;
+		ByteArrayOutputStream outStream = new ByteArrayOutputStream();
+		loader.save(outStream, SWT.IMAGE_GIF);
+
+		ImageData[] loaded = new ImageLoader().load(new ByteArrayInputStream(outStream.toByteArray()));
+		assertEquals(frames.length, loaded.length);
+		for (int i = 0; i < frames.length; i++) {
+			assertEquals(frames[i].width, loaded[i].width);
+			assertEquals(frames[i].height, loaded[i].height);
+			for (int y = 0; y < frames[i].height; y++) {
+				for (int x = 0; x < frames[i].width; x++) {
+					assertEquals(frames[i].getPixel(x, y), loaded[i].getPixel(x, y));
+				}
+			}
+		}
+	}
+}
+
+@Test
+public void test_saveLjava_io_OutputStreamI_gifDirect() {
+	/* Few enough colors to be kept exactly, with a transparent corner */
+	ImageData source = new ImageData(40, 30, 24, new PaletteData(0xFF0000, 0xFF00, 0xFF));
+	source.alphaData = new byte[source.width * source.height];
+	for (int y = 0; y < source.height; y++) {
+		for (int x = 0; x < source.width; x++) {
+			source.setPixel(x, y, (x % 8) * 32 << 16 | (y % 16) * 16 << 8 | 0x40);
+			source.setAlpha(x, y, x < 5 && y < 5 ? 0 : 255);
+		}
+	}
+	ImageData loaded = saveAndLoadGif(source, false);
+	assertEquals(source.width, loaded.width);
+	assertEquals(source.height, loaded.height);
+	assertEquals(8, loaded.depth);
+	assertTrue(loaded.transparentPixel != -1);
+	for (int y = 0; y < source.height; y++) {
+		for (int x = 0; x < source.width; x++) {
+			int pixel = loaded.getPixel(x, y);
+			if (x < 5 && y < 5) {
+				assertEquals(loaded.transparentPixel, pixel);
+			} else {
+				assertTrue(pixel != loaded.transparentPixel);
+				assertEquals(source.palette.getRGB(source.getPixel(x, y)), loaded.palette.getRGB(pixel));
+			}
+		}
+	}
+
+	/* A transparent pixel in a direct image maps to the reserved index */
+	source = new ImageData(40, 30, 24, new PaletteData(0xFF0000, 0xFF00, 0xFF));
+	for (int y = 0; y < source.height; y++) {
+		for (int x = 0; x < source.width; x++) {
+			source.setPixel(x, y, x < 5 && y < 5 ? 0x00FF00 : (x % 8) * 32 << 16 | 0x40);
+		}
+	}
+	source.transparentPixel = 0x00FF00;
+	loaded = saveAndLoadGif(source, false);
+	assertTrue(loaded.transparentPixel != -1);
+	for (int y = 0; y < source.height; y++) {
+		for (int x = 0; x < source.width; x++) {
+			int pixel = loaded.getPixel(x, y);
+			if (x < 5 && y < 5) {
+				assertEquals(loaded.transparentPixel, pixel);
+			} else {
+				assertTrue(pixel != loaded.transparentPixel);
+				assertEquals(source.palette.getRGB(source.getPixel(x, y)), loaded.palette.getRGB(pixel));
+			}
+		}
+	}
+
+	/* A gradient with far more colors than a palette holds */
+	source = new ImageData(256, 256, 32, new PaletteData(0xFF00, 0xFF0000, 0xFF000000));
+	for (int y = 0; y < source.height; y++) {
+		for (int x = 0; x < source.width; x++) {
+			source.setPixel(x, y, source.palette.getPixel(new RGB(x, y, (x + y) / 2)));
+		}
+	}
+	for (boolean dither : new boolean[] {false, true}) {
+		loaded = saveAndLoadGif(source, dither);
+		assertEquals(-1, loaded.transparentPixel);
+		assertTrue(loaded.palette.colors.length <= 256);
+		long error = 0;
+		for (int y = 0; y < source.height; y++) {
+			for (int x = 0; x < source.width; x++) {
+				RGB expected = source.palette.getRGB(source.getPixel(x, y));
+				RGB actual = loaded.palette.getRGB(loaded.getPixel(x, y));
+				error += Math.abs(expected.red - actual.red) + Math.abs(expected.green - actual.green) + Math.abs(expected.blue - actual.blue);
+			}
+		}
+		/* The error summed over the channels is less than 16 on average */
+		assertTrue("average error " + error / (source.width * source.height), error < 16L * source.width * source.height);
+	}
+}
+
+private ImageData saveAndLoadGif(ImageData source, boolean dither) {
+	String property = "org.eclipse.swt.internal.image.GIFFileFormat.dither";
+	System.setProperty(property, Boolean.toString(dither));
+	try {
+		ImageLoader loader = new ImageLoader();
+		loader.data = new ImageData[] {source};
+		ByteArrayOutputStream outStream = new ByteArrayOutputStream();
+		loader.save(outStream, SWT.IMAGE_GIF);
+		return new ImageLoader().load(new ByteArrayInputStream(outStream.toByteArray()))[0];
+	} finally {
+		System.clearProperty(property);
+	}
+}
+
+private byte[] saveJpeg(ImageData source, boolean optimizeCoding) {
+	String property = "org.eclipse.swt.internal.image.JPEGFileFormat.optimizeCoding";
+	System.setProperty(property, Boolean.toString(optimizeCoding));
+	try {
+		ImageLoader loader = new ImageLoader();
+		loader.data = new ImageData[] {source};
+		ByteArrayOutputStream outStream = new ByteArrayOutputStream();
+		loader.save(outStream, SWT.IMAGE_JPEG);
+		return outStream.toByteArray();
+	} finally {
+		System.clearProperty(property);
+	}
+}
+
 @Test
 public void test_saveLjava_lang_StringI() {
 	ImageLoader loader = new ImageLoader();
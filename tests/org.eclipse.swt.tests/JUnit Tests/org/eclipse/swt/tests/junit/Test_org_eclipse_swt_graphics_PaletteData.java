@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2015 IBM Corporation and others.
+ * Copyright (c) 2000, 2026 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -100,6 +100,59 @@ public void test_getPixelLorg_eclipse_swt_graphics_RGB() {
 	assertEquals(":b:", 0x326496, data.getPixel(rgb));
 }
 
+@Test
+public void test_getPixelLorg_eclipse_swt_graphics_RGB_largePalette() {
+	RGB[] rgbs = new RGB[256];
+	for (int i = 0; i < rgbs.length; i++) {
+		rgbs[i] = new RGB(i, 255 - i, (i * 7) & 0xFF);
+	}
+	PaletteData data = new PaletteData(rgbs);
+	for (int i = 0; i < rgbs.length; i++) {
+		assertEquals(i, data.getPixel(new RGB(i, 255 - i, (i * 7) & 0xFF)));
+	}
+	try {
+		data.getPixel(new RGB(0, 0, 1));
+		fail("No exception thrown for rgb not found");
+	}
+	catch (IllegalArgumentException e) {
+	}
+
+	// the first of several equal colors is found
+	rgbs[200] = new RGB(10, 245, 70);
+	assertEquals(10, data.getPixel(new RGB(10, 245, 70)));
+
+	// a color changed in place to one that was looked up is found at any of its pixels
+	rgbs[3] = new RGB(10, 245, 70);
+	int pixel = data.getPixel(new RGB(10, 245, 70));
+	assertTrue(pixel == 3 || pixel == 10);
+	rgbs[3] = new RGB(3, 252, 21);
+	assertEquals(3, data.getPixel(new RGB(3, 252, 21)));
+	assertEquals(10, data.getPixel(new RGB(10, 245, 70)));
+
+	// colors changed in place are found
+	rgbs[100].red = 1;
+	rgbs[100].green = 2;
+	rgbs[100].blue = 3;
+	assertEquals(100, data.getPixel(new RGB(1, 2, 3)));
+	rgbs[50] = new RGB(4, 5, 6);
+	assertEquals(50, data.getPixel(new RGB(4, 5, 6)));
+
+	// and keep being found after many changes
+	for (int i = 0; i < 4 * rgbs.length; i++) {
+		RGB rgb = rgbs[i % rgbs.length];
+		rgb.red = i & 0xFF;
+		rgb.green = i >> 8;
+		rgb.blue = 77;
+		assertEquals(i % rgbs.length, data.getPixel(new RGB(i & 0xFF, i >> 8, 77)));
+	}
+
+	// and a replaced array is indexed again
+	RGB[] others = rgbs.clone();
+	others[0] = new RGB(7, 8, 9);
+	data.colors = others;
+	assertEquals(0, data.getPixel(new RGB(7, 8, 9)));
+}
+
 @Test
 public void test_getRGBI() {
 	// indexed palette tests
@@ -0,0 +1,234 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Eclipse Foundation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Eclipse Foundation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.swt.tests.junit;
+
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.zip.DeflaterOutputStream;
+
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.SWTException;
+import org.eclipse.swt.graphics.ImageData;
+import org.eclipse.swt.graphics.Rectangle;
+import org.eclipse.swt.graphics.TIFFReader;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Automated Test Suite for class org.eclipse.swt.graphics.TIFFReader
+ *
+ * @see org.eclipse.swt.graphics.TIFFReader
+ */
+public class Test_org_eclipse_swt_graphics_TIFFReader {
+	File file;
+
+@Before
+public void setUp() throws IOException {
+	file = File.createTempFile("swt", ".tif");
+}
+
+@After
+public void tearDown() {
+	file.delete();
+}
+
+@Test
+public void test_ConstructorLjava_lang_String() throws IOException {
+	try {
+		new TIFFReader(null);
+		fail("No exception thrown for filename == null");
+	} catch (IllegalArgumentException e) {
+	}
+
+	Files.write(file.toPath(), new byte[] {'G', 'I', 'F', '8', '9', 'a', 0, 0});
+	try {
+		new TIFFReader(file.getPath());
+		fail("No exception thrown for invalid file");
+	} catch (SWTException e) {
+	}
+}
+
+@Test
+public void test_readILorg_eclipse_swt_graphics_Rectangle_strips() throws IOException {
+	writeTiff(new int[][] {{61, 45}, {30, 70}}, 7, 0);
+	try (TIFFReader reader = new TIFFReader(file.getPath())) {
+		assertEquals(2, reader.getPageCount());
+		assertEquals(new Rectangle(0, 0, 61, 45), reader.getBounds(0));
+		assertEquals(new Rectangle(0, 0, 30, 70), reader.getBounds(1));
+		assertPixels(reader.read(0), 0, 0, 0);
+		assertPixels(reader.read(1), 1, 0, 0);
+		assertPixels(reader.read(0, new Rectangle(13, 20, 5, 3)), 0, 13, 20);
+		assertPixels(reader.read(1, new Rectangle(29, 0, 1, 70)), 1, 29, 0);
+
+		/* The region is clipped to the page */
+		ImageData clipped = reader.read(0, new Rectangle(50, 40, 100, 100));
+		assertEquals(11, clipped.width);
+		assertEquals(5, clipped.height);
+		assertPixels(clipped, 0, 50, 40);
+
+		try {
+			reader.read(0, new Rectangle(100, 0, 10, 10));
+			fail("No exception thrown for region outside the page");
+		} catch (IllegalArgumentException e) {
+		}
+		try {
+			reader.read(2);
+			fail("No exception thrown for page out of range");
+		} catch (IllegalArgumentException e) {
+		}
+	}
+}
+
+@Test
+public void test_readILorg_eclipse_swt_graphics_Rectangle_tiles() throws IOException {
+	writeTiff(new int[][] {{50, 40}}, 0, 16);
+	try (TIFFReader reader = new TIFFReader(file.getPath())) {
+		assertEquals(1, reader.getPageCount());
+		assertPixels(reader.read(0), 0, 0, 0);
+		assertPixels(reader.read(0, new Rectangle(10, 10, 30, 25)), 0, 10, 10);
+		assertPixels(reader.read(0, new Rectangle(48, 32, 2, 8)), 0, 48, 32);
+	}
+}
+
+@Test
+public void test_readI_deflate() throws IOException {
+	writeTiff(new int[][] {{40, 30}}, 10, 0, 8);
+	try (TIFFReader reader = new TIFFReader(file.getPath())) {
+		reader.read(0);
+		fail("No exception thrown for Deflate compression");
+	} catch (SWTException e) {
+		assertEquals(SWT.ERROR_UNSUPPORTED_FORMAT, e.code);
+	}
+}
+
+@Test
+public void test_close() throws IOException {
+	writeTiff(new int[][] {{8, 8}}, 8, 0);
+	TIFFReader reader = new TIFFReader(file.getPath());
+	reader.close();
+	reader.close();
+	try {
+		reader.read(0);
+		fail("No exception thrown for closed reader");
+	} catch (SWTException e) {
+	}
+}
+
+static int pixel(int page, int x, int y) {
+	return (x * 3 + y * 5 + page * 7) & 0xFF;
+}
+
+void assertPixels(ImageData data, int page, int x, int y) {
+	for (int j = 0; j < data.height; j++) {
+		for (int i = 0; i < data.width; i++) {
+			assertEquals(pixel(page, x + i, y + j), data.getPixel(i, j));
+		}
+	}
+}
+
+void writeTiff(int[][] sizes, int rowsPerStrip, int tileSize) throws IOException {
+	writeTiff(sizes, rowsPerStrip, tileSize, 1);
+}
+
+/*
+ * Write 8 bit grayscale pages, in strips of the given number of rows
+ * or in square tiles of the given size, uncompressed (1) or Deflate
+ * compressed (8).
+ */
+void writeTiff(int[][] sizes, int rowsPerStrip, int tileSize, int compression) throws IOException {
+	ByteBuffer buffer = ByteBuffer.allocate(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+	buffer.put((byte)'I').put((byte)'I').putShort((short)42).putInt(0);
+	int previous = 4;
+	for (int page = 0; page < sizes.length; page++) {
+		int width = sizes[page][0], height = sizes[page][1];
+		int chunkWidth = tileSize > 0 ? tileSize : width;
+		int chunkHeight = tileSize > 0 ? tileSize : rowsPerStrip;
+		int across = (width + chunkWidth - 1) / chunkWidth;
+		int down = (height + chunkHeight - 1) / chunkHeight;
+		int[] offsets = new int[across * down], counts = new int[across * down];
+		for (int row = 0; row < down; row++) {
+			for (int column = 0; column < across; column++) {
+				int index = row * across + column;
+				offsets[index] = buffer.position();
+				int rows = tileSize > 0 ? chunkHeight : Math.min(chunkHeight, height - row * chunkHeight);
+				ByteArrayOutputStream chunk = new ByteArrayOutputStream();
+				for (int y = row * chunkHeight; y < row * chunkHeight + rows; y++) {
+					for (int x = column * chunkWidth; x < (column + 1) * chunkWidth; x++) {
+						chunk.write(pixel(page, x, y));
+					}
+				}
+				if (compression == 8) {
+					ByteArrayOutputStream deflated = new ByteArrayOutputStream();
+					try (DeflaterOutputStream stream = new DeflaterOutputStream(deflated)) {
+						chunk.writeTo(stream);
+					}
+					chunk = deflated;
+				}
+				buffer.put(chunk.toByteArray());
+				counts[index] = buffer.position() - offsets[index];
+			}
+		}
+		int offsetsPosition = buffer.position();
+		for (int offset : offsets) buffer.putInt(offset);
+		int countsPosition = buffer.position();
+		for (int count : counts) buffer.putInt(count);
+
+		int directory = buffer.position();
+		buffer.putInt(previous, directory);
+		buffer.putShort((short)9);
+		putEntry(buffer, 256, width);
+		putEntry(buffer, 257, height);
+		putEntry(buffer, 258, 8);
+		putEntry(buffer, 259, compression);
+		putEntry(buffer, 262, 1);
+		if (tileSize > 0) {
+			putEntry(buffer, 322, tileSize);
+			putEntry(buffer, 323, tileSize);
+			putEntry(buffer, 324, offsets.length, offsets.length == 1 ? offsets[0] : offsetsPosition);
+			putEntry(buffer, 325, counts.length, counts.length == 1 ? counts[0] : countsPosition);
+		} else {
+			putEntry(buffer, 273, offsets.length, offsets.length == 1 ? offsets[0] : offsetsPosition);
+			putEntry(buffer, 277, 1);
+			putEntry(buffer, 278, rowsPerStrip);
+			putEntry(buffer, 279, counts.length, counts.length == 1 ? counts[0] : countsPosition);
+		}
+		previous = buffer.position();
+		buffer.putInt(0);
+	}
+	Files.write(file.toPath(), Arrays.copyOf(buffer.array(), buffer.position()));
+}
+
+static void putEntry(ByteBuffer buffer, int tag, int value) {
+	/* BitsPerSample, Compression, PhotometricInterpretation and SamplesPerPixel are SHORT values */
+	if (tag == 258 || tag == 259 || tag == 262 || tag == 277) {
+		buffer.putShort((short)tag).putShort((short)3).putInt(1).putShort((short)value).putShort((short)0);
+	} else {
+		putEntry(buffer, tag, 1, value);
+	}
+}
+
+static void putEntry(ByteBuffer buffer, int tag, int count, int value) {
+	buffer.putShort((short)tag).putShort((short)4).putInt(count).putInt(value);
+}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2015, 2022 IBM Corporation and others.
+ * Copyright (c) 2015, 2026 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -772,6 +772,39 @@ public void test_getNextOffset2() {
 	layout.dispose();
 }
 
+@Test
+public void test_getNextOffset_longLineWithSurrogates() {
+	TextLayout layout = new TextLayout(display);
+	try {
+		/* A line long enough that the offsets are mapped past the start of the text */
+		String smiley = "\uD83D\uDE00";
+		String text = ("ab" + smiley + "\u00E9 ").repeat(100);
+		layout.setText(text);
+		layout.setSegments(new int[] {0, 50, 300});
+		int offset = 0, lastX = -1;
+		while (offset < text.length()) {
+			int next = layout.getNextOffset(offset, SWT.MOVEMENT_CLUSTER);
+			assertEquals("unexpected cluster at " + offset, text.startsWith(smiley, offset) ? offset + 2 : offset + 1, next);
+			int x = layout.getLocation(offset, false).x;
+			assertTrue("location does not advance at " + offset, x > lastX);
+			lastX = x;
+			offset = next;
+		}
+		assertEquals(text.length() - 1, layout.getPreviousOffset(text.length(), SWT.MOVEMENT_CLUSTER));
+
+		layout.setWidth(200);
+		int[] lineOffsets = layout.getLineOffsets();
+		assertTrue(lineOffsets.length > 2);
+		for (int lineOffset : lineOffsets) {
+			assertFalse("line starts within a surrogate pair at " + lineOffset, lineOffset > 0 && lineOffset < text.length() && Character.isLowSurrogate(text.charAt(lineOffset)));
+		}
+		assertEquals(text.length(), lineOffsets[lineOffsets.length - 1]);
+		assertEquals(lineOffsets.length - 2, layout.getLineIndex(text.length() - 1));
+	} finally {
+		layout.dispose();
+	}
+}
+
 @Test
 public void test_getLineSpacing() {
 	TextLayout layout = new TextLayout(display);
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2021 IBM Corporation and others.
+ * Copyright (c) 2000, 2026 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -24,8 +24,11 @@ import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -39,12 +42,14 @@ import org.eclipse.swt.graphics.Point;
 import org.eclipse.swt.graphics.Rectangle;
 import org.eclipse.swt.internal.DPIUtil;
 import org.eclipse.swt.widgets.Button;
+import org.eclipse.swt.widgets.DeferredEventListener;
 import org.eclipse.swt.widgets.Display;
 import org.eclipse.swt.widgets.Event;
 import org.eclipse.swt.widgets.Listener;
 import org.eclipse.swt.widgets.Monitor;
 import org.eclipse.swt.widgets.Shell;
 import org.eclipse.swt.widgets.Synchronizer;
+import org.eclipse.swt.widgets.SynchronizerBatchListener;
 import org.eclipse.test.Screenshots;
 import org.junit.Assume;
 import org.junit.Rule;
@@ -88,6 +93,40 @@ public void test_ConstructorLorg_eclipse_swt_graphics_DeviceData() {
 	disp.dispose();
 }
 
+@Test
+public void test_addDeferredEventListenerLorg_eclipse_swt_widgets_DeferredEventListener() {
+	Display display = new Display();
+	try {
+		try {
+			display.addDeferredEventListener(null);
+			fail("No exception thrown for addDeferredEventListener with null argument");
+		} catch (IllegalArgumentException e) {
+			assertSWTProblem("Incorrect exception thrown for addDeferredEventListener with null argument", SWT.ERROR_NULL_ARGUMENT, e);
+		}
+		try {
+			display.removeDeferredEventListener(null);
+			fail("No exception thrown for removeDeferredEventListener with null argument");
+		} catch (IllegalArgumentException e) {
+			assertSWTProblem("Incorrect exception thrown for removeDeferredEventListener with null argument", SWT.ERROR_NULL_ARGUMENT, e);
+		}
+
+		DeferredEventListener listener = (count, runTime, maxSize) -> {
+			assertTrue(count >= 1);
+			assertTrue(runTime >= 0);
+			assertTrue(maxSize >= 1);
+		};
+		display.addDeferredEventListener(listener);
+		Shell shell = new Shell(display);
+		shell.open();
+		while (display.readAndDispatch()) {
+		}
+		shell.dispose();
+		display.removeDeferredEventListener(listener);
+	} finally {
+		display.dispose();
+	}
+}
+
 @Test
 public void test_addFilterILorg_eclipse_swt_widgets_Listener() {
 	final int CLOSE_CALLBACK = 0;
@@ -166,6 +205,142 @@ public void test_asyncExecLjava_lang_Runnable() {
 	}
 }
 
+@Test
+public void test_asyncExecLjava_lang_Runnable_batches() {
+	final Display display = new Display();
+	try {
+		Synchronizer synchronizer = display.getSynchronizer();
+		assertEquals(1, synchronizer.getBatchCount());
+		try {
+			synchronizer.setBatchLimits(-1, 1);
+			fail("No exception thrown for a negative batch time");
+		} catch (IllegalArgumentException e) {
+			assertSWTProblem("Incorrect exception thrown for a negative batch time", SWT.ERROR_INVALID_ARGUMENT, e);
+		}
+		try {
+			synchronizer.setBatchLimits(8, 0);
+			fail("No exception thrown for a batch count < 1");
+		} catch (IllegalArgumentException e) {
+			assertSWTProblem("Incorrect exception thrown for a batch count < 1", SWT.ERROR_INVALID_ARGUMENT, e);
+		}
+
+		synchronizer.setBatchLimits(0, 10);
+		assertEquals(0, synchronizer.getBatchTime());
+		assertEquals(10, synchronizer.getBatchCount());
+		List<Integer> counts = new ArrayList<>();
+		SynchronizerBatchListener listener = (count, runTime, latency) -> {
+			assertTrue(runTime >= 0);
+			assertTrue(latency >= 0);
+			counts.add(count);
+		};
+		synchronizer.addBatchListener(listener);
+		final int[] runs = new int[] {0};
+		for (int i = 0; i < 25; i++) {
+			display.asyncExec(() -> runs[0]++);
+		}
+		while (runs[0] < 25) {
+			display.readAndDispatch();
+		}
+		int total = 0;
+		for (int count : counts) {
+			assertTrue("batch of " + count + " runnables", 1 <= count && count <= 10);
+			total += count;
+		}
+		assertTrue(total >= 25);
+
+		synchronizer.removeBatchListener(listener);
+		counts.clear();
+		display.asyncExec(() -> runs[0]++);
+		while (runs[0] < 26) {
+			display.readAndDispatch();
+		}
+		assertTrue(counts.isEmpty());
+	} finally {
+		display.dispose();
+	}
+}
+
+@Test
+public void test_asyncExecCoalescedLjava_lang_ObjectLjava_lang_Runnable() throws InterruptedException {
+	final Display display = new Display();
+	try {
+		try {
+			display.asyncExecCoalesced(null, () -> {});
+			fail("No exception thrown for asyncExecCoalesced with null key");
+		} catch (IllegalArgumentException e) {
+			assertSWTProblem("Incorrect exception thrown for asyncExecCoalesced with null key", SWT.ERROR_NULL_ARGUMENT, e);
+		}
+		try {
+			display.asyncExecCoalesced("key", null);
+			fail("No exception thrown for asyncExecCoalesced with null runnable");
+		} catch (IllegalArgumentException e) {
+			assertSWTProblem("Incorrect exception thrown for asyncExecCoalesced with null runnable", SWT.ERROR_NULL_ARGUMENT, e);
+		}
+
+		// Only the latest runnable of a key runs
+		final int[] values = new int[2];
+		final AtomicInteger runs = new AtomicInteger();
+		for (int i = 1; i <= 100; i++) {
+			final int value = i;
+			display.asyncExecCoalesced("first", () -> {
+				values[0] = value;
+				runs.incrementAndGet();
+			});
+			display.asyncExecCoalesced("second", () -> {
+				values[1] = value;
+				runs.incrementAndGet();
+			});
+		}
+		while (display.readAndDispatch()) {
+			// dispatch
+		}
+		assertEquals(100, values[0]);
+		assertEquals(100, values[1]);
+		assertEquals(2, runs.get());
+
+		// A runnable submitted after the previous one ran is run again
+		display.asyncExecCoalesced("first", () -> values[0] = 0);
+		while (display.readAndDispatch()) {
+			// dispatch
+		}
+		assertEquals(0, values[0]);
+
+		// Producers in other threads
+		final int producers = 4, count = 10_000;
+		final int[] latest = new int[producers];
+		final AtomicInteger producerRuns = new AtomicInteger();
+		Thread[] threads = new Thread[producers];
+		for (int p = 0; p < producers; p++) {
+			final int producer = p;
+			threads[p] = new Thread(() -> {
+				for (int i = 1; i <= count; i++) {
+					final int value = i;
+					display.asyncExecCoalesced(Integer.valueOf(producer), () -> {
+						latest[producer] = value;
+						producerRuns.incrementAndGet();
+					});
+				}
+			});
+			threads[p].start();
+		}
+		for (Thread thread : threads) {
+			while (thread.isAlive()) {
+				display.readAndDispatch();
+			}
+			thread.join();
+		}
+		while (display.readAndDispatch()) {
+			// dispatch
+		}
+		for (int p = 0; p < producers; p++) {
+			assertEquals(count, latest[p]);
+		}
+		assertTrue(producerRuns.get() <= producers * count);
+	} finally {
+		display.dispose();
+	}
+}
+
 @Test
 public void test_Executor() throws InterruptedException {
 	final Display display = new Display();
@@ -424,6 +599,28 @@ public void test_getMonitors() {
 
 
 
+@Test
+public void test_getPendingTimerCount() {
+	Display display = new Display();
+	try {
+		Runnable first = () -> {};
+		Runnable second = () -> {};
+		assertEquals(0, display.getPendingTimerCount());
+		display.timerExec(60000, first);
+		display.timerExec(60000, second);
+		assertEquals(2, display.getPendingTimerCount());
+		/* Rescheduling a runnable does not add a timer */
+		display.timerExec(30000, first);
+		assertEquals(2, display.getPendingTimerCount());
+		display.timerExec(-1, first);
+		assertEquals(1, display.getPendingTimerCount());
+		display.timerExec(-1, second);
+		assertEquals(0, display.getPendingTimerCount());
+	} finally {
+		display.dispose();
+	}
+}
+
 /**
  * Note, this is hard to test via unit tests as you might not have multiple monitors.
  * When altering this function, it is recommended to perform
@@ -1423,6 +1620,72 @@ public void test_sleep() {
 	}
 }
 
+@Test
+public void test_submitLjava_util_concurrent_Callable() throws Exception {
+	final Display display = new Display();
+	try {
+		try {
+			display.submit(null);
+			fail("No exception thrown for submit with null callable");
+		} catch (IllegalArgumentException e) {
+			assertSWTProblem("Incorrect exception thrown for submit with null callable", SWT.ERROR_NULL_ARGUMENT, e);
+		}
+
+		// The callable is queued, even in the user-interface thread
+		CompletableFuture<Integer> result = display.submit(() -> 42);
+		assertFalse(result.isDone());
+		while (!result.isDone()) {
+			display.readAndDispatch();
+		}
+		assertEquals(Integer.valueOf(42), result.get());
+
+		// The exception of the callable completes the future
+		CompletableFuture<Integer> failed = display.submit(() -> {throw new IOException("42");});
+		while (!failed.isDone()) {
+			display.readAndDispatch();
+		}
+		try {
+			failed.get();
+			fail("No exception thrown for a failed callable");
+		} catch (ExecutionException e) {
+			assertTrue(e.getCause() instanceof IOException);
+			assertEquals("42", e.getCause().getMessage());
+		}
+
+		// A cancelled callable is not called
+		AtomicBoolean called = new AtomicBoolean();
+		CompletableFuture<Boolean> cancelled = display.submit(() -> called.getAndSet(true));
+		cancelled.cancel(false);
+		while (display.readAndDispatch()) {
+			// dispatch
+		}
+		assertFalse(called.get());
+
+		// Callables submitted by other threads
+		final int threads = 16;
+		List<CompletableFuture<Thread>> futures = new ArrayList<>();
+		for (int i = 0; i < threads; i++) {
+			futures.add(CompletableFuture.supplyAsync(() -> display.submit(Thread::currentThread)).thenCompose(future -> future));
+		}
+		CompletableFuture<Void> all = CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]));
+		long deadline = System.currentTimeMillis() + 10_000;
+		while (!all.isDone() && System.currentTimeMillis() < deadline) {
+			display.readAndDispatch();
+		}
+		for (CompletableFuture<Thread> future : futures) {
+			assertSame(display.getThread(), future.get());
+		}
+	} finally {
+		display.dispose();
+	}
+	try {
+		display.submit(() -> 42);
+		fail("No exception thrown for submit on a disposed display");
+	} catch (SWTException e) {
+		assertSWTProblem("Incorrect exception thrown for submit on a disposed display", SWT.ERROR_DEVICE_DISPOSED, e);
+	}
+}
+
 @Test
 public void test_syncExecLjava_lang_Runnable() {
 	final Display display = new Display();
@@ -1443,6 +1706,58 @@ public void test_syncExecLjava_lang_Runnable_dispose() {
 	}
 }
 
+@Test
+public void test_syncExecLjava_lang_Runnable_threads() throws InterruptedException {
+	final Display display = new Display();
+	final int count = 64, calls = 100;
+	final AtomicInteger runs = new AtomicInteger(), disposed = new AtomicInteger();
+	final CountDownLatch start = new CountDownLatch(1);
+	Thread[] threads = new Thread[count];
+	try {
+		// Many threads wait for their runnables at the same time
+		for (int i = 0; i < count; i++) {
+			threads[i] = new Thread(() -> {
+				for (int call = 0; call < calls; call++) {
+					display.syncExec(runs::incrementAndGet);
+				}
+			});
+			threads[i].start();
+		}
+		for (Thread thread : threads) {
+			while (thread.isAlive()) {
+				display.readAndDispatch();
+			}
+			thread.join();
+		}
+		assertEquals(count * calls, runs.get());
+
+		// Threads that call syncExec while the display is disposed are not left waiting
+		runs.set(0);
+		for (int i = 0; i < count; i++) {
+			threads[i] = new Thread(() -> {
+				try {
+					start.await();
+					display.syncExec(runs::incrementAndGet);
+				} catch (SWTException e) {
+					assertSWTProblem("Incorrect exception thrown for syncExec on a disposed display", SWT.ERROR_DEVICE_DISPOSED, e);
+					disposed.incrementAndGet();
+				} catch (InterruptedException e) {
+					// finish
+				}
+			});
+			threads[i].start();
+		}
+		start.countDown();
+	} finally {
+		display.dispose();
+	}
+	for (Thread thread : threads) {
+		thread.join(10_000);
+		assertFalse(thread.isAlive());
+	}
+	assertEquals(count, runs.get() + disposed.get());
+}
+
 @Test
 public void test_syncCall() {
 	final Display display = new Display();
@@ -1566,6 +1881,36 @@ public void test_timerExecILjava_lang_Runnable() {
 	}
 }
 
+@Test
+public void test_timerExecCoalescedILjava_lang_Runnable() {
+	Display display = new Display();
+	try {
+		try {
+			display.timerExecCoalesced(0, null);
+			fail("No exception thrown for timerExecCoalesced with null runnable");
+		} catch (IllegalArgumentException e) {
+			assertSWTProblem("Incorrect exception thrown for timerExecCoalesced with null runnable", SWT.ERROR_NULL_ARGUMENT, e);
+		}
+
+		final int[] runs = new int[] {0};
+		Runnable runnable = () -> runs[0]++;
+		display.timerExec(60000, runnable);
+		// An earlier time reschedules the runnable
+		display.timerExecCoalesced(0, runnable);
+		// A later time and a negative time keep the earlier time
+		display.timerExecCoalesced(60000, runnable);
+		display.timerExecCoalesced(-1, runnable);
+		assertEquals(1, display.getPendingTimerCount());
+		while (runs[0] == 0) {
+			if (!display.readAndDispatch ()) display.sleep();
+		}
+		assertEquals(1, runs[0]);
+		assertEquals(0, display.getPendingTimerCount());
+	} finally {
+		display.dispose();
+	}
+}
+
 @Test
 public void test_update() {
 	Display display = new Display();
@@ -0,0 +1,303 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Eclipse Foundation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Eclipse Foundation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.swt.tests.junit.performance;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * The pure Java inflate engine of the PNG decoder as it was before it was
+ * made table driven, kept as the baseline of {@link BenchmarkPngDecoding}.
+ * <p>
+ * It merges the former <code>PngDecodingDataStream</code>,
+ * <code>PngLzBlockReader</code>, <code>PngHuffmanTables</code> and
+ * <code>PngHuffmanTable</code> without changing how they decode: the
+ * input is read one bit at a time, a Huffman code is found by comparing it
+ * with the largest code of each length, and the output is produced one
+ * byte at a time, each added to the Adler-32 checksum on its own.
+ * </p>
+ */
+class BaselinePngInflater extends InputStream {
+	static final int PRIME = 65521;
+	static final int MAX_BIT = 7;
+
+	static final int UNCOMPRESSED = 0;
+	static final int COMPRESSED_DYNAMIC = 2;
+	static final int END_OF_COMPRESSED_BLOCK = 256;
+	static final int FIRST_LENGTH_CODE = 257;
+	static final int LAST_LENGTH_CODE = 285;
+	static final int FIRST_DISTANCE_CODE = 1;
+	static final int LAST_DISTANCE_CODE = 29;
+	static final int FIRST_CODE_LENGTH_CODE = 4;
+	static final int LAST_CODE_LENGTH_CODE = 19;
+
+	static final int[] LENGTH_BASES = {
+		3, 4, 5, 6, 7, 8, 9, 10, 11, 13, 15, 17, 19, 23, 27,
+		31, 35, 43, 51, 59, 67, 83, 99, 115, 131, 163, 195, 227, 258
+	};
+	static final int[] EXTRA_LENGTH_BITS = {
+		0, 0, 0, 0, 0, 0, 0, 0, 1, 1, 1, 1, 2, 2, 2, 2,
+		3, 3, 3, 3, 4, 4, 4, 4, 5, 5, 5, 5, 0,
+	};
+	static final int[] DISTANCE_BASES = {
+		1, 2, 3, 4, 5, 7, 9, 13, 17, 25, 33, 49, 65, 97, 129,
+		193, 257, 385, 513, 769, 1025, 1537, 2049, 3073, 4097,
+		6145, 8193, 12289, 16385, 24577,
+	};
+	static final int[] EXTRA_DISTANCE_BITS = {
+		0, 0, 0, 0, 1, 1, 2, 2, 3, 3, 4, 4, 5, 5, 6, 6, 7, 7,
+		8, 8, 9, 9, 10, 10, 11, 11, 12, 12, 13, 13,
+	};
+	static final int[] LENGTH_CODE_ORDER = {
+		16, 17, 18, 0, 8, 7, 9, 6, 10, 5, 11, 4, 12, 3, 13, 2, 14, 1, 15
+	};
+
+	private final InputStream stream;
+	private byte currentByte;
+	private int nextBitIndex = MAX_BIT + 1;
+	private int adlerValue = 1;
+
+	private boolean isLastBlock;
+	private int compressionType;
+	private int uncompressedBytesRemaining;
+	private HuffmanTable literalTable, distanceTable;
+	private byte[] window;
+	private int windowIndex, copyIndex, copyBytesRemaining;
+
+	BaselinePngInflater(InputStream stream) throws IOException {
+		this.stream = stream;
+		int header1 = getNextIdatByte() & 0xFF;
+		int header2 = getNextIdatByte() & 0xFF;
+		if (((header1 << 8) | header2) % 31 != 0 || (header1 & 0x0F) != 8 || (header2 & 0x20) != 0) {
+			throw new IOException("Invalid zlib header");
+		}
+		window = new byte[1 << ((header1 >> 4) + 8)];
+		readNextBlockHeader();
+	}
+
+	@Override
+	public int read() throws IOException {
+		byte value = getNextByte();
+		int low = adlerValue & 0xFFFF;
+		int high = (adlerValue >> 16) & 0xFFFF;
+		low = (low + (value & 0xFF)) % PRIME;
+		high = (low + high) % PRIME;
+		adlerValue = (high << 16) | low;
+		return value & 0xFF;
+	}
+
+	@Override
+	public int read(byte[] buffer, int off, int len) throws IOException {
+		for (int i = 0; i < len; i++) {
+			int b = read();
+			if (b == -1) return i;
+			buffer[off + i] = (byte) b;
+		}
+		return len;
+	}
+
+	private int getNextIdatBits(int length) throws IOException {
+		int value = 0;
+		for (int i = 0; i < length; i++) {
+			value |= (getNextIdatBit() << i);
+		}
+		return value;
+	}
+
+	private int getNextIdatBit() throws IOException {
+		if (nextBitIndex > MAX_BIT) {
+			currentByte = getNextIdatByte();
+			nextBitIndex = 0;
+		}
+		return (currentByte & (1 << nextBitIndex)) >> nextBitIndex++;
+	}
+
+	private byte getNextIdatByte() throws IOException {
+		byte nextByte = (byte) stream.read();
+		nextBitIndex = MAX_BIT + 1;
+		return nextByte;
+	}
+
+	private void readNextBlockHeader() throws IOException {
+		isLastBlock = getNextIdatBit() != 0;
+		compressionType = getNextIdatBits(2);
+		if (compressionType > 2) throw new IOException("Invalid block type");
+		if (compressionType == UNCOMPRESSED) {
+			byte b1 = getNextIdatByte();
+			byte b2 = getNextIdatByte();
+			byte b3 = getNextIdatByte();
+			byte b4 = getNextIdatByte();
+			if (b1 != ~b3 || b2 != ~b4) throw new IOException("Invalid stored block");
+			uncompressedBytesRemaining = (b1 & 0xFF) | ((b2 & 0xFF) << 8);
+		} else if (compressionType == COMPRESSED_DYNAMIC) {
+			readDynamicTables();
+		} else {
+			int[] literalLengths = new int[288];
+			for (int i = 0; i < literalLengths.length; i++) {
+				literalLengths[i] = i < 144 ? 8 : i < 256 ? 9 : i < 280 ? 7 : 8;
+			}
+			int[] distanceLengths = new int[32];
+			java.util.Arrays.fill(distanceLengths, 5);
+			literalTable = new HuffmanTable(literalLengths);
+			distanceTable = new HuffmanTable(distanceLengths);
+		}
+	}
+
+	private void readDynamicTables() throws IOException {
+		int literals = FIRST_LENGTH_CODE + getNextIdatBits(5);
+		int distances = FIRST_DISTANCE_CODE + getNextIdatBits(5);
+		int codeLengthCodes = FIRST_CODE_LENGTH_CODE + getNextIdatBits(4);
+		if (codeLengthCodes > LAST_CODE_LENGTH_CODE) throw new IOException("Invalid code lengths");
+		int[] lengthCodes = new int[19];
+		for (int i = 0; i < codeLengthCodes; i++) {
+			lengthCodes[LENGTH_CODE_ORDER[i]] = getNextIdatBits(3);
+		}
+		HuffmanTable codeLengthsTable = new HuffmanTable(lengthCodes);
+		literalTable = new HuffmanTable(readLengths(literals, codeLengthsTable, 288));
+		distanceTable = new HuffmanTable(readLengths(distances, codeLengthsTable, 32));
+	}
+
+	private int[] readLengths(int numLengths, HuffmanTable lengthsTable, int tableSize) throws IOException {
+		int[] lengths = new int[tableSize];
+		for (int index = 0; index < numLengths;) {
+			int value = lengthsTable.getNextValue(this);
+			if (value < 16) {
+				lengths[index++] = value;
+			} else if (value == 16) {
+				int count = getNextIdatBits(2) + 3;
+				for (int i = 0; i < count; i++, index++) {
+					lengths[index] = lengths[index - 1];
+				}
+			} else if (value == 17) {
+				index += getNextIdatBits(3) + 3;
+			} else if (value == 18) {
+				index += getNextIdatBits(7) + 11;
+			} else {
+				throw new IOException("Invalid code length");
+			}
+		}
+		return lengths;
+	}
+
+	private byte getNextByte() throws IOException {
+		if (compressionType == UNCOMPRESSED) {
+			if (uncompressedBytesRemaining == 0) {
+				readNextBlockHeader();
+				return getNextByte();
+			}
+			uncompressedBytesRemaining--;
+			return getNextIdatByte();
+		}
+		return getNextCompressedByte();
+	}
+
+	private byte getNextCompressedByte() throws IOException {
+		if (copyBytesRemaining > 0) {
+			byte value = window[copyIndex];
+			window[windowIndex] = value;
+			copyBytesRemaining--;
+			copyIndex++;
+			windowIndex++;
+			if (copyIndex == window.length) copyIndex = 0;
+			if (windowIndex == window.length) windowIndex = 0;
+			return value;
+		}
+		int value = literalTable.getNextValue(this);
+		if (value < END_OF_COMPRESSED_BLOCK) {
+			window[windowIndex] = (byte) value;
+			windowIndex++;
+			if (windowIndex >= window.length) windowIndex = 0;
+			return (byte) value;
+		} else if (value == END_OF_COMPRESSED_BLOCK) {
+			if (isLastBlock) throw new IOException("Read past the end of the data");
+			readNextBlockHeader();
+			return getNextByte();
+		} else if (value <= LAST_LENGTH_CODE) {
+			int length = LENGTH_BASES[value - FIRST_LENGTH_CODE] + getNextIdatBits(EXTRA_LENGTH_BITS[value - FIRST_LENGTH_CODE]);
+			value = distanceTable.getNextValue(this);
+			if (value > LAST_DISTANCE_CODE) throw new IOException("Invalid distance");
+			int distance = DISTANCE_BASES[value] + getNextIdatBits(EXTRA_DISTANCE_BITS[value]);
+			copyIndex = windowIndex - distance;
+			if (copyIndex < 0) copyIndex += window.length;
+			copyBytesRemaining = length;
+			return getNextCompressedByte();
+		}
+		throw new IOException("Invalid literal");
+	}
+
+	/**
+	 * A canonical Huffman table that is searched one code length at a time.
+	 */
+	static class HuffmanTable {
+		static final int MAX_CODE_LENGTH = 15;
+		static final int BAD_CODE = 0xFFFFFFF;
+		static final int[] INCS = {1391376, 463792, 198768, 86961, 33936, 13776, 4592, 1968, 861, 336, 112, 48, 21, 7, 3, 1};
+
+		final int[] codeValues;
+		final int[] max = new int[MAX_CODE_LENGTH], min = new int[MAX_CODE_LENGTH], baseIndex = new int[MAX_CODE_LENGTH];
+
+		HuffmanTable(int[] lengths) {
+			codeValues = new int[lengths.length];
+			for (int i = 0; i < codeValues.length; i++) {
+				codeValues[i] = i;
+			}
+			java.util.Arrays.fill(min, BAD_CODE);
+			java.util.Arrays.fill(max, -1);
+			/* Shellsort the values by code length, then by value */
+			for (int k = 0; k < 16; k++) {
+				for (int h = INCS[k], i = h; i < lengths.length; i++) {
+					int v = lengths[i];
+					int codeValue = codeValues[i];
+					int j = i;
+					while (j >= h && (lengths[j - h] > v || (lengths[j - h] == v && codeValues[j - h] > codeValue))) {
+						lengths[j] = lengths[j - h];
+						codeValues[j] = codeValues[j - h];
+						j -= h;
+					}
+					lengths[j] = v;
+					codeValues[j] = codeValue;
+				}
+			}
+			int[] codes = new int[lengths.length];
+			int lastLength = 0, code = 0;
+			for (int i = 0; i < lengths.length; i++) {
+				while (lastLength != lengths[i]) {
+					lastLength++;
+					code <<= 1;
+				}
+				if (lastLength != 0) codes[i] = code++;
+			}
+			int last = 0;
+			for (int i = 0; i < lengths.length; i++) {
+				if (last != lengths[i]) {
+					last = lengths[i];
+					baseIndex[last - 1] = i;
+					min[last - 1] = codes[i];
+				}
+				if (last != 0) max[last - 1] = codes[i];
+			}
+		}
+
+		int getNextValue(BaselinePngInflater stream) throws IOException {
+			int code = stream.getNextIdatBit();
+			int codeLength = 0;
+			while (codeLength < MAX_CODE_LENGTH && code > max[codeLength]) {
+				code = (code << 1) | stream.getNextIdatBit();
+				codeLength++;
+			}
+			if (codeLength >= MAX_CODE_LENGTH) throw new IOException("Invalid code");
+			return codeValues[baseIndex[codeLength] + code - min[codeLength]];
+		}
+	}
+}
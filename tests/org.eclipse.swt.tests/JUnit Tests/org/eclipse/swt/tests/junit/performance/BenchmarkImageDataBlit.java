@@ -0,0 +1,101 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Eclipse Foundation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Eclipse Foundation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.swt.tests.junit.performance;
+
+import java.util.Random;
+
+import org.eclipse.swt.graphics.Image;
+import org.eclipse.swt.graphics.ImageData;
+import org.eclipse.swt.graphics.PaletteData;
+import org.eclipse.swt.graphics.RGB;
+import org.eclipse.swt.widgets.Display;
+
+/**
+ * Compares the blits specialized for 8 bit channels with the generic
+ * blit, by creating an image from image data and reading it back for
+ * the layouts that images are most often loaded with.
+ */
+public class BenchmarkImageDataBlit {
+	private static final String GENERIC_BLIT_PROPERTY = "org.eclipse.swt.graphics.ImageData.genericBlit";
+	private static final int WIDTH = 1920;
+	private static final int HEIGHT = 1080;
+
+	/**
+	 * manual performance test
+	 *
+	 * @param args ignored
+	 */
+	public static void main(String[] args) {
+		Display display = new Display();
+		try {
+			ImageData[] sources = {
+				createImageData(24, new PaletteData(0xFF, 0xFF00, 0xFF0000)),
+				createImageData(24, new PaletteData(0xFF0000, 0xFF00, 0xFF)),
+				createImageData(32, new PaletteData(0xFF00, 0xFF0000, 0xFF000000)),
+				createImageData(32, new PaletteData(0xFF0000, 0xFF00, 0xFF)),
+				createImageData(8, createPalette()),
+			};
+			String[] names = {"24 bit BGR", "24 bit RGB", "32 bit BGRx", "32 bit xRGB", "8 bit indexed"};
+			for (int runs = 0; runs < 10; runs++) {
+				for (int i = 0; i < sources.length; i++) {
+					long[] generic = time(display, sources[i], true);
+					long[] specialized = time(display, sources[i], false);
+					System.out.println(String.format("%-14s", names[i])
+							+ " new Image generic: " + String.format("%,12d", generic[0])
+							+ " ns  specialized: " + String.format("%,12d", specialized[0])
+							+ " ns   getImageData generic: " + String.format("%,12d", generic[1])
+							+ " ns  specialized: " + String.format("%,12d", specialized[1]) + " ns");
+				}
+			}
+		} finally {
+			display.dispose();
+		}
+	}
+
+	private static long[] time(Display display, ImageData data, boolean generic) {
+		if (generic) {
+			System.setProperty(GENERIC_BLIT_PROPERTY, "true");
+		} else {
+			System.clearProperty(GENERIC_BLIT_PROPERTY);
+		}
+		try {
+			long nanoTime = System.nanoTime();
+			Image image = new Image(display, data);
+			long createNanos = System.nanoTime() - nanoTime;
+			try {
+				nanoTime = System.nanoTime();
+				image.getImageData();
+				return new long[] {createNanos, System.nanoTime() - nanoTime};
+			} finally {
+				image.dispose();
+			}
+		} finally {
+			System.clearProperty(GENERIC_BLIT_PROPERTY);
+		}
+	}
+
+	private static PaletteData createPalette() {
+		RGB[] rgbs = new RGB[256];
+		for (int i = 0; i < rgbs.length; i++) {
+			rgbs[i] = new RGB(i, (i * 7) & 0xFF, 255 - i);
+		}
+		return new PaletteData(rgbs);
+	}
+
+	private static ImageData createImageData(int depth, PaletteData palette) {
+		ImageData data = new ImageData(WIDTH, HEIGHT, depth, palette);
+		new Random(42).nextBytes(data.data);
+		return data;
+	}
+}
@@ -0,0 +1,142 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Eclipse Foundation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Eclipse Foundation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.swt.tests.junit.performance;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.graphics.ImageData;
+import org.eclipse.swt.graphics.ImageLoader;
+import org.eclipse.swt.graphics.PaletteData;
+import org.eclipse.swt.internal.image.FileFormat;
+
+/**
+ * Compares the IDCT variants of the JPEG decoder. Without arguments a
+ * generated 4K photo-like image is decoded; otherwise every JPEG file
+ * (baseline or progressive) given as an argument, or found in a directory
+ * given as an argument, is decoded.
+ */
+public class BenchmarkJpegDecoding {
+	private static final String DCT_METHOD_PROPERTY = "org.eclipse.swt.internal.image.JPEGDecoder.dctMethod";
+	private static final String[] DCT_METHODS = { "islow", "ifast", "float" };
+	private static final int WIDTH = 3840;
+	private static final int HEIGHT = 2160;
+
+	/**
+	 * manual performance test
+	 *
+	 * @param args JPEG files or directories containing JPEG files
+	 */
+	public static void main(String[] args) throws IOException {
+		List<byte[]> corpus = new ArrayList<>();
+		for (String arg : args) {
+			addFiles(new File(arg), corpus);
+		}
+		if (corpus.isEmpty()) {
+			corpus.add(createJpeg());
+		}
+		long size = 0;
+		for (byte[] jpeg : corpus) {
+			size += jpeg.length;
+		}
+		System.out.println("Decoding " + corpus.size() + " JPEG files, " + String.format("%,d", size) + " bytes");
+		for (String method : DCT_METHODS) {
+			printError(corpus, method);
+		}
+		for (int runs = 0; runs < 20; runs++) {
+			StringBuilder line = new StringBuilder("Duration");
+			for (String method : DCT_METHODS) {
+				line.append("  ").append(method).append(": ").append(String.format("%,15d", time(corpus, method))).append(" ns");
+			}
+			System.out.println(line);
+		}
+	}
+
+	private static void addFiles(File file, List<byte[]> corpus) throws IOException {
+		if (file.isDirectory()) {
+			File[] children = file.listFiles();
+			if (children != null) {
+				for (File child : children) {
+					addFiles(child, corpus);
+				}
+			}
+		} else {
+			String name = file.getName().toLowerCase();
+			if (name.endsWith(".jpg") || name.endsWith(".jpeg")) {
+				corpus.add(Files.readAllBytes(file.toPath()));
+			}
+		}
+	}
+
+	private static long time(List<byte[]> corpus, String method) {
+		long nanoTime = System.nanoTime();
+		for (byte[] jpeg : corpus) {
+			decode(jpeg, method);
+		}
+		return System.nanoTime() - nanoTime;
+	}
+
+	/**
+	 * Print the mean and maximum difference to the accurate integer IDCT.
+	 */
+	private static void printError(List<byte[]> corpus, String method) {
+		long sum = 0, count = 0;
+		int max = 0;
+		for (byte[] jpeg : corpus) {
+			byte[] reference = decode(jpeg, DCT_METHODS[0]).data;
+			byte[] data = decode(jpeg, method).data;
+			for (int i = 0; i < data.length; i++) {
+				int error = Math.abs((data[i] & 0xFF) - (reference[i] & 0xFF));
+				sum += error;
+				max = Math.max(max, error);
+			}
+			count += data.length;
+		}
+		System.out.println(method + ": mean error " + String.format("%.3f", (double) sum / count) + ", max error " + max);
+	}
+
+	private static ImageData decode(byte[] jpeg, String method) {
+		System.setProperty(DCT_METHOD_PROPERTY, method);
+		return FileFormat.load(new ByteArrayInputStream(jpeg), new ImageLoader())[0];
+	}
+
+	/**
+	 * Photo-like content: smooth gradients with some noise.
+	 */
+	private static byte[] createJpeg() {
+		ImageData data = new ImageData(WIDTH, HEIGHT, 24, new PaletteData(0xFF0000, 0xFF00, 0xFF));
+		Random random = new Random(42);
+		for (int y = 0; y < HEIGHT; y++) {
+			for (int x = 0; x < WIDTH; x++) {
+				int noise = random.nextInt(16);
+				int red = (x * 255 / WIDTH + noise) & 0xFF;
+				int green = (y * 255 / HEIGHT + noise) & 0xFF;
+				int blue = ((x + y) * 255 / (WIDTH + HEIGHT)) & 0xFF;
+				data.setPixel(x, y, red << 16 | green << 8 | blue);
+			}
+		}
+		ImageLoader loader = new ImageLoader();
+		loader.data = new ImageData[] { data };
+		ByteArrayOutputStream stream = new ByteArrayOutputStream();
+		FileFormat.save(stream, SWT.IMAGE_JPEG, loader);
+		return stream.toByteArray();
+	}
+}
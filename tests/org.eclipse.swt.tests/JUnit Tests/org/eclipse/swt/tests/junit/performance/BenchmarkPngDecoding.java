@@ -0,0 +1,151 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Eclipse Foundation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Eclipse Foundation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.swt.tests.junit.performance;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.graphics.ImageData;
+import org.eclipse.swt.graphics.ImageLoader;
+import org.eclipse.swt.graphics.PaletteData;
+import org.eclipse.swt.internal.image.FileFormat;
+import org.eclipse.swt.internal.image.PngDecodingDataStream;
+
+/**
+ * Compares the table driven pure Java PNG inflate engine with the pure
+ * Java engine it replaced, kept in {@link BaselinePngInflater}, on the
+ * image data of a 4K screenshot sized image. java.util.zip.Inflater is
+ * timed as a reference point.
+ */
+public class BenchmarkPngDecoding {
+	private static final int WIDTH = 3840;
+	private static final int HEIGHT = 2160;
+	/* RGB rows, each preceded by its filter type */
+	private static final int INFLATED_SIZE = HEIGHT * (WIDTH * 3 + 1);
+
+	/**
+	 * manual performance test
+	 *
+	 * @param args ignored
+	 */
+	public static void main(String[] args) throws Exception {
+		byte[] zlib = getImageData(createPng());
+		System.out.println("Encoded " + WIDTH + "x" + HEIGHT + " image into " + String.format("%,d", zlib.length) + " bytes of image data");
+		byte[] reference = inflate(zlib);
+		if (!Arrays.equals(reference, inflateNew(zlib)) || !Arrays.equals(reference, inflateBaseline(zlib))) {
+			throw new IllegalStateException("Inflate engines disagree");
+		}
+		for (int runs = 0; runs < 20; runs++) {
+			long nanoTime = System.nanoTime();
+			inflateBaseline(zlib);
+			long baselineNanos = System.nanoTime() - nanoTime;
+			nanoTime = System.nanoTime();
+			inflateNew(zlib);
+			long newNanos = System.nanoTime() - nanoTime;
+			nanoTime = System.nanoTime();
+			inflate(zlib);
+			long inflaterNanos = System.nanoTime() - nanoTime;
+			System.out.println("Duration for old pure Java: " + String.format("%,15d", baselineNanos)
+					+ " ns  new pure Java: " + String.format("%,15d", newNanos)
+					+ " ns  Inflater: " + String.format("%,15d", inflaterNanos) + " ns");
+		}
+	}
+
+	private static byte[] inflateNew(byte[] zlib) throws IOException {
+		PngDecodingDataStream stream = new PngDecodingDataStream(new ByteArrayInputStream(zlib));
+		byte[] result = readFully(stream);
+		/* Checks the end of the data and the Adler-32 checksum */
+		stream.close();
+		return result;
+	}
+
+	private static byte[] inflateBaseline(byte[] zlib) throws IOException {
+		return readFully(new BaselinePngInflater(new ByteArrayInputStream(zlib)));
+	}
+
+	private static byte[] inflate(byte[] zlib) throws DataFormatException {
+		Inflater inflater = new Inflater();
+		inflater.setInput(zlib);
+		byte[] result = new byte[INFLATED_SIZE];
+		int length = 0;
+		while (length < result.length && !inflater.finished()) {
+			length += inflater.inflate(result, length, result.length - length);
+		}
+		inflater.end();
+		return result;
+	}
+
+	private static byte[] readFully(InputStream stream) throws IOException {
+		byte[] result = new byte[INFLATED_SIZE];
+		int length = 0;
+		while (length < result.length) {
+			int read = stream.read(result, length, result.length - length);
+			if (read <= 0) throw new IOException("Image data too short");
+			length += read;
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the zlib stream that the IDAT chunks of the PNG image hold.
+	 */
+	private static byte[] getImageData(byte[] png) {
+		ByteArrayOutputStream zlib = new ByteArrayOutputStream();
+		/* Skip the signature, then walk the length, type, data and CRC of each chunk */
+		int offset = 8;
+		while (offset < png.length) {
+			int length = ((png[offset] & 0xFF) << 24) | ((png[offset + 1] & 0xFF) << 16)
+					| ((png[offset + 2] & 0xFF) << 8) | (png[offset + 3] & 0xFF);
+			String type = new String(png, offset + 4, 4, java.nio.charset.StandardCharsets.US_ASCII);
+			if (type.equals("IDAT")) {
+				zlib.write(png, offset + 8, length);
+			}
+			offset += 12 + length;
+		}
+		return zlib.toByteArray();
+	}
+
+	/**
+	 * Screenshot-like content: flat areas, gradients and some noise.
+	 */
+	private static byte[] createPng() {
+		ImageData data = new ImageData(WIDTH, HEIGHT, 24, new PaletteData(0xFF0000, 0xFF00, 0xFF));
+		Random random = new Random(42);
+		for (int y = 0; y < HEIGHT; y++) {
+			for (int x = 0; x < WIDTH; x++) {
+				int pixel;
+				if ((x / 480 + y / 270) % 3 == 0) {
+					pixel = 0xF0F0F0;
+				} else if ((x / 480 + y / 270) % 3 == 1) {
+					pixel = ((x & 0xFF) << 16) | ((y & 0xFF) << 8) | ((x + y) & 0xFF);
+				} else {
+					pixel = random.nextInt(0x1000000);
+				}
+				data.setPixel(x, y, pixel);
+			}
+		}
+		ImageLoader loader = new ImageLoader();
+		loader.data = new ImageData[] { data };
+		ByteArrayOutputStream stream = new ByteArrayOutputStream();
+		FileFormat.save(stream, SWT.IMAGE_PNG, loader);
+		return stream.toByteArray();
+	}
+}
@@ -20,6 +20,11 @@ import org.eclipse.swt.widgets.Display;
 
 /**
  * Tests SWT Event scheduling performance
+ * <p>
+ * Run it once as is and once with
+ * <code>-Dorg.eclipse.swt.widgets.Synchronizer.batchTime=8</code> to compare
+ * running the runnables one at a time with running them in batches.
+ * </p>
  */
 public class BenchmarkSwtMultithreading {
 	private static final int BATCH_SIZE = 1_000_000;
@@ -34,6 +39,8 @@ public class BenchmarkSwtMultithreading {
 	public static void main(String[] args) throws InterruptedException {
 		final Display display = new Display();
 		try {
+			System.out.println("Synchronizer batchTime=" + display.getSynchronizer().getBatchTime() + " ms batchCount="
+					+ display.getSynchronizer().getBatchCount());
 			for (int runs = 0; runs < 100; runs++) {
 				countdown.set(BATCH_SIZE);
 				AtomicLong schedulingNanos = new AtomicLong();
@@ -0,0 +1,88 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Eclipse Foundation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Eclipse Foundation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.swt.tests.junit.performance;
+
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.widgets.Display;
+import org.eclipse.swt.widgets.Shell;
+import org.eclipse.swt.widgets.Tree;
+import org.eclipse.swt.widgets.TreeColumn;
+import org.eclipse.swt.widgets.TreeItem;
+
+/**
+ * Measures the throughput of <code>TreeItem.setText</code>, which is
+ * dominated by the conversion of the strings on GTK.
+ * <p>
+ * Run it once as is and once with
+ * <code>-Dorg.eclipse.swt.internal.Converter.native=true</code> to compare
+ * the conversions implemented in Java with the conversions of glib.
+ * </p>
+ */
+public class BenchmarkTreeItemSetText {
+	private static final int ITEMS = 1_000;
+	private static final int COLUMNS = 4;
+	private static final int UPDATES = 50;
+
+	/**
+	 * manual performance test
+	 *
+	 * @param args ignored
+	 */
+	public static void main(String[] args) {
+		Display display = new Display();
+		try {
+			Shell shell = new Shell(display);
+			Tree tree = new Tree(shell, SWT.NONE);
+			for (int i = 0; i < COLUMNS; i++) {
+				new TreeColumn(tree, SWT.NONE);
+			}
+			TreeItem[] items = new TreeItem[ITEMS];
+			for (int i = 0; i < ITEMS; i++) {
+				items[i] = new TreeItem(tree, SWT.NONE);
+			}
+			String[][] texts = {createTexts("Item "), createTexts("Élément → ")};
+			String[] names = {"ASCII", "non ASCII"};
+			System.out.println("Converter.native=" + Boolean.getBoolean("org.eclipse.swt.internal.Converter.native"));
+			for (int runs = 0; runs < 10; runs++) {
+				for (int t = 0; t < texts.length; t++) {
+					long nanoTime = System.nanoTime();
+					for (int update = 0; update < UPDATES; update++) {
+						for (int i = 0; i < ITEMS; i++) {
+							for (int column = 0; column < COLUMNS; column++) {
+								/* Alternate the texts, as setting an equal text returns early */
+								items[i].setText(column, texts[t][(i + column + update) % texts[t].length]);
+							}
+						}
+					}
+					long nanos = System.nanoTime() - nanoTime;
+					long calls = (long) UPDATES * ITEMS * COLUMNS;
+					System.out.println(String.format("%-10s", names[t]) + " setText: "
+							+ String.format("%,12d", calls * 1_000_000_000L / nanos) + " calls/s  "
+							+ String.format("%,8d", nanos / calls) + " ns/call");
+				}
+			}
+			shell.dispose();
+		} finally {
+			display.dispose();
+		}
+	}
+
+	private static String[] createTexts(String prefix) {
+		String[] texts = new String[ITEMS + 1];
+		for (int i = 0; i < texts.length; i++) {
+			texts[i] = prefix + i;
+		}
+		return texts;
+	}
+}